@@ -0,0 +1,46 @@
+@echo off
+echo Running unit tests...
+echo.
+
+REM Check if Java is installed
+java -version >nul 2>&1
+if %errorlevel% neq 0 (
+    echo ERROR: Java is not installed or not in PATH
+    echo Please install Java JDK 11 or higher
+    pause
+    exit /b 1
+)
+
+REM Compile the application and the tests
+echo Compiling Java source and test files...
+mkdir bin-test 2>nul
+javac -encoding UTF-8 -cp "lib\*" -d bin-test src\main\java\com\studentregistration\*\*.java src\main\java\com\studentregistration\*\*\*.java src\test\java\com\studentregistration\*\*.java
+
+if %errorlevel% neq 0 (
+    echo ERROR: Compilation failed
+    pause
+    exit /b 1
+)
+
+REM The tests need no database; no pooled connection is opened up front
+set failed=0
+for /r src\test\java %%f in (*Test.java) do call :runtest "%%f"
+
+echo.
+if %failed% neq 0 (
+    echo ERROR: Some tests failed
+    pause
+    exit /b 1
+)
+echo All tests passed!
+pause
+exit /b 0
+
+:runtest
+set test=%~1
+set test=%test:*src\test\java\=%
+set test=%test:.java=%
+set test=%test:\=.%
+java -Ddb.pool.initialSize=0 -cp "bin-test;lib\*" %test%
+if %errorlevel% neq 0 set failed=1
+exit /b 0
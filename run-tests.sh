@@ -0,0 +1,35 @@
+#!/bin/bash
+
+echo "Running unit tests..."
+echo
+
+# Check if Java is installed
+if ! command -v java &> /dev/null; then
+    echo "ERROR: Java is not installed or not in PATH"
+    echo "Please install Java JDK 11 or higher"
+    exit 1
+fi
+
+# Compile the application and the tests
+echo "Compiling Java source and test files..."
+mkdir -p bin-test
+javac -encoding UTF-8 -cp "lib/*" -d bin-test src/main/java/com/studentregistration/*/*.java src/main/java/com/studentregistration/*/*/*.java \
+      src/test/java/com/studentregistration/*/*.java
+
+if [ $? -ne 0 ]; then
+    echo "ERROR: Compilation failed"
+    exit 1
+fi
+
+# The tests need no database; no pooled connection is opened up front
+failed=0
+for test in $(cd src/test/java && ls com/studentregistration/*/*Test.java); do
+    java -Ddb.pool.initialSize=0 -cp "bin-test:lib/*" "$(echo "${test%.java}" | tr / .)" || failed=1
+done
+
+echo
+if [ $failed -ne 0 ]; then
+    echo "ERROR: Some tests failed"
+    exit 1
+fi
+echo "All tests passed!"
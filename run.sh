@@ -6,7 +6,7 @@ echo
 # Check if Java is installed
 if ! command -v java &> /dev/null; then
     echo "ERROR: Java is not installed or not in PATH"
-    echo "Please install Java JDK 8 or higher"
+    echo "Please install Java JDK 11 or higher"
     exit 1
 fi
 
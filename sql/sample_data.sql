@@ -73,6 +73,36 @@ INSERT INTO registrations (student_id, course_id, grade, status) VALUES
 (8, 6, 'A-', 'COMPLETED'),
 (8, 10, NULL, 'ACTIVE');
 
+-- Insert sample prerequisites (registrations above predate them and are not re-checked)
+INSERT INTO course_prerequisites (course_id, prerequisite_id) VALUES
+(2, 1),   -- CS201 requires CS101
+(3, 2),   -- CS301 requires CS201
+(4, 2),   -- CS401 requires CS201
+(6, 5);   -- MATH201 requires MATH101
+
+-- Insert sample meeting times (1 = Monday); CS301 and CS401 clash on purpose
+INSERT INTO course_meetings (course_id, day_of_week, start_time, end_time) VALUES
+(1, 1, '09:00', '10:15'), (1, 3, '09:00', '10:15'),
+(2, 2, '10:30', '12:00'), (2, 4, '10:30', '12:00'),
+(3, 2, '13:00', '14:15'), (3, 4, '13:00', '14:15'),
+(4, 2, '14:00', '15:30'), (4, 4, '14:00', '15:30'),
+(5, 1, '11:00', '12:00'), (5, 3, '11:00', '12:00'), (5, 5, '11:00', '12:00'),
+(6, 2, '09:00', '10:15'), (6, 4, '09:00', '10:15'),
+(7, 1, '13:00', '14:30'), (7, 3, '13:00', '14:30'),
+(8, 5, '09:00', '10:30'),
+(9, 1, '15:00', '16:15'), (9, 3, '15:00', '16:15'),
+(10, 2, '16:00', '17:30'), (10, 4, '16:00', '17:30');
+
+-- Bulk inserts bypass the DAO, so recompute the enrollment counters
+UPDATE courses c
+LEFT JOIN (
+    SELECT course_id, COUNT(*) AS active
+    FROM registrations
+    WHERE status = 'ACTIVE'
+    GROUP BY course_id
+) a ON a.course_id = c.course_id
+SET c.active_enrollment = COALESCE(a.active, 0);
+
 -- Verify data insertion
 SELECT 'Students' as Table_Name, COUNT(*) as Record_Count FROM students
 UNION ALL
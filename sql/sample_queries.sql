@@ -97,3 +97,25 @@ SELECT
 FROM courses c
 LEFT JOIN registrations r ON c.course_id = r.course_id
 WHERE r.course_id IS NULL;
+
+-- 9. Waitlist of a course in promotion order, with each student's place in line
+SELECT 
+    ROW_NUMBER() OVER (ORDER BY r.waitlist_position) AS place,
+    s.student_id,
+    CONCAT(s.first_name, ' ', s.last_name) AS student_name,
+    r.registration_date
+FROM registrations r
+JOIN students s ON r.student_id = s.student_id
+WHERE r.course_id = 1 AND r.status = 'WAITLISTED'
+ORDER BY r.waitlist_position;
+
+-- 10. Cohort audit: students registered for courses 1 and 2 but not course 3
+-- (the application answers this and queries 7 and 8 from in-process bitmaps, see EnrollmentBitmaps)
+SELECT 
+    s.student_id,
+    CONCAT(s.first_name, ' ', s.last_name) AS student_name,
+    s.email
+FROM students s
+WHERE EXISTS (SELECT 1 FROM registrations r WHERE r.student_id = s.student_id AND r.course_id = 1)
+  AND EXISTS (SELECT 1 FROM registrations r WHERE r.student_id = s.student_id AND r.course_id = 2)
+  AND NOT EXISTS (SELECT 1 FROM registrations r WHERE r.student_id = s.student_id AND r.course_id = 3);
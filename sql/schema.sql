@@ -23,7 +23,13 @@ CREATE TABLE IF NOT EXISTS courses (
     description TEXT,
     credits INT NOT NULL DEFAULT 3,
     instructor VARCHAR(100),
-    created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    -- Maximum ACTIVE registrations; NULL means unlimited
+    capacity INT DEFAULT NULL,
+    created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    -- ACTIVE registrations, maintained by RegistrationDAOImpl in the same transaction as each write
+    active_enrollment INT NOT NULL DEFAULT 0,
+    -- Last waitlist position handed out for this course
+    waitlist_seq BIGINT NOT NULL DEFAULT 0
 );
 
 -- Registration table (Many-to-Many relationship)
@@ -33,14 +39,41 @@ CREATE TABLE IF NOT EXISTS registrations (
     course_id INT NOT NULL,
     registration_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     grade CHAR(2) DEFAULT NULL,
-    status ENUM('ACTIVE', 'DROPPED', 'COMPLETED') DEFAULT 'ACTIVE',
+    status ENUM('ACTIVE', 'DROPPED', 'COMPLETED', 'WAITLISTED') DEFAULT 'ACTIVE',
+    -- Place in the course's queue while WAITLISTED (lower is served first), NULL otherwise
+    waitlist_position BIGINT DEFAULT NULL,
     FOREIGN KEY (student_id) REFERENCES students(student_id) ON DELETE CASCADE,
     FOREIGN KEY (course_id) REFERENCES courses(course_id) ON DELETE CASCADE,
     UNIQUE KEY unique_registration (student_id, course_id)
 );
 
+-- Course prerequisites: a student must have COMPLETED prerequisite_id (and, transitively, its
+-- own prerequisites) before registering for course_id. Kept acyclic by CourseDAOImpl
+CREATE TABLE IF NOT EXISTS course_prerequisites (
+    course_id INT NOT NULL,
+    prerequisite_id INT NOT NULL,
+    PRIMARY KEY (course_id, prerequisite_id),
+    FOREIGN KEY (course_id) REFERENCES courses(course_id) ON DELETE CASCADE,
+    FOREIGN KEY (prerequisite_id) REFERENCES courses(course_id) ON DELETE CASCADE,
+    CHECK (course_id <> prerequisite_id)
+);
+
+-- Weekly meeting times (day_of_week: 1 = Monday .. 7 = Sunday)
+CREATE TABLE IF NOT EXISTS course_meetings (
+    meeting_id INT PRIMARY KEY AUTO_INCREMENT,
+    course_id INT NOT NULL,
+    day_of_week TINYINT NOT NULL,
+    start_time TIME NOT NULL,
+    end_time TIME NOT NULL,
+    FOREIGN KEY (course_id) REFERENCES courses(course_id) ON DELETE CASCADE,
+    CHECK (day_of_week BETWEEN 1 AND 7),
+    CHECK (start_time < end_time)
+);
+
 -- Indexes for better performance
 CREATE INDEX idx_student_email ON students(email);
 CREATE INDEX idx_course_code ON courses(course_code);
 CREATE INDEX idx_registration_student ON registrations(student_id);
-CREATE INDEX idx_registration_course ON registrations(course_id);
+CREATE INDEX idx_registration_course_status ON registrations(course_id, status, waitlist_position);
+CREATE INDEX idx_prerequisite_prerequisite ON course_prerequisites(prerequisite_id);
+CREATE INDEX idx_meeting_course ON course_meetings(course_id);
@@ -0,0 +1,11 @@
+-- Upgrade an existing database to per-course capacity limits
+-- Requires sql/upgrade_active_enrollment.sql to have been applied. Existing courses stay
+-- unlimited (NULL) until a capacity is set.
+
+USE student_registration_db;
+
+ALTER TABLE courses
+    ADD COLUMN capacity INT DEFAULT NULL AFTER instructor;
+
+-- Example: cap a course at 30 seats
+-- UPDATE courses SET capacity = 30 WHERE course_code = 'CS101';
@@ -0,0 +1,18 @@
+-- Upgrade an existing database to course meeting times
+-- Adds the meeting table read by TimetableIndex; nothing else changes.
+
+USE student_registration_db;
+
+-- day_of_week: 1 = Monday .. 7 = Sunday
+CREATE TABLE IF NOT EXISTS course_meetings (
+    meeting_id INT PRIMARY KEY AUTO_INCREMENT,
+    course_id INT NOT NULL,
+    day_of_week TINYINT NOT NULL,
+    start_time TIME NOT NULL,
+    end_time TIME NOT NULL,
+    FOREIGN KEY (course_id) REFERENCES courses(course_id) ON DELETE CASCADE,
+    CHECK (day_of_week BETWEEN 1 AND 7),
+    CHECK (start_time < end_time)
+);
+
+CREATE INDEX idx_meeting_course ON course_meetings(course_id);
@@ -0,0 +1,15 @@
+-- Upgrade an existing database to course prerequisites
+-- Adds the prerequisite table read by PrerequisiteGraph; nothing else changes.
+
+USE student_registration_db;
+
+CREATE TABLE IF NOT EXISTS course_prerequisites (
+    course_id INT NOT NULL,
+    prerequisite_id INT NOT NULL,
+    PRIMARY KEY (course_id, prerequisite_id),
+    FOREIGN KEY (course_id) REFERENCES courses(course_id) ON DELETE CASCADE,
+    FOREIGN KEY (prerequisite_id) REFERENCES courses(course_id) ON DELETE CASCADE,
+    CHECK (course_id <> prerequisite_id)
+);
+
+CREATE INDEX idx_prerequisite_prerequisite ON course_prerequisites(prerequisite_id);
@@ -0,0 +1,17 @@
+-- Upgrade an existing database to course waitlists
+-- Requires sql/upgrade_course_capacity.sql to have been applied. Adds the WAITLISTED status,
+-- each waitlisted registration's queue position and the per-course position sequence.
+
+USE student_registration_db;
+
+ALTER TABLE courses
+    ADD COLUMN waitlist_seq BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE registrations
+    MODIFY COLUMN status ENUM('ACTIVE', 'DROPPED', 'COMPLETED', 'WAITLISTED') DEFAULT 'ACTIVE',
+    ADD COLUMN waitlist_position BIGINT DEFAULT NULL AFTER status;
+
+-- Serves "next in line" for a course straight from the index
+ALTER TABLE registrations
+    DROP INDEX idx_registration_course_status,
+    ADD INDEX idx_registration_course_status (course_id, status, waitlist_position);
@@ -0,0 +1,221 @@
+package com.studentregistration.benchmark;
+
+import com.studentregistration.dao.EnrollmentReconciler;
+import com.studentregistration.dao.RegistrationDAO;
+import com.studentregistration.dao.RegistrationDAOImpl;
+import com.studentregistration.model.Registration;
+import com.studentregistration.util.DatabaseConnection;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds and removes synthetic benchmark data
+ * All generated rows are tagged (bench.* emails, BN* course codes) so they can be
+ * cleaned up without touching real data
+ */
+public class BenchmarkDataSeeder {
+
+    private static final String EMAIL_DOMAIN = "@bench.local";
+    private static final String COURSE_PREFIX = "BN";
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_STUDENT =
+        "INSERT INTO students (first_name, last_name, email, phone, date_of_birth) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_COURSE =
+        "INSERT INTO courses (course_code, course_name, description, credits, instructor) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_REGISTRATION =
+        "INSERT INTO registrations (student_id, course_id, status) VALUES (?, ?, 'ACTIVE')";
+
+    private static final String SELECT_BENCH_STUDENT_IDS =
+        "SELECT student_id FROM students WHERE email LIKE '%" + EMAIL_DOMAIN + "' ORDER BY student_id";
+
+    private static final String SELECT_BENCH_COURSES =
+        "SELECT course_id, course_code FROM courses WHERE course_code LIKE '" + COURSE_PREFIX + "%' ORDER BY course_id";
+
+    private static final String DELETE_BENCH_STUDENTS =
+        "DELETE FROM students WHERE email LIKE '%" + EMAIL_DOMAIN + "'";
+
+    private static final String DELETE_BENCH_COURSES =
+        "DELETE FROM courses WHERE course_code LIKE '" + COURSE_PREFIX + "%'";
+
+    private final DatabaseConnection dbConnection;
+    private final RegistrationDAO registrationDAO;
+    private final Random random;
+
+    public BenchmarkDataSeeder(long randomSeed) {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.registrationDAO = new RegistrationDAOImpl();
+        this.random = new Random(randomSeed);
+    }
+
+    /**
+     * Replace any previous benchmark data with a fresh data set
+     * @param studentCount number of students to create
+     * @param courseCount number of courses to create with seeded registrations
+     * @param registrationsPerStudent registrations created for each student
+     * @param reservedCourseCount extra courses left empty for registration benchmarks
+     * @return ids of the generated rows
+     * @throws SQLException if seeding fails
+     */
+    public BenchmarkDataSet seed(int studentCount, int courseCount, int registrationsPerStudent,
+                                 int reservedCourseCount) throws SQLException {
+        cleanup();
+
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                insertStudents(conn, studentCount);
+                insertCourses(conn, courseCount + reservedCourseCount);
+                conn.commit();
+
+                int[] studentIds = selectIds(conn, SELECT_BENCH_STUDENT_IDS);
+                List<String> codes = new ArrayList<>();
+                int[] allCourseIds = selectCourses(conn, codes);
+
+                int[] courseIds = new int[courseCount];
+                String[] courseCodes = new String[courseCount];
+                int[] reservedIds = new int[reservedCourseCount];
+                for (int i = 0; i < allCourseIds.length; i++) {
+                    if (i < courseCount) {
+                        courseIds[i] = allCourseIds[i];
+                        courseCodes[i] = codes.get(i);
+                    } else {
+                        reservedIds[i - courseCount] = allCourseIds[i];
+                    }
+                }
+
+                insertRegistrations(conn, studentIds, courseIds, registrationsPerStudent);
+                conn.commit();
+
+                // The batch inserts bypass the DAO, so its counters and in-process caches are
+                // brought up to date the way the reconciler does for any write it did not see
+                new EnrollmentReconciler(registrationDAO).runOnce();
+
+                return new BenchmarkDataSet(studentIds, courseIds, courseCodes, reservedIds);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Remove registrations created in the reserved courses by a registration benchmark
+     * Each one is dropped through the DAO, so seat counters, credit loads, timetables and the
+     * other in-process caches stay in the state production would leave them in
+     * @param dataSet data set returned by {@link #seed}
+     * @return number of registrations removed
+     */
+    public int clearReservedRegistrations(BenchmarkDataSet dataSet) {
+        int dropped = 0;
+        for (int courseId : dataSet.getReservedCourseIds()) {
+            for (Registration registration : registrationDAO.getStudentsForCourse(courseId)) {
+                if (registrationDAO.dropStudentFromCourse(registration.getStudentId(), courseId)) {
+                    dropped++;
+                }
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Delete all benchmark students, courses and (by cascade) registrations
+     * @throws SQLException if the delete fails
+     */
+    public void cleanup() throws SQLException {
+        try (Connection conn = dbConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            stmt.executeUpdate(DELETE_BENCH_STUDENTS);
+            stmt.executeUpdate(DELETE_BENCH_COURSES);
+        }
+    }
+
+    private void insertStudents(Connection conn, int studentCount) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_STUDENT)) {
+            for (int i = 0; i < studentCount; i++) {
+                stmt.setString(1, "Bench" + i);
+                stmt.setString(2, "Student" + (i % 997));
+                stmt.setString(3, "bench.s" + i + EMAIL_DOMAIN);
+                stmt.setString(4, "+1-555-" + (1000 + i % 9000));
+                stmt.setDate(5, Date.valueOf("2000-01-01"));
+                stmt.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void insertCourses(Connection conn, int courseCount) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_COURSE)) {
+            for (int i = 0; i < courseCount; i++) {
+                stmt.setString(1, COURSE_PREFIX + i);
+                stmt.setString(2, "Benchmark Course " + i);
+                stmt.setString(3, "Synthetic course used by the DAO benchmark suite");
+                stmt.setInt(4, 3 + i % 2);
+                stmt.setString(5, "Dr. Bench " + (i % 50));
+                stmt.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void insertRegistrations(Connection conn, int[] studentIds, int[] courseIds,
+                                     int registrationsPerStudent) throws SQLException {
+        int perStudent = Math.min(registrationsPerStudent, courseIds.length);
+        if (perStudent == 0) {
+            return;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_REGISTRATION)) {
+            int pending = 0;
+            for (int studentId : studentIds) {
+                // Consecutive courses from a random offset are distinct, satisfying unique_registration
+                int offset = random.nextInt(courseIds.length);
+                for (int j = 0; j < perStudent; j++) {
+                    stmt.setInt(1, studentId);
+                    stmt.setInt(2, courseIds[(offset + j) % courseIds.length]);
+                    stmt.addBatch();
+                    if (++pending % BATCH_SIZE == 0) {
+                        stmt.executeBatch();
+                    }
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private int[] selectIds(Connection conn, String sql) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private int[] selectCourses(Connection conn, List<String> codes) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_BENCH_COURSES);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getInt("course_id"));
+                codes.add(rs.getString("course_code"));
+            }
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
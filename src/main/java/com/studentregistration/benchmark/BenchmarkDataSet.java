@@ -0,0 +1,37 @@
+package com.studentregistration.benchmark;
+
+/**
+ * Ids of the rows generated by {@link BenchmarkDataSeeder}
+ */
+public class BenchmarkDataSet {
+    private final int[] studentIds;
+    private final int[] courseIds;
+    private final String[] courseCodes;
+    private final int[] reservedCourseIds;
+
+    public BenchmarkDataSet(int[] studentIds, int[] courseIds, String[] courseCodes, int[] reservedCourseIds) {
+        this.studentIds = studentIds;
+        this.courseIds = courseIds;
+        this.courseCodes = courseCodes;
+        this.reservedCourseIds = reservedCourseIds;
+    }
+
+    // Students that were seeded with registrations
+    public int[] getStudentIds() {
+        return studentIds;
+    }
+
+    // Courses that received seeded registrations
+    public int[] getCourseIds() {
+        return courseIds;
+    }
+
+    public String[] getCourseCodes() {
+        return courseCodes;
+    }
+
+    // Empty courses that registration benchmarks may write into
+    public int[] getReservedCourseIds() {
+        return reservedCourseIds;
+    }
+}
@@ -0,0 +1,222 @@
+package com.studentregistration.benchmark;
+
+import com.studentregistration.dao.*;
+import com.studentregistration.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput and latency benchmark for the DAO hot paths
+ * Runs against the database configured in DatabaseConnection after seeding it with
+ * synthetic data, and prints ops/sec together with latency percentiles per operation
+ *
+ * Usage: java -cp "bin:lib/*" com.studentregistration.benchmark.DaoBenchmark
+ *        [--students=N] [--courses=N] [--regsPerStudent=N] [--reservedCourses=N]
+ *        [--warmup=seconds] [--measure=seconds] [--threads=N] [--only=name,name] [--keepData=true]
+ *        [--maxCredits=N]
+ */
+public class DaoBenchmark {
+
+    /**
+     * A single benchmarked operation; returns false when it has run out of work
+     */
+    private interface Operation {
+        boolean run();
+    }
+
+    private final StudentDAO studentDAO;
+    private final CourseDAO courseDAO;
+    private final RegistrationDAO registrationDAO;
+    private final BenchmarkDataSet dataSet;
+    private final AtomicLong registrationSequence = new AtomicLong();
+
+    public DaoBenchmark(BenchmarkDataSet dataSet) {
+        this.studentDAO = new StudentDAOImpl();
+        this.courseDAO = new CourseDAOImpl();
+        this.registrationDAO = new RegistrationDAOImpl();
+        this.dataSet = dataSet;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        applyCreditLimit(options);
+        int students = intOption(options, "students", 10_000);
+        int courses = intOption(options, "courses", 500);
+        int regsPerStudent = intOption(options, "regsPerStudent", 5);
+        int reservedCourses = intOption(options, "reservedCourses", 50);
+        int warmupSeconds = intOption(options, "warmup", 5);
+        int measureSeconds = intOption(options, "measure", 10);
+        int threads = intOption(options, "threads", 1);
+        boolean keepData = Boolean.parseBoolean(options.getOrDefault("keepData", "false"));
+
+        BenchmarkDataSeeder seeder = new BenchmarkDataSeeder(42L);
+        System.out.printf("Seeding %d students, %d courses (+%d reserved), %d registrations/student...%n",
+                          students, courses, reservedCourses, regsPerStudent);
+        BenchmarkDataSet dataSet = seeder.seed(students, courses, regsPerStudent, reservedCourses);
+
+        DaoBenchmark benchmark = new DaoBenchmark(dataSet);
+        Map<String, Operation> operations = benchmark.operations();
+        if (options.containsKey("only")) {
+            operations.keySet().retainAll(Arrays.asList(options.get("only").split(",")));
+        }
+
+        System.out.printf("Warmup %ds, measurement %ds, %d thread(s)%n%n", warmupSeconds, measureSeconds, threads);
+        System.out.printf("%-22s %12s %10s %10s %10s %10s %10s %10s%n",
+                          "Benchmark", "ops/sec", "avg(us)", "p50(us)", "p90(us)", "p99(us)", "p99.9(us)", "max(us)");
+        System.out.println("-".repeat(100));
+
+        try {
+            for (Map.Entry<String, Operation> entry : operations.entrySet()) {
+                run(entry.getValue(), threads, warmupSeconds, null);
+                if (entry.getKey().equals("registerStudent")) {
+                    seeder.clearReservedRegistrations(dataSet);
+                    benchmark.registrationSequence.set(0);
+                }
+
+                LatencyHistogram histogram = new LatencyHistogram();
+                long elapsedNanos = run(entry.getValue(), threads, measureSeconds, histogram);
+                printResult(entry.getKey(), histogram, elapsedNanos);
+            }
+        } finally {
+            if (keepData) {
+                seeder.clearReservedRegistrations(dataSet);
+            } else {
+                seeder.cleanup();
+            }
+        }
+    }
+
+    private Map<String, Operation> operations() {
+        int[] studentIds = dataSet.getStudentIds();
+        int[] courseIds = dataSet.getCourseIds();
+        String[] courseCodes = dataSet.getCourseCodes();
+        int[] reservedCourseIds = dataSet.getReservedCourseIds();
+
+        Map<String, Operation> operations = new LinkedHashMap<>();
+        operations.put("getStudentById",
+            () -> studentDAO.getStudentById(pick(studentIds)) != null);
+        operations.put("getCourseByCode",
+            () -> courseDAO.getCourseByCode(courseCodes[ThreadLocalRandom.current().nextInt(courseCodes.length)]) != null);
+        // One roster page worth of ids per call, fetched with chunked IN-list queries
+        operations.put("getStudentsByIds",
+            () -> !studentDAO.getStudentsByIds(pickMany(studentIds, 100)).isEmpty());
+        operations.put("getCoursesForStudent",
+            () -> registrationDAO.getCoursesForStudent(pick(studentIds)) != null);
+        operations.put("getRegistrationsForStudents",
+            () -> registrationDAO.getRegistrationsForStudents(pickMany(studentIds, 100)) != null);
+        operations.put("getStudentsForCourse",
+            () -> registrationDAO.getStudentsForCourse(pick(courseIds)) != null);
+        operations.put("registerStudent", () -> {
+            // Walk every (student, reserved course) pair once so each insert is a new registration
+            long sequence = registrationSequence.getAndIncrement();
+            if (reservedCourseIds.length == 0 || sequence >= (long) studentIds.length * reservedCourseIds.length) {
+                return false;
+            }
+            int studentId = studentIds[(int) (sequence % studentIds.length)];
+            int courseId = reservedCourseIds[(int) (sequence / studentIds.length)];
+            registrationDAO.registerStudentToCourse(studentId, courseId);
+            return true;
+        });
+        // Full scans are dominated by the ResultSet mapping helpers
+        operations.put("mapAllStudents", () -> !studentDAO.getAllStudents().isEmpty());
+        operations.put("mapAllCourses", () -> !courseDAO.getAllCourses().isEmpty());
+        operations.put("mapAllRegistrations", () -> !registrationDAO.getAllRegistrations().isEmpty());
+        return operations;
+    }
+
+    private static int pick(int[] ids) {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private static int[] pickMany(int[] ids, int count) {
+        int[] picked = new int[count];
+        for (int i = 0; i < count; i++) {
+            picked[i] = pick(ids);
+        }
+        return picked;
+    }
+
+    private static long run(Operation operation, int threads, int seconds, LatencyHistogram histogram)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    long opStart = System.nanoTime();
+                    boolean more = operation.run();
+                    if (histogram != null) {
+                        histogram.record(System.nanoTime() - opStart);
+                    }
+                    if (!more) {
+                        break;
+                    }
+                }
+            }, "dao-benchmark-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void printResult(String name, LatencyHistogram histogram, long elapsedNanos) {
+        double opsPerSecond = histogram.getCount() / (elapsedNanos / 1_000_000_000.0);
+        System.out.printf("%-22s %12.1f %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                          name,
+                          opsPerSecond,
+                          histogram.getMeanNanos() / 1000.0,
+                          histogram.getPercentile(50) / 1000.0,
+                          histogram.getPercentile(90) / 1000.0,
+                          histogram.getPercentile(99) / 1000.0,
+                          histogram.getPercentile(99.9) / 1000.0,
+                          histogram.getMaxNanos() / 1000.0);
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int eq = arg.indexOf('=');
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Set registration.maxCredits from --maxCredits, or turn the limit off
+     * Seeded students carry regsPerStudent courses of 3-4 credits (17-18 credits at the default
+     * 5), so with the configured limit most benchmark registrations would measure a policy
+     * rejection rather than an insert. Must run before the first DAO is created
+     */
+    static void applyCreditLimit(Map<String, String> options) {
+        int maxCredits = intOption(options, "maxCredits", 0);
+        System.setProperty("registration.maxCredits", String.valueOf(maxCredits));
+        System.out.println(maxCredits > 0 ? "Credit limit: " + maxCredits : "Credit limit: off (use --maxCredits=N)");
+    }
+
+    static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.replace("_", ""));
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for --" + name + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.studentregistration.benchmark;
+
+import com.studentregistration.dao.CourseDAO;
+import com.studentregistration.dao.CourseDAOImpl;
+import com.studentregistration.dao.RegistrationDAO;
+import com.studentregistration.dao.RegistrationDAOImpl;
+import com.studentregistration.metrics.LatencyHistogram;
+import com.studentregistration.model.Course;
+import com.studentregistration.util.DatabaseConnection;
+import com.studentregistration.util.VirtualThreads;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load generator simulating the opening of a registration window
+ * Every simulated student runs on its own (virtual) thread, waits for a common start signal
+ * and then calls registerStudentToCourse for courses drawn from a Zipf popularity distribution.
+ * The report shows throughput, latency percentiles, error/duplicate counts, InnoDB row-lock
+ * wait time, and whether the DAO layer stayed consistent with the database under concurrency.
+ * With --capacity=N every course is capped at N seats, so the popular ones fill up and the
+ * report also checks that no course was oversubscribed. Registrations refused by policy (course
+ * full, credit limit, prerequisites, timetable clash) are counted apart from errors; the credit
+ * limit is off unless --maxCredits=N is given
+ *
+ * Usage: java -cp "bin:lib/*" com.studentregistration.benchmark.RegistrationRushLoadTest
+ *        [--students=N] [--courses=N] [--attempts=N] [--concurrency=N] [--thinkTimeMs=N]
+ *        [--skew=S] [--duplicateRate=P] [--capacity=N] [--maxCredits=N] [--keepData=true]
+ */
+public class RegistrationRushLoadTest {
+
+    private static final String SELECT_LOCK_STATUS =
+        "SHOW GLOBAL STATUS WHERE Variable_name IN ('Innodb_row_lock_time', 'Innodb_row_lock_waits')";
+
+    private static final String COUNT_BENCH_REGISTRATIONS =
+        "SELECT COUNT(*) FROM registrations r JOIN courses c ON r.course_id = c.course_id " +
+        "WHERE c.course_code LIKE 'BN%'";
+
+    private static final String COUNT_DUPLICATE_PAIRS =
+        "SELECT COUNT(*) FROM (SELECT r.student_id, r.course_id FROM registrations r " +
+        "JOIN courses c ON r.course_id = c.course_id WHERE c.course_code LIKE 'BN%' " +
+        "GROUP BY r.student_id, r.course_id HAVING COUNT(*) > 1) d";
+
+    private static final String SET_BENCH_CAPACITY =
+        "UPDATE courses SET capacity = ? WHERE course_code LIKE 'BN%'";
+
+    private static final String COUNT_OVERSUBSCRIBED_COURSES =
+        "SELECT COUNT(*) FROM courses c WHERE c.course_code LIKE 'BN%' AND c.capacity IS NOT NULL " +
+        "AND (SELECT COUNT(*) FROM registrations r WHERE r.course_id = c.course_id " +
+        "AND r.status = 'ACTIVE') > c.capacity";
+
+    private static final String COUNT_DRIFTED_COUNTERS =
+        "SELECT COUNT(*) FROM courses c WHERE c.course_code LIKE 'BN%' " +
+        "AND c.active_enrollment <> (SELECT COUNT(*) FROM registrations r " +
+        "WHERE r.course_id = c.course_id AND r.status = 'ACTIVE')";
+
+    private final RegistrationDAO registrationDAO = new RegistrationDAOImpl();
+    private final CourseDAO courseDAO = new CourseDAOImpl();
+    private final ConcurrentHashMap<Integer, Integer> courseCredits = new ConcurrentHashMap<>();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong duplicateAttempts = new AtomicLong();
+    private final AtomicLong duplicatesRejected = new AtomicLong();
+    private final AtomicLong duplicatesAccepted = new AtomicLong();
+    private final AtomicLong courseFull = new AtomicLong();
+    private final AtomicLong creditLimit = new AtomicLong();
+    private final AtomicLong prerequisitesMissing = new AtomicLong();
+    private final AtomicLong timetableConflicts = new AtomicLong();
+
+    private final int attemptsPerStudent;
+    private final int thinkTimeMs;
+    private final double duplicateRate;
+    private final double[] popularityCdf;
+    private final int capacity;
+
+    public RegistrationRushLoadTest(int courseCount, int attemptsPerStudent, int thinkTimeMs,
+                                    double skew, double duplicateRate, int capacity) {
+        this.attemptsPerStudent = attemptsPerStudent;
+        this.thinkTimeMs = thinkTimeMs;
+        this.duplicateRate = duplicateRate;
+        this.popularityCdf = zipfCdf(courseCount, skew);
+        this.capacity = capacity;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = DaoBenchmark.parseOptions(args);
+        DaoBenchmark.applyCreditLimit(options);
+        int students = DaoBenchmark.intOption(options, "students", 5_000);
+        int courses = DaoBenchmark.intOption(options, "courses", 50);
+        int attempts = DaoBenchmark.intOption(options, "attempts", 5);
+        int concurrency = DaoBenchmark.intOption(options, "concurrency", students);
+        int thinkTimeMs = DaoBenchmark.intOption(options, "thinkTimeMs", 50);
+        double skew = Double.parseDouble(options.getOrDefault("skew", "1.1"));
+        double duplicateRate = Double.parseDouble(options.getOrDefault("duplicateRate", "0.05"));
+        int capacity = DaoBenchmark.intOption(options, "capacity", 0);
+        boolean keepData = Boolean.parseBoolean(options.getOrDefault("keepData", "false"));
+
+        BenchmarkDataSeeder seeder = new BenchmarkDataSeeder(7L);
+        System.out.printf("Seeding %d students and %d empty courses...%n", students, courses);
+        BenchmarkDataSet dataSet = seeder.seed(students, 0, 0, courses);
+        if (capacity > 0) {
+            setCapacity(capacity);
+        }
+
+        RegistrationRushLoadTest test = new RegistrationRushLoadTest(
+            courses, attempts, thinkTimeMs, skew, duplicateRate, capacity);
+        try {
+            test.run(dataSet, concurrency);
+        } finally {
+            if (!keepData) {
+                seeder.cleanup();
+            }
+        }
+    }
+
+    /**
+     * Run the rush and print the report
+     * @param dataSet seeded students and (empty) reserved courses
+     * @param concurrency maximum number of students registering at the same time
+     * @throws Exception if the database cannot be queried for the report
+     */
+    public void run(BenchmarkDataSet dataSet, int concurrency) throws Exception {
+        int[] studentIds = dataSet.getStudentIds();
+        int[] courseIds = dataSet.getReservedCourseIds();
+        long[] lockBefore = readLockStatus();
+        long acquireTimeoutsBefore = DatabaseConnection.getInstance().getAcquireTimeouts();
+
+        System.out.printf("Starting rush: %d students x %d attempts, concurrency %d, think time %dms, %s threads%n",
+                          studentIds.length, attemptsPerStudent, concurrency, thinkTimeMs,
+                          VirtualThreads.isSupported() ? "virtual" : "platform");
+
+        Semaphore inFlight = new Semaphore(Math.max(1, concurrency));
+        CountDownLatch startSignal = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(studentIds.length);
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("registration-rush");
+
+        for (int studentId : studentIds) {
+            executor.execute(() -> {
+                try {
+                    startSignal.await();
+                    inFlight.acquire();
+                    try {
+                        simulateStudent(studentId, courseIds);
+                    } finally {
+                        inFlight.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+
+        long start = System.nanoTime();
+        startSignal.countDown();
+        finished.await();
+        long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        long[] lockAfter = readLockStatus();
+        long acquireTimeouts = DatabaseConnection.getInstance().getAcquireTimeouts() - acquireTimeoutsBefore;
+        printReport(elapsedNanos, lockAfter[0] - lockBefore[0], lockAfter[1] - lockBefore[1], acquireTimeouts);
+    }
+
+    private void simulateStudent(int studentId, int[] courseIds) throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Set<Integer> registered = new HashSet<>();
+        int lastCourseId = -1;
+
+        for (int attempt = 0; attempt < attemptsPerStudent; attempt++) {
+            // Occasionally resubmit the previous request, like an impatient double-click
+            boolean resubmit = lastCourseId != -1 && random.nextDouble() < duplicateRate;
+            int courseId = resubmit ? lastCourseId : courseIds[sampleCourse(random.nextDouble())];
+            boolean alreadyRegistered = registered.contains(courseId);
+
+            long opStart = System.nanoTime();
+            boolean success;
+            boolean threw = false;
+            try {
+                success = registrationDAO.registerStudentToCourse(studentId, courseId);
+            } catch (RuntimeException e) {
+                success = false;
+                threw = true;
+                alreadyRegistered = false;
+            }
+            latency.record(System.nanoTime() - opStart);
+
+            if (alreadyRegistered) {
+                duplicateAttempts.incrementAndGet();
+                (success ? duplicatesAccepted : duplicatesRejected).incrementAndGet();
+            } else if (success) {
+                successes.incrementAndGet();
+                registered.add(courseId);
+            } else if (threw) {
+                errors.incrementAndGet();
+            } else {
+                rejectionCounter(studentId, courseId).incrementAndGet();
+            }
+            lastCourseId = courseId;
+
+            if (thinkTimeMs > 0) {
+                // Exponentially distributed think time around the configured mean
+                Thread.sleep((long) (-Math.log(1.0 - random.nextDouble()) * thinkTimeMs));
+            }
+        }
+    }
+
+    /**
+     * Work out why a registration was refused, after it has been timed
+     * @return the counter of the policy that refused it, or the error counter if none did
+     */
+    private AtomicLong rejectionCounter(int studentId, int courseId) {
+        if (capacity > 0 && registrationDAO.getEnrollmentCount(courseId) >= capacity) {
+            return courseFull;
+        }
+        int limit = registrationDAO.getCreditLimit();
+        if (limit > 0 && registrationDAO.getCreditLoad(studentId) + credits(courseId) > limit) {
+            return creditLimit;
+        }
+        if (!registrationDAO.getMissingPrerequisites(studentId, courseId).isEmpty()) {
+            return prerequisitesMissing;
+        }
+        if (registrationDAO.rejectsScheduleConflicts()
+            && !registrationDAO.getScheduleConflicts(studentId, courseId).isEmpty()) {
+            return timetableConflicts;
+        }
+        return errors;
+    }
+
+    private int credits(int courseId) {
+        Integer credits = courseCredits.get(courseId);
+        if (credits == null) {
+            Course course = courseDAO.getCourseById(courseId);
+            credits = course != null ? course.getCredits() : 0;
+            courseCredits.put(courseId, credits);
+        }
+        return credits;
+    }
+
+    private int sampleCourse(double uniform) {
+        int index = Arrays.binarySearch(popularityCdf, uniform);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return Math.min(index, popularityCdf.length - 1);
+    }
+
+    private static double[] zipfCdf(int courseCount, double skew) {
+        double[] cdf = new double[Math.max(1, courseCount)];
+        double total = 0;
+        for (int rank = 1; rank <= cdf.length; rank++) {
+            total += 1.0 / Math.pow(rank, skew);
+            cdf[rank - 1] = total;
+        }
+        for (int i = 0; i < cdf.length; i++) {
+            cdf[i] /= total;
+        }
+        return cdf;
+    }
+
+    private void printReport(long elapsedNanos, long lockTimeMs, long lockWaits,
+                             long acquireTimeouts) throws SQLException {
+        long rowsInDatabase = queryCount(COUNT_BENCH_REGISTRATIONS);
+        long duplicatePairs = queryCount(COUNT_DUPLICATE_PAIRS);
+        long oversubscribed = queryCount(COUNT_OVERSUBSCRIBED_COURSES);
+        long driftedCounters = queryCount(COUNT_DRIFTED_COUNTERS);
+        double seconds = elapsedNanos / 1_000_000_000.0;
+
+        System.out.println("\n" + "=".repeat(50));
+        System.out.println("        REGISTRATION RUSH REPORT");
+        System.out.println("=".repeat(50));
+        System.out.printf("Elapsed:                 %.2f s%n", seconds);
+        System.out.printf("Requests:                %d%n", latency.getCount());
+        System.out.printf("Throughput:              %.1f req/s%n", latency.getCount() / seconds);
+        System.out.printf("Latency p50/p99/p99.9:   %.2f / %.2f / %.2f ms%n",
+                          latency.getPercentile(50) / 1e6, latency.getPercentile(99) / 1e6,
+                          latency.getPercentile(99.9) / 1e6);
+        System.out.printf("Latency max:             %.2f ms%n", latency.getMaxNanos() / 1e6);
+        System.out.printf("Successful registrations: %d%n", successes.get());
+        System.out.printf("Rejected, course full:   %d%n", courseFull.get());
+        System.out.printf("Rejected, credit limit:  %d%n", creditLimit.get());
+        System.out.printf("Rejected, prerequisites: %d%n", prerequisitesMissing.get());
+        System.out.printf("Rejected, timetable:     %d%n", timetableConflicts.get());
+        System.out.printf("Errors:                  %d%n", errors.get());
+        System.out.printf("Duplicate attempts:      %d (rejected %d, accepted %d)%n",
+                          duplicateAttempts.get(), duplicatesRejected.get(), duplicatesAccepted.get());
+        System.out.printf("InnoDB row lock waits:   %d (total %d ms)%n", lockWaits, lockTimeMs);
+        System.out.printf("Pool acquire timeouts:   %d%n", acquireTimeouts);
+        System.out.printf("Rows in database:        %d%n", rowsInDatabase);
+        System.out.printf("Duplicate rows in DB:    %d%n", duplicatePairs);
+        System.out.printf("Oversubscribed courses:  %d%n", oversubscribed);
+        System.out.printf("Drifted enrollment counters: %d%n", driftedCounters);
+
+        boolean consistent = errors.get() == 0 && duplicatesAccepted.get() == 0
+            && duplicatePairs == 0 && rowsInDatabase == successes.get()
+            && oversubscribed == 0 && driftedCounters == 0;
+        System.out.println("-".repeat(50));
+        if (consistent) {
+            System.out.println("✓ DAO layer stayed consistent under concurrent load.");
+        } else {
+            System.out.println("✗ DAO layer is NOT safe under this load: failed requests or results "
+                + "that disagree with the database. Failed requests usually mean the connection pool "
+                + "ran out (see pool acquire timeouts; raise db.pool.maxActive or lower concurrency) "
+                + "or statements timed out waiting for row locks (see InnoDB row lock waits).");
+        }
+    }
+
+    private static void setCapacity(int capacity) throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SET_BENCH_CAPACITY)) {
+            stmt.setInt(1, capacity);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static long[] readLockStatus() throws SQLException {
+        long[] status = new long[2];
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_LOCK_STATUS);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                long value = rs.getLong(2);
+                if ("Innodb_row_lock_time".equalsIgnoreCase(rs.getString(1))) {
+                    status[0] = value;
+                } else {
+                    status[1] = value;
+                }
+            }
+        }
+        return status;
+    }
+
+    private static long queryCount(String sql) throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.model.Course;
+import com.studentregistration.model.CourseMeeting;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous counterpart of {@link CourseDAO}
+ * Every method returns immediately with a CompletableFuture, so independent lookups can run
+ * in parallel and be composed with thenCombine/allOf instead of costing one round trip each
+ */
+public interface AsyncCourseDAO {
+
+    /**
+     * Add a new course to the database
+     * @param course Course object to be added
+     * @return future completing with true if course is added successfully, false otherwise
+     */
+    CompletableFuture<Boolean> addCourse(Course course);
+
+    /**
+     * Get course by ID
+     * @param courseId ID of the course
+     * @return future completing with course object if found, null otherwise
+     */
+    CompletableFuture<Course> getCourseById(int courseId);
+
+    /**
+     * Get many courses at once
+     * Large id sets are fetched in bounded IN-list chunks over one connection
+     * @param courseIds IDs of the courses; duplicates are ignored
+     * @return future completing with map of course ID to Course; IDs not found are absent
+     */
+    CompletableFuture<Map<Integer, Course>> getCoursesByIds(int[] courseIds);
+
+    /**
+     * Get course by course code
+     * @param courseCode Course code to search for
+     * @return future completing with course object if found, null otherwise
+     */
+    CompletableFuture<Course> getCourseByCode(String courseCode);
+
+    /**
+     * Get all courses
+     * @return future completing with list of all courses
+     */
+    CompletableFuture<List<Course>> getAllCourses();
+
+    /**
+     * Update existing course
+     * @param course Course object with updated information
+     * @return future completing with true if course is updated successfully, false otherwise
+     */
+    CompletableFuture<Boolean> updateCourse(Course course);
+
+    /**
+     * Delete course by ID
+     * @param courseId ID of the course to be deleted
+     * @return future completing with true if course is deleted successfully, false otherwise
+     */
+    CompletableFuture<Boolean> deleteCourse(int courseId);
+
+    /**
+     * Search courses by name
+     * @param courseName Course name to search for
+     * @return future completing with list of courses matching the name
+     */
+    CompletableFuture<List<Course>> searchCoursesByName(String courseName);
+
+    /**
+     * Get courses by instructor
+     * @param instructor Instructor name
+     * @return future completing with list of courses taught by the instructor
+     */
+    CompletableFuture<List<Course>> getCoursesByInstructor(String instructor);
+
+    /**
+     * Check if course exists by course code
+     * @param courseCode Course code to check
+     * @return future completing with true if course exists, false otherwise
+     */
+    CompletableFuture<Boolean> courseExists(String courseCode);
+
+    /**
+     * Make one course a prerequisite of another
+     * Refused if it would close a cycle in the prerequisite graph
+     * @param courseId ID of the course gaining a prerequisite
+     * @param prerequisiteId ID of the course to complete first
+     * @return future completing with true if the prerequisite is recorded (or already was),
+     *         false if it would create a cycle or failed
+     */
+    CompletableFuture<Boolean> addPrerequisite(int courseId, int prerequisiteId);
+
+    /**
+     * Remove a prerequisite from a course
+     * @param courseId ID of the course
+     * @param prerequisiteId ID of the prerequisite
+     * @return future completing with true if the prerequisite was removed, false otherwise
+     */
+    CompletableFuture<Boolean> removePrerequisite(int courseId, int prerequisiteId);
+
+    /**
+     * Get a course's direct prerequisites
+     * @param courseId ID of the course
+     * @return future completing with list of prerequisite courses
+     */
+    CompletableFuture<List<Course>> getPrerequisites(int courseId);
+
+    /**
+     * Get a course's weekly meeting times
+     * @param courseId ID of the course
+     * @return future completing with list of meetings ordered by day and start time
+     */
+    CompletableFuture<List<CourseMeeting>> getMeetings(int courseId);
+
+    /**
+     * Replace a course's weekly meeting times
+     * @param courseId ID of the course
+     * @param meetings New meetings, empty to clear them
+     * @return future completing with true if the meetings were replaced, false otherwise
+     */
+    CompletableFuture<Boolean> setMeetings(int courseId, List<CourseMeeting> meetings);
+}
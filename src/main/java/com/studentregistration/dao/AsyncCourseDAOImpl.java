@@ -0,0 +1,103 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.model.Course;
+import com.studentregistration.model.CourseMeeting;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link AsyncCourseDAO} that runs each call of a blocking CourseDAO on an executor
+ * Defaults to {@link DaoExecutor#getDefault()}: virtual threads bounded by
+ * dao.async.maxConcurrency
+ */
+public class AsyncCourseDAOImpl implements AsyncCourseDAO {
+
+    private final CourseDAO delegate;
+    private final Executor executor;
+
+    public AsyncCourseDAOImpl(CourseDAO delegate) {
+        this(delegate, DaoExecutor.getDefault());
+    }
+
+    public AsyncCourseDAOImpl(CourseDAO delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> addCourse(Course course) {
+        return CompletableFuture.supplyAsync(() -> delegate.addCourse(course), executor);
+    }
+
+    @Override
+    public CompletableFuture<Course> getCourseById(int courseId) {
+        return CompletableFuture.supplyAsync(() -> delegate.getCourseById(courseId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Map<Integer, Course>> getCoursesByIds(int[] courseIds) {
+        return CompletableFuture.supplyAsync(() -> delegate.getCoursesByIds(courseIds), executor);
+    }
+
+    @Override
+    public CompletableFuture<Course> getCourseByCode(String courseCode) {
+        return CompletableFuture.supplyAsync(() -> delegate.getCourseByCode(courseCode), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Course>> getAllCourses() {
+        return CompletableFuture.supplyAsync(() -> delegate.getAllCourses(), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateCourse(Course course) {
+        return CompletableFuture.supplyAsync(() -> delegate.updateCourse(course), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteCourse(int courseId) {
+        return CompletableFuture.supplyAsync(() -> delegate.deleteCourse(courseId), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Course>> searchCoursesByName(String courseName) {
+        return CompletableFuture.supplyAsync(() -> delegate.searchCoursesByName(courseName), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Course>> getCoursesByInstructor(String instructor) {
+        return CompletableFuture.supplyAsync(() -> delegate.getCoursesByInstructor(instructor), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> courseExists(String courseCode) {
+        return CompletableFuture.supplyAsync(() -> delegate.courseExists(courseCode), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> addPrerequisite(int courseId, int prerequisiteId) {
+        return CompletableFuture.supplyAsync(() -> delegate.addPrerequisite(courseId, prerequisiteId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> removePrerequisite(int courseId, int prerequisiteId) {
+        return CompletableFuture.supplyAsync(() -> delegate.removePrerequisite(courseId, prerequisiteId), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Course>> getPrerequisites(int courseId) {
+        return CompletableFuture.supplyAsync(() -> delegate.getPrerequisites(courseId), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<CourseMeeting>> getMeetings(int courseId) {
+        return CompletableFuture.supplyAsync(() -> delegate.getMeetings(courseId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setMeetings(int courseId, List<CourseMeeting> meetings) {
+        return CompletableFuture.supplyAsync(() -> delegate.setMeetings(courseId, meetings), executor);
+    }
+}
@@ -0,0 +1,367 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.model.EnrollmentStatistics;
+import com.studentregistration.model.GpaSummary;
+import com.studentregistration.model.GradeDistribution;
+import com.studentregistration.model.Registration;
+import com.studentregistration.model.RegistrationContext;
+import com.studentregistration.model.Student;
+import com.studentregistration.model.Course;
+import com.studentregistration.model.CourseRecommendation;
+import com.studentregistration.model.StudentProfile;
+import com.studentregistration.model.TimeBucket;
+import com.studentregistration.model.Transcript;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous counterpart of {@link RegistrationDAO}
+ * Every method returns immediately with a CompletableFuture, so independent lookups can run
+ * in parallel and be composed with thenCombine/allOf instead of costing one round trip each
+ */
+public interface AsyncRegistrationDAO {
+
+    /**
+     * Register a student for a course
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @return future completing with true if registration is successful, false otherwise
+     */
+    CompletableFuture<Boolean> registerStudentToCourse(int studentId, int courseId);
+
+    /**
+     * Put a student on a course's waitlist
+     * If a seat is free by the time the registration is written, the student is registered
+     * straight away; {@link #getPlaceInWaitlist(int, int)} then returns 0
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @return future completing with true if the student is waitlisted or registered, false otherwise
+     */
+    CompletableFuture<Boolean> joinWaitlist(int studentId, int courseId);
+
+    /**
+     * Add a registration record
+     * A WAITLISTED registration is given the next position in the course's waitlist
+     * @param registration Registration object
+     * @return future completing with true if registration is added successfully, false otherwise
+     */
+    CompletableFuture<Boolean> addRegistration(Registration registration);
+
+    /**
+     * Count a request for a full course that was refused before reaching addRegistration
+     * @param courseId ID of the course
+     * @return future completing once the request is counted
+     */
+    CompletableFuture<Void> recordTurnedAway(int courseId);
+
+    /**
+     * Add an ACTIVE registration whose seat was already taken from the SeatAllocator, e.g. by
+     * a seat hold; the seat is given back to the allocator if the registration fails
+     * @param registration Registration object
+     * @return future completing with true if registration is added successfully, false otherwise
+     */
+    CompletableFuture<Boolean> addHeldRegistration(Registration registration);
+
+    /**
+     * Get registration by ID
+     * @param registrationId ID of the registration
+     * @return future completing with registration object if found, null otherwise
+     */
+    CompletableFuture<Registration> getRegistrationById(int registrationId);
+
+    /**
+     * Get all registrations
+     * @return future completing with list of all registrations
+     */
+    CompletableFuture<List<Registration>> getAllRegistrations();
+
+    /**
+     * Update registration (typically for grade or status changes)
+     * @param registration Registration object with updated information
+     * @return future completing with true if registration is updated successfully, false otherwise
+     */
+    CompletableFuture<Boolean> updateRegistration(Registration registration);
+
+    /**
+     * Drop a student from a course (delete registration)
+     * A freed seat goes to the head of the course's waitlist in the same transaction
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @return future completing with true if registration is deleted successfully, false otherwise
+     */
+    CompletableFuture<Boolean> dropStudentFromCourse(int studentId, int courseId);
+
+    /**
+     * Get all courses for a specific student with registration details
+     * @param studentId ID of the student
+     * @return future completing with list of registrations with course details
+     */
+    CompletableFuture<List<Registration>> getCoursesForStudent(int studentId);
+
+    /**
+     * Get all students enrolled in a specific course with registration details
+     * @param courseId ID of the course
+     * @return future completing with list of registrations with student details
+     */
+    CompletableFuture<List<Registration>> getStudentsForCourse(int courseId);
+
+    /**
+     * Get a course's waitlist with student details
+     * @param courseId ID of the course
+     * @return future completing with list of WAITLISTED registrations, next to be promoted first
+     */
+    CompletableFuture<List<Registration>> getWaitlist(int courseId);
+
+    /**
+     * Get a student's place in a course's waitlist
+     * Answered from the in-process waitlist queue, not the database
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @return future completing with 1 for the next student to be promoted, 0 if the student is not waitlisted
+     */
+    CompletableFuture<Integer> getPlaceInWaitlist(int studentId, int courseId);
+
+    /**
+     * Get the registrations of many students at once, with course details
+     * Large id sets are fetched in bounded IN-list chunks over one connection
+     * @param studentIds IDs of the students; duplicates are ignored
+     * @return future completing with map of student ID to that student's registrations, newest first;
+     *         every requested ID has an entry, empty if the student has no registrations
+     */
+    CompletableFuture<Map<Integer, List<Registration>>> getRegistrationsForStudents(int[] studentIds);
+
+    /**
+     * Get a student together with all registrations and registered courses in one query
+     * @param studentId ID of the student
+     * @return future completing with the StudentProfile if the student exists, null otherwise
+     */
+    CompletableFuture<StudentProfile> getStudentProfile(int studentId);
+
+    /**
+     * Get the student, the course and their registration in one query
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @return future completing with a RegistrationContext whose parts are null where not found
+     */
+    CompletableFuture<RegistrationContext> getRegistrationContext(int studentId, int courseId);
+
+    /**
+     * Check if a student is already registered for a course
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @return future completing with true if student is registered, false otherwise
+     */
+    CompletableFuture<Boolean> isStudentRegisteredForCourse(int studentId, int courseId);
+
+    /**
+     * Update grade for a student in a course
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @param grade Grade to assign
+     * @return future completing with true if grade is updated successfully, false otherwise
+     */
+    CompletableFuture<Boolean> updateGrade(int studentId, int courseId, String grade);
+
+    /**
+     * Update registration status
+     * Moving to WAITLISTED puts the student at the back of the waitlist; a seat freed by leaving
+     * ACTIVE goes to the head of the waitlist in the same transaction
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @param status New status
+     * @return future completing with true if status is updated successfully, false otherwise
+     */
+    CompletableFuture<Boolean> updateRegistrationStatus(int studentId, int courseId, Registration.RegistrationStatus status);
+
+    /**
+     * Get count of students enrolled in a course
+     * @param courseId ID of the course
+     * @return future completing with number of enrolled students
+     */
+    CompletableFuture<Integer> getEnrollmentCount(int courseId);
+
+    /**
+     * Recompute every course's active_enrollment counter from the registrations table
+     * @return future completing with the number of courses whose counter was corrected
+     */
+    CompletableFuture<Integer> reconcileEnrollmentCounts();
+
+    /**
+     * Fill a course's free seats from its waitlist in one transaction, e.g. after raising its capacity
+     * @param courseId ID of the course
+     * @return future completing with number of students promoted
+     */
+    CompletableFuture<Integer> promoteFromWaitlist(int courseId);
+
+    /**
+     * Fill free seats from the waitlist of every course and reload the in-process waitlist queues
+     * Catches seats freed by writes that bypass the DAO, such as cascaded deletes
+     * @return future completing with number of students promoted
+     */
+    CompletableFuture<Integer> promoteWaitlists();
+
+    /**
+     * Get count of courses a student is registered for
+     * @param studentId ID of the student
+     * @return future completing with number of registered courses
+     */
+    CompletableFuture<Integer> getRegistrationCount(int studentId);
+
+    /**
+     * Get a student's credit load from the in-process totals, without a query
+     * @param studentId ID of the student
+     * @return future completing with credits of the student's ACTIVE and WAITLISTED registrations
+     */
+    CompletableFuture<Integer> getCreditLoad(int studentId);
+
+    /**
+     * Get the most credits a student may carry (registration.maxCredits)
+     * @return future completing with the credit limit, 0 or less if there is none
+     */
+    CompletableFuture<Integer> getCreditLimit();
+
+    /**
+     * Reload every student's credit load from the database in bulk
+     * @return future completing with number of students with a load, -1 if the load failed
+     */
+    CompletableFuture<Integer> rebuildCreditLoads();
+
+    /**
+     * Get the prerequisites a student still lacks for a course, from the in-process
+     * prerequisite graph, without a query
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @return future completing with IDs of the unmet prerequisites, empty if the student is eligible
+     */
+    CompletableFuture<List<Integer>> getMissingPrerequisites(int studentId, int courseId);
+
+    /**
+     * Reload the prerequisite graph and students' COMPLETED courses from the database in bulk
+     * @return future completing with number of prerequisite edges, -1 if the load failed
+     */
+    CompletableFuture<Integer> rebuildPrerequisites();
+
+    /**
+     * Get the courses in a student's timetable that meet at the same time as a course, from the
+     * in-process timetables, without a query
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @return future completing with IDs of the clashing courses, empty if none
+     */
+    CompletableFuture<List<Integer>> getScheduleConflicts(int studentId, int courseId);
+
+    /**
+     * Check whether clashing registrations are refused (registration.timeConflicts=reject)
+     * @return future completing with true if a clash refuses the registration
+     */
+    CompletableFuture<Boolean> rejectsScheduleConflicts();
+
+    /**
+     * Reload course meeting times and every student's timetable from the database in bulk
+     * @return future completing with number of students with a timetable, -1 if the load failed
+     */
+    CompletableFuture<Integer> rebuildTimetables();
+
+    /**
+     * Get a student's transcript: their COMPLETED courses and credit-weighted GPA
+     * @param studentId ID of the student
+     * @return future completing with the transcript, with no courses if the student has completed none
+     */
+    CompletableFuture<Transcript> getTranscript(int studentId);
+
+    /**
+     * Compute every student's GPA and academic standing in one pass
+     * @return future completing with the summaries in student ID order, null if the scan failed
+     */
+    CompletableFuture<List<GpaSummary>> getGpaSummaries();
+
+    /**
+     * Get per-course and per-student registration counts by status
+     * @return future completing with the latest published statistics, null if they could not be loaded
+     */
+    CompletableFuture<EnrollmentStatistics> getEnrollmentStatistics();
+
+    /**
+     * Reload the enrollment statistics from the database in bulk
+     * @return future completing with number of courses and students counted, -1 if the load failed
+     */
+    CompletableFuture<Integer> rebuildEnrollmentStatistics();
+
+    /**
+     * Find the students whose registrations match a combination of courses
+     * @return future completing with matching student IDs in ascending order, null if the
+     *         bitmaps could not be loaded
+     */
+    CompletableFuture<int[]> findCohort(int[] allOf, int[] anyOf, int[] noneOf,
+                                        Set<Registration.RegistrationStatus> statuses);
+
+    /**
+     * Get the students with no registration of any status
+     * @return future completing with student IDs in ascending order, null if the bitmaps could not be loaded
+     */
+    CompletableFuture<int[]> getStudentsWithoutRegistrations();
+
+    /**
+     * Get the courses with no registration of any status
+     * @return future completing with course IDs in ascending order, null if the bitmaps could not be loaded
+     */
+    CompletableFuture<int[]> getCoursesWithoutRegistrations();
+
+    /**
+     * Reload the enrollment bitmaps from the database in bulk
+     * @return future completing with number of courses loaded, -1 if the load failed
+     */
+    CompletableFuture<Integer> rebuildEnrollmentBitmaps();
+
+    /**
+     * Suggest courses commonly taken together with this student's courses
+     * @return future completing with up to k suggestions, best first; null if there is no matrix yet
+     */
+    CompletableFuture<List<CourseRecommendation>> recommendCourses(int studentId, int k);
+
+    /**
+     * Recompute the co-enrollment matrix from all registrations and save it
+     * @return future completing with number of course pairs in the matrix, -1 if the rebuild failed
+     */
+    CompletableFuture<Integer> rebuildCoEnrollment();
+
+    /**
+     * Count registrations or new students per minute, hour, day or term from the time series rollups
+     * @return future completing with the non-empty buckets in time order, null if the rollups could not be loaded
+     */
+    CompletableFuture<List<TimeBucket>> getTimeSeries(TimeBucket.Series series, TimeBucket.Granularity granularity,
+                                                      LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Count registrations or new students in a range from the time series rollups
+     * @return future completing with number of events, -1 if the rollups could not be loaded
+     */
+    CompletableFuture<Long> countInRange(TimeBucket.Series series, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Backfill the time series rollups from registrations and students
+     * @return future completing with number of events counted, -1 if the backfill failed
+     */
+    CompletableFuture<Long> rebuildTimeSeries();
+
+    /**
+     * Get how many of each course's ACTIVE and COMPLETED registrations have each grade, from the grade histograms
+     * @return future completing with distributions in course ID order, null if the histograms could not be loaded
+     */
+    CompletableFuture<List<GradeDistribution>> getGradeDistributions();
+
+    /**
+     * Get the grade distributions summed over each instructor's courses
+     * @return future completing with distributions in instructor order, null if the histograms could not be loaded
+     */
+    CompletableFuture<List<GradeDistribution>> getInstructorGradeDistributions();
+
+    /**
+     * Rebuild the grade histograms from the database
+     * @return future completing with number of courses with registrations, -1 if the rebuild failed
+     */
+    CompletableFuture<Integer> rebuildGradeDistributions();
+}
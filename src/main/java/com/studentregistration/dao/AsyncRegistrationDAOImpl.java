@@ -0,0 +1,281 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.model.EnrollmentStatistics;
+import com.studentregistration.model.GpaSummary;
+import com.studentregistration.model.GradeDistribution;
+import com.studentregistration.model.Registration;
+import com.studentregistration.model.RegistrationContext;
+import com.studentregistration.model.Student;
+import com.studentregistration.model.Course;
+import com.studentregistration.model.CourseRecommendation;
+import com.studentregistration.model.StudentProfile;
+import com.studentregistration.model.TimeBucket;
+import com.studentregistration.model.Transcript;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link AsyncRegistrationDAO} that runs each call of a blocking RegistrationDAO on an executor
+ * Defaults to {@link DaoExecutor#getDefault()}: virtual threads bounded by
+ * dao.async.maxConcurrency
+ */
+public class AsyncRegistrationDAOImpl implements AsyncRegistrationDAO {
+
+    private final RegistrationDAO delegate;
+    private final Executor executor;
+
+    public AsyncRegistrationDAOImpl(RegistrationDAO delegate) {
+        this(delegate, DaoExecutor.getDefault());
+    }
+
+    public AsyncRegistrationDAOImpl(RegistrationDAO delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> registerStudentToCourse(int studentId, int courseId) {
+        return CompletableFuture.supplyAsync(() -> delegate.registerStudentToCourse(studentId, courseId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> joinWaitlist(int studentId, int courseId) {
+        return CompletableFuture.supplyAsync(() -> delegate.joinWaitlist(studentId, courseId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> addRegistration(Registration registration) {
+        return CompletableFuture.supplyAsync(() -> delegate.addRegistration(registration), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> recordTurnedAway(int courseId) {
+        return CompletableFuture.runAsync(() -> delegate.recordTurnedAway(courseId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> addHeldRegistration(Registration registration) {
+        return CompletableFuture.supplyAsync(() -> delegate.addHeldRegistration(registration), executor);
+    }
+
+    @Override
+    public CompletableFuture<Registration> getRegistrationById(int registrationId) {
+        return CompletableFuture.supplyAsync(() -> delegate.getRegistrationById(registrationId), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Registration>> getAllRegistrations() {
+        return CompletableFuture.supplyAsync(() -> delegate.getAllRegistrations(), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateRegistration(Registration registration) {
+        return CompletableFuture.supplyAsync(() -> delegate.updateRegistration(registration), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> dropStudentFromCourse(int studentId, int courseId) {
+        return CompletableFuture.supplyAsync(() -> delegate.dropStudentFromCourse(studentId, courseId), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Registration>> getCoursesForStudent(int studentId) {
+        return CompletableFuture.supplyAsync(() -> delegate.getCoursesForStudent(studentId), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Registration>> getStudentsForCourse(int courseId) {
+        return CompletableFuture.supplyAsync(() -> delegate.getStudentsForCourse(courseId), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Registration>> getWaitlist(int courseId) {
+        return CompletableFuture.supplyAsync(() -> delegate.getWaitlist(courseId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getPlaceInWaitlist(int studentId, int courseId) {
+        return CompletableFuture.supplyAsync(() -> delegate.getPlaceInWaitlist(studentId, courseId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Map<Integer, List<Registration>>> getRegistrationsForStudents(int[] studentIds) {
+        return CompletableFuture.supplyAsync(() -> delegate.getRegistrationsForStudents(studentIds), executor);
+    }
+
+    @Override
+    public CompletableFuture<StudentProfile> getStudentProfile(int studentId) {
+        return CompletableFuture.supplyAsync(() -> delegate.getStudentProfile(studentId), executor);
+    }
+
+    @Override
+    public CompletableFuture<RegistrationContext> getRegistrationContext(int studentId, int courseId) {
+        return CompletableFuture.supplyAsync(() -> delegate.getRegistrationContext(studentId, courseId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isStudentRegisteredForCourse(int studentId, int courseId) {
+        return CompletableFuture.supplyAsync(() -> delegate.isStudentRegisteredForCourse(studentId, courseId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateGrade(int studentId, int courseId, String grade) {
+        return CompletableFuture.supplyAsync(() -> delegate.updateGrade(studentId, courseId, grade), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateRegistrationStatus(int studentId, int courseId, Registration.RegistrationStatus status) {
+        return CompletableFuture.supplyAsync(() -> delegate.updateRegistrationStatus(studentId, courseId, status), executor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getEnrollmentCount(int courseId) {
+        return CompletableFuture.supplyAsync(() -> delegate.getEnrollmentCount(courseId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> reconcileEnrollmentCounts() {
+        return CompletableFuture.supplyAsync(delegate::reconcileEnrollmentCounts, executor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> promoteFromWaitlist(int courseId) {
+        return CompletableFuture.supplyAsync(() -> delegate.promoteFromWaitlist(courseId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> promoteWaitlists() {
+        return CompletableFuture.supplyAsync(delegate::promoteWaitlists, executor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getRegistrationCount(int studentId) {
+        return CompletableFuture.supplyAsync(() -> delegate.getRegistrationCount(studentId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getCreditLoad(int studentId) {
+        return CompletableFuture.supplyAsync(() -> delegate.getCreditLoad(studentId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getCreditLimit() {
+        return CompletableFuture.supplyAsync(delegate::getCreditLimit, executor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> rebuildCreditLoads() {
+        return CompletableFuture.supplyAsync(delegate::rebuildCreditLoads, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Integer>> getMissingPrerequisites(int studentId, int courseId) {
+        return CompletableFuture.supplyAsync(() -> delegate.getMissingPrerequisites(studentId, courseId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> rebuildPrerequisites() {
+        return CompletableFuture.supplyAsync(delegate::rebuildPrerequisites, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Integer>> getScheduleConflicts(int studentId, int courseId) {
+        return CompletableFuture.supplyAsync(() -> delegate.getScheduleConflicts(studentId, courseId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> rejectsScheduleConflicts() {
+        return CompletableFuture.supplyAsync(delegate::rejectsScheduleConflicts, executor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> rebuildTimetables() {
+        return CompletableFuture.supplyAsync(delegate::rebuildTimetables, executor);
+    }
+
+    @Override
+    public CompletableFuture<Transcript> getTranscript(int studentId) {
+        return CompletableFuture.supplyAsync(() -> delegate.getTranscript(studentId), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<GpaSummary>> getGpaSummaries() {
+        return CompletableFuture.supplyAsync(delegate::getGpaSummaries, executor);
+    }
+
+    @Override
+    public CompletableFuture<EnrollmentStatistics> getEnrollmentStatistics() {
+        return CompletableFuture.supplyAsync(delegate::getEnrollmentStatistics, executor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> rebuildEnrollmentStatistics() {
+        return CompletableFuture.supplyAsync(delegate::rebuildEnrollmentStatistics, executor);
+    }
+
+    @Override
+    public CompletableFuture<int[]> findCohort(int[] allOf, int[] anyOf, int[] noneOf,
+                                               Set<Registration.RegistrationStatus> statuses) {
+        return CompletableFuture.supplyAsync(() -> delegate.findCohort(allOf, anyOf, noneOf, statuses), executor);
+    }
+
+    @Override
+    public CompletableFuture<int[]> getStudentsWithoutRegistrations() {
+        return CompletableFuture.supplyAsync(delegate::getStudentsWithoutRegistrations, executor);
+    }
+
+    @Override
+    public CompletableFuture<int[]> getCoursesWithoutRegistrations() {
+        return CompletableFuture.supplyAsync(delegate::getCoursesWithoutRegistrations, executor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> rebuildEnrollmentBitmaps() {
+        return CompletableFuture.supplyAsync(delegate::rebuildEnrollmentBitmaps, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<CourseRecommendation>> recommendCourses(int studentId, int k) {
+        return CompletableFuture.supplyAsync(() -> delegate.recommendCourses(studentId, k), executor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> rebuildCoEnrollment() {
+        return CompletableFuture.supplyAsync(delegate::rebuildCoEnrollment, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<TimeBucket>> getTimeSeries(TimeBucket.Series series, TimeBucket.Granularity granularity,
+                                                             LocalDateTime from, LocalDateTime to) {
+        return CompletableFuture.supplyAsync(() -> delegate.getTimeSeries(series, granularity, from, to), executor);
+    }
+
+    @Override
+    public CompletableFuture<Long> countInRange(TimeBucket.Series series, LocalDateTime from, LocalDateTime to) {
+        return CompletableFuture.supplyAsync(() -> delegate.countInRange(series, from, to), executor);
+    }
+
+    @Override
+    public CompletableFuture<Long> rebuildTimeSeries() {
+        return CompletableFuture.supplyAsync(delegate::rebuildTimeSeries, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<GradeDistribution>> getGradeDistributions() {
+        return CompletableFuture.supplyAsync(delegate::getGradeDistributions, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<GradeDistribution>> getInstructorGradeDistributions() {
+        return CompletableFuture.supplyAsync(delegate::getInstructorGradeDistributions, executor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> rebuildGradeDistributions() {
+        return CompletableFuture.supplyAsync(delegate::rebuildGradeDistributions, executor);
+    }
+}
@@ -0,0 +1,77 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.model.Student;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous counterpart of {@link StudentDAO}
+ * Every method returns immediately with a CompletableFuture, so independent lookups can run
+ * in parallel and be composed with thenCombine/allOf instead of costing one round trip each
+ */
+public interface AsyncStudentDAO {
+
+    /**
+     * Add a new student to the database
+     * @param student Student object to be added
+     * @return future completing with true if student is added successfully, false otherwise
+     */
+    CompletableFuture<Boolean> addStudent(Student student);
+
+    /**
+     * Get student by ID
+     * @param studentId ID of the student
+     * @return future completing with student object if found, null otherwise
+     */
+    CompletableFuture<Student> getStudentById(int studentId);
+
+    /**
+     * Get many students at once
+     * Large id sets are fetched in bounded IN-list chunks over one connection
+     * @param studentIds IDs of the students; duplicates are ignored
+     * @return future completing with map of student ID to Student; IDs not found are absent
+     */
+    CompletableFuture<Map<Integer, Student>> getStudentsByIds(int[] studentIds);
+
+    /**
+     * Get student by email
+     * @param email Email of the student
+     * @return future completing with student object if found, null otherwise
+     */
+    CompletableFuture<Student> getStudentByEmail(String email);
+
+    /**
+     * Get all students
+     * @return future completing with list of all students
+     */
+    CompletableFuture<List<Student>> getAllStudents();
+
+    /**
+     * Update existing student
+     * @param student Student object with updated information
+     * @return future completing with true if student is updated successfully, false otherwise
+     */
+    CompletableFuture<Boolean> updateStudent(Student student);
+
+    /**
+     * Delete student by ID
+     * @param studentId ID of the student to be deleted
+     * @return future completing with true if student is deleted successfully, false otherwise
+     */
+    CompletableFuture<Boolean> deleteStudent(int studentId);
+
+    /**
+     * Search students by name (first name or last name)
+     * @param name Name to search for
+     * @return future completing with list of students matching the name
+     */
+    CompletableFuture<List<Student>> searchStudentsByName(String name);
+
+    /**
+     * Check if student exists by email
+     * @param email Email to check
+     * @return future completing with true if student exists, false otherwise
+     */
+    CompletableFuture<Boolean> studentExists(String email);
+}
@@ -0,0 +1,72 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.model.Student;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link AsyncStudentDAO} that runs each call of a blocking StudentDAO on an executor
+ * Defaults to {@link DaoExecutor#getDefault()}: virtual threads bounded by
+ * dao.async.maxConcurrency
+ */
+public class AsyncStudentDAOImpl implements AsyncStudentDAO {
+
+    private final StudentDAO delegate;
+    private final Executor executor;
+
+    public AsyncStudentDAOImpl(StudentDAO delegate) {
+        this(delegate, DaoExecutor.getDefault());
+    }
+
+    public AsyncStudentDAOImpl(StudentDAO delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> addStudent(Student student) {
+        return CompletableFuture.supplyAsync(() -> delegate.addStudent(student), executor);
+    }
+
+    @Override
+    public CompletableFuture<Student> getStudentById(int studentId) {
+        return CompletableFuture.supplyAsync(() -> delegate.getStudentById(studentId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Map<Integer, Student>> getStudentsByIds(int[] studentIds) {
+        return CompletableFuture.supplyAsync(() -> delegate.getStudentsByIds(studentIds), executor);
+    }
+
+    @Override
+    public CompletableFuture<Student> getStudentByEmail(String email) {
+        return CompletableFuture.supplyAsync(() -> delegate.getStudentByEmail(email), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Student>> getAllStudents() {
+        return CompletableFuture.supplyAsync(() -> delegate.getAllStudents(), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateStudent(Student student) {
+        return CompletableFuture.supplyAsync(() -> delegate.updateStudent(student), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteStudent(int studentId) {
+        return CompletableFuture.supplyAsync(() -> delegate.deleteStudent(studentId), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Student>> searchStudentsByName(String name) {
+        return CompletableFuture.supplyAsync(() -> delegate.searchStudentsByName(name), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> studentExists(String email) {
+        return CompletableFuture.supplyAsync(() -> delegate.studentExists(email), executor);
+    }
+}
@@ -0,0 +1,118 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.model.Course;
+import com.studentregistration.model.CourseMeeting;
+import com.studentregistration.util.AppConfig;
+import com.studentregistration.util.BatchLoader;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CourseDAO decorator that coalesces concurrent getCourseById calls
+ * Lookups arriving within dao.batch.window.us of each other (or until dao.batch.maxSize ids
+ * are queued) are served by one IN-list query, and concurrent lookups of the same id share
+ * a single result. All other operations go straight to the wrapped implementation
+ */
+public class BatchingCourseDAO implements CourseDAO {
+
+    private final CourseDAO delegate;
+    private final BatchLoader<Course> loader;
+
+    public BatchingCourseDAO(CourseDAO delegate) {
+        this.delegate = delegate;
+        this.loader = new BatchLoader<>("courses", ids -> delegate.getCoursesByIds(toArray(ids)),
+                                        AppConfig.getLong("dao.batch.window.us", 500),
+                                        AppConfig.getInt("dao.batch.maxSize", 100));
+    }
+
+    /**
+     * Get the loader serving getCourseById, for batch statistics
+     * @return course loader
+     */
+    public BatchLoader<Course> getLoader() {
+        return loader;
+    }
+
+    @Override
+    public Course getCourseById(int courseId) {
+        return loader.load(courseId);
+    }
+
+    @Override
+    public Map<Integer, Course> getCoursesByIds(int[] courseIds) {
+        return delegate.getCoursesByIds(courseIds);
+    }
+
+    @Override
+    public boolean addCourse(Course course) {
+        return delegate.addCourse(course);
+    }
+
+    @Override
+    public Course getCourseByCode(String courseCode) {
+        return delegate.getCourseByCode(courseCode);
+    }
+
+    @Override
+    public List<Course> getAllCourses() {
+        return delegate.getAllCourses();
+    }
+
+    @Override
+    public boolean updateCourse(Course course) {
+        return delegate.updateCourse(course);
+    }
+
+    @Override
+    public boolean deleteCourse(int courseId) {
+        return delegate.deleteCourse(courseId);
+    }
+
+    @Override
+    public List<Course> searchCoursesByName(String courseName) {
+        return delegate.searchCoursesByName(courseName);
+    }
+
+    @Override
+    public List<Course> getCoursesByInstructor(String instructor) {
+        return delegate.getCoursesByInstructor(instructor);
+    }
+
+    @Override
+    public boolean courseExists(String courseCode) {
+        return delegate.courseExists(courseCode);
+    }
+
+    @Override
+    public boolean addPrerequisite(int courseId, int prerequisiteId) {
+        return delegate.addPrerequisite(courseId, prerequisiteId);
+    }
+
+    @Override
+    public boolean removePrerequisite(int courseId, int prerequisiteId) {
+        return delegate.removePrerequisite(courseId, prerequisiteId);
+    }
+
+    @Override
+    public List<Course> getPrerequisites(int courseId) {
+        return delegate.getPrerequisites(courseId);
+    }
+
+    @Override
+    public List<CourseMeeting> getMeetings(int courseId) {
+        return delegate.getMeetings(courseId);
+    }
+
+    @Override
+    public boolean setMeetings(int courseId, List<CourseMeeting> meetings) {
+        return delegate.setMeetings(courseId, meetings);
+    }
+
+    private static int[] toArray(List<Integer> ids) {
+        int[] array = new int[ids.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = ids.get(i);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,87 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.model.Student;
+import com.studentregistration.util.AppConfig;
+import com.studentregistration.util.BatchLoader;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StudentDAO decorator that coalesces concurrent getStudentById calls
+ * Lookups arriving within dao.batch.window.us of each other (or until dao.batch.maxSize ids
+ * are queued) are served by one IN-list query, and concurrent lookups of the same id share
+ * a single result. All other operations go straight to the wrapped implementation
+ */
+public class BatchingStudentDAO implements StudentDAO {
+
+    private final StudentDAO delegate;
+    private final BatchLoader<Student> loader;
+
+    public BatchingStudentDAO(StudentDAO delegate) {
+        this.delegate = delegate;
+        this.loader = new BatchLoader<>("students", ids -> delegate.getStudentsByIds(toArray(ids)),
+                                        AppConfig.getLong("dao.batch.window.us", 500),
+                                        AppConfig.getInt("dao.batch.maxSize", 100));
+    }
+
+    /**
+     * Get the loader serving getStudentById, for batch statistics
+     * @return student loader
+     */
+    public BatchLoader<Student> getLoader() {
+        return loader;
+    }
+
+    @Override
+    public Student getStudentById(int studentId) {
+        return loader.load(studentId);
+    }
+
+    @Override
+    public Map<Integer, Student> getStudentsByIds(int[] studentIds) {
+        return delegate.getStudentsByIds(studentIds);
+    }
+
+    @Override
+    public boolean addStudent(Student student) {
+        return delegate.addStudent(student);
+    }
+
+    @Override
+    public Student getStudentByEmail(String email) {
+        return delegate.getStudentByEmail(email);
+    }
+
+    @Override
+    public List<Student> getAllStudents() {
+        return delegate.getAllStudents();
+    }
+
+    @Override
+    public boolean updateStudent(Student student) {
+        return delegate.updateStudent(student);
+    }
+
+    @Override
+    public boolean deleteStudent(int studentId) {
+        return delegate.deleteStudent(studentId);
+    }
+
+    @Override
+    public List<Student> searchStudentsByName(String name) {
+        return delegate.searchStudentsByName(name);
+    }
+
+    @Override
+    public boolean studentExists(String email) {
+        return delegate.studentExists(email);
+    }
+
+    private static int[] toArray(List<Integer> ids) {
+        int[] array = new int[ids.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = ids.get(i);
+        }
+        return array;
+    }
+}
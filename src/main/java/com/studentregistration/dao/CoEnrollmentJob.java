@@ -0,0 +1,93 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.util.AppConfig;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background job that periodically recomputes the co-enrollment matrix behind course
+ * recommendations
+ * Co-enrollment changes slowly, so the matrix is rebuilt in batch rather than maintained on
+ * every write. On start the matrix saved by the previous run is loaded; if there is none the
+ * first run happens at once. Enabled with recommendations.rebuild.interval.minutes in
+ * config.properties; 0 only loads the saved matrix
+ */
+public class CoEnrollmentJob {
+
+    private final RegistrationDAO registrationDAO;
+    private final AtomicLong runs = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    public CoEnrollmentJob(RegistrationDAO registrationDAO) {
+        this.registrationDAO = registrationDAO;
+    }
+
+    /**
+     * Load the saved matrix, then schedule the job if recommendations.rebuild.interval.minutes is positive
+     * @return true if the job is scheduled after this call
+     */
+    public boolean startIfEnabled() {
+        int courses = CourseRecommender.getInstance().loadSaved();
+        if (courses >= 0) {
+            System.out.println("Co-enrollment matrix loaded for " + courses + " course(s)");
+        }
+        long intervalMinutes = AppConfig.getInt("recommendations.rebuild.interval.minutes", 1440);
+        if (intervalMinutes <= 0) {
+            return false;
+        }
+        start(courses >= 0 ? intervalMinutes : 0, intervalMinutes);
+        return true;
+    }
+
+    /**
+     * Schedule the job
+     * @param initialDelayMinutes minutes until the first run
+     * @param intervalMinutes minutes between runs
+     */
+    public synchronized void start(long initialDelayMinutes, long intervalMinutes) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "co-enrollment-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runOnce, initialDelayMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stop the job if it is scheduled
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Rebuild the matrix now on the calling thread
+     * @return number of course pairs in the new matrix, -1 if the rebuild failed
+     */
+    public int runOnce() {
+        int pairs = registrationDAO.rebuildCoEnrollment();
+        runs.incrementAndGet();
+        if (pairs < 0) {
+            System.err.println("Co-enrollment matrix rebuild failed; keeping the previous matrix");
+        }
+        return pairs;
+    }
+
+    /**
+     * Get number of completed runs
+     * @return total runs, failed ones included
+     */
+    public long getRunCount() {
+        return runs.get();
+    }
+}
@@ -1,7 +1,9 @@
 package com.studentregistration.dao;
 
 import com.studentregistration.model.Course;
+import com.studentregistration.model.CourseMeeting;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Course Data Access Object interface
@@ -23,6 +25,14 @@ public interface CourseDAO {
      */
     Course getCourseById(int courseId);
 
+    /**
+     * Get many courses at once
+     * Large id sets are fetched in bounded IN-list chunks over one connection
+     * @param courseIds IDs of the courses; duplicates are ignored
+     * @return Map of course ID to Course; IDs not found are absent
+     */
+    Map<Integer, Course> getCoursesByIds(int[] courseIds);
+
     /**
      * Get course by course code
      * @param courseCode Course code to search for
@@ -70,4 +80,44 @@ public interface CourseDAO {
      * @return true if course exists, false otherwise
      */
     boolean courseExists(String courseCode);
+
+    /**
+     * Make one course a prerequisite of another
+     * Refused if it would close a cycle in the prerequisite graph
+     * @param courseId ID of the course gaining a prerequisite
+     * @param prerequisiteId ID of the course to complete first
+     * @return true if the prerequisite is recorded (or already was), false if it would create a cycle or failed
+     */
+    boolean addPrerequisite(int courseId, int prerequisiteId);
+
+    /**
+     * Remove a prerequisite from a course
+     * @param courseId ID of the course
+     * @param prerequisiteId ID of the prerequisite
+     * @return true if the prerequisite was removed, false otherwise
+     */
+    boolean removePrerequisite(int courseId, int prerequisiteId);
+
+    /**
+     * Get a course's direct prerequisites
+     * @param courseId ID of the course
+     * @return List of prerequisite courses
+     */
+    List<Course> getPrerequisites(int courseId);
+
+    /**
+     * Get a course's weekly meeting times
+     * @param courseId ID of the course
+     * @return List of meetings ordered by day and start time, empty if none are set
+     */
+    List<CourseMeeting> getMeetings(int courseId);
+
+    /**
+     * Replace a course's weekly meeting times
+     * Existing registrations are not re-checked; clashes they now have show in the timetables
+     * @param courseId ID of the course
+     * @param meetings New meetings, empty to clear them
+     * @return true if the meetings were replaced, false otherwise
+     */
+    boolean setMeetings(int courseId, List<CourseMeeting> meetings);
 }
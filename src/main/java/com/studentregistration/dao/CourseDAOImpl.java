@@ -1,11 +1,19 @@
 package com.studentregistration.dao;
 
+import com.studentregistration.metrics.QueryMetrics;
+import com.studentregistration.metrics.QueryStats;
+import com.studentregistration.metrics.SlowQueryLog;
 import com.studentregistration.model.Course;
+import com.studentregistration.model.CourseMeeting;
 import com.studentregistration.util.DatabaseConnection;
 import java.sql.*;
+import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Course Data Access Object implementation
@@ -14,14 +22,20 @@ import java.util.List;
 public class CourseDAOImpl implements CourseDAO {
 
     private final DatabaseConnection dbConnection;
+    // Promotes from the waitlist when a capacity increase frees seats
+    private final RegistrationDAOImpl registrations;
 
     // SQL queries as constants
     private static final String INSERT_COURSE = 
-        "INSERT INTO courses (course_code, course_name, description, credits, instructor) VALUES (?, ?, ?, ?, ?)";
+        "INSERT INTO courses (course_code, course_name, description, credits, instructor, capacity) VALUES (?, ?, ?, ?, ?, ?)";
 
     private static final String SELECT_COURSE_BY_ID = 
         "SELECT * FROM courses WHERE course_id = ?";
 
+    // Chunked IN-list lookup, see InListQuery
+    private static final InListQuery SELECT_COURSES_BY_IDS =
+        new InListQuery("SELECT * FROM courses WHERE course_id IN ", "");
+
     private static final String SELECT_COURSE_BY_CODE = 
         "SELECT * FROM courses WHERE course_code = ?";
 
@@ -29,7 +43,7 @@ public class CourseDAOImpl implements CourseDAO {
         "SELECT * FROM courses ORDER BY course_code";
 
     private static final String UPDATE_COURSE = 
-        "UPDATE courses SET course_code = ?, course_name = ?, description = ?, credits = ?, instructor = ? WHERE course_id = ?";
+        "UPDATE courses SET course_code = ?, course_name = ?, description = ?, credits = ?, instructor = ?, capacity = ? WHERE course_id = ?";
 
     private static final String DELETE_COURSE = 
         "DELETE FROM courses WHERE course_id = ?";
@@ -43,8 +57,48 @@ public class CourseDAOImpl implements CourseDAO {
     private static final String CHECK_COURSE_EXISTS = 
         "SELECT COUNT(*) FROM courses WHERE course_code = ?";
 
+    private static final String INSERT_PREREQUISITE = 
+        "INSERT IGNORE INTO course_prerequisites (course_id, prerequisite_id) VALUES (?, ?)";
+
+    private static final String DELETE_PREREQUISITE = 
+        "DELETE FROM course_prerequisites WHERE course_id = ? AND prerequisite_id = ?";
+
+    private static final String SELECT_PREREQUISITES = 
+        "SELECT c.* FROM course_prerequisites p " +
+        "INNER JOIN courses c ON c.course_id = p.prerequisite_id " +
+        "WHERE p.course_id = ? ORDER BY c.course_code";
+
+    private static final String SELECT_MEETINGS = 
+        "SELECT day_of_week, start_time, end_time FROM course_meetings WHERE course_id = ? " +
+        "ORDER BY day_of_week, start_time";
+
+    private static final String DELETE_MEETINGS = 
+        "DELETE FROM course_meetings WHERE course_id = ?";
+
+    private static final String INSERT_MEETING = 
+        "INSERT INTO course_meetings (course_id, day_of_week, start_time, end_time) VALUES (?, ?, ?, ?)";
+
+    // Per-statement execution statistics, keyed by SQL constant name
+    private static final QueryStats INSERT_COURSE_STATS = QueryMetrics.forStatement("INSERT_COURSE");
+    private static final QueryStats SELECT_COURSE_BY_ID_STATS = QueryMetrics.forStatement("SELECT_COURSE_BY_ID");
+    private static final QueryStats SELECT_COURSES_BY_IDS_STATS = QueryMetrics.forStatement("SELECT_COURSES_BY_IDS");
+    private static final QueryStats SELECT_COURSE_BY_CODE_STATS = QueryMetrics.forStatement("SELECT_COURSE_BY_CODE");
+    private static final QueryStats SELECT_ALL_COURSES_STATS = QueryMetrics.forStatement("SELECT_ALL_COURSES");
+    private static final QueryStats UPDATE_COURSE_STATS = QueryMetrics.forStatement("UPDATE_COURSE");
+    private static final QueryStats DELETE_COURSE_STATS = QueryMetrics.forStatement("DELETE_COURSE");
+    private static final QueryStats SEARCH_COURSES_BY_NAME_STATS = QueryMetrics.forStatement("SEARCH_COURSES_BY_NAME");
+    private static final QueryStats SELECT_COURSES_BY_INSTRUCTOR_STATS = QueryMetrics.forStatement("SELECT_COURSES_BY_INSTRUCTOR");
+    private static final QueryStats CHECK_COURSE_EXISTS_STATS = QueryMetrics.forStatement("CHECK_COURSE_EXISTS");
+    private static final QueryStats INSERT_PREREQUISITE_STATS = QueryMetrics.forStatement("INSERT_PREREQUISITE");
+    private static final QueryStats DELETE_PREREQUISITE_STATS = QueryMetrics.forStatement("DELETE_PREREQUISITE");
+    private static final QueryStats SELECT_PREREQUISITES_STATS = QueryMetrics.forStatement("SELECT_PREREQUISITES");
+    private static final QueryStats SELECT_MEETINGS_STATS = QueryMetrics.forStatement("SELECT_MEETINGS");
+    private static final QueryStats DELETE_MEETINGS_STATS = QueryMetrics.forStatement("DELETE_MEETINGS");
+    private static final QueryStats INSERT_MEETING_STATS = QueryMetrics.forStatement("INSERT_MEETING");
+
     public CourseDAOImpl() {
         this.dbConnection = DatabaseConnection.getInstance();
+        this.registrations = new RegistrationDAOImpl();
     }
 
     @Override
@@ -57,8 +111,13 @@ public class CourseDAOImpl implements CourseDAO {
             stmt.setString(3, course.getDescription());
             stmt.setInt(4, course.getCredits());
             stmt.setString(5, course.getInstructor());
+            setCapacity(stmt, 6, course.getCapacity());
 
+            long start = System.nanoTime();
             int rowsAffected = stmt.executeUpdate();
+            if (INSERT_COURSE_STATS.record(start, rowsAffected)) {
+                SlowQueryLog.log(INSERT_COURSE_STATS, start, rowsAffected, course.getCourseCode());
+            }
 
             // Get generated ID and set it to course object
             if (rowsAffected > 0) {
@@ -67,10 +126,15 @@ public class CourseDAOImpl implements CourseDAO {
                         course.setCourseId(generatedKeys.getInt(1));
                     }
                 }
+                CreditLoads.getInstance().courseSaved(course.getCourseId(), course.getCredits());
+                ReportCache.getInstance().courseSaved(course);
+                CourseInstructors.getInstance().courseSaved(course.getCourseId(), course.getInstructor());
+                EnrollmentBitmaps.getInstance().courseSaved(course.getCourseId());
                 return true;
             }
 
         } catch (SQLException e) {
+            INSERT_COURSE_STATS.recordError();
             System.err.println("Error adding course: " + e.getMessage());
             e.printStackTrace();
         }
@@ -84,19 +148,83 @@ public class CourseDAOImpl implements CourseDAO {
 
             stmt.setInt(1, courseId);
 
+            long start = System.nanoTime();
+            long executed;
+            Course course = null;
             try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
                 if (rs.next()) {
-                    return mapResultSetToCourse(rs);
+                    course = mapResultSetToCourse(rs);
                 }
             }
+            int rows = course != null ? 1 : 0;
+            if (SELECT_COURSE_BY_ID_STATS.record(start, executed, rows)) {
+                SlowQueryLog.log(SELECT_COURSE_BY_ID_STATS, start, rows, courseId);
+            }
+            return course;
 
         } catch (SQLException e) {
+            SELECT_COURSE_BY_ID_STATS.recordError();
             System.err.println("Error getting course by ID: " + e.getMessage());
             e.printStackTrace();
         }
         return null;
     }
 
+    @Override
+    public Map<Integer, Course> getCoursesByIds(int[] courseIds) {
+        int[] ids = InListQuery.distinct(courseIds);
+        Map<Integer, Course> courses = new HashMap<>(ids.length * 2);
+        if (ids.length == 0) {
+            return courses;
+        }
+
+        try (Connection conn = dbConnection.getConnection()) {
+            PreparedStatement stmt = null;
+            int preparedSize = 0;
+            try {
+                for (int from = 0; from < ids.length; from += InListQuery.MAX_CHUNK_SIZE) {
+                    int to = Math.min(from + InListQuery.MAX_CHUNK_SIZE, ids.length);
+                    int paddedSize = InListQuery.paddedSize(to - from);
+                    // Full chunks share one statement; only a trailing partial chunk needs another
+                    if (paddedSize != preparedSize) {
+                        if (stmt != null) {
+                            stmt.close();
+                        }
+                        stmt = conn.prepareStatement(SELECT_COURSES_BY_IDS.sql(paddedSize));
+                        preparedSize = paddedSize;
+                    }
+                    InListQuery.bind(stmt, ids, from, to, paddedSize);
+
+                    long start = System.nanoTime();
+                    long executed;
+                    int rows = 0;
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        executed = System.nanoTime();
+                        while (rs.next()) {
+                            Course course = mapResultSetToCourse(rs);
+                            courses.put(course.getCourseId(), course);
+                            rows++;
+                        }
+                    }
+                    if (SELECT_COURSES_BY_IDS_STATS.record(start, executed, rows)) {
+                        SlowQueryLog.log(SELECT_COURSES_BY_IDS_STATS, start, rows, to - from, ids[from], ids[to - 1]);
+                    }
+                }
+            } finally {
+                if (stmt != null) {
+                    stmt.close();
+                }
+            }
+
+        } catch (SQLException e) {
+            SELECT_COURSES_BY_IDS_STATS.recordError();
+            System.err.println("Error getting courses by IDs: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return courses;
+    }
+
     @Override
     public Course getCourseByCode(String courseCode) {
         try (Connection conn = dbConnection.getConnection();
@@ -104,13 +232,23 @@ public class CourseDAOImpl implements CourseDAO {
 
             stmt.setString(1, courseCode);
 
+            long start = System.nanoTime();
+            long executed;
+            Course course = null;
             try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
                 if (rs.next()) {
-                    return mapResultSetToCourse(rs);
+                    course = mapResultSetToCourse(rs);
                 }
             }
+            int rows = course != null ? 1 : 0;
+            if (SELECT_COURSE_BY_CODE_STATS.record(start, executed, rows)) {
+                SlowQueryLog.log(SELECT_COURSE_BY_CODE_STATS, start, rows, courseCode);
+            }
+            return course;
 
         } catch (SQLException e) {
+            SELECT_COURSE_BY_CODE_STATS.recordError();
             System.err.println("Error getting course by code: " + e.getMessage());
             e.printStackTrace();
         }
@@ -122,14 +260,22 @@ public class CourseDAOImpl implements CourseDAO {
         List<Course> courses = new ArrayList<>();
 
         try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_COURSES);
-             ResultSet rs = stmt.executeQuery()) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_COURSES)) {
 
-            while (rs.next()) {
-                courses.add(mapResultSetToCourse(rs));
+            long start = System.nanoTime();
+            long executed;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                while (rs.next()) {
+                    courses.add(mapResultSetToCourse(rs));
+                }
+            }
+            if (SELECT_ALL_COURSES_STATS.record(start, executed, courses.size())) {
+                SlowQueryLog.log(SELECT_ALL_COURSES_STATS, start, courses.size());
             }
 
         } catch (SQLException e) {
+            SELECT_ALL_COURSES_STATS.recordError();
             System.err.println("Error getting all courses: " + e.getMessage());
             e.printStackTrace();
         }
@@ -139,20 +285,52 @@ public class CourseDAOImpl implements CourseDAO {
 
     @Override
     public boolean updateCourse(Course course) {
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(UPDATE_COURSE)) {
-
-            stmt.setString(1, course.getCourseCode());
-            stmt.setString(2, course.getCourseName());
-            stmt.setString(3, course.getDescription());
-            stmt.setInt(4, course.getCredits());
-            stmt.setString(5, course.getInstructor());
-            stmt.setInt(6, course.getCourseId());
-
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
+        int courseId = course.getCourseId();
+        // Checked before the transaction so a cold queue is not loaded while rows are locked
+        boolean waiting = WaitlistQueues.getInstance().hasWaiting(courseId);
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int rowsAffected;
+                try (PreparedStatement stmt = conn.prepareStatement(UPDATE_COURSE)) {
+                    stmt.setString(1, course.getCourseCode());
+                    stmt.setString(2, course.getCourseName());
+                    stmt.setString(3, course.getDescription());
+                    stmt.setInt(4, course.getCredits());
+                    stmt.setString(5, course.getInstructor());
+                    setCapacity(stmt, 6, course.getCapacity());
+                    stmt.setInt(7, courseId);
+
+                    long start = System.nanoTime();
+                    rowsAffected = stmt.executeUpdate();
+                    if (UPDATE_COURSE_STATS.record(start, rowsAffected)) {
+                        SlowQueryLog.log(UPDATE_COURSE_STATS, start, rowsAffected, courseId);
+                    }
+                }
+                // A raised capacity goes to those already waiting before the update commits
+                Map<Long, Integer> promoted = rowsAffected > 0 && waiting
+                    ? registrations.promoteWaitlisted(conn, courseId) : Collections.emptyMap();
+                conn.commit();
+
+                // The capacity and credits may have changed
+                SeatAllocator.getInstance().invalidate(courseId);
+                if (rowsAffected > 0) {
+                    registrations.afterPromotion(courseId, promoted);
+                    CreditLoads.getInstance().courseSaved(courseId, course.getCredits());
+                    TranscriptCache.getInstance().invalidateAll();
+                    ReportCache.getInstance().courseSaved(course);
+                    CourseInstructors.getInstance().courseSaved(courseId, course.getInstructor());
+                }
+                return rowsAffected > 0;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
 
         } catch (SQLException e) {
+            UPDATE_COURSE_STATS.recordError();
             System.err.println("Error updating course: " + e.getMessage());
             e.printStackTrace();
         }
@@ -166,10 +344,27 @@ public class CourseDAOImpl implements CourseDAO {
 
             stmt.setInt(1, courseId);
 
+            long start = System.nanoTime();
             int rowsAffected = stmt.executeUpdate();
+            if (DELETE_COURSE_STATS.record(start, rowsAffected)) {
+                SlowQueryLog.log(DELETE_COURSE_STATS, start, rowsAffected, courseId);
+            }
+            SeatAllocator.getInstance().invalidate(courseId);
+            WaitlistQueues.getInstance().invalidate(courseId);
+            if (rowsAffected > 0) {
+                CreditLoads.getInstance().courseDeleted(courseId);
+                PrerequisiteGraph.getInstance().courseDeleted(courseId);
+                TimetableIndex.getInstance().courseChanged(courseId);
+                TranscriptCache.getInstance().invalidateAll();
+                ReportCache.getInstance().invalidateAll();
+                CourseInstructors.getInstance().courseDeleted(courseId);
+                EnrollmentBitmaps.getInstance().courseDeleted(courseId);
+                GradeHistograms.getInstance().courseDeleted(courseId);
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
+            DELETE_COURSE_STATS.recordError();
             System.err.println("Error deleting course: " + e.getMessage());
             e.printStackTrace();
         }
@@ -186,13 +381,20 @@ public class CourseDAOImpl implements CourseDAO {
 
             stmt.setString(1, searchPattern);
 
+            long start = System.nanoTime();
+            long executed;
             try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
                 while (rs.next()) {
                     courses.add(mapResultSetToCourse(rs));
                 }
             }
+            if (SEARCH_COURSES_BY_NAME_STATS.record(start, executed, courses.size())) {
+                SlowQueryLog.log(SEARCH_COURSES_BY_NAME_STATS, start, courses.size(), searchPattern);
+            }
 
         } catch (SQLException e) {
+            SEARCH_COURSES_BY_NAME_STATS.recordError();
             System.err.println("Error searching courses by name: " + e.getMessage());
             e.printStackTrace();
         }
@@ -210,13 +412,20 @@ public class CourseDAOImpl implements CourseDAO {
 
             stmt.setString(1, searchPattern);
 
+            long start = System.nanoTime();
+            long executed;
             try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
                 while (rs.next()) {
                     courses.add(mapResultSetToCourse(rs));
                 }
             }
+            if (SELECT_COURSES_BY_INSTRUCTOR_STATS.record(start, executed, courses.size())) {
+                SlowQueryLog.log(SELECT_COURSES_BY_INSTRUCTOR_STATS, start, courses.size(), searchPattern);
+            }
 
         } catch (SQLException e) {
+            SELECT_COURSES_BY_INSTRUCTOR_STATS.recordError();
             System.err.println("Error getting courses by instructor: " + e.getMessage());
             e.printStackTrace();
         }
@@ -231,19 +440,229 @@ public class CourseDAOImpl implements CourseDAO {
 
             stmt.setString(1, courseCode);
 
+            long start = System.nanoTime();
+            long executed;
+            boolean exists = false;
             try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
                 if (rs.next()) {
-                    return rs.getInt(1) > 0;
+                    exists = rs.getInt(1) > 0;
                 }
             }
+            if (CHECK_COURSE_EXISTS_STATS.record(start, executed, 1)) {
+                SlowQueryLog.log(CHECK_COURSE_EXISTS_STATS, start, 1, courseCode);
+            }
+            return exists;
 
         } catch (SQLException e) {
+            CHECK_COURSE_EXISTS_STATS.recordError();
             System.err.println("Error checking if course exists: " + e.getMessage());
             e.printStackTrace();
         }
         return false;
     }
 
+    @Override
+    public boolean addPrerequisite(int courseId, int prerequisiteId) {
+        PrerequisiteGraph graph = PrerequisiteGraph.getInstance();
+        // Check and insert under the graph's lock so two edits cannot close a cycle between them
+        synchronized (graph) {
+            if (graph.wouldCreateCycle(courseId, prerequisiteId)) {
+                System.out.println("Prerequisite refused: it would create a cycle.");
+                return false;
+            }
+            try (Connection conn = dbConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(INSERT_PREREQUISITE)) {
+
+                stmt.setInt(1, courseId);
+                stmt.setInt(2, prerequisiteId);
+
+                long start = System.nanoTime();
+                int rowsAffected = stmt.executeUpdate();
+                if (INSERT_PREREQUISITE_STATS.record(start, rowsAffected)) {
+                    SlowQueryLog.log(INSERT_PREREQUISITE_STATS, start, rowsAffected, courseId, prerequisiteId);
+                }
+                // Nothing inserted means the prerequisite was already there
+                if (rowsAffected > 0) {
+                    graph.rebuild();
+                }
+                return true;
+
+            } catch (SQLException e) {
+                INSERT_PREREQUISITE_STATS.recordError();
+                System.err.println("Error adding prerequisite: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean removePrerequisite(int courseId, int prerequisiteId) {
+        PrerequisiteGraph graph = PrerequisiteGraph.getInstance();
+        synchronized (graph) {
+            try (Connection conn = dbConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(DELETE_PREREQUISITE)) {
+
+                stmt.setInt(1, courseId);
+                stmt.setInt(2, prerequisiteId);
+
+                long start = System.nanoTime();
+                int rowsAffected = stmt.executeUpdate();
+                if (DELETE_PREREQUISITE_STATS.record(start, rowsAffected)) {
+                    SlowQueryLog.log(DELETE_PREREQUISITE_STATS, start, rowsAffected, courseId, prerequisiteId);
+                }
+                if (rowsAffected > 0) {
+                    graph.rebuild();
+                }
+                return rowsAffected > 0;
+
+            } catch (SQLException e) {
+                DELETE_PREREQUISITE_STATS.recordError();
+                System.err.println("Error removing prerequisite: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public List<Course> getPrerequisites(int courseId) {
+        List<Course> courses = new ArrayList<>();
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_PREREQUISITES)) {
+
+            stmt.setInt(1, courseId);
+
+            long start = System.nanoTime();
+            long executed;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                while (rs.next()) {
+                    courses.add(mapResultSetToCourse(rs));
+                }
+            }
+            if (SELECT_PREREQUISITES_STATS.record(start, executed, courses.size())) {
+                SlowQueryLog.log(SELECT_PREREQUISITES_STATS, start, courses.size(), courseId);
+            }
+
+        } catch (SQLException e) {
+            SELECT_PREREQUISITES_STATS.recordError();
+            System.err.println("Error getting prerequisites: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return courses;
+    }
+
+    @Override
+    public List<CourseMeeting> getMeetings(int courseId) {
+        List<CourseMeeting> meetings = new ArrayList<>();
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_MEETINGS)) {
+
+            stmt.setInt(1, courseId);
+
+            long start = System.nanoTime();
+            long executed;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                while (rs.next()) {
+                    meetings.add(new CourseMeeting(courseId, DayOfWeek.of(rs.getInt("day_of_week")),
+                                                   rs.getTime("start_time").toLocalTime(),
+                                                   rs.getTime("end_time").toLocalTime()));
+                }
+            }
+            if (SELECT_MEETINGS_STATS.record(start, executed, meetings.size())) {
+                SlowQueryLog.log(SELECT_MEETINGS_STATS, start, meetings.size(), courseId);
+            }
+
+        } catch (SQLException e) {
+            SELECT_MEETINGS_STATS.recordError();
+            System.err.println("Error getting meeting times: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return meetings;
+    }
+
+    @Override
+    public boolean setMeetings(int courseId, List<CourseMeeting> meetings) {
+        boolean replaced = false;
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement(DELETE_MEETINGS)) {
+                    stmt.setInt(1, courseId);
+
+                    long start = System.nanoTime();
+                    int rowsAffected = stmt.executeUpdate();
+                    if (DELETE_MEETINGS_STATS.record(start, rowsAffected)) {
+                        SlowQueryLog.log(DELETE_MEETINGS_STATS, start, rowsAffected, courseId);
+                    }
+                } catch (SQLException e) {
+                    DELETE_MEETINGS_STATS.recordError();
+                    throw e;
+                }
+
+                if (!meetings.isEmpty()) {
+                    try (PreparedStatement stmt = conn.prepareStatement(INSERT_MEETING)) {
+                        for (CourseMeeting meeting : meetings) {
+                            stmt.setInt(1, courseId);
+                            stmt.setInt(2, meeting.getDayOfWeek().getValue());
+                            stmt.setTime(3, Time.valueOf(meeting.getStartTime()));
+                            stmt.setTime(4, Time.valueOf(meeting.getEndTime()));
+                            stmt.addBatch();
+                        }
+
+                        long start = System.nanoTime();
+                        int rowsAffected = 0;
+                        for (int count : stmt.executeBatch()) {
+                            rowsAffected += Math.max(count, 0);
+                        }
+                        if (INSERT_MEETING_STATS.record(start, rowsAffected)) {
+                            SlowQueryLog.log(INSERT_MEETING_STATS, start, rowsAffected, courseId);
+                        }
+                    } catch (SQLException e) {
+                        INSERT_MEETING_STATS.recordError();
+                        throw e;
+                    }
+                }
+                conn.commit();
+                replaced = true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error setting meeting times: " + e.getMessage());
+            e.printStackTrace();
+        }
+        if (replaced) {
+            // Every timetable containing the course may have changed
+            TimetableIndex.getInstance().courseChanged(courseId);
+        }
+        return replaced;
+    }
+
+    /**
+     * Helper method to bind a nullable capacity
+     * @param capacity maximum ACTIVE registrations, null for unlimited
+     * @throws SQLException if binding fails
+     */
+    private static void setCapacity(PreparedStatement stmt, int index, Integer capacity) throws SQLException {
+        if (capacity != null) {
+            stmt.setInt(index, capacity);
+        } else {
+            stmt.setNull(index, Types.INTEGER);
+        }
+    }
+
     /**
      * Helper method to map ResultSet to Course object
      * @param rs ResultSet from database query
@@ -259,6 +678,9 @@ public class CourseDAOImpl implements CourseDAO {
         course.setDescription(rs.getString("description"));
         course.setCredits(rs.getInt("credits"));
         course.setInstructor(rs.getString("instructor"));
+        int capacity = rs.getInt("capacity");
+        course.setCapacity(rs.wasNull() ? null : capacity);
+        course.setActiveEnrollment(rs.getInt("active_enrollment"));
 
         // Handle LocalDateTime conversion
         Timestamp createdDate = rs.getTimestamp("created_date");
@@ -0,0 +1,118 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.metrics.QueryMetrics;
+import com.studentregistration.metrics.QueryStats;
+import com.studentregistration.metrics.SlowQueryLog;
+import com.studentregistration.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process course to instructor lookup, so registration demand can be counted per instructor
+ * without a query per registration
+ * Loaded in bulk on first use and kept current by CourseDAOImpl. A course this process has not
+ * seen (added by another process) triggers a reload, at most once a minute
+ */
+final class CourseInstructors {
+
+    private static final String SELECT_COURSE_INSTRUCTORS =
+        "SELECT course_id, instructor FROM courses";
+
+    private static final QueryStats SELECT_COURSE_INSTRUCTORS_STATS = QueryMetrics.forStatement("SELECT_COURSE_INSTRUCTORS");
+
+    private static final long RELOAD_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final String UNASSIGNED = "(unassigned)";
+
+    private static CourseInstructors instance;
+
+    private final DatabaseConnection dbConnection;
+
+    // Replaced wholesale by each load; null until the first one succeeds
+    private volatile ConcurrentHashMap<Integer, String> instructors;
+    private long loadedAt;
+    private boolean attempted;
+
+    private CourseInstructors() {
+        this.dbConnection = DatabaseConnection.getInstance();
+    }
+
+    static synchronized CourseInstructors getInstance() {
+        if (instance == null) {
+            instance = new CourseInstructors();
+        }
+        return instance;
+    }
+
+    /**
+     * Get a course's instructor
+     * @return instructor, "(unassigned)" if the course has none, null if the course is unknown
+     */
+    String get(int courseId) {
+        ConcurrentHashMap<Integer, String> current = instructors;
+        String instructor = current != null ? current.get(courseId) : null;
+        if (instructor == null) {
+            current = load();
+            instructor = current != null ? current.get(courseId) : null;
+        }
+        return instructor;
+    }
+
+    /**
+     * Record a course's instructor after it was added or updated
+     */
+    void courseSaved(int courseId, String instructor) {
+        ConcurrentHashMap<Integer, String> current = instructors;
+        if (current != null) {
+            current.put(courseId, normalize(instructor));
+        }
+    }
+
+    void courseDeleted(int courseId) {
+        ConcurrentHashMap<Integer, String> current = instructors;
+        if (current != null) {
+            current.remove(courseId);
+        }
+    }
+
+    private synchronized ConcurrentHashMap<Integer, String> load() {
+        // Another caller may have loaded while this one waited, and a failed load is not retried at once
+        if (attempted && System.nanoTime() - loadedAt <= RELOAD_INTERVAL_NANOS) {
+            return instructors;
+        }
+        attempted = true;
+        loadedAt = System.nanoTime();
+        ConcurrentHashMap<Integer, String> loaded = new ConcurrentHashMap<>();
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_COURSE_INSTRUCTORS)) {
+
+            long start = System.nanoTime();
+            long executed;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                while (rs.next()) {
+                    loaded.put(rs.getInt("course_id"), normalize(rs.getString("instructor")));
+                }
+            }
+            if (SELECT_COURSE_INSTRUCTORS_STATS.record(start, executed, loaded.size())) {
+                SlowQueryLog.log(SELECT_COURSE_INSTRUCTORS_STATS, start, loaded.size());
+            }
+
+        } catch (SQLException e) {
+            SELECT_COURSE_INSTRUCTORS_STATS.recordError();
+            System.err.println("Error loading course instructors: " + e.getMessage());
+            e.printStackTrace();
+            return instructors;
+        }
+        instructors = loaded;
+        return loaded;
+    }
+
+    private static String normalize(String instructor) {
+        return instructor == null || instructor.trim().isEmpty() ? UNASSIGNED : instructor.trim();
+    }
+}
@@ -0,0 +1,147 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.model.CourseRecommendation;
+import com.studentregistration.model.Registration;
+import com.studentregistration.report.CoEnrollmentEngine;
+import com.studentregistration.report.CoEnrollmentMatrix;
+import com.studentregistration.report.ReportSnapshot;
+import com.studentregistration.util.AppConfig;
+import com.studentregistration.util.DatabaseConnection;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Course suggestions from a co-enrollment matrix: courses other students took together with
+ * the student's ACTIVE and COMPLETED courses
+ * The matrix is computed in batch by {@link #rebuild()} (see CoEnrollmentJob) from a
+ * {@link ReportSnapshot}, saved to recommendations.matrix.file and loaded from it again by
+ * {@link #loadSaved()} at startup. A recommendation reads the student's courses from
+ * EnrollmentBitmaps and sums their matrix rows, so it costs no query. The matrix is only as
+ * fresh as its last rebuild; the student's own courses are always current
+ */
+public final class CourseRecommender {
+
+    private static final Set<Registration.RegistrationStatus> TAKEN =
+        EnumSet.of(Registration.RegistrationStatus.ACTIVE, Registration.RegistrationStatus.COMPLETED);
+
+    private static CourseRecommender instance;
+
+    private final DatabaseConnection dbConnection;
+    private final EnrollmentBitmaps enrollmentBitmaps;
+    private final CoEnrollmentEngine engine;
+    private final Path file;
+
+    // Replaced wholesale by each load or rebuild; null until the first one succeeds
+    private volatile CoEnrollmentMatrix matrix;
+
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    private CourseRecommender() {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.enrollmentBitmaps = EnrollmentBitmaps.getInstance();
+        this.engine = new CoEnrollmentEngine();
+        this.file = Paths.get(AppConfig.getString("recommendations.matrix.file", "co-enrollment.matrix"));
+    }
+
+    /**
+     * Get the recommender instance (Singleton pattern)
+     * @return CourseRecommender instance
+     */
+    public static synchronized CourseRecommender getInstance() {
+        if (instance == null) {
+            instance = new CourseRecommender();
+        }
+        return instance;
+    }
+
+    /**
+     * Suggest courses for a student
+     * @param studentId ID of the student
+     * @param k most suggestions wanted
+     * @return up to k courses the student is not registered for, best first; empty if the
+     *         student has no ACTIVE or COMPLETED course; null if there is no matrix yet or the
+     *         enrollment bitmaps could not be loaded
+     */
+    public List<CourseRecommendation> recommend(int studentId, int k) {
+        CoEnrollmentMatrix current = matrix;
+        if (current == null) {
+            return null;
+        }
+        int[] taken = enrollmentBitmaps.findCourses(studentId, TAKEN);
+        int[] registered = enrollmentBitmaps.findCourses(studentId, null);
+        if (taken == null || registered == null) {
+            return null;
+        }
+        if (taken.length == 0) {
+            return Collections.emptyList();
+        }
+        return current.recommend(taken, registered, k);
+    }
+
+    /**
+     * Get the current matrix
+     * @return matrix, null if none has been loaded or built
+     */
+    public CoEnrollmentMatrix getMatrix() {
+        return matrix;
+    }
+
+    /**
+     * Get number of successful rebuilds from the database
+     * @return total rebuilds
+     */
+    public long getRebuildCount() {
+        return rebuilds.get();
+    }
+
+    /**
+     * Load the matrix saved by the last rebuild, if there is one
+     * @return number of courses in the matrix, or -1 if there is no usable saved matrix
+     */
+    synchronized int loadSaved() {
+        if (!Files.exists(file)) {
+            return -1;
+        }
+        try {
+            CoEnrollmentMatrix loaded = CoEnrollmentMatrix.read(file);
+            matrix = loaded;
+            return loaded.getCourseCount();
+        } catch (IOException e) {
+            System.err.println("Error loading co-enrollment matrix: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * Recompute the matrix from a fresh snapshot of the registrations, publish it and save it
+     * @return number of course pairs in the new matrix, or -1 if the snapshot failed and the
+     *         previous matrix was kept
+     */
+    synchronized int rebuild() {
+        long builtAt = System.currentTimeMillis();
+        ReportSnapshot snapshot = ReportSnapshot.load(dbConnection);
+        if (snapshot == null) {
+            return -1;
+        }
+        CoEnrollmentMatrix built = engine.compute(snapshot, builtAt);
+        matrix = built;
+        rebuilds.incrementAndGet();
+        try {
+            built.write(file);
+        } catch (IOException e) {
+            // Still served from memory; the next start recomputes it instead of loading it
+            System.err.println("Error saving co-enrollment matrix: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return built.getPairCount();
+    }
+}
@@ -0,0 +1,261 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.metrics.QueryMetrics;
+import com.studentregistration.metrics.QueryStats;
+import com.studentregistration.metrics.SlowQueryLog;
+import com.studentregistration.util.AppConfig;
+import com.studentregistration.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process credit load per student, for the registration.maxCredits policy
+ * A student's load is the credits of their ACTIVE and WAITLISTED registrations. Waitlisted
+ * courses count so that a promotion, which happens in a drop's transaction on behalf of some
+ * other student, can never push anyone over the limit. Loads and course credits are loaded in
+ * bulk by {@link #rebuild()} (at startup and after every enrollment reconciliation) and then kept
+ * current by RegistrationDAOImpl: a registration adds its course's credits here before its
+ * transaction starts, and drops and status changes subtract them after commit. Checking the
+ * limit therefore costs no query.
+ *
+ * Like SeatAllocator this is a per-process view. Writes by other processes or manual SQL are
+ * not seen until the next rebuild, and a rebuild racing with in-flight registrations can miss
+ * one of them until the rebuild after. The database does not enforce the limit
+ */
+public final class CreditLoads {
+
+    private static final String SELECT_COURSE_CREDITS =
+        "SELECT course_id, credits FROM courses";
+
+    private static final String SELECT_CREDIT_LOADS =
+        "SELECT r.student_id, SUM(c.credits) AS credit_load FROM registrations r " +
+        "INNER JOIN courses c ON r.course_id = c.course_id " +
+        "WHERE r.status IN ('ACTIVE', 'WAITLISTED') GROUP BY r.student_id";
+
+    private static final QueryStats SELECT_COURSE_CREDITS_STATS = QueryMetrics.forStatement("SELECT_COURSE_CREDITS");
+    private static final QueryStats SELECT_CREDIT_LOADS_STATS = QueryMetrics.forStatement("SELECT_CREDIT_LOADS");
+
+    private static CreditLoads instance;
+
+    private final DatabaseConnection dbConnection;
+    private final int maxCredits;
+
+    // Replaced wholesale by each rebuild; null until the first one succeeds
+    private volatile ConcurrentHashMap<Integer, Integer> courseCredits;
+    private volatile ConcurrentHashMap<Integer, AtomicInteger> loads;
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    private CreditLoads() {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.maxCredits = AppConfig.getInt("registration.maxCredits", 18);
+    }
+
+    /**
+     * Get the credit loads instance (Singleton pattern)
+     * @return CreditLoads instance
+     */
+    public static synchronized CreditLoads getInstance() {
+        if (instance == null) {
+            instance = new CreditLoads();
+        }
+        return instance;
+    }
+
+    /**
+     * Get the configured limit
+     * @return most credits a student may carry, 0 or less if there is no limit
+     */
+    public int getMaxCredits() {
+        return maxCredits;
+    }
+
+    /**
+     * Get a student's credit load
+     * @param studentId ID of the student
+     * @return credits of the student's ACTIVE and WAITLISTED registrations, 0 if the loads
+     *         could not be loaded
+     */
+    public int getCreditLoad(int studentId) {
+        if (!ensureLoaded()) {
+            return 0;
+        }
+        AtomicInteger load = loads.get(studentId);
+        return load != null ? load.get() : 0;
+    }
+
+    /**
+     * Reload every course's credits and every student's load from the database
+     * @return number of students with a load, or -1 if the load failed and the previous
+     *         totals were kept
+     */
+    public synchronized int rebuild() {
+        ConcurrentHashMap<Integer, Integer> credits = new ConcurrentHashMap<>();
+        ConcurrentHashMap<Integer, AtomicInteger> rebuilt = new ConcurrentHashMap<>();
+        try (Connection conn = dbConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_COURSE_CREDITS)) {
+                long start = System.nanoTime();
+                long executed;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    executed = System.nanoTime();
+                    while (rs.next()) {
+                        credits.put(rs.getInt("course_id"), rs.getInt("credits"));
+                    }
+                }
+                if (SELECT_COURSE_CREDITS_STATS.record(start, executed, credits.size())) {
+                    SlowQueryLog.log(SELECT_COURSE_CREDITS_STATS, start, credits.size());
+                }
+            } catch (SQLException e) {
+                SELECT_COURSE_CREDITS_STATS.recordError();
+                throw e;
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_CREDIT_LOADS)) {
+                long start = System.nanoTime();
+                long executed;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    executed = System.nanoTime();
+                    while (rs.next()) {
+                        rebuilt.put(rs.getInt("student_id"), new AtomicInteger(rs.getInt("credit_load")));
+                    }
+                }
+                if (SELECT_CREDIT_LOADS_STATS.record(start, executed, rebuilt.size())) {
+                    SlowQueryLog.log(SELECT_CREDIT_LOADS_STATS, start, rebuilt.size());
+                }
+            } catch (SQLException e) {
+                SELECT_CREDIT_LOADS_STATS.recordError();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error loading student credit loads: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+        courseCredits = credits;
+        loads = rebuilt;
+        rebuilds.incrementAndGet();
+        return rebuilt.size();
+    }
+
+    /**
+     * Get number of registrations turned away by the credit limit
+     * @return total rejections
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Get number of successful bulk rebuilds
+     * @return total rebuilds
+     */
+    public long getRebuildCount() {
+        return rebuilds.get();
+    }
+
+    /**
+     * Add a course's credits to a student's load unless that would exceed the limit
+     * A course this process has not seen yet (added by another process) triggers a rebuild;
+     * when the loads cannot be loaded at all, the registration is let through unchecked
+     * @return false if the student would go over registration.maxCredits
+     */
+    boolean tryAdd(int studentId, int courseId) {
+        if (!ensureLoaded()) {
+            return true;
+        }
+        Integer credits = courseCredits.get(courseId);
+        if (credits == null && rebuild() >= 0) {
+            credits = courseCredits.get(courseId);
+        }
+        if (credits == null) {
+            return true;
+        }
+        AtomicInteger load = loads.computeIfAbsent(studentId, id -> new AtomicInteger());
+        while (true) {
+            int current = load.get();
+            int next = current + credits;
+            if (maxCredits > 0 && next > maxCredits) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (load.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Load the totals, and reload them if the course is not known yet, so that a following
+     * {@link #tryAdd(int, int)} for the course runs no query; called before a transaction that
+     * locks rows
+     */
+    void prepare(int courseId) {
+        if (ensureLoaded() && !courseCredits.containsKey(courseId)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Subtract a course's credits from a student's load: the registration was dropped, left
+     * ACTIVE/WAITLISTED, or failed after {@link #tryAdd(int, int)}
+     */
+    void remove(int studentId, int courseId) {
+        ConcurrentHashMap<Integer, AtomicInteger> current = loads;
+        ConcurrentHashMap<Integer, Integer> credits = courseCredits;
+        if (current == null) {
+            return;
+        }
+        Integer courseLoad = credits.get(courseId);
+        AtomicInteger load = current.get(studentId);
+        if (courseLoad != null && load != null) {
+            load.updateAndGet(value -> Math.max(0, value - courseLoad));
+        }
+    }
+
+    /**
+     * Record a course's credits after it was added or updated
+     * A change of credits changes the load of everyone registered, so it triggers a rebuild
+     */
+    void courseSaved(int courseId, int credits) {
+        ConcurrentHashMap<Integer, Integer> current = courseCredits;
+        if (current == null) {
+            return;
+        }
+        Integer previous = current.put(courseId, credits);
+        if (previous != null && previous != credits) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Forget a deleted course; the cascade removed its registrations from everyone's load
+     */
+    void courseDeleted(int courseId) {
+        ConcurrentHashMap<Integer, Integer> current = courseCredits;
+        if (current != null && current.containsKey(courseId)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Forget a deleted student
+     */
+    void studentDeleted(int studentId) {
+        ConcurrentHashMap<Integer, AtomicInteger> current = loads;
+        if (current != null) {
+            current.remove(studentId);
+        }
+    }
+
+    private boolean ensureLoaded() {
+        return loads != null || rebuild() >= 0;
+    }
+}
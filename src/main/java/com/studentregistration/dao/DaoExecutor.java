@@ -0,0 +1,32 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.util.AppConfig;
+import com.studentregistration.util.BoundedExecutor;
+import com.studentregistration.util.DatabaseConnection;
+import com.studentregistration.util.VirtualThreads;
+
+/**
+ * Shared executor for the asynchronous DAOs
+ * Runs each DAO call on its own virtual thread, with at most dao.async.maxConcurrency calls
+ * in progress (default: the connection pool size, since every call holds a connection)
+ */
+public final class DaoExecutor {
+
+    private static BoundedExecutor defaultExecutor;
+
+    private DaoExecutor() {}
+
+    /**
+     * Get the shared executor, creating it on first use
+     * @return bounded virtual-thread executor
+     */
+    public static synchronized BoundedExecutor getDefault() {
+        if (defaultExecutor == null) {
+            int maxConcurrency = AppConfig.getInt("dao.async.maxConcurrency",
+                                                  DatabaseConnection.getInstance().getMaxConnections());
+            defaultExecutor = new BoundedExecutor(VirtualThreads.newThreadPerTaskExecutor("dao-async"),
+                                                  maxConcurrency);
+        }
+        return defaultExecutor;
+    }
+}
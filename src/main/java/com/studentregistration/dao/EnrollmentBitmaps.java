@@ -0,0 +1,472 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.metrics.CacheMetrics;
+import com.studentregistration.metrics.CacheStats;
+import com.studentregistration.metrics.QueryMetrics;
+import com.studentregistration.metrics.QueryStats;
+import com.studentregistration.metrics.SlowQueryLog;
+import com.studentregistration.model.Registration;
+import com.studentregistration.util.DatabaseConnection;
+import com.studentregistration.util.RoaringBitmap;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process student ID bitmaps for set queries over enrollments
+ * Every course has one {@link RoaringBitmap} of student IDs per registration status, and two more
+ * bitmaps hold every student and every student with at least one registration. Questions that
+ * take an anti-join or a self-join in SQL (students with no registrations, courses with none,
+ * students registered for A and B but not C) become a few ANDs, ORs and ANDNOTs over compressed
+ * bitmaps, answered in microseconds without touching the database.
+ *
+ * The bitmaps are loaded in bulk by {@link #rebuild()} (at first use and after every enrollment
+ * reconciliation) and kept current by RegistrationDAOImpl, CourseDAOImpl and StudentDAOImpl after
+ * each commit. Bitmaps are immutable, so a write replaces one course's bitmaps for the cost of
+ * copying one chunk, and readers never lock. Writes and rebuilds are serialized, and since adding
+ * a present student or removing an absent one changes nothing, a write that commits while a
+ * rebuild is reading is counted exactly once. Like CreditLoads this is a per-process view, and
+ * writes by other processes are only seen at the next rebuild
+ */
+public final class EnrollmentBitmaps {
+
+    private static final String SELECT_BITMAP_STUDENTS =
+        "SELECT student_id FROM students ORDER BY student_id";
+
+    private static final String SELECT_BITMAP_COURSES =
+        "SELECT course_id FROM courses";
+
+    private static final String SELECT_BITMAP_REGISTRATIONS =
+        "SELECT course_id, status, student_id FROM registrations ORDER BY course_id, status, student_id";
+
+    private static final QueryStats SELECT_BITMAP_STUDENTS_STATS = QueryMetrics.forStatement("SELECT_BITMAP_STUDENTS");
+    private static final QueryStats SELECT_BITMAP_COURSES_STATS = QueryMetrics.forStatement("SELECT_BITMAP_COURSES");
+    private static final QueryStats SELECT_BITMAP_REGISTRATIONS_STATS =
+        QueryMetrics.forStatement("SELECT_BITMAP_REGISTRATIONS");
+
+    private static final Registration.RegistrationStatus[] STATUSES = Registration.RegistrationStatus.values();
+
+    private static EnrollmentBitmaps instance;
+
+    private final DatabaseConnection dbConnection;
+    private final CacheStats cacheStats;
+
+    // Replaced wholesale by each rebuild; null until the first one succeeds
+    private volatile Sets sets;
+
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    private EnrollmentBitmaps() {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.cacheStats = CacheMetrics.register("enrollment_bitmaps", () -> {
+            Sets current = sets;
+            return current != null ? current.courses.size() : 0;
+        });
+    }
+
+    /**
+     * Get the bitmaps instance (Singleton pattern)
+     * @return EnrollmentBitmaps instance
+     */
+    public static synchronized EnrollmentBitmaps getInstance() {
+        if (instance == null) {
+            instance = new EnrollmentBitmaps();
+        }
+        return instance;
+    }
+
+    /**
+     * Find the students whose registrations match a combination of courses
+     * Courses in allOf are intersected smallest first, so an empty result ends the work early
+     * @param allOf courses the student must be registered for, every one; empty to start from all students
+     * @param anyOf courses the student must be registered for at least one of; empty for no constraint
+     * @param noneOf courses the student must not be registered for
+     * @param statuses statuses that count as registered; null or empty for any status
+     * @return matching student IDs in ascending order, null if the bitmaps could not be loaded
+     */
+    public int[] findCohort(int[] allOf, int[] anyOf, int[] noneOf, Set<Registration.RegistrationStatus> statuses) {
+        Sets current = ensureLoaded();
+        if (current == null) {
+            return null;
+        }
+        RoaringBitmap cohort;
+        if (allOf.length > 0) {
+            RoaringBitmap[] required = new RoaringBitmap[allOf.length];
+            for (int i = 0; i < allOf.length; i++) {
+                required[i] = current.registeredIn(allOf[i], statuses);
+            }
+            Arrays.sort(required, Comparator.comparingInt(RoaringBitmap::getCardinality));
+            cohort = required[0];
+            for (int i = 1; i < required.length && !cohort.isEmpty(); i++) {
+                cohort = cohort.and(required[i]);
+            }
+        } else {
+            cohort = current.students;
+        }
+        if (anyOf.length > 0 && !cohort.isEmpty()) {
+            RoaringBitmap any = RoaringBitmap.EMPTY;
+            for (int courseId : anyOf) {
+                any = any.or(current.registeredIn(courseId, statuses));
+            }
+            cohort = cohort.and(any);
+        }
+        for (int i = 0; i < noneOf.length && !cohort.isEmpty(); i++) {
+            cohort = cohort.andNot(current.registeredIn(noneOf[i], statuses));
+        }
+        return cohort.toArray();
+    }
+
+    /**
+     * Find the courses a student is registered for
+     * Probes every course's bitmaps, which is cheaper than a query for any realistic number of courses
+     * @param statuses statuses to include; null or empty for any status
+     * @return course IDs in ascending order, null if the bitmaps could not be loaded
+     */
+    public int[] findCourses(int studentId, Set<Registration.RegistrationStatus> statuses) {
+        Sets current = ensureLoaded();
+        if (current == null) {
+            return null;
+        }
+        return current.courses.entrySet().stream()
+                              .filter(entry -> contains(entry.getValue(), studentId, statuses))
+                              .mapToInt(Map.Entry::getKey)
+                              .sorted()
+                              .toArray();
+    }
+
+    /**
+     * Find the students without a registration of any status
+     * @return student IDs in ascending order, null if the bitmaps could not be loaded
+     */
+    public int[] findStudentsWithoutRegistrations() {
+        Sets current = ensureLoaded();
+        return current != null ? current.students.andNot(current.registered).toArray() : null;
+    }
+
+    /**
+     * Find the courses without a registration of any status
+     * @return course IDs in ascending order, null if the bitmaps could not be loaded
+     */
+    public int[] findCoursesWithoutRegistrations() {
+        Sets current = ensureLoaded();
+        if (current == null) {
+            return null;
+        }
+        return current.courses.entrySet().stream()
+                              .filter(entry -> isEmpty(entry.getValue()))
+                              .mapToInt(Map.Entry::getKey)
+                              .sorted()
+                              .toArray();
+    }
+
+    /**
+     * Reload every bitmap from the database
+     * @return number of courses loaded, or -1 if the load failed and the previous bitmaps were kept
+     */
+    public synchronized int rebuild() {
+        RoaringBitmap.Builder students = new RoaringBitmap.Builder();
+        Map<Integer, RoaringBitmap.Builder[]> courses = new HashMap<>();
+        Map<Integer, Integer> registrationCounts = new HashMap<>();
+        try (Connection conn = dbConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_BITMAP_STUDENTS)) {
+                long start = System.nanoTime();
+                long executed;
+                int rows = 0;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    executed = System.nanoTime();
+                    while (rs.next()) {
+                        rows++;
+                        students.add(rs.getInt("student_id"));
+                    }
+                }
+                if (SELECT_BITMAP_STUDENTS_STATS.record(start, executed, rows)) {
+                    SlowQueryLog.log(SELECT_BITMAP_STUDENTS_STATS, start, rows);
+                }
+            } catch (SQLException e) {
+                SELECT_BITMAP_STUDENTS_STATS.recordError();
+                throw e;
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_BITMAP_COURSES)) {
+                long start = System.nanoTime();
+                long executed;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    executed = System.nanoTime();
+                    while (rs.next()) {
+                        courses.put(rs.getInt("course_id"), newBuilders());
+                    }
+                }
+                if (SELECT_BITMAP_COURSES_STATS.record(start, executed, courses.size())) {
+                    SlowQueryLog.log(SELECT_BITMAP_COURSES_STATS, start, courses.size());
+                }
+            } catch (SQLException e) {
+                SELECT_BITMAP_COURSES_STATS.recordError();
+                throw e;
+            }
+
+            // Sorted so each bitmap is built by appending student IDs in ascending order
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_BITMAP_REGISTRATIONS)) {
+                long start = System.nanoTime();
+                long executed;
+                int rows = 0;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    executed = System.nanoTime();
+                    while (rs.next()) {
+                        rows++;
+                        int studentId = rs.getInt("student_id");
+                        Registration.RegistrationStatus status = parseStatus(rs.getString("status"));
+                        courses.computeIfAbsent(rs.getInt("course_id"), id -> newBuilders())[status.ordinal()]
+                               .add(studentId);
+                        registrationCounts.merge(studentId, 1, Integer::sum);
+                    }
+                }
+                if (SELECT_BITMAP_REGISTRATIONS_STATS.record(start, executed, rows)) {
+                    SlowQueryLog.log(SELECT_BITMAP_REGISTRATIONS_STATS, start, rows);
+                }
+            } catch (SQLException e) {
+                SELECT_BITMAP_REGISTRATIONS_STATS.recordError();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error loading enrollment bitmaps: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+
+        Sets built = new Sets();
+        courses.forEach((courseId, builders) -> {
+            RoaringBitmap[] byStatus = new RoaringBitmap[STATUSES.length];
+            for (int i = 0; i < byStatus.length; i++) {
+                byStatus[i] = builders[i].build();
+            }
+            built.courses.put(courseId, byStatus);
+        });
+        built.registrationCounts.putAll(registrationCounts);
+        built.students = students.build();
+        built.registered = RoaringBitmap.of(registrationCounts.keySet().stream().mapToInt(Integer::intValue).toArray());
+        sets = built;
+        rebuilds.incrementAndGet();
+        return built.courses.size();
+    }
+
+    /**
+     * Get number of successful bulk rebuilds
+     * @return total rebuilds
+     */
+    public long getRebuildCount() {
+        return rebuilds.get();
+    }
+
+    /**
+     * Get approximate memory used by the bitmaps
+     * @return bytes of bitmap data, 0 if not loaded
+     */
+    public long getSizeInBytes() {
+        Sets current = sets;
+        if (current == null) {
+            return 0;
+        }
+        long bytes = current.students.getSizeInBytes() + current.registered.getSizeInBytes();
+        for (RoaringBitmap[] byStatus : current.courses.values()) {
+            for (RoaringBitmap bitmap : byStatus) {
+                bytes += bitmap.getSizeInBytes();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Record a committed registration write
+     * @param from status before the write, null for an insert
+     * @param to status after the write, null for a delete
+     */
+    synchronized void registrationChanged(int studentId, int courseId,
+                                          Registration.RegistrationStatus from, Registration.RegistrationStatus to) {
+        Sets current = sets;
+        if (current == null || from == to) {
+            return;
+        }
+        RoaringBitmap[] byStatus = current.courses.get(courseId);
+        byStatus = byStatus != null ? byStatus.clone() : emptyStatuses();
+        boolean removed = false;
+        boolean added = false;
+        if (from != null) {
+            RoaringBitmap before = byStatus[from.ordinal()];
+            byStatus[from.ordinal()] = before.remove(studentId);
+            removed = byStatus[from.ordinal()] != before;
+        }
+        if (to != null) {
+            RoaringBitmap before = byStatus[to.ordinal()];
+            byStatus[to.ordinal()] = before.add(studentId);
+            added = byStatus[to.ordinal()] != before;
+        }
+        current.courses.put(courseId, byStatus);
+        if (added && !removed) {
+            current.students = current.students.add(studentId);
+            current.countRegistrations(studentId, 1);
+        } else if (removed && !added) {
+            current.countRegistrations(studentId, -1);
+        }
+    }
+
+    /**
+     * Record a student added; updates change nothing here
+     */
+    synchronized void studentSaved(int studentId) {
+        Sets current = sets;
+        if (current != null) {
+            current.students = current.students.add(studentId);
+        }
+    }
+
+    /**
+     * Forget a deleted student, whose registrations the delete cascaded to
+     */
+    synchronized void studentDeleted(int studentId) {
+        Sets current = sets;
+        if (current == null) {
+            return;
+        }
+        current.students = current.students.remove(studentId);
+        current.registered = current.registered.remove(studentId);
+        current.registrationCounts.remove(studentId);
+        current.courses.replaceAll((courseId, byStatus) -> {
+            RoaringBitmap[] without = byStatus;
+            for (int i = 0; i < byStatus.length; i++) {
+                if (byStatus[i].contains(studentId)) {
+                    if (without == byStatus) {
+                        without = byStatus.clone();
+                    }
+                    without[i] = byStatus[i].remove(studentId);
+                }
+            }
+            return without;
+        });
+    }
+
+    /**
+     * Record a course added; updates change nothing here
+     */
+    synchronized void courseSaved(int courseId) {
+        Sets current = sets;
+        if (current != null) {
+            current.courses.putIfAbsent(courseId, emptyStatuses());
+        }
+    }
+
+    /**
+     * Forget a deleted course, whose registrations the delete cascaded to
+     */
+    synchronized void courseDeleted(int courseId) {
+        Sets current = sets;
+        RoaringBitmap[] byStatus = current != null ? current.courses.remove(courseId) : null;
+        if (byStatus == null) {
+            return;
+        }
+        for (RoaringBitmap bitmap : byStatus) {
+            for (int studentId : bitmap.toArray()) {
+                current.countRegistrations(studentId, -1);
+            }
+        }
+    }
+
+    private Sets ensureLoaded() {
+        Sets current = sets;
+        if (current != null) {
+            cacheStats.recordHit();
+            return current;
+        }
+        cacheStats.recordMiss();
+        rebuild();
+        return sets;
+    }
+
+    private static boolean contains(RoaringBitmap[] byStatus, int studentId,
+                                    Set<Registration.RegistrationStatus> statuses) {
+        for (Registration.RegistrationStatus status : STATUSES) {
+            if ((statuses == null || statuses.isEmpty() || statuses.contains(status))
+                    && byStatus[status.ordinal()].contains(studentId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isEmpty(RoaringBitmap[] byStatus) {
+        for (RoaringBitmap bitmap : byStatus) {
+            if (!bitmap.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static RoaringBitmap[] emptyStatuses() {
+        RoaringBitmap[] byStatus = new RoaringBitmap[STATUSES.length];
+        Arrays.fill(byStatus, RoaringBitmap.EMPTY);
+        return byStatus;
+    }
+
+    private static RoaringBitmap.Builder[] newBuilders() {
+        RoaringBitmap.Builder[] builders = new RoaringBitmap.Builder[STATUSES.length];
+        for (int i = 0; i < builders.length; i++) {
+            builders[i] = new RoaringBitmap.Builder();
+        }
+        return builders;
+    }
+
+    private static Registration.RegistrationStatus parseStatus(String status) {
+        try {
+            return Registration.RegistrationStatus.valueOf(status);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return Registration.RegistrationStatus.ACTIVE;
+        }
+    }
+
+    /**
+     * One loaded generation of bitmaps
+     * Course arrays are replaced, never modified, so readers see a consistent set per course;
+     * registrationCounts is only touched by writers, under the instance lock
+     */
+    private static final class Sets {
+        final ConcurrentHashMap<Integer, RoaringBitmap[]> courses = new ConcurrentHashMap<>();
+        final Map<Integer, Integer> registrationCounts = new HashMap<>();
+        volatile RoaringBitmap students = RoaringBitmap.EMPTY;
+        volatile RoaringBitmap registered = RoaringBitmap.EMPTY;
+
+        RoaringBitmap registeredIn(int courseId, Set<Registration.RegistrationStatus> statuses) {
+            RoaringBitmap[] byStatus = courses.get(courseId);
+            if (byStatus == null) {
+                return RoaringBitmap.EMPTY;
+            }
+            RoaringBitmap union = RoaringBitmap.EMPTY;
+            for (Registration.RegistrationStatus status : STATUSES) {
+                if (statuses == null || statuses.isEmpty() || statuses.contains(status)) {
+                    union = union.isEmpty() ? byStatus[status.ordinal()] : union.or(byStatus[status.ordinal()]);
+                }
+            }
+            return union;
+        }
+
+        // Caller holds the instance lock
+        void countRegistrations(int studentId, int delta) {
+            Integer count = registrationCounts.merge(studentId, delta, Integer::sum);
+            if (count <= 0) {
+                registrationCounts.remove(studentId);
+                registered = registered.remove(studentId);
+            } else if (count == delta) {
+                registered = registered.add(studentId);
+            }
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.metrics.QueryMetrics;
+import com.studentregistration.metrics.QueryStats;
+import com.studentregistration.metrics.SlowQueryLog;
+import com.studentregistration.model.TimeBucket;
+import com.studentregistration.util.AppConfig;
+import com.studentregistration.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pre-bucketed counts of registrations (by registration_date) and student enrollments (by
+ * enrollment_date) per minute, hour, day and academic term
+ * Every event increments one counter at each granularity, so a range query reads the rollups
+ * instead of scanning the tables: {@link #getBuckets} returns the non-empty buckets of one
+ * granularity, and {@link #count} covers a range with whole days in the middle and hours, then
+ * minutes, at its edges. Minute buckets are kept for timeseries.minutes.retentionDays; older
+ * ranges are counted in whole hours. Terms start on the first of the months in timeseries.terms.
+ *
+ * The counters are backfilled by {@link #rebuild()} with one streaming scan of each table (at
+ * first use and after every enrollment reconciliation), and RegistrationDAOImpl and
+ * StudentDAOImpl count each insert as it commits, at the current time. Deleted rows stay
+ * counted until the next backfill. Like CreditLoads this is a per-process view, and an insert
+ * that commits while a backfill is scanning may be missed until the backfill after
+ */
+public final class EnrollmentTimeSeries {
+
+    private static final String SELECT_REGISTRATION_DATES =
+        "SELECT registration_date FROM registrations";
+
+    private static final String SELECT_ENROLLMENT_DATES =
+        "SELECT enrollment_date FROM students";
+
+    private static final QueryStats SELECT_REGISTRATION_DATES_STATS = QueryMetrics.forStatement("SELECT_REGISTRATION_DATES");
+    private static final QueryStats SELECT_ENROLLMENT_DATES_STATS = QueryMetrics.forStatement("SELECT_ENROLLMENT_DATES");
+
+    private static final long MINUTES_PER_HOUR = 60;
+    private static final long MINUTES_PER_DAY = 24 * MINUTES_PER_HOUR;
+
+    private static final DateTimeFormatter MINUTE_LABEL = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final DateTimeFormatter DAY_LABEL = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private static EnrollmentTimeSeries instance;
+
+    private final DatabaseConnection dbConnection;
+    private final long minuteRetention;
+    private final String[] termNames;
+    private final int[] termStartMonths;
+
+    // One per TimeBucket.Series, replaced wholesale by each backfill; null until the first one succeeds
+    private volatile Rollups[] rollups;
+
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    private EnrollmentTimeSeries() {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.minuteRetention = TimeUnit.DAYS.toMinutes(Math.max(1, AppConfig.getInt("timeseries.minutes.retentionDays", 14)));
+
+        List<String> names = new ArrayList<>();
+        List<Integer> months = new ArrayList<>();
+        for (String term : AppConfig.getString("timeseries.terms", "Spring:1,Summer:6,Fall:8").split(",")) {
+            String[] parts = term.trim().split(":");
+            try {
+                int month = Integer.parseInt(parts[1].trim());
+                if (month >= 1 && month <= 12 && (months.isEmpty() || month > months.get(months.size() - 1))) {
+                    names.add(parts[0].trim());
+                    months.add(month);
+                    continue;
+                }
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                // reported below
+            }
+            System.err.println("Ignoring timeseries.terms entry '" + term + "' (expected Name:month, months ascending)");
+        }
+        if (names.isEmpty()) {
+            names.add("Year");
+            months.add(1);
+        }
+        this.termNames = names.toArray(new String[0]);
+        this.termStartMonths = months.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Get the time series instance (Singleton pattern)
+     * @return EnrollmentTimeSeries instance
+     */
+    public static synchronized EnrollmentTimeSeries getInstance() {
+        if (instance == null) {
+            instance = new EnrollmentTimeSeries();
+        }
+        return instance;
+    }
+
+    /**
+     * Get the non-empty buckets of one granularity that start within a range
+     * @param from first instant of the range
+     * @param to first instant after the range
+     * @return buckets in time order, or null if the counters could not be loaded; minute
+     *         buckets older than the retention are not available
+     */
+    public List<TimeBucket> getBuckets(TimeBucket.Series series, TimeBucket.Granularity granularity,
+                                       LocalDateTime from, LocalDateTime to) {
+        Rollups current = ensureLoaded(series);
+        if (current == null) {
+            return null;
+        }
+        long fromMinute = epochMinute(from);
+        long toMinute = epochMinute(to);
+        NavigableMap<Long, LongAdder> buckets;
+        switch (granularity) {
+            case MINUTE:
+                buckets = current.minutes.subMap(fromMinute, true, toMinute, false);
+                break;
+            case HOUR:
+                buckets = current.hours.subMap(ceilDiv(fromMinute, MINUTES_PER_HOUR), true,
+                                               ceilDiv(toMinute, MINUTES_PER_HOUR), false);
+                break;
+            case DAY:
+                buckets = current.days.subMap(ceilDiv(fromMinute, MINUTES_PER_DAY), true,
+                                              ceilDiv(toMinute, MINUTES_PER_DAY), false);
+                break;
+            default:
+                LocalDateTime firstStart = termStart(termKey(from));
+                long firstKey = firstStart.isBefore(from) ? termKey(from) + 1 : termKey(from);
+                LocalDateTime lastStart = termStart(termKey(to));
+                long endKey = lastStart.isBefore(to) ? termKey(to) + 1 : termKey(to);
+                buckets = current.terms.subMap(firstKey, true, endKey, false);
+                break;
+        }
+        List<TimeBucket> result = new ArrayList<>(buckets.size());
+        for (Map.Entry<Long, LongAdder> entry : buckets.entrySet()) {
+            long count = entry.getValue().sum();
+            if (count > 0) {
+                result.add(toBucket(series, granularity, entry.getKey(), count));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Count the events in a range from the rollups
+     * Edges are rounded to whole minutes, or to whole hours where minute buckets have expired
+     * @param from first instant of the range
+     * @param to first instant after the range
+     * @return number of events, or -1 if the counters could not be loaded
+     */
+    public long count(TimeBucket.Series series, LocalDateTime from, LocalDateTime to) {
+        Rollups current = ensureLoaded(series);
+        if (current == null) {
+            return -1;
+        }
+        long fromMinute = epochMinute(from);
+        long toMinute = epochMinute(to);
+        return fromMinute < toMinute ? countDays(current, fromMinute, toMinute) : 0;
+    }
+
+    /**
+     * Backfill every counter with one streaming scan of registrations and one of students
+     * @return number of events counted, or -1 if a scan failed and the previous counters were kept
+     */
+    public synchronized long rebuild() {
+        Rollups[] loaded = new Rollups[TimeBucket.Series.values().length];
+        long events;
+        try (Connection conn = dbConnection.getConnection()) {
+            loaded[TimeBucket.Series.REGISTRATIONS.ordinal()] =
+                scan(conn, SELECT_REGISTRATION_DATES, "registration_date", SELECT_REGISTRATION_DATES_STATS);
+            loaded[TimeBucket.Series.ENROLLMENTS.ordinal()] =
+                scan(conn, SELECT_ENROLLMENT_DATES, "enrollment_date", SELECT_ENROLLMENT_DATES_STATS);
+            events = loaded[0].events.sum() + loaded[1].events.sum();
+
+        } catch (SQLException e) {
+            System.err.println("Error backfilling enrollment time series: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+        rollups = loaded;
+        rebuilds.incrementAndGet();
+        return events;
+    }
+
+    /**
+     * Get number of successful backfills
+     * @return total backfills
+     */
+    public long getRebuildCount() {
+        return rebuilds.get();
+    }
+
+    /**
+     * Count a registration inserted just now
+     */
+    void registrationCreated() {
+        record(TimeBucket.Series.REGISTRATIONS, LocalDateTime.now());
+    }
+
+    /**
+     * Count a student inserted just now
+     */
+    void studentEnrolled() {
+        record(TimeBucket.Series.ENROLLMENTS, LocalDateTime.now());
+    }
+
+    private void record(TimeBucket.Series series, LocalDateTime at) {
+        Rollups[] current = rollups;
+        if (current != null) {
+            current[series.ordinal()].add(epochMinute(at), termKey(at), epochMinute(LocalDateTime.now()) - minuteRetention);
+        }
+    }
+
+    private Rollups ensureLoaded(TimeBucket.Series series) {
+        Rollups[] current = rollups;
+        if (current == null && rebuild() >= 0) {
+            current = rollups;
+        }
+        return current != null ? current[series.ordinal()] : null;
+    }
+
+    private Rollups scan(Connection conn, String sql, String column, QueryStats stats) throws SQLException {
+        Rollups loaded = new Rollups();
+        long cutoff = epochMinute(LocalDateTime.now()) - minuteRetention;
+        try (PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Connector/J streams rows one at a time instead of buffering the whole result
+            stmt.setFetchSize(Integer.MIN_VALUE);
+
+            long start = System.nanoTime();
+            long executed;
+            int rows = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                while (rs.next()) {
+                    rows++;
+                    Timestamp timestamp = rs.getTimestamp(column);
+                    if (timestamp != null) {
+                        LocalDateTime at = timestamp.toLocalDateTime();
+                        loaded.add(epochMinute(at), termKey(at), cutoff);
+                    }
+                }
+            }
+            if (stats.record(start, executed, rows)) {
+                SlowQueryLog.log(stats, start, rows);
+            }
+        } catch (SQLException e) {
+            stats.recordError();
+            throw e;
+        }
+        return loaded;
+    }
+
+    // Whole days in the middle, then the remainder at the next finer level
+    private long countDays(Rollups r, long from, long to) {
+        long first = ceilDiv(from, MINUTES_PER_DAY);
+        long end = Math.floorDiv(to, MINUTES_PER_DAY);
+        if (first >= end) {
+            return countHours(r, from, to);
+        }
+        return countHours(r, from, first * MINUTES_PER_DAY) + sum(r.days, first, end)
+            + countHours(r, end * MINUTES_PER_DAY, to);
+    }
+
+    private long countHours(Rollups r, long from, long to) {
+        if (from >= to) {
+            return 0;
+        }
+        long first = ceilDiv(from, MINUTES_PER_HOUR);
+        long end = Math.floorDiv(to, MINUTES_PER_HOUR);
+        long minuteCutoff = epochMinute(LocalDateTime.now()) - minuteRetention;
+        if (from < minuteCutoff) {
+            // Minutes have expired here; take the hours that start within the range
+            return sum(r.hours, first, ceilDiv(to, MINUTES_PER_HOUR));
+        }
+        if (first >= end) {
+            return sum(r.minutes, from, to);
+        }
+        return sum(r.minutes, from, first * MINUTES_PER_HOUR) + sum(r.hours, first, end)
+            + sum(r.minutes, end * MINUTES_PER_HOUR, to);
+    }
+
+    private static long sum(ConcurrentSkipListMap<Long, LongAdder> buckets, long from, long to) {
+        long total = 0;
+        if (from < to) {
+            for (LongAdder count : buckets.subMap(from, true, to, false).values()) {
+                total += count.sum();
+            }
+        }
+        return total;
+    }
+
+    private TimeBucket toBucket(TimeBucket.Series series, TimeBucket.Granularity granularity, long key, long count) {
+        switch (granularity) {
+            case MINUTE: {
+                LocalDateTime start = fromEpochMinute(key);
+                return new TimeBucket(series, granularity, start, start.plusMinutes(1), start.format(MINUTE_LABEL), count);
+            }
+            case HOUR: {
+                LocalDateTime start = fromEpochMinute(key * MINUTES_PER_HOUR);
+                return new TimeBucket(series, granularity, start, start.plusHours(1), start.format(MINUTE_LABEL), count);
+            }
+            case DAY: {
+                LocalDateTime start = fromEpochMinute(key * MINUTES_PER_DAY);
+                return new TimeBucket(series, granularity, start, start.plusDays(1), start.format(DAY_LABEL), count);
+            }
+            default:
+                return new TimeBucket(series, granularity, termStart(key), termStart(key + 1),
+                                      termNames[(int) Math.floorMod(key, (long) termNames.length)] + " "
+                                          + Math.floorDiv(key, termNames.length), count);
+        }
+    }
+
+    /**
+     * Number of the term containing a time: year * terms per year + index of the term in the year
+     * Months before the first term's start belong to the previous year's last term
+     */
+    private long termKey(LocalDateTime at) {
+        int month = at.getMonthValue();
+        int term = termStartMonths.length - 1;
+        while (term >= 0 && termStartMonths[term] > month) {
+            term--;
+        }
+        if (term < 0) {
+            return (long) (at.getYear() - 1) * termStartMonths.length + termStartMonths.length - 1;
+        }
+        return (long) at.getYear() * termStartMonths.length + term;
+    }
+
+    private LocalDateTime termStart(long key) {
+        int year = (int) Math.floorDiv(key, termStartMonths.length);
+        int term = (int) Math.floorMod(key, (long) termStartMonths.length);
+        return LocalDate.of(year, termStartMonths[term], 1).atStartOfDay();
+    }
+
+    // Local times are bucketed as written, without a time zone
+    private static long epochMinute(LocalDateTime at) {
+        return Math.floorDiv(at.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime fromEpochMinute(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    /**
+     * Counters of one series; buckets are created on first use and never removed, except
+     * minutes past the retention
+     */
+    private static final class Rollups {
+        final ConcurrentSkipListMap<Long, LongAdder> minutes = new ConcurrentSkipListMap<>();
+        final ConcurrentSkipListMap<Long, LongAdder> hours = new ConcurrentSkipListMap<>();
+        final ConcurrentSkipListMap<Long, LongAdder> days = new ConcurrentSkipListMap<>();
+        final ConcurrentSkipListMap<Long, LongAdder> terms = new ConcurrentSkipListMap<>();
+        final LongAdder events = new LongAdder();
+
+        // Oldest minute kept after the last pruning
+        private volatile long prunedTo = Long.MIN_VALUE;
+
+        void add(long minute, long termKey, long minuteCutoff) {
+            if (minute >= minuteCutoff) {
+                increment(minutes, minute);
+            }
+            increment(hours, Math.floorDiv(minute, MINUTES_PER_HOUR));
+            increment(days, Math.floorDiv(minute, MINUTES_PER_DAY));
+            increment(terms, termKey);
+            events.increment();
+            // Prune at most once an hour of event time
+            if (minuteCutoff - prunedTo >= MINUTES_PER_HOUR) {
+                prunedTo = minuteCutoff;
+                minutes.headMap(minuteCutoff).clear();
+            }
+        }
+
+        private static void increment(ConcurrentSkipListMap<Long, LongAdder> buckets, long key) {
+            buckets.computeIfAbsent(key, k -> new LongAdder()).increment();
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.metrics.CacheMetrics;
+import com.studentregistration.metrics.CacheStats;
+import com.studentregistration.metrics.QueryMetrics;
+import com.studentregistration.metrics.QueryStats;
+import com.studentregistration.metrics.SlowQueryLog;
+import com.studentregistration.model.Grade;
+import com.studentregistration.model.GradeDistribution;
+import com.studentregistration.model.Registration;
+import com.studentregistration.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-course grade histograms: for every course, the number of its ACTIVE and COMPLETED
+ * registrations with each grade, in an int array indexed by {@link Grade} code
+ * Built in one pass by {@link #rebuild()} (at first use and after every enrollment
+ * reconciliation) from a grouped count, so a report over thousands of courses reads arrays
+ * instead of every course's roster. After that RegistrationDAOImpl reports each committed status
+ * or grade change with the status and grade it replaced; DROPPED and WAITLISTED registrations are
+ * left out, as in the grouped count. Distributions per instructor are summed from the course
+ * arrays when asked for, using CourseInstructors, so reassigning a course needs no bookkeeping
+ * here.
+ *
+ * A rebuild runs its query without holding the histograms' monitor, so writers never wait for
+ * it. The query reads a consistent snapshot opened before it, and changes reported once that
+ * snapshot is open are applied to the current histograms and recorded, then replayed onto the
+ * loaded counts when they are swapped in. Changes reported before it are already in the
+ * snapshot and are not replayed. Deleting a student cascades to registrations whose grades this
+ * process does not know, so it marks the histograms for a rebuild, which the next read
+ * schedules in the background while it serves the current counts. Like CreditLoads this is a
+ * per-process view. Only a change committed before the snapshot but reported after it, in the
+ * moment between a writer's commit and its report, is counted twice until the rebuild after
+ */
+public final class GradeHistograms {
+
+    private static final String SELECT_GRADE_COUNTS =
+        "SELECT course_id, grade, COUNT(*) AS registrations FROM registrations " +
+        "WHERE status IN ('ACTIVE', 'COMPLETED') GROUP BY course_id, grade";
+
+    private static final String START_CONSISTENT_SNAPSHOT = "START TRANSACTION WITH CONSISTENT SNAPSHOT";
+
+    private static final QueryStats SELECT_GRADE_COUNTS_STATS = QueryMetrics.forStatement("SELECT_GRADE_COUNTS");
+    private static final QueryStats START_CONSISTENT_SNAPSHOT_STATS =
+        QueryMetrics.forStatement("START_CONSISTENT_SNAPSHOT");
+
+    private static final int GRADE_CODES = Grade.values().length + 1;
+
+    private static GradeHistograms instance;
+
+    private final DatabaseConnection dbConnection;
+    private final CourseInstructors courseInstructors;
+    private final CacheStats cacheStats;
+
+    // Guarded by this; null until the first rebuild succeeds
+    private HashMap<Integer, int[]> histograms;
+    private boolean reloadRequested;
+    // Guarded by this; true from the start of a rebuild until its counts are swapped in
+    private boolean loading;
+    // Guarded by this; changes reported since the loading rebuild's snapshot opened, null when
+    // no snapshot is open
+    private List<Delta> loadDeltas;
+
+    // Held for a whole rebuild, so only one runs at a time; writers never take it
+    private final Object rebuildLock = new Object();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    private GradeHistograms() {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.courseInstructors = CourseInstructors.getInstance();
+        this.cacheStats = CacheMetrics.register("grade_histograms", this::size);
+    }
+
+    /**
+     * Get the grade histograms instance (Singleton pattern)
+     * @return GradeHistograms instance
+     */
+    public static synchronized GradeHistograms getInstance() {
+        if (instance == null) {
+            instance = new GradeHistograms();
+        }
+        return instance;
+    }
+
+    /**
+     * Get the grade distribution of every course with ACTIVE or COMPLETED registrations
+     * @return distributions in course ID order, or null if the histograms could not be loaded
+     */
+    public List<GradeDistribution> getCourseDistributions() {
+        TreeMap<Integer, int[]> copies = copyHistograms();
+        if (copies == null) {
+            return null;
+        }
+        List<GradeDistribution> distributions = new ArrayList<>(copies.size());
+        for (Map.Entry<Integer, int[]> entry : copies.entrySet()) {
+            int courseId = entry.getKey();
+            distributions.add(new GradeDistribution(courseId, courseInstructors.get(courseId), 1, entry.getValue()));
+        }
+        return distributions;
+    }
+
+    /**
+     * Get the grade distribution of every instructor's courses taken together
+     * @return distributions in instructor order, courses with no instructor under "(unassigned)",
+     *         or null if the histograms could not be loaded
+     */
+    public List<GradeDistribution> getInstructorDistributions() {
+        TreeMap<Integer, int[]> copies = copyHistograms();
+        if (copies == null) {
+            return null;
+        }
+        TreeMap<String, int[]> byInstructor = new TreeMap<>();
+        Map<String, Integer> courseCounts = new HashMap<>();
+        for (Map.Entry<Integer, int[]> entry : copies.entrySet()) {
+            String instructor = courseInstructors.get(entry.getKey());
+            if (instructor == null) {
+                // Deleted since it was counted
+                continue;
+            }
+            int[] sum = byInstructor.computeIfAbsent(instructor, name -> new int[GRADE_CODES]);
+            int[] counts = entry.getValue();
+            for (int code = 0; code < GRADE_CODES; code++) {
+                sum[code] += counts[code];
+            }
+            courseCounts.merge(instructor, 1, Integer::sum);
+        }
+        List<GradeDistribution> distributions = new ArrayList<>(byInstructor.size());
+        for (Map.Entry<String, int[]> entry : byInstructor.entrySet()) {
+            distributions.add(new GradeDistribution(0, entry.getKey(), courseCounts.get(entry.getKey()), entry.getValue()));
+        }
+        return distributions;
+    }
+
+    /**
+     * Count every ACTIVE and COMPLETED registration's grade with one grouped query and replace the
+     * histograms, replaying the changes reported while the query ran
+     * @return number of courses with counted registrations, or -1 if the query failed and the
+     *         previous histograms were kept
+     */
+    public int rebuild() {
+        synchronized (rebuildLock) {
+            boolean requested;
+            synchronized (this) {
+                loading = true;
+                // A request made before the load is covered by it
+                requested = reloadRequested;
+                reloadRequested = false;
+            }
+
+            HashMap<Integer, int[]> loaded = new HashMap<>();
+            try (Connection conn = dbConnection.getConnection()) {
+                // The connection goes back to the pool afterwards, so restore what is changed here
+                int isolation = conn.getTransactionIsolation();
+                conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                conn.setReadOnly(true);
+                conn.setAutoCommit(false);
+                try {
+                    openSnapshot(conn);
+                    // Everything reported so far committed before the snapshot, so the query
+                    // counts it; only what is reported from here on is replayed
+                    synchronized (this) {
+                        loadDeltas = new ArrayList<>();
+                    }
+                    loadGradeCounts(conn, loaded);
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                    conn.setReadOnly(false);
+                    conn.setTransactionIsolation(isolation);
+                }
+
+            } catch (SQLException e) {
+                System.err.println("Error loading grade histograms: " + e.getMessage());
+                e.printStackTrace();
+                synchronized (this) {
+                    loading = false;
+                    loadDeltas = null;
+                    reloadRequested |= requested;
+                }
+                return -1;
+            }
+
+            synchronized (this) {
+                for (Delta delta : loadDeltas) {
+                    if (!delta.applyTo(loaded)) {
+                        reloadRequested = true;
+                    }
+                }
+                loading = false;
+                loadDeltas = null;
+                histograms = loaded;
+            }
+            rebuilds.incrementAndGet();
+            return loaded.size();
+        }
+    }
+
+    private static void openSnapshot(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            long start = System.nanoTime();
+            stmt.execute(START_CONSISTENT_SNAPSHOT);
+            if (START_CONSISTENT_SNAPSHOT_STATS.record(start, 0)) {
+                SlowQueryLog.log(START_CONSISTENT_SNAPSHOT_STATS, start, 0);
+            }
+        } catch (SQLException e) {
+            START_CONSISTENT_SNAPSHOT_STATS.recordError();
+            throw e;
+        }
+    }
+
+    private static void loadGradeCounts(Connection conn, Map<Integer, int[]> loaded) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_GRADE_COUNTS)) {
+            long start = System.nanoTime();
+            long executed;
+            int rows = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                while (rs.next()) {
+                    rows++;
+                    // Spellings of the same grade ("b+", "B+ ") land in the same bucket
+                    int[] counts = loaded.computeIfAbsent(rs.getInt("course_id"), id -> new int[GRADE_CODES]);
+                    counts[Grade.encode(rs.getString("grade"))] += rs.getInt("registrations");
+                }
+            }
+            if (SELECT_GRADE_COUNTS_STATS.record(start, executed, rows)) {
+                SlowQueryLog.log(SELECT_GRADE_COUNTS_STATS, start, rows);
+            }
+        } catch (SQLException e) {
+            SELECT_GRADE_COUNTS_STATS.recordError();
+            throw e;
+        }
+    }
+
+    /**
+     * Get number of successful rebuilds
+     * @return total rebuilds
+     */
+    public long getRebuildCount() {
+        return rebuilds.get();
+    }
+
+    /**
+     * Record a committed registration write
+     * Only ACTIVE and COMPLETED registrations are counted, so a status change can add or remove
+     * a count as well as a grade change
+     * @param from status before the write, null for an insert
+     * @param fromGrade code of the grade before the write
+     * @param to status after the write, null for a delete
+     * @param toGrade code of the grade after the write
+     */
+    synchronized void registrationChanged(int courseId, Registration.RegistrationStatus from, byte fromGrade,
+                                          Registration.RegistrationStatus to, byte toGrade) {
+        boolean wasCounted = isCounted(from);
+        boolean counted = isCounted(to);
+        if (wasCounted && counted && fromGrade == toGrade) {
+            return;
+        }
+        if (wasCounted) {
+            record(new Delta(courseId, fromGrade, -1));
+        }
+        if (counted) {
+            record(new Delta(courseId, toGrade, 1));
+        }
+    }
+
+    /**
+     * Drop a deleted course; its registrations went with it
+     */
+    synchronized void courseDeleted(int courseId) {
+        record(new Delta(courseId, Grade.NONE, 0));
+    }
+
+    /**
+     * Rebuild after a student delete cascaded to registrations of unknown grades; the next read
+     * schedules it
+     */
+    synchronized void studentDeleted() {
+        reloadRequested = true;
+    }
+
+    // Caller holds this
+    private void record(Delta delta) {
+        if (loadDeltas != null) {
+            loadDeltas.add(delta);
+        }
+        // Mid-load the current counts are replaced anyway, so a mismatch there is no reason to reload
+        if (histograms != null && !delta.applyTo(histograms) && !loading) {
+            // Counted by another process; only a rebuild can place it
+            reloadRequested = true;
+        }
+    }
+
+    private static boolean isCounted(Registration.RegistrationStatus status) {
+        return status == Registration.RegistrationStatus.ACTIVE || status == Registration.RegistrationStatus.COMPLETED;
+    }
+
+    /**
+     * Copy the histograms of courses that still have registrations
+     * Loads them on this thread the first time; after that a pending rebuild runs in the
+     * background and the current counts are served meanwhile
+     * @return copies by course ID, or null if the histograms could not be loaded
+     */
+    private TreeMap<Integer, int[]> copyHistograms() {
+        boolean stale;
+        synchronized (this) {
+            stale = histograms == null || reloadRequested;
+        }
+        if (stale) {
+            cacheStats.recordMiss();
+            if (!isLoaded()) {
+                rebuild();
+            } else {
+                scheduleRebuild();
+            }
+        } else {
+            cacheStats.recordHit();
+        }
+
+        TreeMap<Integer, int[]> copies = new TreeMap<>();
+        synchronized (this) {
+            if (histograms == null) {
+                return null;
+            }
+            histograms.forEach((courseId, counts) -> {
+                for (int count : counts) {
+                    if (count > 0) {
+                        copies.put(courseId, counts.clone());
+                        return;
+                    }
+                }
+            });
+        }
+        return copies;
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            DaoExecutor.getDefault().execute(() -> {
+                try {
+                    rebuild();
+                } finally {
+                    rebuildScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    private synchronized boolean isLoaded() {
+        return histograms != null;
+    }
+
+    private synchronized long size() {
+        return histograms != null ? histograms.size() : 0;
+    }
+
+    /**
+     * One reported change to a course's counts
+     */
+    private static final class Delta {
+        final int courseId;
+        final byte grade;
+        // +1 or -1 registrations with the grade; 0 drops the course
+        final int change;
+
+        Delta(int courseId, byte grade, int change) {
+            this.courseId = courseId;
+            this.grade = grade;
+            this.change = change;
+        }
+
+        /**
+         * Apply the change to a set of histograms
+         * @return false if it removes a registration those histograms never counted
+         */
+        boolean applyTo(Map<Integer, int[]> histograms) {
+            if (change == 0) {
+                histograms.remove(courseId);
+                return true;
+            }
+            int[] counts = change > 0
+                ? histograms.computeIfAbsent(courseId, id -> new int[GRADE_CODES]) : histograms.get(courseId);
+            if (counts == null || counts[grade] + change < 0) {
+                return false;
+            }
+            counts[grade] += change;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.studentregistration.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * SQL text and parameter binding for "WHERE id IN (?, ...)" queries over large id sets
+ * Ids are split into chunks of at most {@link #MAX_CHUNK_SIZE} and every chunk is padded up to
+ * the next power of two by repeating its last id. A statement therefore has at most nine
+ * distinct SQL strings, all built once here, which keeps the driver's prepared statement
+ * cache (cachePrepStmts) and the server's statement cache effective
+ */
+final class InListQuery {
+
+    static final int MAX_CHUNK_SIZE = 256;
+
+    private final String[] sqlBySizeClass;
+
+    /**
+     * @param prefix SQL up to and including "IN "
+     * @param suffix SQL after the closing parenthesis, e.g. " ORDER BY ..."; may be empty
+     */
+    InListQuery(String prefix, String suffix) {
+        int sizeClasses = Integer.numberOfTrailingZeros(MAX_CHUNK_SIZE) + 1;
+        sqlBySizeClass = new String[sizeClasses];
+        for (int i = 0; i < sizeClasses; i++) {
+            StringBuilder sql = new StringBuilder(prefix).append('(');
+            for (int p = 0; p < 1 << i; p++) {
+                sql.append(p == 0 ? "?" : ", ?");
+            }
+            sqlBySizeClass[i] = sql.append(')').append(suffix).toString();
+        }
+    }
+
+    /**
+     * Get the SQL for a padded chunk size
+     * @param paddedSize power of two returned by {@link #paddedSize(int)}
+     * @return SQL text with that many placeholders
+     */
+    String sql(int paddedSize) {
+        return sqlBySizeClass[Integer.numberOfTrailingZeros(paddedSize)];
+    }
+
+    /**
+     * Bind one chunk of ids, repeating the last id to fill the padded size
+     * @param stmt statement prepared from {@link #sql(int)} with the same padded size
+     * @param ids sorted distinct ids
+     * @param from first index of the chunk (inclusive)
+     * @param to last index of the chunk (exclusive)
+     * @param paddedSize number of placeholders in the statement
+     */
+    static void bind(PreparedStatement stmt, int[] ids, int from, int to, int paddedSize) throws SQLException {
+        for (int p = 0; p < paddedSize; p++) {
+            stmt.setInt(p + 1, ids[Math.min(from + p, to - 1)]);
+        }
+    }
+
+    /**
+     * Get the placeholder count used for a chunk
+     * @param chunkSize ids in the chunk, 1..MAX_CHUNK_SIZE
+     * @return smallest power of two not below chunkSize
+     */
+    static int paddedSize(int chunkSize) {
+        return chunkSize <= 1 ? 1 : Integer.highestOneBit(chunkSize - 1) << 1;
+    }
+
+    /**
+     * Sort and de-duplicate ids, dropping non-positive values
+     * @param ids requested ids, not modified
+     * @return sorted distinct positive ids
+     */
+    static int[] distinct(int[] ids) {
+        int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int id : sorted) {
+            if (id > 0 && (count == 0 || sorted[count - 1] != id)) {
+                sorted[count++] = id;
+            }
+        }
+        return count == sorted.length ? sorted : Arrays.copyOf(sorted, count);
+    }
+}
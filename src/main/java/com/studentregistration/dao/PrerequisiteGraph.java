@@ -0,0 +1,476 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.metrics.QueryMetrics;
+import com.studentregistration.metrics.QueryStats;
+import com.studentregistration.metrics.SlowQueryLog;
+import com.studentregistration.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process prerequisite graph for registration eligibility checks
+ * Every course that appears in course_prerequisites gets a bit, and each course's transitive
+ * prerequisites are precomputed as a bitset in topological order. Each student gets a bitset of
+ * the prerequisites they have satisfied: every course they COMPLETED plus, transitively, that
+ * course's own prerequisites, so a student who completed a course without its prerequisite
+ * (a waiver) is not asked for it again. A student may register for a course when the course's
+ * closure is a subset of their satisfied set: a few word-wise ANDs and no query.
+ *
+ * The graph and the COMPLETED registrations of courses in it are loaded in bulk by
+ * {@link #rebuild()} (at startup, after every prerequisite edit and after every enrollment
+ * reconciliation); RegistrationDAOImpl keeps the student bitsets current after each commit.
+ * Like CreditLoads this is a per-process view, and writes by other processes are only seen at
+ * the next rebuild. Edits check for cycles against the closure before they are written; a cycle
+ * that gets into the table anyway (manual SQL) is reported on load and makes the courses in it
+ * unavailable until it is removed
+ */
+public final class PrerequisiteGraph {
+
+    private static final String SELECT_PREREQUISITE_EDGES =
+        "SELECT course_id, prerequisite_id FROM course_prerequisites";
+
+    private static final String SELECT_COMPLETED_IN_GRAPH =
+        "SELECT student_id, course_id FROM registrations WHERE status = 'COMPLETED' AND course_id IN " +
+        "(SELECT course_id FROM course_prerequisites UNION SELECT prerequisite_id FROM course_prerequisites)";
+
+    private static final QueryStats SELECT_PREREQUISITE_EDGES_STATS = QueryMetrics.forStatement("SELECT_PREREQUISITE_EDGES");
+    private static final QueryStats SELECT_COMPLETED_IN_GRAPH_STATS = QueryMetrics.forStatement("SELECT_COMPLETED_IN_GRAPH");
+
+    private static final long[] NONE = new long[0];
+
+    private static PrerequisiteGraph instance;
+
+    private final DatabaseConnection dbConnection;
+
+    // Replaced wholesale, student bitsets included, by each rebuild; null until the first one succeeds
+    private volatile Graph graph;
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    private PrerequisiteGraph() {
+        this.dbConnection = DatabaseConnection.getInstance();
+    }
+
+    /**
+     * Get the graph instance (Singleton pattern)
+     * @return PrerequisiteGraph instance
+     */
+    public static synchronized PrerequisiteGraph getInstance() {
+        if (instance == null) {
+            instance = new PrerequisiteGraph();
+        }
+        return instance;
+    }
+
+    /**
+     * Check whether a student has satisfied every prerequisite of a course
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @return true if the course has no unmet prerequisites, or the graph could not be loaded
+     */
+    public boolean isEligible(int studentId, int courseId) {
+        if (!ensureLoaded()) {
+            return true;
+        }
+        Graph current = graph;
+        Integer bit = current.index.get(courseId);
+        if (bit == null) {
+            return true;
+        }
+        if (containsAll(current.satisfied(studentId), current.closure[bit])) {
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Get the prerequisites a student still lacks for a course
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @return IDs of the direct and indirect prerequisites not yet satisfied, empty if eligible
+     */
+    public List<Integer> getMissingPrerequisites(int studentId, int courseId) {
+        if (!ensureLoaded()) {
+            return Collections.emptyList();
+        }
+        Graph current = graph;
+        Integer bit = current.index.get(courseId);
+        if (bit == null) {
+            return Collections.emptyList();
+        }
+        long[] required = current.closure[bit];
+        long[] satisfied = current.satisfied(studentId);
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < current.courseIds.length; i++) {
+            if (isSet(required, i) && !isSet(satisfied, i)) {
+                missing.add(current.courseIds[i]);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Check whether making one course a prerequisite of another would close a cycle
+     * @param courseId ID of the course gaining a prerequisite
+     * @param prerequisiteId ID of the prerequisite
+     * @return true if the prerequisite already requires the course (directly or not), the two
+     *         are the same course, or the graph could not be loaded to tell
+     */
+    public boolean wouldCreateCycle(int courseId, int prerequisiteId) {
+        if (courseId == prerequisiteId) {
+            return true;
+        }
+        if (!ensureLoaded()) {
+            return true;
+        }
+        Graph current = graph;
+        Integer courseBit = current.index.get(courseId);
+        Integer prerequisiteBit = current.index.get(prerequisiteId);
+        return courseBit != null && prerequisiteBit != null && isSet(current.closure[prerequisiteBit], courseBit);
+    }
+
+    /**
+     * Reload the prerequisite graph and the COMPLETED registrations of its courses
+     * @return number of prerequisite edges, or -1 if the load failed and the previous graph was kept
+     */
+    public synchronized int rebuild() {
+        List<int[]> edges = new ArrayList<>();
+        List<int[]> completions = new ArrayList<>();
+        try (Connection conn = dbConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_PREREQUISITE_EDGES)) {
+                long start = System.nanoTime();
+                long executed;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    executed = System.nanoTime();
+                    while (rs.next()) {
+                        edges.add(new int[] {rs.getInt("course_id"), rs.getInt("prerequisite_id")});
+                    }
+                }
+                if (SELECT_PREREQUISITE_EDGES_STATS.record(start, executed, edges.size())) {
+                    SlowQueryLog.log(SELECT_PREREQUISITE_EDGES_STATS, start, edges.size());
+                }
+            } catch (SQLException e) {
+                SELECT_PREREQUISITE_EDGES_STATS.recordError();
+                throw e;
+            }
+
+            // Nothing to check against while no course has prerequisites
+            if (!edges.isEmpty()) {
+                try (PreparedStatement stmt = conn.prepareStatement(SELECT_COMPLETED_IN_GRAPH)) {
+                    long start = System.nanoTime();
+                    long executed;
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        executed = System.nanoTime();
+                        while (rs.next()) {
+                            completions.add(new int[] {rs.getInt("student_id"), rs.getInt("course_id")});
+                        }
+                    }
+                    if (SELECT_COMPLETED_IN_GRAPH_STATS.record(start, executed, completions.size())) {
+                        SlowQueryLog.log(SELECT_COMPLETED_IN_GRAPH_STATS, start, completions.size());
+                    }
+                } catch (SQLException e) {
+                    SELECT_COMPLETED_IN_GRAPH_STATS.recordError();
+                    throw e;
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error loading course prerequisites: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+
+        install(edges, completions);
+        rebuilds.incrementAndGet();
+        return edges.size();
+    }
+
+    /**
+     * Replace the graph with one built from prerequisite edges and COMPLETED registrations
+     * @param edges {course ID, prerequisite ID} pairs
+     * @param completions {student ID, course ID} pairs; courses outside the graph are ignored
+     */
+    synchronized void install(List<int[]> edges, List<int[]> completions) {
+        Graph built = Graph.build(edges);
+        Map<Integer, List<Integer>> completedBits = new HashMap<>();
+        for (int[] completion : completions) {
+            Integer bit = built.index.get(completion[1]);
+            if (bit != null) {
+                completedBits.computeIfAbsent(completion[0], id -> new ArrayList<>()).add(bit);
+            }
+        }
+        completedBits.forEach((studentId, bits) ->
+            built.students.put(studentId, Completion.of(built, bits.stream().mapToInt(Integer::intValue).toArray())));
+
+        graph = built;
+    }
+
+    /**
+     * Get number of eligibility checks that found missing prerequisites
+     * @return total rejections
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Get number of successful bulk rebuilds
+     * @return total rebuilds
+     */
+    public long getRebuildCount() {
+        return rebuilds.get();
+    }
+
+    /**
+     * Record a committed registration moving into or out of COMPLETED
+     */
+    void completionChanged(int studentId, int courseId, boolean completed) {
+        Graph current = graph;
+        if (current == null) {
+            return;
+        }
+        Integer bit = current.index.get(courseId);
+        if (bit == null) {
+            // Not in the graph, so it satisfies nothing; a later rebuild reads it if it joins
+            return;
+        }
+        current.students.compute(studentId, (id, completion) -> {
+            if (completed) {
+                return completion == null ? Completion.of(current, new int[] {bit}) : completion.with(current, bit);
+            }
+            return completion == null ? null : completion.without(current, bit);
+        });
+    }
+
+    /**
+     * Load the graph if it is not loaded yet, so that a following {@link #isEligible(int, int)}
+     * runs no query; called before a transaction that locks rows
+     */
+    void prepare() {
+        ensureLoaded();
+    }
+
+    /**
+     * Forget a deleted student
+     */
+    void studentDeleted(int studentId) {
+        Graph current = graph;
+        if (current != null) {
+            current.students.remove(studentId);
+        }
+    }
+
+    /**
+     * Reload after a deleted course took its prerequisite edges with it
+     */
+    void courseDeleted(int courseId) {
+        Graph current = graph;
+        if (current != null && current.index.containsKey(courseId)) {
+            rebuild();
+        }
+    }
+
+    private boolean ensureLoaded() {
+        return graph != null || rebuild() >= 0;
+    }
+
+    private static boolean containsAll(long[] set, long[] subset) {
+        for (int i = 0; i < subset.length; i++) {
+            long word = i < set.length ? set[i] : 0L;
+            if ((subset[i] & ~word) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSet(long[] bits, int bit) {
+        int word = bit >>> 6;
+        return word < bits.length && (bits[word] & (1L << bit)) != 0;
+    }
+
+    private static void set(long[] bits, int bit) {
+        bits[bit >>> 6] |= 1L << bit;
+    }
+
+    private static void or(long[] target, long[] bits) {
+        for (int i = 0; i < bits.length; i++) {
+            target[i] |= bits[i];
+        }
+    }
+
+    private static void andNot(long[] target, long[] bits) {
+        for (int i = 0; i < bits.length; i++) {
+            target[i] &= ~bits[i];
+        }
+    }
+
+    /**
+     * Prerequisite DAG over dense bit indexes, with the students' bitsets over the same indexes
+     */
+    private static final class Graph {
+        final Map<Integer, Integer> index;
+        final int[] courseIds;
+        final long[][] closure;
+        // Courses on or behind a cycle; completing one of them satisfies nothing
+        final long[] cyclic;
+        final int words;
+        final ConcurrentHashMap<Integer, Completion> students = new ConcurrentHashMap<>();
+
+        private Graph(Map<Integer, Integer> index, int[] courseIds, long[][] closure, long[] cyclic, int words) {
+            this.index = index;
+            this.courseIds = courseIds;
+            this.closure = closure;
+            this.cyclic = cyclic;
+            this.words = words;
+        }
+
+        static Graph build(List<int[]> edges) {
+            Map<Integer, Integer> index = new HashMap<>();
+            List<Integer> courseIds = new ArrayList<>();
+            for (int[] edge : edges) {
+                for (int courseId : edge) {
+                    if (!index.containsKey(courseId)) {
+                        index.put(courseId, courseIds.size());
+                        courseIds.add(courseId);
+                    }
+                }
+            }
+            int size = courseIds.size();
+            int words = (size + 63) >>> 6;
+
+            List<List<Integer>> prerequisites = new ArrayList<>(size);
+            List<List<Integer>> dependents = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                prerequisites.add(new ArrayList<>());
+                dependents.add(new ArrayList<>());
+            }
+            for (int[] edge : edges) {
+                int course = index.get(edge[0]);
+                int prerequisite = index.get(edge[1]);
+                prerequisites.get(course).add(prerequisite);
+                dependents.get(prerequisite).add(course);
+            }
+
+            // Kahn's algorithm: a course is closed once all of its prerequisites are
+            long[][] closure = new long[size][];
+            int[] unresolved = new int[size];
+            ArrayDeque<Integer> ready = new ArrayDeque<>();
+            for (int i = 0; i < size; i++) {
+                unresolved[i] = prerequisites.get(i).size();
+                if (unresolved[i] == 0) {
+                    ready.add(i);
+                }
+            }
+            while (!ready.isEmpty()) {
+                int course = ready.poll();
+                long[] bits = new long[words];
+                for (int prerequisite : prerequisites.get(course)) {
+                    or(bits, closure[prerequisite]);
+                    set(bits, prerequisite);
+                }
+                closure[course] = bits;
+                for (int dependent : dependents.get(course)) {
+                    if (--unresolved[dependent] == 0) {
+                        ready.add(dependent);
+                    }
+                }
+            }
+
+            // Whatever is left sits on or behind a cycle; its closure reaches the cycle, and
+            // completions never satisfy cyclic bits (not even as a waiver), so nobody can
+            // register for it until the cycle is removed
+            long[] cyclic = new long[words];
+            List<Integer> cyclicIds = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (closure[i] == null) {
+                    closure[i] = reachable(i, prerequisites, words);
+                    set(cyclic, i);
+                    cyclicIds.add(courseIds.get(i));
+                }
+            }
+            if (!cyclicIds.isEmpty()) {
+                System.err.println("Prerequisite cycle involving course(s) " + cyclicIds
+                                   + "; they cannot be registered for until it is removed");
+            }
+
+            return new Graph(index, courseIds.stream().mapToInt(Integer::intValue).toArray(), closure, cyclic, words);
+        }
+
+        long[] satisfied(int studentId) {
+            Completion completion = students.get(studentId);
+            return completion != null ? completion.satisfied : NONE;
+        }
+
+        private static long[] reachable(int start, List<List<Integer>> prerequisites, int words) {
+            long[] bits = new long[words];
+            ArrayDeque<Integer> pending = new ArrayDeque<>(prerequisites.get(start));
+            while (!pending.isEmpty()) {
+                int course = pending.poll();
+                if (!isSet(bits, course)) {
+                    set(bits, course);
+                    pending.addAll(prerequisites.get(course));
+                }
+            }
+            return bits;
+        }
+    }
+
+    /**
+     * Immutable record of one student's COMPLETED courses in the graph and what they satisfy
+     */
+    private static final class Completion {
+        final int[] completed;
+        final long[] satisfied;
+
+        private Completion(int[] completed, long[] satisfied) {
+            this.completed = completed;
+            this.satisfied = satisfied;
+        }
+
+        static Completion of(Graph graph, int[] completed) {
+            long[] satisfied = new long[graph.words];
+            for (int bit : completed) {
+                or(satisfied, graph.closure[bit]);
+                set(satisfied, bit);
+            }
+            andNot(satisfied, graph.cyclic);
+            return new Completion(completed, satisfied);
+        }
+
+        Completion with(Graph graph, int bit) {
+            for (int existing : completed) {
+                if (existing == bit) {
+                    return this;
+                }
+            }
+            int[] grown = Arrays.copyOf(completed, completed.length + 1);
+            grown[completed.length] = bit;
+            long[] satisfiedNow = satisfied.clone();
+            or(satisfiedNow, graph.closure[bit]);
+            set(satisfiedNow, bit);
+            andNot(satisfiedNow, graph.cyclic);
+            return new Completion(grown, satisfiedNow);
+        }
+
+        Completion without(Graph graph, int bit) {
+            // Another completed course may satisfy the same prerequisites, so recompute
+            int[] remaining = Arrays.stream(completed).filter(existing -> existing != bit).toArray();
+            return remaining.length == 0 ? null : of(graph, remaining);
+        }
+    }
+}
@@ -1,9 +1,20 @@
 package com.studentregistration.dao;
 
+import com.studentregistration.model.EnrollmentStatistics;
+import com.studentregistration.model.GpaSummary;
+import com.studentregistration.model.GradeDistribution;
 import com.studentregistration.model.Registration;
+import com.studentregistration.model.RegistrationContext;
 import com.studentregistration.model.Student;
 import com.studentregistration.model.Course;
+import com.studentregistration.model.CourseRecommendation;
+import com.studentregistration.model.StudentProfile;
+import com.studentregistration.model.TimeBucket;
+import com.studentregistration.model.Transcript;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Registration Data Access Object interface
@@ -19,13 +30,41 @@ public interface RegistrationDAO {
      */
     boolean registerStudentToCourse(int studentId, int courseId);
 
+    /**
+     * Put a student on a course's waitlist
+     * If a seat is free by the time the registration is written, the student is registered
+     * straight away; {@link #getPlaceInWaitlist(int, int)} then returns 0
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @return true if the student is waitlisted or registered, false otherwise
+     */
+    boolean joinWaitlist(int studentId, int courseId);
+
     /**
      * Add a registration record
+     * A WAITLISTED registration is given the next position in the course's waitlist. Every call
+     * is counted in the course's RegistrationDemand, as turned away if the course is full
      * @param registration Registration object
      * @return true if registration is added successfully, false otherwise
      */
     boolean addRegistration(Registration registration);
 
+    /**
+     * Count a request for a full course that was refused before reaching addRegistration, e.g.
+     * when the student declined the waitlist; costs no query
+     * @param courseId ID of the course
+     */
+    void recordTurnedAway(int courseId);
+
+    /**
+     * Add an ACTIVE registration whose seat was already taken from the SeatAllocator, e.g. by
+     * a seat hold; the seat is given back to the allocator if the registration fails. Counted in
+     * the course's RegistrationDemand like addRegistration
+     * @param registration Registration object
+     * @return true if registration is added successfully, false otherwise
+     */
+    boolean addHeldRegistration(Registration registration);
+
     /**
      * Get registration by ID
      * @param registrationId ID of the registration
@@ -48,6 +87,7 @@ public interface RegistrationDAO {
 
     /**
      * Drop a student from a course (delete registration)
+     * A freed seat goes to the head of the course's waitlist in the same transaction
      * @param studentId ID of the student
      * @param courseId ID of the course
      * @return true if registration is deleted successfully, false otherwise
@@ -68,6 +108,46 @@ public interface RegistrationDAO {
      */
     List<Registration> getStudentsForCourse(int courseId);
 
+    /**
+     * Get a course's waitlist with student details
+     * @param courseId ID of the course
+     * @return List of WAITLISTED registrations, next to be promoted first
+     */
+    List<Registration> getWaitlist(int courseId);
+
+    /**
+     * Get a student's place in a course's waitlist
+     * Answered from the in-process waitlist queue, not the database
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @return 1 for the next student to be promoted, 0 if the student is not waitlisted
+     */
+    int getPlaceInWaitlist(int studentId, int courseId);
+
+    /**
+     * Get the registrations of many students at once, with course details
+     * Large id sets are fetched in bounded IN-list chunks over one connection
+     * @param studentIds IDs of the students; duplicates are ignored
+     * @return Map of student ID to that student's registrations, newest first;
+     *         every requested ID has an entry, empty if the student has no registrations
+     */
+    Map<Integer, List<Registration>> getRegistrationsForStudents(int[] studentIds);
+
+    /**
+     * Get a student together with all registrations and registered courses in one query
+     * @param studentId ID of the student
+     * @return StudentProfile if the student exists, null otherwise
+     */
+    StudentProfile getStudentProfile(int studentId);
+
+    /**
+     * Get the student, the course and their registration in one query
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @return RegistrationContext whose parts are null where not found; null on database error
+     */
+    RegistrationContext getRegistrationContext(int studentId, int courseId);
+
     /**
      * Check if a student is already registered for a course
      * @param studentId ID of the student
@@ -87,6 +167,8 @@ public interface RegistrationDAO {
 
     /**
      * Update registration status
+     * Moving to WAITLISTED puts the student at the back of the waitlist; a seat freed by leaving
+     * ACTIVE goes to the head of the waitlist in the same transaction
      * @param studentId ID of the student
      * @param courseId ID of the course
      * @param status New status
@@ -96,15 +178,221 @@ public interface RegistrationDAO {
 
     /**
      * Get count of students enrolled in a course
+     * Reads the course's maintained active_enrollment counter
      * @param courseId ID of the course
      * @return Number of enrolled students
      */
     int getEnrollmentCount(int courseId);
 
+    /**
+     * Recompute every course's active_enrollment counter from the registrations table
+     * Corrects drift from writes that bypass the DAO (bulk loads, manual SQL, cascaded deletes)
+     * @return Number of courses whose counter was corrected
+     */
+    int reconcileEnrollmentCounts();
+
+    /**
+     * Fill a course's free seats from its waitlist in one transaction, e.g. after raising its capacity
+     * @param courseId ID of the course
+     * @return Number of students promoted
+     */
+    int promoteFromWaitlist(int courseId);
+
+    /**
+     * Fill free seats from the waitlist of every course and reload the in-process waitlist queues
+     * Catches seats freed by writes that bypass the DAO, such as cascaded deletes
+     * @return Number of students promoted
+     */
+    int promoteWaitlists();
+
     /**
      * Get count of courses a student is registered for
      * @param studentId ID of the student
      * @return Number of registered courses
      */
     int getRegistrationCount(int studentId);
+
+    /**
+     * Get a student's credit load from the in-process totals, without a query
+     * @param studentId ID of the student
+     * @return Credits of the student's ACTIVE and WAITLISTED registrations
+     */
+    int getCreditLoad(int studentId);
+
+    /**
+     * Get the most credits a student may carry (registration.maxCredits)
+     * Registrations and status changes that would go over it are refused
+     * @return Credit limit, 0 or less if there is none
+     */
+    int getCreditLimit();
+
+    /**
+     * Reload every student's credit load from the database in bulk
+     * @return Number of students with a load, -1 if the load failed
+     */
+    int rebuildCreditLoads();
+
+    /**
+     * Get the prerequisites a student still lacks for a course, from the in-process
+     * prerequisite graph, without a query
+     * Registrations that lack any are refused
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @return IDs of the unmet direct and indirect prerequisites, empty if the student is eligible
+     */
+    List<Integer> getMissingPrerequisites(int studentId, int courseId);
+
+    /**
+     * Reload the prerequisite graph and students' COMPLETED courses from the database in bulk
+     * @return Number of prerequisite edges, -1 if the load failed
+     */
+    int rebuildPrerequisites();
+
+    /**
+     * Get the courses in a student's timetable that meet at the same time as a course, from the
+     * in-process timetables, without a query
+     * Clashing registrations are refused or only reported, as registration.timeConflicts says
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @return IDs of the student's ACTIVE and WAITLISTED courses that clash, empty if none
+     */
+    List<Integer> getScheduleConflicts(int studentId, int courseId);
+
+    /**
+     * Check whether clashing registrations are refused (registration.timeConflicts=reject)
+     * @return true if a clash refuses the registration, false if it is only reported
+     */
+    boolean rejectsScheduleConflicts();
+
+    /**
+     * Reload course meeting times and every student's timetable from the database in bulk
+     * @return Number of students with a timetable, -1 if the load failed
+     */
+    int rebuildTimetables();
+
+    /**
+     * Get a student's transcript: their COMPLETED courses and credit-weighted GPA
+     * Cached per student until one of their grades or COMPLETED registrations changes
+     * @param studentId ID of the student
+     * @return Transcript, with no courses if the student has completed none
+     */
+    Transcript getTranscript(int studentId);
+
+    /**
+     * Compute every student's GPA and academic standing in one pass, for the dean's list and
+     * probation reports
+     * @return Summaries of the students with COMPLETED courses in student ID order, null if the scan failed
+     */
+    List<GpaSummary> getGpaSummaries();
+
+    /**
+     * Get per-course and per-student registration counts by status
+     * Kept current in-process from registration writes, so between writes this costs no query
+     * @return Latest published statistics, null if they could not be loaded
+     */
+    EnrollmentStatistics getEnrollmentStatistics();
+
+    /**
+     * Reload the enrollment statistics from the database in bulk
+     * @return Number of courses and students counted, -1 if the load failed
+     */
+    int rebuildEnrollmentStatistics();
+
+    /**
+     * Find the students whose registrations match a combination of courses, e.g. registered for
+     * courses A and B but not C
+     * Answered from in-process bitmaps of each course's students, so it costs no query
+     * @param allOf Course IDs the student must be registered for, every one; empty for all students
+     * @param anyOf Course IDs the student must be registered for at least one of; empty for no constraint
+     * @param noneOf Course IDs the student must not be registered for
+     * @param statuses Registration statuses that count as registered; null or empty for any status
+     * @return Matching student IDs in ascending order, null if the bitmaps could not be loaded
+     */
+    int[] findCohort(int[] allOf, int[] anyOf, int[] noneOf, Set<Registration.RegistrationStatus> statuses);
+
+    /**
+     * Get the students with no registration of any status, from the enrollment bitmaps
+     * @return Student IDs in ascending order, null if the bitmaps could not be loaded
+     */
+    int[] getStudentsWithoutRegistrations();
+
+    /**
+     * Get the courses with no registration of any status, from the enrollment bitmaps
+     * @return Course IDs in ascending order, null if the bitmaps could not be loaded
+     */
+    int[] getCoursesWithoutRegistrations();
+
+    /**
+     * Reload the enrollment bitmaps from the database in bulk
+     * @return Number of courses loaded, -1 if the load failed
+     */
+    int rebuildEnrollmentBitmaps();
+
+    /**
+     * Suggest courses other students commonly took together with this student's ACTIVE and
+     * COMPLETED courses
+     * Answered in-process from the co-enrollment matrix and the enrollment bitmaps, without a query
+     * @param studentId ID of the student
+     * @param k Most suggestions wanted
+     * @return Up to k courses the student is not registered for, best first; null if the matrix
+     *         has not been built or loaded yet
+     */
+    List<CourseRecommendation> recommendCourses(int studentId, int k);
+
+    /**
+     * Recompute the co-enrollment matrix from all registrations, in parallel, and save it
+     * @return Number of course pairs in the matrix, -1 if the rebuild failed
+     */
+    int rebuildCoEnrollment();
+
+    /**
+     * Count registrations (by registration_date) or new students (by enrollment_date) per
+     * minute, hour, day or term
+     * Answered from in-process rollups kept up to date on every insert, so it costs no query;
+     * minute buckets are only kept for timeseries.minutes.retentionDays
+     * @param series What to count
+     * @param granularity Bucket width
+     * @param from First instant of the range
+     * @param to First instant after the range
+     * @return Non-empty buckets starting within the range in time order, null if the rollups
+     *         could not be loaded
+     */
+    List<TimeBucket> getTimeSeries(TimeBucket.Series series, TimeBucket.Granularity granularity,
+                                   LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Count registrations or new students in a range from the time series rollups
+     * @param series What to count
+     * @param from First instant of the range, rounded to the minute
+     * @param to First instant after the range, rounded to the minute
+     * @return Number of events, -1 if the rollups could not be loaded
+     */
+    long countInRange(TimeBucket.Series series, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Backfill the time series rollups with one streaming scan of registrations and students
+     * @return Number of events counted, -1 if the backfill failed
+     */
+    long rebuildTimeSeries();
+
+    /**
+     * Get how many of each course's ACTIVE and COMPLETED registrations have each grade
+     * Answered from in-process histograms kept up to date on every status and grade change, so it
+     * costs no query per course
+     * @return Distributions of the courses with registrations in course ID order, null if the
+     *         histograms could not be loaded
+     */
+    List<GradeDistribution> getGradeDistributions();
+
+    /**
+     * Get the grade distributions summed over each instructor's courses
+     * @return Distributions in instructor order, null if the histograms could not be loaded
+     */
+    List<GradeDistribution> getInstructorGradeDistributions();
+
+    /**
+     * Rebuild the grade histograms from the database in one grouped query
+     * @return Number of courses with registrations, -1 if the rebuild failed
+     */
+    int rebuildGradeDistributions();
 }
@@ -1,14 +1,33 @@
 package com.studentregistration.dao;
 
+import com.studentregistration.metrics.QueryMetrics;
+import com.studentregistration.metrics.QueryStats;
+import com.studentregistration.metrics.RegistrationDemand;
+import com.studentregistration.metrics.SlowQueryLog;
+import com.studentregistration.model.EnrollmentStatistics;
+import com.studentregistration.model.GpaSummary;
+import com.studentregistration.model.Grade;
+import com.studentregistration.model.GradeDistribution;
 import com.studentregistration.model.Registration;
+import com.studentregistration.model.RegistrationContext;
 import com.studentregistration.model.Student;
 import com.studentregistration.model.Course;
+import com.studentregistration.model.CourseRecommendation;
+import com.studentregistration.model.StudentProfile;
+import com.studentregistration.model.TimeBucket;
+import com.studentregistration.model.Transcript;
 import com.studentregistration.util.DatabaseConnection;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Registration Data Access Object implementation
@@ -17,10 +36,22 @@ import java.util.List;
 public class RegistrationDAOImpl implements RegistrationDAO {
 
     private final DatabaseConnection dbConnection;
+    private final SeatAllocator seatAllocator;
+    private final WaitlistQueues waitlistQueues;
+    private final CreditLoads creditLoads;
+    private final PrerequisiteGraph prerequisiteGraph;
+    private final TimetableIndex timetableIndex;
+    private final TranscriptCache transcriptCache;
+    private final ReportCache reportCache;
+    private final CourseInstructors courseInstructors;
+    private final EnrollmentBitmaps enrollmentBitmaps;
+    private final CourseRecommender courseRecommender;
+    private final EnrollmentTimeSeries enrollmentTimeSeries;
+    private final GradeHistograms gradeHistograms;
 
     // SQL queries as constants
     private static final String INSERT_REGISTRATION = 
-        "INSERT INTO registrations (student_id, course_id, status) VALUES (?, ?, ?)";
+        "INSERT INTO registrations (student_id, course_id, status, waitlist_position) VALUES (?, ?, ?, ?)";
 
     private static final String SELECT_REGISTRATION_BY_ID = 
         "SELECT * FROM registrations WHERE registration_id = ?";
@@ -33,19 +64,28 @@ public class RegistrationDAOImpl implements RegistrationDAO {
         "ORDER BY r.registration_date DESC";
 
     private static final String UPDATE_REGISTRATION = 
-        "UPDATE registrations SET grade = ?, status = ? WHERE registration_id = ?";
+        "UPDATE registrations SET grade = ?, status = ?, waitlist_position = ? WHERE registration_id = ?";
 
     private static final String DELETE_REGISTRATION = 
         "DELETE FROM registrations WHERE student_id = ? AND course_id = ?";
 
     private static final String SELECT_COURSES_FOR_STUDENT = 
         "SELECT r.*, c.course_id, c.course_code, c.course_name, c.description, " +
-        "c.credits, c.instructor, c.created_date " +
+        "c.credits, c.instructor, c.capacity, c.created_date, c.active_enrollment " +
         "FROM registrations r " +
         "JOIN courses c ON r.course_id = c.course_id " +
         "WHERE r.student_id = ? " +
         "ORDER BY r.registration_date DESC";
 
+    // Chunked IN-list lookup, see InListQuery
+    private static final InListQuery SELECT_COURSES_FOR_STUDENTS = new InListQuery(
+        "SELECT r.*, c.course_id, c.course_code, c.course_name, c.description, " +
+        "c.credits, c.instructor, c.capacity, c.created_date, c.active_enrollment " +
+        "FROM registrations r " +
+        "JOIN courses c ON r.course_id = c.course_id " +
+        "WHERE r.student_id IN ",
+        " ORDER BY r.student_id, r.registration_date DESC");
+
     private static final String SELECT_STUDENTS_FOR_COURSE = 
         "SELECT r.*, s.student_id, s.first_name, s.last_name, s.email, " +
         "s.phone, s.date_of_birth, s.enrollment_date " +
@@ -54,6 +94,39 @@ public class RegistrationDAOImpl implements RegistrationDAO {
         "WHERE r.course_id = ? " +
         "ORDER BY s.last_name, s.first_name";
 
+    private static final String SELECT_WAITLIST_FOR_COURSE = 
+        "SELECT r.*, s.student_id, s.first_name, s.last_name, s.email, " +
+        "s.phone, s.date_of_birth, s.enrollment_date " +
+        "FROM registrations r " +
+        "JOIN students s ON r.student_id = s.student_id " +
+        "WHERE r.course_id = ? AND r.status = 'WAITLISTED' " +
+        "ORDER BY r.waitlist_position";
+
+    // Student row with one row per registration (none if the student has no registrations)
+    private static final String SELECT_STUDENT_PROFILE = 
+        "SELECT s.student_id, s.first_name, s.last_name, s.email, s.phone, s.date_of_birth, " +
+        "s.enrollment_date, r.registration_id, r.course_id, r.registration_date, r.grade, r.status, " +
+        "r.waitlist_position, " +
+        "c.course_code, c.course_name, c.description, c.credits, c.instructor, c.capacity, " +
+        "c.created_date, c.active_enrollment " +
+        "FROM students s " +
+        "LEFT JOIN registrations r ON r.student_id = s.student_id " +
+        "LEFT JOIN courses c ON c.course_id = r.course_id " +
+        "WHERE s.student_id = ? " +
+        "ORDER BY r.registration_date DESC";
+
+    // Always returns exactly one row; columns of whatever is missing are NULL
+    private static final String SELECT_REGISTRATION_CONTEXT = 
+        "SELECT s.student_id, s.first_name, s.last_name, s.email, s.phone, s.date_of_birth, " +
+        "s.enrollment_date, c.course_id, c.course_code, c.course_name, c.description, c.credits, " +
+        "c.instructor, c.capacity, c.created_date, c.active_enrollment, r.registration_id, r.registration_date, " +
+        "r.grade, r.status, r.waitlist_position " +
+        "FROM (SELECT ? AS requested_student_id, ? AS requested_course_id) k " +
+        "LEFT JOIN students s ON s.student_id = k.requested_student_id " +
+        "LEFT JOIN courses c ON c.course_id = k.requested_course_id " +
+        "LEFT JOIN registrations r ON r.student_id = k.requested_student_id " +
+        "AND r.course_id = k.requested_course_id";
+
     private static final String CHECK_REGISTRATION_EXISTS = 
         "SELECT COUNT(*) FROM registrations WHERE student_id = ? AND course_id = ?";
 
@@ -61,16 +134,111 @@ public class RegistrationDAOImpl implements RegistrationDAO {
         "UPDATE registrations SET grade = ? WHERE student_id = ? AND course_id = ?";
 
     private static final String UPDATE_STATUS = 
-        "UPDATE registrations SET status = ? WHERE student_id = ? AND course_id = ?";
-
-    private static final String COUNT_ENROLLMENTS = 
-        "SELECT COUNT(*) FROM registrations WHERE course_id = ? AND status = 'ACTIVE'";
+        "UPDATE registrations SET status = ?, waitlist_position = ? WHERE student_id = ? AND course_id = ?";
+
+    // Current status of a registration, locked until the surrounding transaction ends
+    private static final String SELECT_STATUS_FOR_UPDATE = 
+        "SELECT status, waitlist_position, grade FROM registrations WHERE student_id = ? AND course_id = ? FOR UPDATE";
+
+    private static final String SELECT_COURSE_STATUS_FOR_UPDATE = 
+        "SELECT course_id, student_id, status, waitlist_position, grade FROM registrations WHERE registration_id = ? FOR UPDATE";
+
+    // courses.active_enrollment counts ACTIVE registrations; every write that changes
+    // the number of ACTIVE rows adjusts it in the same transaction. Taking a seat is
+    // conditional on capacity, which makes this the authoritative oversubscription check
+    private static final String TAKE_SEAT = 
+        "UPDATE courses SET active_enrollment = active_enrollment + 1 " +
+        "WHERE course_id = ? AND (capacity IS NULL OR active_enrollment < capacity)";
+
+    private static final String RELEASE_SEAT = 
+        "UPDATE courses SET active_enrollment = active_enrollment - 1 WHERE course_id = ?";
+
+    // Waitlist positions come from a per-course sequence; LAST_INSERT_ID(expr) returns the new
+    // value as the statement's generated key, and the course row stays locked until commit,
+    // so positions follow commit order
+    private static final String NEXT_WAITLIST_POSITION = 
+        "UPDATE courses SET waitlist_seq = LAST_INSERT_ID(waitlist_seq + 1) WHERE course_id = ?";
+
+    // Promotion locks the course row first, so free seats cannot change until commit
+    private static final String SELECT_FREE_SEATS_FOR_UPDATE = 
+        "SELECT capacity, active_enrollment FROM courses WHERE course_id = ? FOR UPDATE";
+
+    // Next in line, read from idx_registration_course_status in queue order
+    private static final String SELECT_WAITLIST_HEAD = 
+        "SELECT registration_id, student_id, waitlist_position FROM registrations " +
+        "WHERE course_id = ? AND status = 'WAITLISTED' ORDER BY waitlist_position LIMIT ? FOR UPDATE";
+
+    private static final InListQuery PROMOTE_WAITLISTED = new InListQuery(
+        "UPDATE registrations SET status = 'ACTIVE', waitlist_position = NULL " +
+        "WHERE registration_id IN ",
+        "");
+
+    private static final String TAKE_SEATS = 
+        "UPDATE courses SET active_enrollment = active_enrollment + ? WHERE course_id = ?";
+
+    // Courses with free seats and someone waiting; only non-empty after writes the DAO did not see
+    private static final String SELECT_PROMOTABLE_COURSES = 
+        "SELECT DISTINCT r.course_id FROM registrations r " +
+        "JOIN courses c ON c.course_id = r.course_id " +
+        "WHERE r.status = 'WAITLISTED' AND (c.capacity IS NULL OR c.active_enrollment < c.capacity)";
+
+    private static final String SELECT_ACTIVE_ENROLLMENT = 
+        "SELECT active_enrollment FROM courses WHERE course_id = ?";
+
+    // Recompute every counter from registrations, touching only the courses that drifted
+    private static final String RECONCILE_ACTIVE_ENROLLMENT = 
+        "UPDATE courses c " +
+        "LEFT JOIN (SELECT course_id, COUNT(*) AS active FROM registrations " +
+        "WHERE status = 'ACTIVE' GROUP BY course_id) a ON a.course_id = c.course_id " +
+        "SET c.active_enrollment = COALESCE(a.active, 0) " +
+        "WHERE c.active_enrollment <> COALESCE(a.active, 0)";
 
     private static final String COUNT_REGISTRATIONS = 
         "SELECT COUNT(*) FROM registrations WHERE student_id = ? AND status = 'ACTIVE'";
 
+    // Per-statement execution statistics, keyed by SQL constant name
+    private static final QueryStats INSERT_REGISTRATION_STATS = QueryMetrics.forStatement("INSERT_REGISTRATION");
+    private static final QueryStats SELECT_REGISTRATION_BY_ID_STATS = QueryMetrics.forStatement("SELECT_REGISTRATION_BY_ID");
+    private static final QueryStats SELECT_ALL_REGISTRATIONS_STATS = QueryMetrics.forStatement("SELECT_ALL_REGISTRATIONS");
+    private static final QueryStats UPDATE_REGISTRATION_STATS = QueryMetrics.forStatement("UPDATE_REGISTRATION");
+    private static final QueryStats DELETE_REGISTRATION_STATS = QueryMetrics.forStatement("DELETE_REGISTRATION");
+    private static final QueryStats SELECT_COURSES_FOR_STUDENT_STATS = QueryMetrics.forStatement("SELECT_COURSES_FOR_STUDENT");
+    private static final QueryStats SELECT_COURSES_FOR_STUDENTS_STATS = QueryMetrics.forStatement("SELECT_COURSES_FOR_STUDENTS");
+    private static final QueryStats SELECT_STUDENTS_FOR_COURSE_STATS = QueryMetrics.forStatement("SELECT_STUDENTS_FOR_COURSE");
+    private static final QueryStats SELECT_WAITLIST_FOR_COURSE_STATS = QueryMetrics.forStatement("SELECT_WAITLIST_FOR_COURSE");
+    private static final QueryStats SELECT_STUDENT_PROFILE_STATS = QueryMetrics.forStatement("SELECT_STUDENT_PROFILE");
+    private static final QueryStats SELECT_REGISTRATION_CONTEXT_STATS = QueryMetrics.forStatement("SELECT_REGISTRATION_CONTEXT");
+    private static final QueryStats CHECK_REGISTRATION_EXISTS_STATS = QueryMetrics.forStatement("CHECK_REGISTRATION_EXISTS");
+    private static final QueryStats UPDATE_GRADE_STATS = QueryMetrics.forStatement("UPDATE_GRADE");
+    private static final QueryStats UPDATE_STATUS_STATS = QueryMetrics.forStatement("UPDATE_STATUS");
+    private static final QueryStats SELECT_STATUS_FOR_UPDATE_STATS = QueryMetrics.forStatement("SELECT_STATUS_FOR_UPDATE");
+    private static final QueryStats SELECT_COURSE_STATUS_FOR_UPDATE_STATS = QueryMetrics.forStatement("SELECT_COURSE_STATUS_FOR_UPDATE");
+    private static final QueryStats TAKE_SEAT_STATS = QueryMetrics.forStatement("TAKE_SEAT");
+    private static final QueryStats RELEASE_SEAT_STATS = QueryMetrics.forStatement("RELEASE_SEAT");
+    private static final QueryStats NEXT_WAITLIST_POSITION_STATS = QueryMetrics.forStatement("NEXT_WAITLIST_POSITION");
+    private static final QueryStats SELECT_FREE_SEATS_FOR_UPDATE_STATS = QueryMetrics.forStatement("SELECT_FREE_SEATS_FOR_UPDATE");
+    private static final QueryStats SELECT_WAITLIST_HEAD_STATS = QueryMetrics.forStatement("SELECT_WAITLIST_HEAD");
+    private static final QueryStats PROMOTE_WAITLISTED_STATS = QueryMetrics.forStatement("PROMOTE_WAITLISTED");
+    private static final QueryStats TAKE_SEATS_STATS = QueryMetrics.forStatement("TAKE_SEATS");
+    private static final QueryStats SELECT_PROMOTABLE_COURSES_STATS = QueryMetrics.forStatement("SELECT_PROMOTABLE_COURSES");
+    private static final QueryStats SELECT_ACTIVE_ENROLLMENT_STATS = QueryMetrics.forStatement("SELECT_ACTIVE_ENROLLMENT");
+    private static final QueryStats RECONCILE_ACTIVE_ENROLLMENT_STATS = QueryMetrics.forStatement("RECONCILE_ACTIVE_ENROLLMENT");
+    private static final QueryStats COUNT_REGISTRATIONS_STATS = QueryMetrics.forStatement("COUNT_REGISTRATIONS");
+
     public RegistrationDAOImpl() {
         this.dbConnection = DatabaseConnection.getInstance();
+        this.seatAllocator = SeatAllocator.getInstance();
+        this.waitlistQueues = WaitlistQueues.getInstance();
+        this.creditLoads = CreditLoads.getInstance();
+        this.prerequisiteGraph = PrerequisiteGraph.getInstance();
+        this.timetableIndex = TimetableIndex.getInstance();
+        this.transcriptCache = TranscriptCache.getInstance();
+        this.reportCache = ReportCache.getInstance();
+        this.courseInstructors = CourseInstructors.getInstance();
+        this.enrollmentBitmaps = EnrollmentBitmaps.getInstance();
+        this.courseRecommender = CourseRecommender.getInstance();
+        this.enrollmentTimeSeries = EnrollmentTimeSeries.getInstance();
+        this.gradeHistograms = GradeHistograms.getInstance();
     }
 
     @Override
@@ -85,30 +253,158 @@ public class RegistrationDAOImpl implements RegistrationDAO {
         return addRegistration(registration);
     }
 
+    @Override
+    public boolean joinWaitlist(int studentId, int courseId) {
+        if (isStudentRegisteredForCourse(studentId, courseId)) {
+            System.out.println("Student is already registered for this course.");
+            return false;
+        }
+
+        Registration registration = new Registration(studentId, courseId);
+        registration.setStatus(Registration.RegistrationStatus.WAITLISTED);
+        return addRegistration(registration);
+    }
+
     @Override
     public boolean addRegistration(Registration registration) {
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(INSERT_REGISTRATION, Statement.RETURN_GENERATED_KEYS)) {
+        int courseId = registration.getCourseId();
+        // Take the seat in-process first so a full course costs no database work
+        boolean full = activeDelta(null, registration.getStatus()) > 0 && !seatAllocator.tryAcquire(courseId);
+        // Joining a waitlist is a request for a full course too
+        RegistrationDemand.recordRequest(courseId, courseInstructors.get(courseId),
+                                         full || registration.getStatus() == Registration.RegistrationStatus.WAITLISTED);
+        if (full) {
+            System.out.println("Course is full.");
+            return false;
+        }
+        return insertRegistration(registration);
+    }
 
-            stmt.setInt(1, registration.getStudentId());
-            stmt.setInt(2, registration.getCourseId());
-            stmt.setString(3, registration.getStatus().name());
+    @Override
+    public void recordTurnedAway(int courseId) {
+        RegistrationDemand.recordRequest(courseId, courseInstructors.get(courseId), true);
+    }
 
-            int rowsAffected = stmt.executeUpdate();
+    @Override
+    public boolean addHeldRegistration(Registration registration) {
+        int courseId = registration.getCourseId();
+        RegistrationDemand.recordRequest(courseId, courseInstructors.get(courseId), false);
+        return insertRegistration(registration);
+    }
 
-            // Get generated ID and set it to registration object
-            if (rowsAffected > 0) {
-                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        registration.setRegistrationId(generatedKeys.getInt(1));
+    /**
+     * Insert a registration whose allocator seat, if it needs one, has been taken
+     * The seat is released unless the registration commits
+     * @param registration Registration object
+     * @return true if registration is added successfully, false otherwise
+     */
+    private boolean insertRegistration(Registration registration) {
+        int studentId = registration.getStudentId();
+        int courseId = registration.getCourseId();
+        int delta = activeDelta(null, registration.getStatus());
+        boolean seatHeld = delta > 0;
+        boolean waitlisted = registration.getStatus() == Registration.RegistrationStatus.WAITLISTED;
+
+        // Prerequisites, the credit limit and timetable clashes are checked in-process, so they add no query
+        boolean creditsHeld = loadDelta(null, registration.getStatus()) > 0;
+        if (creditsHeld && !prerequisiteGraph.isEligible(studentId, courseId)) {
+            if (seatHeld) {
+                seatAllocator.release(courseId);
+            }
+            System.out.println("Missing prerequisites: course(s) "
+                               + prerequisiteGraph.getMissingPrerequisites(studentId, courseId) + ".");
+            return false;
+        }
+        if (creditsHeld && !creditLoads.tryAdd(studentId, courseId)) {
+            if (seatHeld) {
+                seatAllocator.release(courseId);
+            }
+            printCreditLimitReached();
+            return false;
+        }
+        if (creditsHeld && !tryAddToTimetable(studentId, courseId)) {
+            if (seatHeld) {
+                seatAllocator.release(courseId);
+            }
+            creditLoads.remove(studentId, courseId);
+            return false;
+        }
+        boolean scheduleHeld = creditsHeld;
+
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_REGISTRATION, Statement.RETURN_GENERATED_KEYS)) {
+
+                Long position = waitlisted ? nextWaitlistPosition(conn, courseId) : null;
+                stmt.setInt(1, registration.getStudentId());
+                stmt.setInt(2, registration.getCourseId());
+                stmt.setString(3, registration.getStatus().name());
+                setWaitlistPosition(stmt, 4, position);
+
+                long start = System.nanoTime();
+                int rowsAffected = stmt.executeUpdate();
+                if (INSERT_REGISTRATION_STATS.record(start, rowsAffected)) {
+                    SlowQueryLog.log(INSERT_REGISTRATION_STATS, start, rowsAffected,
+                                     registration.getStudentId(), registration.getCourseId());
+                }
+
+                if (rowsAffected > 0) {
+                    int registrationId = 0;
+                    try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                        if (generatedKeys.next()) {
+                            registrationId = generatedKeys.getInt(1);
+                        }
+                    }
+                    if (!adjustActiveEnrollment(conn, courseId, delta)) {
+                        conn.rollback();
+                        System.out.println("Course is full.");
+                        return false;
                     }
+                    // A seat may have opened since the caller saw the course full; those
+                    // already waiting are served first
+                    Map<Long, Integer> promoted = waitlisted
+                        ? promoteWaitlisted(conn, courseId) : Collections.emptyMap();
+                    conn.commit();
+                    seatHeld = false;
+                    creditsHeld = false;
+                    scheduleHeld = false;
+
+                    // Set the generated ID only once the row is committed
+                    registration.setRegistrationId(registrationId);
+                    afterStatusChange(studentId, courseId, null, null, registration.getStatus(), null);
+                    if (waitlisted) {
+                        if (promoted.containsKey(position)) {
+                            registration.setStatus(Registration.RegistrationStatus.ACTIVE);
+                        } else {
+                            registration.setWaitlistPosition(position);
+                            waitlistQueues.added(courseId, position, registration.getStudentId());
+                        }
+                        afterPromotion(courseId, promoted);
+                    }
+                    return true;
                 }
-                return true;
+                conn.rollback();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
 
         } catch (SQLException e) {
+            INSERT_REGISTRATION_STATS.recordError();
             System.err.println("Error adding registration: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            if (seatHeld) {
+                seatAllocator.release(courseId);
+            }
+            if (creditsHeld) {
+                creditLoads.remove(studentId, courseId);
+            }
+            if (scheduleHeld) {
+                timetableIndex.remove(studentId, courseId);
+            }
         }
         return false;
     }
@@ -120,13 +416,23 @@ public class RegistrationDAOImpl implements RegistrationDAO {
 
             stmt.setInt(1, registrationId);
 
+            long start = System.nanoTime();
+            long executed;
+            Registration registration = null;
             try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
                 if (rs.next()) {
-                    return mapResultSetToRegistration(rs);
+                    registration = mapResultSetToRegistration(rs);
                 }
             }
+            int rows = registration != null ? 1 : 0;
+            if (SELECT_REGISTRATION_BY_ID_STATS.record(start, executed, rows)) {
+                SlowQueryLog.log(SELECT_REGISTRATION_BY_ID_STATS, start, rows, registrationId);
+            }
+            return registration;
 
         } catch (SQLException e) {
+            SELECT_REGISTRATION_BY_ID_STATS.recordError();
             System.err.println("Error getting registration by ID: " + e.getMessage());
             e.printStackTrace();
         }
@@ -138,31 +444,39 @@ public class RegistrationDAOImpl implements RegistrationDAO {
         List<Registration> registrations = new ArrayList<>();
 
         try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_REGISTRATIONS);
-             ResultSet rs = stmt.executeQuery()) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_REGISTRATIONS)) {
 
-            while (rs.next()) {
-                Registration registration = mapResultSetToRegistration(rs);
+            long start = System.nanoTime();
+            long executed;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                while (rs.next()) {
+                    Registration registration = mapResultSetToRegistration(rs);
 
-                // Create and set student info
-                Student student = new Student();
-                student.setStudentId(registration.getStudentId());
-                student.setFirstName(rs.getString("first_name"));
-                student.setLastName(rs.getString("last_name"));
-                student.setEmail(rs.getString("email"));
-                registration.setStudent(student);
+                    // Create and set student info
+                    Student student = new Student();
+                    student.setStudentId(registration.getStudentId());
+                    student.setFirstName(rs.getString("first_name"));
+                    student.setLastName(rs.getString("last_name"));
+                    student.setEmail(rs.getString("email"));
+                    registration.setStudent(student);
 
-                // Create and set course info
-                Course course = new Course();
-                course.setCourseId(registration.getCourseId());
-                course.setCourseCode(rs.getString("course_code"));
-                course.setCourseName(rs.getString("course_name"));
-                registration.setCourse(course);
+                    // Create and set course info
+                    Course course = new Course();
+                    course.setCourseId(registration.getCourseId());
+                    course.setCourseCode(rs.getString("course_code"));
+                    course.setCourseName(rs.getString("course_name"));
+                    registration.setCourse(course);
 
-                registrations.add(registration);
+                    registrations.add(registration);
+                }
+            }
+            if (SELECT_ALL_REGISTRATIONS_STATS.record(start, executed, registrations.size())) {
+                SlowQueryLog.log(SELECT_ALL_REGISTRATIONS_STATS, start, registrations.size());
             }
 
         } catch (SQLException e) {
+            SELECT_ALL_REGISTRATIONS_STATS.recordError();
             System.err.println("Error getting all registrations: " + e.getMessage());
             e.printStackTrace();
         }
@@ -172,35 +486,185 @@ public class RegistrationDAOImpl implements RegistrationDAO {
 
     @Override
     public boolean updateRegistration(Registration registration) {
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(UPDATE_REGISTRATION)) {
-
-            stmt.setString(1, registration.getGrade());
-            stmt.setString(2, registration.getStatus().name());
-            stmt.setInt(3, registration.getRegistrationId());
-
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
+        int studentId = 0;
+        int courseId = 0;
+        boolean seatHeld = false;
+        boolean creditsHeld = false;
+        boolean scheduleHeld = false;
+        // Checked before the transaction so a cold queue is not loaded while rows are locked
+        boolean waiting = waitlistQueues.hasWaiting(registration.getCourseId());
+        prepareChecks(registration.getCourseId(), registration.getStatus());
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // Lock the row first so the counter adjustment sees the status being replaced
+                Registration current = null;
+                try (PreparedStatement lock = conn.prepareStatement(SELECT_COURSE_STATUS_FOR_UPDATE)) {
+                    lock.setInt(1, registration.getRegistrationId());
+
+                    long start = System.nanoTime();
+                    long executed;
+                    int rows = 0;
+                    try (ResultSet rs = lock.executeQuery()) {
+                        executed = System.nanoTime();
+                        if (rs.next()) {
+                            rows = 1;
+                            courseId = rs.getInt("course_id");
+                            current = mapLockedRegistration(rs);
+                            current.setStudentId(rs.getInt("student_id"));
+                        }
+                    }
+                    if (SELECT_COURSE_STATUS_FOR_UPDATE_STATS.record(start, executed, rows)) {
+                        SlowQueryLog.log(SELECT_COURSE_STATUS_FOR_UPDATE_STATS, start, rows,
+                                         registration.getRegistrationId());
+                    }
+                }
+                if (current == null) {
+                    conn.rollback();
+                    return false;
+                }
+                studentId = current.getStudentId();
+                int loadChange = loadDelta(current.getStatus(), registration.getStatus());
+                if (loadChange > 0 && !creditLoads.tryAdd(studentId, courseId)) {
+                    conn.rollback();
+                    printCreditLimitReached();
+                    return false;
+                }
+                creditsHeld = loadChange > 0;
+                // Re-activating a dropped or completed registration must meet the prerequisites too
+                if (creditsHeld && !prerequisiteGraph.isEligible(studentId, courseId)) {
+                    conn.rollback();
+                    System.out.println("Missing prerequisites: course(s) "
+                                       + prerequisiteGraph.getMissingPrerequisites(studentId, courseId) + ".");
+                    return false;
+                }
+                if (creditsHeld && !tryAddToTimetable(studentId, courseId)) {
+                    conn.rollback();
+                    return false;
+                }
+                scheduleHeld = creditsHeld;
+                int delta = activeDelta(current.getStatus(), registration.getStatus());
+                if (delta > 0 && !seatAllocator.tryAcquireLoaded(courseId)) {
+                    conn.rollback();
+                    System.out.println("Course is full.");
+                    return false;
+                }
+                seatHeld = delta > 0;
+
+                Long position = waitlistPositionFor(conn, courseId, current, registration.getStatus());
+                int rowsAffected;
+                try (PreparedStatement stmt = conn.prepareStatement(UPDATE_REGISTRATION)) {
+                    stmt.setString(1, registration.getGrade());
+                    stmt.setString(2, registration.getStatus().name());
+                    setWaitlistPosition(stmt, 3, position);
+                    stmt.setInt(4, registration.getRegistrationId());
+
+                    long start = System.nanoTime();
+                    rowsAffected = stmt.executeUpdate();
+                    if (UPDATE_REGISTRATION_STATS.record(start, rowsAffected)) {
+                        SlowQueryLog.log(UPDATE_REGISTRATION_STATS, start, rowsAffected, registration.getRegistrationId());
+                    }
+                }
+                if (!adjustActiveEnrollment(conn, courseId, delta)) {
+                    conn.rollback();
+                    System.out.println("Course is full.");
+                    return false;
+                }
+                // The queue was checked for the course the caller named; look anyway if it was another
+                Map<Long, Integer> promoted = delta < 0 && (waiting || courseId != registration.getCourseId())
+                    ? promoteWaitlisted(conn, courseId) : Collections.emptyMap();
+                conn.commit();
+                seatHeld = false;
+                creditsHeld = false;
+                scheduleHeld = false;
+
+                registration.setWaitlistPosition(position);
+                syncWaitlistQueue(courseId, studentId, current.getWaitlistPosition(), position);
+                if (loadChange < 0) {
+                    creditLoads.remove(studentId, courseId);
+                    timetableIndex.remove(studentId, courseId);
+                }
+                afterStatusChange(studentId, courseId, current.getStatus(), current.getGrade(),
+                                  registration.getStatus(), registration.getGrade());
+                if (delta < 0) {
+                    afterRelease(courseId, promoted);
+                }
+                return rowsAffected > 0;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
 
         } catch (SQLException e) {
+            UPDATE_REGISTRATION_STATS.recordError();
             System.err.println("Error updating registration: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            if (seatHeld) {
+                seatAllocator.release(courseId);
+            }
+            if (creditsHeld) {
+                creditLoads.remove(studentId, courseId);
+            }
+            if (scheduleHeld) {
+                timetableIndex.remove(studentId, courseId);
+            }
         }
         return false;
     }
 
     @Override
     public boolean dropStudentFromCourse(int studentId, int courseId) {
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(DELETE_REGISTRATION)) {
+        // Checked before the transaction so a cold queue is not loaded while rows are locked
+        boolean waiting = waitlistQueues.hasWaiting(courseId);
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Registration current = lockRegistration(conn, studentId, courseId);
+                if (current == null) {
+                    conn.rollback();
+                    return false;
+                }
 
-            stmt.setInt(1, studentId);
-            stmt.setInt(2, courseId);
+                int rowsAffected;
+                try (PreparedStatement stmt = conn.prepareStatement(DELETE_REGISTRATION)) {
+                    stmt.setInt(1, studentId);
+                    stmt.setInt(2, courseId);
 
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
+                    long start = System.nanoTime();
+                    rowsAffected = stmt.executeUpdate();
+                    if (DELETE_REGISTRATION_STATS.record(start, rowsAffected)) {
+                        SlowQueryLog.log(DELETE_REGISTRATION_STATS, start, rowsAffected, studentId, courseId);
+                    }
+                }
+                int delta = activeDelta(current.getStatus(), null);
+                adjustActiveEnrollment(conn, courseId, delta);
+                // Hand the freed seat to the head of the waitlist before the drop commits
+                Map<Long, Integer> promoted = delta < 0 && waiting
+                    ? promoteWaitlisted(conn, courseId) : Collections.emptyMap();
+                conn.commit();
+
+                syncWaitlistQueue(courseId, studentId, current.getWaitlistPosition(), null);
+                if (loadDelta(current.getStatus(), null) < 0) {
+                    creditLoads.remove(studentId, courseId);
+                    timetableIndex.remove(studentId, courseId);
+                }
+                afterStatusChange(studentId, courseId, current.getStatus(), current.getGrade(), null, null);
+                if (delta < 0) {
+                    afterRelease(courseId, promoted);
+                }
+                return rowsAffected > 0;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
 
         } catch (SQLException e) {
+            DELETE_REGISTRATION_STATS.recordError();
             System.err.println("Error dropping student from course: " + e.getMessage());
             e.printStackTrace();
         }
@@ -216,30 +680,22 @@ public class RegistrationDAOImpl implements RegistrationDAO {
 
             stmt.setInt(1, studentId);
 
+            long start = System.nanoTime();
+            long executed;
             try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
                 while (rs.next()) {
                     Registration registration = mapResultSetToRegistration(rs);
-
-                    // Create and set course info
-                    Course course = new Course();
-                    course.setCourseId(rs.getInt("course_id"));
-                    course.setCourseCode(rs.getString("course_code"));
-                    course.setCourseName(rs.getString("course_name"));
-                    course.setDescription(rs.getString("description"));
-                    course.setCredits(rs.getInt("credits"));
-                    course.setInstructor(rs.getString("instructor"));
-
-                    Timestamp createdDate = rs.getTimestamp("created_date");
-                    if (createdDate != null) {
-                        course.setCreatedDate(createdDate.toLocalDateTime());
-                    }
-
-                    registration.setCourse(course);
+                    registration.setCourse(mapJoinedCourse(rs));
                     registrations.add(registration);
                 }
             }
+            if (SELECT_COURSES_FOR_STUDENT_STATS.record(start, executed, registrations.size())) {
+                SlowQueryLog.log(SELECT_COURSES_FOR_STUDENT_STATS, start, registrations.size(), studentId);
+            }
 
         } catch (SQLException e) {
+            SELECT_COURSES_FOR_STUDENT_STATS.recordError();
             System.err.println("Error getting courses for student: " + e.getMessage());
             e.printStackTrace();
         }
@@ -247,6 +703,66 @@ public class RegistrationDAOImpl implements RegistrationDAO {
         return registrations;
     }
 
+    @Override
+    public Map<Integer, List<Registration>> getRegistrationsForStudents(int[] studentIds) {
+        int[] ids = InListQuery.distinct(studentIds);
+        Map<Integer, List<Registration>> registrationsByStudent = new HashMap<>(ids.length * 2);
+        for (int id : ids) {
+            registrationsByStudent.put(id, new ArrayList<>());
+        }
+        if (ids.length == 0) {
+            return registrationsByStudent;
+        }
+
+        try (Connection conn = dbConnection.getConnection()) {
+            PreparedStatement stmt = null;
+            int preparedSize = 0;
+            try {
+                for (int from = 0; from < ids.length; from += InListQuery.MAX_CHUNK_SIZE) {
+                    int to = Math.min(from + InListQuery.MAX_CHUNK_SIZE, ids.length);
+                    int paddedSize = InListQuery.paddedSize(to - from);
+                    // Full chunks share one statement; only a trailing partial chunk needs another
+                    if (paddedSize != preparedSize) {
+                        if (stmt != null) {
+                            stmt.close();
+                        }
+                        stmt = conn.prepareStatement(SELECT_COURSES_FOR_STUDENTS.sql(paddedSize));
+                        preparedSize = paddedSize;
+                    }
+                    InListQuery.bind(stmt, ids, from, to, paddedSize);
+
+                    long start = System.nanoTime();
+                    long executed;
+                    int rows = 0;
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        executed = System.nanoTime();
+                        while (rs.next()) {
+                            Registration registration = mapResultSetToRegistration(rs);
+                            registration.setCourse(mapJoinedCourse(rs));
+                            registrationsByStudent.get(registration.getStudentId()).add(registration);
+                            rows++;
+                        }
+                    }
+                    if (SELECT_COURSES_FOR_STUDENTS_STATS.record(start, executed, rows)) {
+                        SlowQueryLog.log(SELECT_COURSES_FOR_STUDENTS_STATS, start, rows,
+                                         to - from, ids[from], ids[to - 1]);
+                    }
+                }
+            } finally {
+                if (stmt != null) {
+                    stmt.close();
+                }
+            }
+
+        } catch (SQLException e) {
+            SELECT_COURSES_FOR_STUDENTS_STATS.recordError();
+            System.err.println("Error getting registrations for students: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return registrationsByStudent;
+    }
+
     @Override
     public List<Registration> getStudentsForCourse(int courseId) {
         List<Registration> registrations = new ArrayList<>();
@@ -256,41 +772,151 @@ public class RegistrationDAOImpl implements RegistrationDAO {
 
             stmt.setInt(1, courseId);
 
+            long start = System.nanoTime();
+            long executed;
             try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
                 while (rs.next()) {
                     Registration registration = mapResultSetToRegistration(rs);
+                    registration.setStudent(mapJoinedStudent(rs));
+                    registrations.add(registration);
+                }
+            }
+            if (SELECT_STUDENTS_FOR_COURSE_STATS.record(start, executed, registrations.size())) {
+                SlowQueryLog.log(SELECT_STUDENTS_FOR_COURSE_STATS, start, registrations.size(), courseId);
+            }
 
-                    // Create and set student info
-                    Student student = new Student();
-                    student.setStudentId(rs.getInt("student_id"));
-                    student.setFirstName(rs.getString("first_name"));
-                    student.setLastName(rs.getString("last_name"));
-                    student.setEmail(rs.getString("email"));
-                    student.setPhone(rs.getString("phone"));
+        } catch (SQLException e) {
+            SELECT_STUDENTS_FOR_COURSE_STATS.recordError();
+            System.err.println("Error getting students for course: " + e.getMessage());
+            e.printStackTrace();
+        }
 
-                    Date dateOfBirth = rs.getDate("date_of_birth");
-                    if (dateOfBirth != null) {
-                        student.setDateOfBirth(dateOfBirth.toLocalDate());
-                    }
+        return registrations;
+    }
 
-                    Timestamp enrollmentDate = rs.getTimestamp("enrollment_date");
-                    if (enrollmentDate != null) {
-                        student.setEnrollmentDate(enrollmentDate.toLocalDateTime());
-                    }
+    @Override
+    public List<Registration> getWaitlist(int courseId) {
+        List<Registration> registrations = new ArrayList<>();
 
-                    registration.setStudent(student);
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_WAITLIST_FOR_COURSE)) {
+
+            stmt.setInt(1, courseId);
+
+            long start = System.nanoTime();
+            long executed;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                while (rs.next()) {
+                    Registration registration = mapResultSetToRegistration(rs);
+                    registration.setStudent(mapJoinedStudent(rs));
                     registrations.add(registration);
                 }
             }
+            if (SELECT_WAITLIST_FOR_COURSE_STATS.record(start, executed, registrations.size())) {
+                SlowQueryLog.log(SELECT_WAITLIST_FOR_COURSE_STATS, start, registrations.size(), courseId);
+            }
 
         } catch (SQLException e) {
-            System.err.println("Error getting students for course: " + e.getMessage());
+            SELECT_WAITLIST_FOR_COURSE_STATS.recordError();
+            System.err.println("Error getting course waitlist: " + e.getMessage());
             e.printStackTrace();
         }
 
         return registrations;
     }
 
+    @Override
+    public int getPlaceInWaitlist(int studentId, int courseId) {
+        return waitlistQueues.placeInLine(courseId, studentId);
+    }
+
+    @Override
+    public StudentProfile getStudentProfile(int studentId) {
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_STUDENT_PROFILE)) {
+
+            stmt.setInt(1, studentId);
+
+            long start = System.nanoTime();
+            long executed;
+            Student student = null;
+            List<Registration> registrations = new ArrayList<>();
+            int rows = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                while (rs.next()) {
+                    rows++;
+                    if (student == null) {
+                        student = mapJoinedStudent(rs);
+                    }
+                    rs.getInt("registration_id");
+                    if (!rs.wasNull()) {
+                        Registration registration = mapResultSetToRegistration(rs);
+                        registration.setCourse(mapJoinedCourse(rs));
+                        registrations.add(registration);
+                    }
+                }
+            }
+            if (SELECT_STUDENT_PROFILE_STATS.record(start, executed, rows)) {
+                SlowQueryLog.log(SELECT_STUDENT_PROFILE_STATS, start, rows, studentId);
+            }
+            return student != null ? new StudentProfile(student, registrations) : null;
+
+        } catch (SQLException e) {
+            SELECT_STUDENT_PROFILE_STATS.recordError();
+            System.err.println("Error getting student profile: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    @Override
+    public RegistrationContext getRegistrationContext(int studentId, int courseId) {
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_REGISTRATION_CONTEXT)) {
+
+            stmt.setInt(1, studentId);
+            stmt.setInt(2, courseId);
+
+            long start = System.nanoTime();
+            long executed;
+            Student student = null;
+            Course course = null;
+            Registration registration = null;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                if (rs.next()) {
+                    rs.getInt("student_id");
+                    if (!rs.wasNull()) {
+                        student = mapJoinedStudent(rs);
+                    }
+                    rs.getInt("course_id");
+                    if (!rs.wasNull()) {
+                        course = mapJoinedCourse(rs);
+                    }
+                    rs.getInt("registration_id");
+                    if (!rs.wasNull()) {
+                        registration = mapResultSetToRegistration(rs);
+                        registration.setStudent(student);
+                        registration.setCourse(course);
+                    }
+                }
+            }
+            if (SELECT_REGISTRATION_CONTEXT_STATS.record(start, executed, 1)) {
+                SlowQueryLog.log(SELECT_REGISTRATION_CONTEXT_STATS, start, 1, studentId, courseId);
+            }
+            return new RegistrationContext(studentId, courseId, student, course, registration);
+
+        } catch (SQLException e) {
+            SELECT_REGISTRATION_CONTEXT_STATS.recordError();
+            System.err.println("Error getting registration context: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
     @Override
     public boolean isStudentRegisteredForCourse(int studentId, int courseId) {
         try (Connection conn = dbConnection.getConnection();
@@ -299,13 +925,22 @@ public class RegistrationDAOImpl implements RegistrationDAO {
             stmt.setInt(1, studentId);
             stmt.setInt(2, courseId);
 
+            long start = System.nanoTime();
+            long executed;
+            boolean exists = false;
             try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
                 if (rs.next()) {
-                    return rs.getInt(1) > 0;
+                    exists = rs.getInt(1) > 0;
                 }
             }
+            if (CHECK_REGISTRATION_EXISTS_STATS.record(start, executed, 1)) {
+                SlowQueryLog.log(CHECK_REGISTRATION_EXISTS_STATS, start, 1, studentId, courseId);
+            }
+            return exists;
 
         } catch (SQLException e) {
+            CHECK_REGISTRATION_EXISTS_STATS.recordError();
             System.err.println("Error checking registration existence: " + e.getMessage());
             e.printStackTrace();
         }
@@ -314,17 +949,45 @@ public class RegistrationDAOImpl implements RegistrationDAO {
 
     @Override
     public boolean updateGrade(int studentId, int courseId, String grade) {
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(UPDATE_GRADE)) {
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // Lock the row first so the grade histogram sees the grade being replaced
+                Registration current = lockRegistration(conn, studentId, courseId);
+                if (current == null) {
+                    conn.rollback();
+                    return false;
+                }
 
-            stmt.setString(1, grade);
-            stmt.setInt(2, studentId);
-            stmt.setInt(3, courseId);
+                int rowsAffected;
+                try (PreparedStatement stmt = conn.prepareStatement(UPDATE_GRADE)) {
+                    stmt.setString(1, grade);
+                    stmt.setInt(2, studentId);
+                    stmt.setInt(3, courseId);
 
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
+                    long start = System.nanoTime();
+                    rowsAffected = stmt.executeUpdate();
+                    if (UPDATE_GRADE_STATS.record(start, rowsAffected)) {
+                        SlowQueryLog.log(UPDATE_GRADE_STATS, start, rowsAffected, grade, studentId, courseId);
+                    }
+                }
+                conn.commit();
+
+                if (rowsAffected > 0) {
+                    transcriptCache.invalidate(studentId);
+                    gradeHistograms.registrationChanged(courseId, current.getStatus(), Grade.encode(current.getGrade()),
+                                                        current.getStatus(), Grade.encode(grade));
+                }
+                return rowsAffected > 0;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
 
         } catch (SQLException e) {
+            UPDATE_GRADE_STATS.recordError();
             System.err.println("Error updating grade: " + e.getMessage());
             e.printStackTrace();
         }
@@ -333,43 +996,223 @@ public class RegistrationDAOImpl implements RegistrationDAO {
 
     @Override
     public boolean updateRegistrationStatus(int studentId, int courseId, Registration.RegistrationStatus status) {
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(UPDATE_STATUS)) {
-
-            stmt.setString(1, status.name());
-            stmt.setInt(2, studentId);
-            stmt.setInt(3, courseId);
-
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
+        boolean seatHeld = false;
+        boolean creditsHeld = false;
+        boolean scheduleHeld = false;
+        // Checked before the transaction so a cold queue is not loaded while rows are locked
+        boolean waiting = waitlistQueues.hasWaiting(courseId);
+        prepareChecks(courseId, status);
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Registration current = lockRegistration(conn, studentId, courseId);
+                if (current == null) {
+                    conn.rollback();
+                    return false;
+                }
+                if (current.getStatus() == status) {
+                    // Nothing to write; a waitlisted student keeps their place
+                    conn.rollback();
+                    return true;
+                }
+                int loadChange = loadDelta(current.getStatus(), status);
+                if (loadChange > 0 && !creditLoads.tryAdd(studentId, courseId)) {
+                    conn.rollback();
+                    printCreditLimitReached();
+                    return false;
+                }
+                creditsHeld = loadChange > 0;
+                // Re-activating a dropped or completed registration must meet the prerequisites too
+                if (creditsHeld && !prerequisiteGraph.isEligible(studentId, courseId)) {
+                    conn.rollback();
+                    System.out.println("Missing prerequisites: course(s) "
+                                       + prerequisiteGraph.getMissingPrerequisites(studentId, courseId) + ".");
+                    return false;
+                }
+                if (creditsHeld && !tryAddToTimetable(studentId, courseId)) {
+                    conn.rollback();
+                    return false;
+                }
+                scheduleHeld = creditsHeld;
+                int delta = activeDelta(current.getStatus(), status);
+                if (delta > 0 && !seatAllocator.tryAcquireLoaded(courseId)) {
+                    conn.rollback();
+                    System.out.println("Course is full.");
+                    return false;
+                }
+                seatHeld = delta > 0;
+
+                Long position = waitlistPositionFor(conn, courseId, current, status);
+                int rowsAffected;
+                try (PreparedStatement stmt = conn.prepareStatement(UPDATE_STATUS)) {
+                    stmt.setString(1, status.name());
+                    setWaitlistPosition(stmt, 2, position);
+                    stmt.setInt(3, studentId);
+                    stmt.setInt(4, courseId);
+
+                    long start = System.nanoTime();
+                    rowsAffected = stmt.executeUpdate();
+                    if (UPDATE_STATUS_STATS.record(start, rowsAffected)) {
+                        SlowQueryLog.log(UPDATE_STATUS_STATS, start, rowsAffected, status, studentId, courseId);
+                    }
+                }
+                if (!adjustActiveEnrollment(conn, courseId, delta)) {
+                    conn.rollback();
+                    System.out.println("Course is full.");
+                    return false;
+                }
+                Map<Long, Integer> promoted = delta < 0 && waiting
+                    ? promoteWaitlisted(conn, courseId) : Collections.emptyMap();
+                conn.commit();
+                seatHeld = false;
+                creditsHeld = false;
+                scheduleHeld = false;
+
+                syncWaitlistQueue(courseId, studentId, current.getWaitlistPosition(), position);
+                if (loadChange < 0) {
+                    creditLoads.remove(studentId, courseId);
+                    timetableIndex.remove(studentId, courseId);
+                }
+                afterStatusChange(studentId, courseId, current.getStatus(), current.getGrade(), status, current.getGrade());
+                if (delta < 0) {
+                    afterRelease(courseId, promoted);
+                }
+                return rowsAffected > 0;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
 
         } catch (SQLException e) {
+            UPDATE_STATUS_STATS.recordError();
             System.err.println("Error updating registration status: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            if (seatHeld) {
+                seatAllocator.release(courseId);
+            }
+            if (creditsHeld) {
+                creditLoads.remove(studentId, courseId);
+            }
+            if (scheduleHeld) {
+                timetableIndex.remove(studentId, courseId);
+            }
         }
         return false;
     }
 
     @Override
     public int getEnrollmentCount(int courseId) {
+        // Primary key lookup of the maintained counter rather than a COUNT(*) over registrations
         try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(COUNT_ENROLLMENTS)) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ACTIVE_ENROLLMENT)) {
 
             stmt.setInt(1, courseId);
 
+            long start = System.nanoTime();
+            long executed;
+            int count = 0;
             try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
                 if (rs.next()) {
-                    return rs.getInt(1);
+                    count = rs.getInt(1);
                 }
             }
+            if (SELECT_ACTIVE_ENROLLMENT_STATS.record(start, executed, 1)) {
+                SlowQueryLog.log(SELECT_ACTIVE_ENROLLMENT_STATS, start, 1, courseId);
+            }
+            return count;
 
         } catch (SQLException e) {
+            SELECT_ACTIVE_ENROLLMENT_STATS.recordError();
             System.err.println("Error getting enrollment count: " + e.getMessage());
             e.printStackTrace();
         }
         return 0;
     }
 
+    @Override
+    public int reconcileEnrollmentCounts() {
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(RECONCILE_ACTIVE_ENROLLMENT)) {
+
+            long start = System.nanoTime();
+            int rowsAffected = stmt.executeUpdate();
+            if (RECONCILE_ACTIVE_ENROLLMENT_STATS.record(start, rowsAffected)) {
+                SlowQueryLog.log(RECONCILE_ACTIVE_ENROLLMENT_STATS, start, rowsAffected);
+            }
+            // Seat counters are reloaded from the corrected values on next use
+            seatAllocator.invalidateAll();
+            return rowsAffected;
+
+        } catch (SQLException e) {
+            RECONCILE_ACTIVE_ENROLLMENT_STATS.recordError();
+            System.err.println("Error reconciling enrollment counts: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    @Override
+    public int promoteFromWaitlist(int courseId) {
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Map<Long, Integer> promoted = promoteWaitlisted(conn, courseId);
+                conn.commit();
+                afterPromotion(courseId, promoted);
+                return promoted.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+        } catch (SQLException e) {
+            PROMOTE_WAITLISTED_STATS.recordError();
+            System.err.println("Error promoting from waitlist: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    @Override
+    public int promoteWaitlists() {
+        List<Integer> courseIds = new ArrayList<>();
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_PROMOTABLE_COURSES)) {
+
+            long start = System.nanoTime();
+            long executed;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                while (rs.next()) {
+                    courseIds.add(rs.getInt("course_id"));
+                }
+            }
+            if (SELECT_PROMOTABLE_COURSES_STATS.record(start, executed, courseIds.size())) {
+                SlowQueryLog.log(SELECT_PROMOTABLE_COURSES_STATS, start, courseIds.size());
+            }
+
+        } catch (SQLException e) {
+            SELECT_PROMOTABLE_COURSES_STATS.recordError();
+            System.err.println("Error finding promotable waitlists: " + e.getMessage());
+            e.printStackTrace();
+            return 0;
+        }
+
+        // Queues are reloaded on next use, picking up writes this process did not see
+        waitlistQueues.invalidateAll();
+        int promoted = 0;
+        for (int courseId : courseIds) {
+            promoted += promoteFromWaitlist(courseId);
+        }
+        return promoted;
+    }
+
     @Override
     public int getRegistrationCount(int studentId) {
         try (Connection conn = dbConnection.getConnection();
@@ -377,19 +1220,582 @@ public class RegistrationDAOImpl implements RegistrationDAO {
 
             stmt.setInt(1, studentId);
 
+            long start = System.nanoTime();
+            long executed;
+            int count = 0;
             try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
                 if (rs.next()) {
-                    return rs.getInt(1);
+                    count = rs.getInt(1);
                 }
             }
+            if (COUNT_REGISTRATIONS_STATS.record(start, executed, 1)) {
+                SlowQueryLog.log(COUNT_REGISTRATIONS_STATS, start, 1, studentId);
+            }
+            return count;
 
         } catch (SQLException e) {
+            COUNT_REGISTRATIONS_STATS.recordError();
             System.err.println("Error getting registration count: " + e.getMessage());
             e.printStackTrace();
         }
         return 0;
     }
 
+    @Override
+    public int getCreditLoad(int studentId) {
+        return creditLoads.getCreditLoad(studentId);
+    }
+
+    @Override
+    public int getCreditLimit() {
+        return creditLoads.getMaxCredits();
+    }
+
+    @Override
+    public int rebuildCreditLoads() {
+        return creditLoads.rebuild();
+    }
+
+    @Override
+    public List<Integer> getMissingPrerequisites(int studentId, int courseId) {
+        return prerequisiteGraph.getMissingPrerequisites(studentId, courseId);
+    }
+
+    @Override
+    public int rebuildPrerequisites() {
+        return prerequisiteGraph.rebuild();
+    }
+
+    @Override
+    public List<Integer> getScheduleConflicts(int studentId, int courseId) {
+        return timetableIndex.findConflicts(studentId, courseId);
+    }
+
+    @Override
+    public boolean rejectsScheduleConflicts() {
+        return timetableIndex.rejectsConflicts();
+    }
+
+    @Override
+    public int rebuildTimetables() {
+        return timetableIndex.rebuild();
+    }
+
+    @Override
+    public Transcript getTranscript(int studentId) {
+        return transcriptCache.get(studentId, this::getCoursesForStudent);
+    }
+
+    @Override
+    public List<GpaSummary> getGpaSummaries() {
+        return transcriptCache.summarizeAll();
+    }
+
+    @Override
+    public EnrollmentStatistics getEnrollmentStatistics() {
+        return reportCache.get();
+    }
+
+    @Override
+    public int rebuildEnrollmentStatistics() {
+        return reportCache.rebuild();
+    }
+
+    @Override
+    public int[] findCohort(int[] allOf, int[] anyOf, int[] noneOf, Set<Registration.RegistrationStatus> statuses) {
+        return enrollmentBitmaps.findCohort(allOf, anyOf, noneOf, statuses);
+    }
+
+    @Override
+    public int[] getStudentsWithoutRegistrations() {
+        return enrollmentBitmaps.findStudentsWithoutRegistrations();
+    }
+
+    @Override
+    public int[] getCoursesWithoutRegistrations() {
+        return enrollmentBitmaps.findCoursesWithoutRegistrations();
+    }
+
+    @Override
+    public int rebuildEnrollmentBitmaps() {
+        return enrollmentBitmaps.rebuild();
+    }
+
+    @Override
+    public List<CourseRecommendation> recommendCourses(int studentId, int k) {
+        return courseRecommender.recommend(studentId, k);
+    }
+
+    @Override
+    public int rebuildCoEnrollment() {
+        return courseRecommender.rebuild();
+    }
+
+    @Override
+    public List<TimeBucket> getTimeSeries(TimeBucket.Series series, TimeBucket.Granularity granularity,
+                                          LocalDateTime from, LocalDateTime to) {
+        return enrollmentTimeSeries.getBuckets(series, granularity, from, to);
+    }
+
+    @Override
+    public long countInRange(TimeBucket.Series series, LocalDateTime from, LocalDateTime to) {
+        return enrollmentTimeSeries.count(series, from, to);
+    }
+
+    @Override
+    public long rebuildTimeSeries() {
+        return enrollmentTimeSeries.rebuild();
+    }
+
+    @Override
+    public List<GradeDistribution> getGradeDistributions() {
+        return gradeHistograms.getCourseDistributions();
+    }
+
+    @Override
+    public List<GradeDistribution> getInstructorGradeDistributions() {
+        return gradeHistograms.getInstructorDistributions();
+    }
+
+    @Override
+    public int rebuildGradeDistributions() {
+        return gradeHistograms.rebuild();
+    }
+
+    /**
+     * Load whatever the in-process checks of a status change need before its transaction starts
+     * The checks run while the registration row is locked; anything they loaded there would take
+     * a second pooled connection, and under a rush could wait for one with the lock held
+     * @param courseId ID of the course
+     * @param to status being written
+     */
+    private void prepareChecks(int courseId, Registration.RegistrationStatus to) {
+        if (to == Registration.RegistrationStatus.ACTIVE) {
+            seatAllocator.prepare(courseId);
+        }
+        if (countsTowardLoad(to)) {
+            creditLoads.prepare(courseId);
+            prerequisiteGraph.prepare();
+            timetableIndex.prepare();
+        }
+    }
+
+    /**
+     * Lock a registration row for the rest of the transaction and read its status
+     * @param conn connection with auto-commit off
+     * @return the registration's status, waitlist position and grade, or null if the student is not
+     *         registered for the course
+     * @throws SQLException if the query fails
+     */
+    private static Registration lockRegistration(Connection conn, int studentId, int courseId)
+            throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_STATUS_FOR_UPDATE)) {
+            stmt.setInt(1, studentId);
+            stmt.setInt(2, courseId);
+
+            long start = System.nanoTime();
+            long executed;
+            Registration registration = null;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                if (rs.next()) {
+                    registration = mapLockedRegistration(rs);
+                    registration.setStudentId(studentId);
+                    registration.setCourseId(courseId);
+                }
+            }
+            int rows = registration != null ? 1 : 0;
+            if (SELECT_STATUS_FOR_UPDATE_STATS.record(start, executed, rows)) {
+                SlowQueryLog.log(SELECT_STATUS_FOR_UPDATE_STATS, start, rows, studentId, courseId);
+            }
+            return registration;
+        }
+    }
+
+    /**
+     * Helper method to map the status and grade columns of a locked registration row
+     */
+    private static Registration mapLockedRegistration(ResultSet rs) throws SQLException {
+        Registration registration = new Registration();
+        registration.setStatus(Registration.RegistrationStatus.valueOf(rs.getString("status")));
+        registration.setGrade(rs.getString("grade"));
+        long position = rs.getLong("waitlist_position");
+        if (!rs.wasNull()) {
+            registration.setWaitlistPosition(position);
+        }
+        return registration;
+    }
+
+    /**
+     * Change in ACTIVE registrations when a registration moves between two states
+     * @param from status before the write, null for an insert
+     * @param to status after the write, null for a delete
+     * @return -1, 0 or 1
+     */
+    private static int activeDelta(Registration.RegistrationStatus from, Registration.RegistrationStatus to) {
+        return (to == Registration.RegistrationStatus.ACTIVE ? 1 : 0)
+             - (from == Registration.RegistrationStatus.ACTIVE ? 1 : 0);
+    }
+
+    /**
+     * Change in a student's counted registrations when a registration moves between two states
+     * ACTIVE and WAITLISTED registrations count toward the student's credit load
+     * @param from status before the write, null for an insert
+     * @param to status after the write, null for a delete
+     * @return -1, 0 or 1
+     */
+    private static int loadDelta(Registration.RegistrationStatus from, Registration.RegistrationStatus to) {
+        return (countsTowardLoad(to) ? 1 : 0) - (countsTowardLoad(from) ? 1 : 0);
+    }
+
+    private static boolean countsTowardLoad(Registration.RegistrationStatus status) {
+        return status == Registration.RegistrationStatus.ACTIVE || status == Registration.RegistrationStatus.WAITLISTED;
+    }
+
+    /**
+     * Keep the prerequisite graph's COMPLETED courses, the cached transcripts, the enrollment
+     * statistics, the enrollment bitmaps and the grade histograms current after a committed write
+     * @param from status before the write, null for an insert
+     * @param fromGrade grade before the write
+     * @param to status after the write, null for a delete
+     * @param toGrade grade after the write
+     */
+    private void afterStatusChange(int studentId, int courseId, Registration.RegistrationStatus from, String fromGrade,
+                                   Registration.RegistrationStatus to, String toGrade) {
+        boolean wasCompleted = from == Registration.RegistrationStatus.COMPLETED;
+        boolean isCompleted = to == Registration.RegistrationStatus.COMPLETED;
+        if (wasCompleted != isCompleted) {
+            prerequisiteGraph.completionChanged(studentId, courseId, isCompleted);
+        }
+        // A COMPLETED registration may also have had its grade changed
+        if (wasCompleted || isCompleted) {
+            transcriptCache.invalidate(studentId);
+        }
+        reportCache.registrationChanged(studentId, courseId, from, to);
+        enrollmentBitmaps.registrationChanged(studentId, courseId, from, to);
+        gradeHistograms.registrationChanged(courseId, from, Grade.encode(fromGrade), to, Grade.encode(toGrade));
+        if (from == null) {
+            enrollmentTimeSeries.registrationCreated();
+        }
+    }
+
+    /**
+     * Add a course to the student's timetable, reporting any clash with their other courses
+     * @return false if the course clashes and registration.timeConflicts=reject, in which case
+     *         the timetable is unchanged; otherwise the course was added
+     */
+    private boolean tryAddToTimetable(int studentId, int courseId) {
+        List<Integer> clashes = timetableIndex.add(studentId, courseId);
+        if (clashes.isEmpty()) {
+            return true;
+        }
+        if (timetableIndex.rejectsConflicts()) {
+            System.out.println("Timetable conflict with course(s) " + clashes + ".");
+            return false;
+        }
+        System.out.println("Warning: timetable conflict with course(s) " + clashes + ".");
+        return true;
+    }
+
+    private void printCreditLimitReached() {
+        System.out.println("Registration would exceed the " + creditLoads.getMaxCredits() + "-credit limit.");
+    }
+
+    /**
+     * Apply a change to a course's active_enrollment counter within the caller's transaction
+     * Taking a seat only succeeds while the course is below capacity; when the database refuses
+     * one the in-process allocator granted, the allocator's counter for the course is dropped
+     * @param conn connection with auto-commit off
+     * @param delta -1, 0 or 1; nothing is written when 0
+     * @return false if delta is 1 and the course is full, in which case nothing was written
+     * @throws SQLException if the update fails
+     */
+    private boolean adjustActiveEnrollment(Connection conn, int courseId, int delta) throws SQLException {
+        if (delta == 0) {
+            return true;
+        }
+        QueryStats stats = delta > 0 ? TAKE_SEAT_STATS : RELEASE_SEAT_STATS;
+        try (PreparedStatement stmt = conn.prepareStatement(delta > 0 ? TAKE_SEAT : RELEASE_SEAT)) {
+            stmt.setInt(1, courseId);
+
+            long start = System.nanoTime();
+            int rowsAffected = stmt.executeUpdate();
+            if (stats.record(start, rowsAffected)) {
+                SlowQueryLog.log(stats, start, rowsAffected, courseId);
+            }
+            if (rowsAffected == 0 && delta > 0) {
+                seatAllocator.invalidate(courseId);
+                return false;
+            }
+            return true;
+        } catch (SQLException e) {
+            stats.recordError();
+            throw e;
+        }
+    }
+
+    /**
+     * Waitlist position a registration should hold after a status change
+     * A registration that stays WAITLISTED keeps its place; one that joins goes to the back
+     * @param conn connection with auto-commit off
+     * @param current locked registration before the change
+     * @return position, or null unless the new status is WAITLISTED
+     * @throws SQLException if a new position cannot be handed out
+     */
+    private static Long waitlistPositionFor(Connection conn, int courseId, Registration current,
+                                            Registration.RegistrationStatus status) throws SQLException {
+        if (status != Registration.RegistrationStatus.WAITLISTED) {
+            return null;
+        }
+        if (current.getStatus() == Registration.RegistrationStatus.WAITLISTED) {
+            return current.getWaitlistPosition();
+        }
+        return nextWaitlistPosition(conn, courseId);
+    }
+
+    /**
+     * Hand out the next waitlist position of a course within the caller's transaction
+     * @param conn connection with auto-commit off
+     * @return new position, greater than every position handed out before for the course
+     * @throws SQLException if the update fails or the course does not exist
+     */
+    private static long nextWaitlistPosition(Connection conn, int courseId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(NEXT_WAITLIST_POSITION, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setInt(1, courseId);
+
+            long start = System.nanoTime();
+            int rowsAffected = stmt.executeUpdate();
+            if (NEXT_WAITLIST_POSITION_STATS.record(start, rowsAffected)) {
+                SlowQueryLog.log(NEXT_WAITLIST_POSITION_STATS, start, rowsAffected, courseId);
+            }
+            if (rowsAffected > 0) {
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        return generatedKeys.getLong(1);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            NEXT_WAITLIST_POSITION_STATS.recordError();
+            throw e;
+        }
+        throw new SQLException("Course " + courseId + " not found");
+    }
+
+    /**
+     * Move students from the head of a course's waitlist into its free seats, within the
+     * caller's transaction
+     * The course row is locked first, so no other write can take or free a seat before commit.
+     * Each batch of up to InListQuery.MAX_CHUNK_SIZE registrations is promoted with one update
+     * and one counter adjustment, so a capacity increase or a burst of drops costs the same few
+     * statements as a single seat. CourseDAOImpl and StudentDAOImpl call this too, for seats freed
+     * by a capacity increase or a student delete
+     * @param conn connection with auto-commit off
+     * @return waitlist positions of the promoted registrations in queue order, mapped to their
+     *         students, empty if none
+     * @throws SQLException if a statement fails
+     */
+    Map<Long, Integer> promoteWaitlisted(Connection conn, int courseId) throws SQLException {
+        // Seats reserved by seat holds are not in the database but are not free either
+        int free = lockFreeSeats(conn, courseId) - seatAllocator.getReservedSeats(courseId);
+        Map<Long, Integer> promoted = new LinkedHashMap<>();
+        while (free > 0) {
+            int batch = Math.min(free, InListQuery.MAX_CHUNK_SIZE);
+            int[] registrationIds = new int[batch];
+            int count = 0;
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_WAITLIST_HEAD)) {
+                stmt.setInt(1, courseId);
+                stmt.setInt(2, batch);
+
+                long start = System.nanoTime();
+                long executed;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    executed = System.nanoTime();
+                    while (rs.next()) {
+                        registrationIds[count++] = rs.getInt("registration_id");
+                        promoted.put(rs.getLong("waitlist_position"), rs.getInt("student_id"));
+                    }
+                }
+                if (SELECT_WAITLIST_HEAD_STATS.record(start, executed, count)) {
+                    SlowQueryLog.log(SELECT_WAITLIST_HEAD_STATS, start, count, courseId, batch);
+                }
+            }
+            if (count == 0) {
+                break;
+            }
+
+            Arrays.sort(registrationIds, 0, count);
+            int paddedSize = InListQuery.paddedSize(count);
+            try (PreparedStatement stmt = conn.prepareStatement(PROMOTE_WAITLISTED.sql(paddedSize))) {
+                InListQuery.bind(stmt, registrationIds, 0, count, paddedSize);
+
+                long start = System.nanoTime();
+                int rowsAffected = stmt.executeUpdate();
+                if (PROMOTE_WAITLISTED_STATS.record(start, rowsAffected)) {
+                    SlowQueryLog.log(PROMOTE_WAITLISTED_STATS, start, rowsAffected, courseId);
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(TAKE_SEATS)) {
+                stmt.setInt(1, count);
+                stmt.setInt(2, courseId);
+
+                long start = System.nanoTime();
+                int rowsAffected = stmt.executeUpdate();
+                if (TAKE_SEATS_STATS.record(start, rowsAffected)) {
+                    SlowQueryLog.log(TAKE_SEATS_STATS, start, rowsAffected, count, courseId);
+                }
+            }
+
+            free -= count;
+            if (count < batch) {
+                break;
+            }
+        }
+        return promoted;
+    }
+
+    /**
+     * Lock a course row and read its free seats
+     * @param conn connection with auto-commit off
+     * @return seats below capacity, Integer.MAX_VALUE without a capacity, 0 if the course does not exist
+     * @throws SQLException if the query fails
+     */
+    private static int lockFreeSeats(Connection conn, int courseId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_FREE_SEATS_FOR_UPDATE)) {
+            stmt.setInt(1, courseId);
+
+            long start = System.nanoTime();
+            long executed;
+            int free = 0;
+            int rows = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                if (rs.next()) {
+                    rows = 1;
+                    int capacity = rs.getInt("capacity");
+                    free = rs.wasNull() ? Integer.MAX_VALUE : capacity - rs.getInt("active_enrollment");
+                }
+            }
+            if (SELECT_FREE_SEATS_FOR_UPDATE_STATS.record(start, executed, rows)) {
+                SlowQueryLog.log(SELECT_FREE_SEATS_FOR_UPDATE_STATS, start, rows, courseId);
+            }
+            return free;
+        }
+    }
+
+    /**
+     * Bring the in-process queue in line with a committed status change or drop
+     * @param previousPosition waitlist position before the change, null if not waitlisted
+     * @param position waitlist position after the change, null if not waitlisted
+     */
+    private void syncWaitlistQueue(int courseId, int studentId, Long previousPosition, Long position) {
+        if (previousPosition != null && !previousPosition.equals(position)) {
+            waitlistQueues.removed(courseId, Collections.singletonList(previousPosition));
+        }
+        if (position != null && !position.equals(previousPosition)) {
+            waitlistQueues.added(courseId, position, studentId);
+        }
+    }
+
+    /**
+     * Update the in-process seat counter and queue after a commit that freed a seat
+     * @param promoted positions promoted from the waitlist in the same transaction
+     */
+    private void afterRelease(int courseId, Map<Long, Integer> promoted) {
+        if (promoted.isEmpty()) {
+            seatAllocator.release(courseId);
+        } else {
+            afterPromotion(courseId, promoted);
+        }
+    }
+
+    /**
+     * Update the in-process seat counter and queue after committed promotions
+     * @param promoted positions promoted from the waitlist, with their students
+     */
+    void afterPromotion(int courseId, Map<Long, Integer> promoted) {
+        if (promoted.isEmpty()) {
+            return;
+        }
+        waitlistQueues.removed(courseId, promoted.keySet());
+        for (int studentId : promoted.values()) {
+            reportCache.registrationChanged(studentId, courseId, Registration.RegistrationStatus.WAITLISTED,
+                                            Registration.RegistrationStatus.ACTIVE);
+            enrollmentBitmaps.registrationChanged(studentId, courseId, Registration.RegistrationStatus.WAITLISTED,
+                                                  Registration.RegistrationStatus.ACTIVE);
+            // Waitlisted registrations are not graded; a stray grade is caught by the next mismatch or rebuild
+            gradeHistograms.registrationChanged(courseId, Registration.RegistrationStatus.WAITLISTED, Grade.NONE,
+                                                Registration.RegistrationStatus.ACTIVE, Grade.NONE);
+        }
+        // Promotions took seats the allocator did not grant; re-read the course on next use
+        seatAllocator.invalidate(courseId);
+    }
+
+    /**
+     * Helper method to bind a nullable waitlist position
+     * @param position queue position, null unless the registration is WAITLISTED
+     * @throws SQLException if binding fails
+     */
+    private static void setWaitlistPosition(PreparedStatement stmt, int index, Long position) throws SQLException {
+        if (position != null) {
+            stmt.setLong(index, position);
+        } else {
+            stmt.setNull(index, Types.BIGINT);
+        }
+    }
+
+    /**
+     * Helper method to map the joined student columns of a registration query
+     * @param rs ResultSet positioned on a row that includes the student columns
+     * @return Student object
+     * @throws SQLException if there's an error accessing ResultSet
+     */
+    private Student mapJoinedStudent(ResultSet rs) throws SQLException {
+        Student student = new Student();
+        student.setStudentId(rs.getInt("student_id"));
+        student.setFirstName(rs.getString("first_name"));
+        student.setLastName(rs.getString("last_name"));
+        student.setEmail(rs.getString("email"));
+        student.setPhone(rs.getString("phone"));
+
+        Date dateOfBirth = rs.getDate("date_of_birth");
+        if (dateOfBirth != null) {
+            student.setDateOfBirth(dateOfBirth.toLocalDate());
+        }
+
+        Timestamp enrollmentDate = rs.getTimestamp("enrollment_date");
+        if (enrollmentDate != null) {
+            student.setEnrollmentDate(enrollmentDate.toLocalDateTime());
+        }
+        return student;
+    }
+
+    /**
+     * Helper method to map the joined course columns of a registration query
+     * @param rs ResultSet positioned on a row that includes the course columns
+     * @return Course object
+     * @throws SQLException if there's an error accessing ResultSet
+     */
+    private Course mapJoinedCourse(ResultSet rs) throws SQLException {
+        Course course = new Course();
+        course.setCourseId(rs.getInt("course_id"));
+        course.setCourseCode(rs.getString("course_code"));
+        course.setCourseName(rs.getString("course_name"));
+        course.setDescription(rs.getString("description"));
+        course.setCredits(rs.getInt("credits"));
+        course.setInstructor(rs.getString("instructor"));
+        int capacity = rs.getInt("capacity");
+        course.setCapacity(rs.wasNull() ? null : capacity);
+        course.setActiveEnrollment(rs.getInt("active_enrollment"));
+
+        Timestamp createdDate = rs.getTimestamp("created_date");
+        if (createdDate != null) {
+            course.setCreatedDate(createdDate.toLocalDateTime());
+        }
+        return course;
+    }
+
     /**
      * Helper method to map ResultSet to Registration object
      * @param rs ResultSet from database query
@@ -410,6 +1816,11 @@ public class RegistrationDAOImpl implements RegistrationDAO {
             registration.setStatus(Registration.RegistrationStatus.valueOf(statusStr));
         }
 
+        long waitlistPosition = rs.getLong("waitlist_position");
+        if (!rs.wasNull()) {
+            registration.setWaitlistPosition(waitlistPosition);
+        }
+
         // Handle LocalDateTime conversion
         Timestamp registrationDate = rs.getTimestamp("registration_date");
         if (registrationDate != null) {
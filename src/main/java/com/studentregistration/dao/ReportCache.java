@@ -0,0 +1,427 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.metrics.CacheMetrics;
+import com.studentregistration.metrics.CacheStats;
+import com.studentregistration.metrics.QueryMetrics;
+import com.studentregistration.metrics.QueryStats;
+import com.studentregistration.metrics.SlowQueryLog;
+import com.studentregistration.model.Course;
+import com.studentregistration.model.EnrollmentStatistics;
+import com.studentregistration.model.EnrollmentStatistics.CourseCounts;
+import com.studentregistration.model.EnrollmentStatistics.StudentCounts;
+import com.studentregistration.model.Registration;
+import com.studentregistration.model.Student;
+import com.studentregistration.util.AppConfig;
+import com.studentregistration.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Course enrollment and student registration statistics, kept current from registration writes
+ * The counts are loaded once by {@link #rebuild()} (at first use and after every enrollment
+ * reconciliation). After that, RegistrationDAOImpl, CourseDAOImpl and StudentDAOImpl report each
+ * committed change here. A change costs its writer one lock-free queue append. Queued changes
+ * are applied when the statistics are next read, and each read that finds changes publishes a
+ * new immutable {@link EnrollmentStatistics} version. A read with nothing queued returns the
+ * current version without locking or touching the database, so a dashboard that polls every
+ * few seconds costs nothing between writes.
+ *
+ * Changes that would have to touch many rows (a course's credits changing, a student or course
+ * being deleted) and changes naming a student or course the cache has not seen make the next
+ * read reload instead. More than reports.cache.maxPending queued changes are applied by the
+ * writer that finds the applier free, so the queue stays bounded without a writer ever waiting.
+ *
+ * Like CreditLoads this is a per-process view. Writes by other processes are not seen until the
+ * next rebuild, and a change that commits while a rebuild is reading may be counted twice or
+ * not at all until the rebuild after
+ */
+public final class ReportCache {
+
+    private static final String SELECT_REPORT_COURSES =
+        "SELECT course_id, course_code, course_name, credits FROM courses";
+
+    private static final String SELECT_REPORT_STUDENTS =
+        "SELECT student_id, first_name, last_name, email FROM students";
+
+    private static final String SELECT_COURSE_STATUS_COUNTS =
+        "SELECT course_id, status, COUNT(*) AS registrations FROM registrations GROUP BY course_id, status";
+
+    private static final String SELECT_STUDENT_STATUS_COUNTS =
+        "SELECT r.student_id, r.status, COUNT(*) AS registrations, SUM(c.credits) AS credits " +
+        "FROM registrations r INNER JOIN courses c ON r.course_id = c.course_id " +
+        "GROUP BY r.student_id, r.status";
+
+    private static final QueryStats SELECT_REPORT_COURSES_STATS = QueryMetrics.forStatement("SELECT_REPORT_COURSES");
+    private static final QueryStats SELECT_REPORT_STUDENTS_STATS = QueryMetrics.forStatement("SELECT_REPORT_STUDENTS");
+    private static final QueryStats SELECT_COURSE_STATUS_COUNTS_STATS =
+        QueryMetrics.forStatement("SELECT_COURSE_STATUS_COUNTS");
+    private static final QueryStats SELECT_STUDENT_STATUS_COUNTS_STATS =
+        QueryMetrics.forStatement("SELECT_STUDENT_STATUS_COUNTS");
+
+    private static ReportCache instance;
+
+    private final DatabaseConnection dbConnection;
+    private final int maxPending;
+    private final CacheStats cacheStats;
+
+    // Writers only ever append here
+    private final ConcurrentLinkedQueue<Change> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private volatile boolean reloadRequested = true;
+
+    // Working copy, only touched while holding applyLock; rows are immutable and shared with
+    // the published versions
+    private final ReentrantLock applyLock = new ReentrantLock();
+    private final TreeMap<Integer, CourseCounts> courses = new TreeMap<>();
+    private final TreeMap<Integer, StudentCounts> students = new TreeMap<>();
+    private boolean changedSincePublish;
+
+    private volatile EnrollmentStatistics published;
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    private ReportCache() {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.maxPending = Math.max(1, AppConfig.getInt("reports.cache.maxPending", 10000));
+        this.cacheStats = CacheMetrics.register("enrollment_statistics", () -> {
+            EnrollmentStatistics current = published;
+            return current != null ? current.getCourses().size() + current.getStudents().size() : 0;
+        });
+    }
+
+    /**
+     * Get the report cache instance (Singleton pattern)
+     * @return ReportCache instance
+     */
+    public static synchronized ReportCache getInstance() {
+        if (instance == null) {
+            instance = new ReportCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Get the current statistics
+     * Applies and publishes queued changes first, if there are any
+     * @return latest version, or null if the statistics have never loaded
+     */
+    public EnrollmentStatistics get() {
+        EnrollmentStatistics current = published;
+        if (current != null && pendingCount.get() == 0 && !reloadRequested) {
+            cacheStats.recordHit();
+            return current;
+        }
+        cacheStats.recordMiss();
+
+        applyLock.lock();
+        try {
+            applyPending();
+            if (reloadRequested && load() < 0 && published == null) {
+                return null;
+            }
+            if (changedSincePublish || published == null) {
+                publish();
+            }
+            return published;
+        } finally {
+            applyLock.unlock();
+        }
+    }
+
+    /**
+     * Reload every count from the database and publish the result
+     * @return number of courses and students in the new version, or -1 if the load failed and
+     *         the previous counts were kept
+     */
+    public int rebuild() {
+        applyLock.lock();
+        try {
+            int rows = load();
+            if (rows >= 0) {
+                publish();
+            }
+            return rows;
+        } finally {
+            applyLock.unlock();
+        }
+    }
+
+    /**
+     * Get number of versions published
+     * @return total versions
+     */
+    public long getVersionCount() {
+        return versions.get();
+    }
+
+    /**
+     * Get number of successful reloads from the database
+     * @return total rebuilds
+     */
+    public long getRebuildCount() {
+        return rebuilds.get();
+    }
+
+    /**
+     * Record a committed registration write
+     * @param from status before the write, null for an insert
+     * @param to status after the write, null for a delete
+     */
+    void registrationChanged(int studentId, int courseId,
+                             Registration.RegistrationStatus from, Registration.RegistrationStatus to) {
+        if (from != to) {
+            enqueue(() -> moveRegistration(studentId, courseId, from, to));
+        }
+    }
+
+    /**
+     * Record a course added or updated; a change of credits changes every registered
+     * student's credit totals, so it triggers a reload
+     */
+    void courseSaved(Course course) {
+        int courseId = course.getCourseId();
+        String code = course.getCourseCode();
+        String name = course.getCourseName();
+        int credits = course.getCredits();
+        enqueue(() -> {
+            CourseCounts current = courses.get(courseId);
+            if (current == null) {
+                courses.put(courseId, new CourseCounts(courseId, code, name, credits));
+            } else if (current.getCredits() != credits) {
+                reloadRequested = true;
+            } else {
+                courses.put(courseId, current.withDetails(code, name, credits));
+            }
+            changedSincePublish = true;
+        });
+    }
+
+    /**
+     * Record a student added or updated
+     */
+    void studentSaved(Student student) {
+        int studentId = student.getStudentId();
+        String fullName = student.getFullName();
+        String email = student.getEmail();
+        enqueue(() -> {
+            StudentCounts current = students.get(studentId);
+            students.put(studentId, current != null
+                ? current.withDetails(fullName, email) : new StudentCounts(studentId, fullName, email));
+            changedSincePublish = true;
+        });
+    }
+
+    /**
+     * Reload on next use after a delete; the cascade removed registrations this process did not
+     * see one by one
+     */
+    void invalidateAll() {
+        reloadRequested = true;
+    }
+
+    private void enqueue(Change change) {
+        pending.add(change);
+        if (pendingCount.incrementAndGet() > maxPending && applyLock.tryLock()) {
+            try {
+                applyPending();
+            } finally {
+                applyLock.unlock();
+            }
+        }
+    }
+
+    // Caller holds applyLock
+    private void applyPending() {
+        Change change;
+        while ((change = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            if (!reloadRequested) {
+                change.apply();
+            }
+        }
+    }
+
+    // Caller holds applyLock
+    private void moveRegistration(int studentId, int courseId,
+                                  Registration.RegistrationStatus from, Registration.RegistrationStatus to) {
+        CourseCounts course = courses.get(courseId);
+        StudentCounts student = students.get(studentId);
+        if (course == null || student == null) {
+            // Written by another process; only a reload can place it
+            reloadRequested = true;
+            return;
+        }
+        int credits = course.getCredits();
+        if (from != null) {
+            course = course.plus(from, -1);
+            student = student.plus(from, -1, -credits);
+        }
+        if (to != null) {
+            course = course.plus(to, 1);
+            student = student.plus(to, 1, credits);
+        }
+        courses.put(courseId, course);
+        students.put(studentId, student);
+        changedSincePublish = true;
+    }
+
+    // Caller holds applyLock
+    private void publish() {
+        published = new EnrollmentStatistics(versions.incrementAndGet(), LocalDateTime.now(),
+                                             new ArrayList<>(courses.values()), new ArrayList<>(students.values()));
+        changedSincePublish = false;
+    }
+
+    /**
+     * Replace the working copy with counts read from the database
+     * Caller holds applyLock
+     * @return number of courses and students loaded, -1 if the load failed
+     */
+    private int load() {
+        // Queued changes predate the reload and are covered by it
+        reloadRequested = false;
+        while (pending.poll() != null) {
+            pendingCount.decrementAndGet();
+        }
+
+        TreeMap<Integer, CourseCounts> loadedCourses = new TreeMap<>();
+        TreeMap<Integer, StudentCounts> loadedStudents = new TreeMap<>();
+        try (Connection conn = dbConnection.getConnection()) {
+            loadCourses(conn, loadedCourses);
+            loadStudents(conn, loadedStudents);
+            loadCourseCounts(conn, loadedCourses);
+            loadStudentCounts(conn, loadedStudents);
+
+        } catch (SQLException e) {
+            reloadRequested = true;
+            System.err.println("Error loading enrollment statistics: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+        courses.clear();
+        courses.putAll(loadedCourses);
+        students.clear();
+        students.putAll(loadedStudents);
+        changedSincePublish = true;
+        rebuilds.incrementAndGet();
+        return courses.size() + students.size();
+    }
+
+    private static void loadCourses(Connection conn, Map<Integer, CourseCounts> into) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_REPORT_COURSES)) {
+            long start = System.nanoTime();
+            long executed;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                while (rs.next()) {
+                    int courseId = rs.getInt("course_id");
+                    into.put(courseId, new CourseCounts(courseId, rs.getString("course_code"),
+                                                        rs.getString("course_name"), rs.getInt("credits")));
+                }
+            }
+            if (SELECT_REPORT_COURSES_STATS.record(start, executed, into.size())) {
+                SlowQueryLog.log(SELECT_REPORT_COURSES_STATS, start, into.size());
+            }
+        } catch (SQLException e) {
+            SELECT_REPORT_COURSES_STATS.recordError();
+            throw e;
+        }
+    }
+
+    private static void loadStudents(Connection conn, Map<Integer, StudentCounts> into) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_REPORT_STUDENTS)) {
+            long start = System.nanoTime();
+            long executed;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                while (rs.next()) {
+                    int studentId = rs.getInt("student_id");
+                    into.put(studentId, new StudentCounts(studentId,
+                                                          rs.getString("first_name") + " " + rs.getString("last_name"),
+                                                          rs.getString("email")));
+                }
+            }
+            if (SELECT_REPORT_STUDENTS_STATS.record(start, executed, into.size())) {
+                SlowQueryLog.log(SELECT_REPORT_STUDENTS_STATS, start, into.size());
+            }
+        } catch (SQLException e) {
+            SELECT_REPORT_STUDENTS_STATS.recordError();
+            throw e;
+        }
+    }
+
+    private static void loadCourseCounts(Connection conn, Map<Integer, CourseCounts> into) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_COURSE_STATUS_COUNTS)) {
+            long start = System.nanoTime();
+            long executed;
+            int rows = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                while (rs.next()) {
+                    rows++;
+                    Registration.RegistrationStatus status = parseStatus(rs.getString("status"));
+                    int registrations = rs.getInt("registrations");
+                    into.computeIfPresent(rs.getInt("course_id"), (id, course) -> course.plus(status, registrations));
+                }
+            }
+            if (SELECT_COURSE_STATUS_COUNTS_STATS.record(start, executed, rows)) {
+                SlowQueryLog.log(SELECT_COURSE_STATUS_COUNTS_STATS, start, rows);
+            }
+        } catch (SQLException e) {
+            SELECT_COURSE_STATUS_COUNTS_STATS.recordError();
+            throw e;
+        }
+    }
+
+    private static void loadStudentCounts(Connection conn, Map<Integer, StudentCounts> into) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_STUDENT_STATUS_COUNTS)) {
+            long start = System.nanoTime();
+            long executed;
+            int rows = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                while (rs.next()) {
+                    rows++;
+                    Registration.RegistrationStatus status = parseStatus(rs.getString("status"));
+                    int registrations = rs.getInt("registrations");
+                    int credits = rs.getInt("credits");
+                    into.computeIfPresent(rs.getInt("student_id"),
+                                          (id, student) -> student.plus(status, registrations, credits));
+                }
+            }
+            if (SELECT_STUDENT_STATUS_COUNTS_STATS.record(start, executed, rows)) {
+                SlowQueryLog.log(SELECT_STUDENT_STATUS_COUNTS_STATS, start, rows);
+            }
+        } catch (SQLException e) {
+            SELECT_STUDENT_STATUS_COUNTS_STATS.recordError();
+            throw e;
+        }
+    }
+
+    private static Registration.RegistrationStatus parseStatus(String status) {
+        try {
+            return Registration.RegistrationStatus.valueOf(status);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return Registration.RegistrationStatus.ACTIVE;
+        }
+    }
+
+    /**
+     * A committed write, applied to the working copy while holding applyLock
+     */
+    @FunctionalInterface
+    private interface Change {
+        void apply();
+    }
+}
@@ -0,0 +1,355 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.metrics.QueryMetrics;
+import com.studentregistration.metrics.QueryStats;
+import com.studentregistration.metrics.SlowQueryLog;
+import com.studentregistration.util.AppConfig;
+import com.studentregistration.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process seat allocator for capacity-limited courses
+ * Each course gets a lock-free counter of taken seats, loaded lazily from courses.capacity and
+ * courses.active_enrollment. Registrations take a seat here before writing, so once a hot course
+ * is full the remaining requests are turned away without touching its row in the database.
+ *
+ * The counters are only an admission filter. The conditional counter update in
+ * RegistrationDAOImpl remains the source of truth: when it refuses a seat the allocator had
+ * granted, the course is reloaded. Counters can drift because of other processes, crashes or
+ * manual SQL. A course that looks full is therefore re-read from the database at most once per
+ * seats.refresh.ms, and {@link #invalidateAll()} runs after every enrollment reconciliation.
+ * Drift can make the allocator too generous or too strict for a moment, but it can never
+ * oversubscribe a course.
+ *
+ * Counters are read from the database outside the map's locks, so a slow query never blocks
+ * other courses' counters. Callers about to lock rows call {@link #prepare(int)} first and then
+ * take the seat with {@link #tryAcquireLoaded(int)}, which never reads the database, so a
+ * registration holding a pooled connection never needs a second one here.
+ *
+ * Seats can also be reserved, e.g. by a seat hold. A reserved seat is taken like any other but
+ * exists only in this process, so reservations are counted separately and added back whenever
+ * a course is reloaded from the database
+ */
+public final class SeatAllocator {
+
+    private static final String SELECT_COURSE_SEATS =
+        "SELECT capacity, active_enrollment FROM courses WHERE course_id = ?";
+
+    private static final QueryStats SELECT_COURSE_SEATS_STATS = QueryMetrics.forStatement("SELECT_COURSE_SEATS");
+
+    private static SeatAllocator instance;
+
+    private final DatabaseConnection dbConnection;
+    private final long refreshNanos;
+    private final ConcurrentHashMap<Integer, Seats> courses = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, AtomicInteger> reservations = new ConcurrentHashMap<>();
+
+    // Bumped by every invalidation, so a load that raced with one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong granted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+
+    private SeatAllocator() {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.refreshNanos = TimeUnit.MILLISECONDS.toNanos(AppConfig.getInt("seats.refresh.ms", 1000));
+    }
+
+    /**
+     * Get the allocator instance (Singleton pattern)
+     * @return SeatAllocator instance
+     */
+    public static synchronized SeatAllocator getInstance() {
+        if (instance == null) {
+            instance = new SeatAllocator();
+        }
+        return instance;
+    }
+
+    /**
+     * Take a seat in a course
+     * @param courseId ID of the course
+     * @return true if a seat was taken (always for courses without a capacity), false if the course is full
+     */
+    public boolean tryAcquire(int courseId) {
+        Seats seats = seats(courseId);
+        if (seats.tryTake()) {
+            granted.incrementAndGet();
+            return true;
+        }
+        // Looks full; the counter may be stale, so check the database now and then
+        if (isStale(seats)) {
+            Seats reloaded = reload(courseId, seats);
+            if (reloaded.tryTake()) {
+                granted.incrementAndGet();
+                return true;
+            }
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Take a seat without reading the database, for callers holding row locks
+     * Call {@link #prepare(int)} before the transaction; a course with no counter is admitted
+     * and left to the conditional counter update
+     * @param courseId ID of the course
+     * @return true if a seat was taken, false if the course is full
+     */
+    boolean tryAcquireLoaded(int courseId) {
+        Seats seats = courses.get(courseId);
+        if (seats == null || seats.tryTake()) {
+            granted.incrementAndGet();
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Load a course's counter, and re-read it if it looks full and is due a refresh, so a
+     * following {@link #tryAcquireLoaded(int)} sees what {@link #tryAcquire(int)} would
+     * @param courseId ID of the course
+     */
+    void prepare(int courseId) {
+        Seats seats = seats(courseId);
+        if (seats.isFull() && isStale(seats)) {
+            reload(courseId, seats);
+        }
+    }
+
+    /**
+     * Give back a seat taken with {@link #tryAcquire(int)} or freed by a drop or status change
+     * @param courseId ID of the course
+     */
+    public void release(int courseId) {
+        Seats seats = courses.get(courseId);
+        if (seats != null) {
+            seats.give();
+        }
+    }
+
+    /**
+     * Take a seat and keep it reserved until {@link #endReservation(int)} or
+     * {@link #cancelReservation(int)}
+     * @param courseId ID of the course
+     * @return true if a seat was reserved, false if the course is full
+     */
+    public boolean tryReserve(int courseId) {
+        if (!tryAcquire(courseId)) {
+            return false;
+        }
+        reservations.computeIfAbsent(courseId, id -> new AtomicInteger()).incrementAndGet();
+        return true;
+    }
+
+    /**
+     * End a reservation whose seat has been handed on (a registration now holds it) or
+     * already given back with {@link #release(int)}
+     * @param courseId ID of the course
+     */
+    public void endReservation(int courseId) {
+        AtomicInteger reserved = reservations.get(courseId);
+        if (reserved != null) {
+            reserved.updateAndGet(count -> Math.max(0, count - 1));
+        }
+    }
+
+    /**
+     * End a reservation and give its seat back
+     * @param courseId ID of the course
+     */
+    public void cancelReservation(int courseId) {
+        endReservation(courseId);
+        release(courseId);
+    }
+
+    /**
+     * Re-create a reservation that survived a restart, without checking capacity
+     * The course's counter is reloaded on next use and includes it
+     * @param courseId ID of the course
+     */
+    public void restoreReservation(int courseId) {
+        reservations.computeIfAbsent(courseId, id -> new AtomicInteger()).incrementAndGet();
+        invalidate(courseId);
+    }
+
+    /**
+     * Get number of seats reserved in a course
+     * @param courseId ID of the course
+     * @return reserved seats, which the database does not know about
+     */
+    public int getReservedSeats(int courseId) {
+        AtomicInteger reserved = reservations.get(courseId);
+        return reserved != null ? reserved.get() : 0;
+    }
+
+    /**
+     * Forget a course's counter; it is reloaded from the database on next use
+     * Call after changing the course's capacity, deleting it, or when the database refused a
+     * seat the allocator had granted
+     * @param courseId ID of the course
+     */
+    public void invalidate(int courseId) {
+        generation.incrementAndGet();
+        courses.remove(courseId);
+    }
+
+    /**
+     * Forget every counter, e.g. after enrollment counts were reconciled in bulk
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        courses.clear();
+    }
+
+    /**
+     * Get number of seats granted
+     * @return total grants
+     */
+    public long getGrantedCount() {
+        return granted.get();
+    }
+
+    /**
+     * Get number of requests turned away because the course was full
+     * @return total rejections
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Get number of counters loaded from the database
+     * @return total loads, including the first load of each course
+     */
+    public long getReloadCount() {
+        return reloads.get();
+    }
+
+    private Seats seats(int courseId) {
+        Seats seats = courses.get(courseId);
+        if (seats != null) {
+            return seats;
+        }
+        // Concurrent first uses may both read; the first counter stored wins
+        long loadedIn = generation.get();
+        Seats loaded = load(courseId);
+        if (generation.get() != loadedIn) {
+            // Invalidated while reading, so the values may predate the change; use them once
+            return loaded;
+        }
+        Seats raced = courses.putIfAbsent(courseId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    private Seats reload(int courseId, Seats stale) {
+        // Only the first caller holding the stale counter reads the database; the rest keep it
+        if (!stale.reloading.compareAndSet(false, true)) {
+            Seats current = courses.get(courseId);
+            return current != null ? current : stale;
+        }
+        long loadedIn = generation.get();
+        Seats loaded = load(courseId);
+        if (generation.get() == loadedIn && courses.replace(courseId, stale, loaded)) {
+            return loaded;
+        }
+        // Invalidated or replaced meanwhile; whatever is stored now is at least as fresh
+        Seats current = courses.get(courseId);
+        return current != null ? current : loaded;
+    }
+
+    private boolean isStale(Seats seats) {
+        return System.nanoTime() - seats.loadedAt >= refreshNanos;
+    }
+
+    private Seats load(int courseId) {
+        reloads.incrementAndGet();
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_COURSE_SEATS)) {
+
+            stmt.setInt(1, courseId);
+
+            long start = System.nanoTime();
+            long executed;
+            int capacity = Integer.MAX_VALUE;
+            int taken = 0;
+            int rows = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                if (rs.next()) {
+                    rows = 1;
+                    int value = rs.getInt("capacity");
+                    if (!rs.wasNull()) {
+                        capacity = value;
+                    }
+                    taken = rs.getInt("active_enrollment");
+                }
+            }
+            if (SELECT_COURSE_SEATS_STATS.record(start, executed, rows)) {
+                SlowQueryLog.log(SELECT_COURSE_SEATS_STATS, start, rows, courseId);
+            }
+            return new Seats(capacity, taken + getReservedSeats(courseId));
+
+        } catch (SQLException e) {
+            SELECT_COURSE_SEATS_STATS.recordError();
+            System.err.println("Error loading course seats: " + e.getMessage());
+            e.printStackTrace();
+        }
+        // Unknown course or failed read: admit and let the database decide
+        return new Seats(Integer.MAX_VALUE, 0);
+    }
+
+    /**
+     * Taken-seat counter for one course
+     * Seats granted before a reload are released against the new counter, which can only make
+     * it read low; the database check catches the difference
+     */
+    private static final class Seats {
+        final int capacity;
+        final AtomicInteger taken;
+        final long loadedAt;
+        final AtomicBoolean reloading = new AtomicBoolean();
+
+        Seats(int capacity, int taken) {
+            this.capacity = capacity;
+            this.taken = new AtomicInteger(taken);
+            this.loadedAt = System.nanoTime();
+        }
+
+        boolean isFull() {
+            return taken.get() >= capacity;
+        }
+
+        boolean tryTake() {
+            while (true) {
+                int current = taken.get();
+                if (current >= capacity) {
+                    return false;
+                }
+                if (taken.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void give() {
+            while (true) {
+                int current = taken.get();
+                if (current <= 0 || taken.compareAndSet(current, current - 1)) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.studentregistration.dao;
 
 import com.studentregistration.model.Student;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Student Data Access Object interface
@@ -24,6 +25,14 @@ public interface StudentDAO {
      */
     Student getStudentById(int studentId);
 
+    /**
+     * Get many students at once
+     * Large id sets are fetched in bounded IN-list chunks over one connection
+     * @param studentIds IDs of the students; duplicates are ignored
+     * @return Map of student ID to Student; IDs not found are absent
+     */
+    Map<Integer, Student> getStudentsByIds(int[] studentIds);
+
     /**
      * Get student by email
      * @param email Email of the student
@@ -1,12 +1,17 @@
 package com.studentregistration.dao;
 
+import com.studentregistration.metrics.QueryMetrics;
+import com.studentregistration.metrics.QueryStats;
+import com.studentregistration.metrics.SlowQueryLog;
 import com.studentregistration.model.Student;
 import com.studentregistration.util.DatabaseConnection;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Student Data Access Object implementation
@@ -15,6 +20,8 @@ import java.util.List;
 public class StudentDAOImpl implements StudentDAO {
 
     private final DatabaseConnection dbConnection;
+    // Promotes from the waitlist into the seats a deleted student frees
+    private final RegistrationDAOImpl registrations;
 
     // SQL queries as constants for better maintainability
     private static final String INSERT_STUDENT = 
@@ -23,6 +30,10 @@ public class StudentDAOImpl implements StudentDAO {
     private static final String SELECT_STUDENT_BY_ID = 
         "SELECT * FROM students WHERE student_id = ?";
 
+    // Chunked IN-list lookup, see InListQuery
+    private static final InListQuery SELECT_STUDENTS_BY_IDS =
+        new InListQuery("SELECT * FROM students WHERE student_id IN ", "");
+
     private static final String SELECT_STUDENT_BY_EMAIL = 
         "SELECT * FROM students WHERE email = ?";
 
@@ -35,14 +46,39 @@ public class StudentDAOImpl implements StudentDAO {
     private static final String DELETE_STUDENT = 
         "DELETE FROM students WHERE student_id = ?";
 
+    // Courses whose seats the student holds, locked so the seats can be handed to the waitlist
+    private static final String SELECT_ACTIVE_COURSES_FOR_UPDATE = 
+        "SELECT course_id FROM registrations WHERE student_id = ? AND status = 'ACTIVE' FOR UPDATE";
+
+    // The cascade on registrations bypasses RegistrationDAOImpl, so release the student's
+    // ACTIVE seats from courses.active_enrollment before deleting
+    private static final String RELEASE_ACTIVE_ENROLLMENTS = 
+        "UPDATE courses c JOIN registrations r ON r.course_id = c.course_id " +
+        "SET c.active_enrollment = c.active_enrollment - 1 " +
+        "WHERE r.student_id = ? AND r.status = 'ACTIVE'";
+
     private static final String SEARCH_STUDENTS_BY_NAME = 
         "SELECT * FROM students WHERE first_name LIKE ? OR last_name LIKE ? ORDER BY last_name, first_name";
 
     private static final String CHECK_STUDENT_EXISTS = 
         "SELECT COUNT(*) FROM students WHERE email = ?";
 
+    // Per-statement execution statistics, keyed by SQL constant name
+    private static final QueryStats INSERT_STUDENT_STATS = QueryMetrics.forStatement("INSERT_STUDENT");
+    private static final QueryStats SELECT_STUDENT_BY_ID_STATS = QueryMetrics.forStatement("SELECT_STUDENT_BY_ID");
+    private static final QueryStats SELECT_STUDENTS_BY_IDS_STATS = QueryMetrics.forStatement("SELECT_STUDENTS_BY_IDS");
+    private static final QueryStats SELECT_STUDENT_BY_EMAIL_STATS = QueryMetrics.forStatement("SELECT_STUDENT_BY_EMAIL");
+    private static final QueryStats SELECT_ALL_STUDENTS_STATS = QueryMetrics.forStatement("SELECT_ALL_STUDENTS");
+    private static final QueryStats UPDATE_STUDENT_STATS = QueryMetrics.forStatement("UPDATE_STUDENT");
+    private static final QueryStats DELETE_STUDENT_STATS = QueryMetrics.forStatement("DELETE_STUDENT");
+    private static final QueryStats SELECT_ACTIVE_COURSES_FOR_UPDATE_STATS = QueryMetrics.forStatement("SELECT_ACTIVE_COURSES_FOR_UPDATE");
+    private static final QueryStats RELEASE_ACTIVE_ENROLLMENTS_STATS = QueryMetrics.forStatement("RELEASE_ACTIVE_ENROLLMENTS");
+    private static final QueryStats SEARCH_STUDENTS_BY_NAME_STATS = QueryMetrics.forStatement("SEARCH_STUDENTS_BY_NAME");
+    private static final QueryStats CHECK_STUDENT_EXISTS_STATS = QueryMetrics.forStatement("CHECK_STUDENT_EXISTS");
+
     public StudentDAOImpl() {
         this.dbConnection = DatabaseConnection.getInstance();
+        this.registrations = new RegistrationDAOImpl();
     }
 
     @Override
@@ -62,7 +98,11 @@ public class StudentDAOImpl implements StudentDAO {
                 stmt.setNull(5, Types.DATE);
             }
 
+            long start = System.nanoTime();
             int rowsAffected = stmt.executeUpdate();
+            if (INSERT_STUDENT_STATS.record(start, rowsAffected)) {
+                SlowQueryLog.log(INSERT_STUDENT_STATS, start, rowsAffected, student.getEmail());
+            }
 
             // Get generated ID and set it to student object
             if (rowsAffected > 0) {
@@ -71,10 +111,14 @@ public class StudentDAOImpl implements StudentDAO {
                         student.setStudentId(generatedKeys.getInt(1));
                     }
                 }
+                ReportCache.getInstance().studentSaved(student);
+                EnrollmentBitmaps.getInstance().studentSaved(student.getStudentId());
+                EnrollmentTimeSeries.getInstance().studentEnrolled();
                 return true;
             }
 
         } catch (SQLException e) {
+            INSERT_STUDENT_STATS.recordError();
             System.err.println("Error adding student: " + e.getMessage());
             e.printStackTrace();
         }
@@ -88,19 +132,83 @@ public class StudentDAOImpl implements StudentDAO {
 
             stmt.setInt(1, studentId);
 
+            long start = System.nanoTime();
+            long executed;
+            Student student = null;
             try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
                 if (rs.next()) {
-                    return mapResultSetToStudent(rs);
+                    student = mapResultSetToStudent(rs);
                 }
             }
+            int rows = student != null ? 1 : 0;
+            if (SELECT_STUDENT_BY_ID_STATS.record(start, executed, rows)) {
+                SlowQueryLog.log(SELECT_STUDENT_BY_ID_STATS, start, rows, studentId);
+            }
+            return student;
 
         } catch (SQLException e) {
+            SELECT_STUDENT_BY_ID_STATS.recordError();
             System.err.println("Error getting student by ID: " + e.getMessage());
             e.printStackTrace();
         }
         return null;
     }
 
+    @Override
+    public Map<Integer, Student> getStudentsByIds(int[] studentIds) {
+        int[] ids = InListQuery.distinct(studentIds);
+        Map<Integer, Student> students = new HashMap<>(ids.length * 2);
+        if (ids.length == 0) {
+            return students;
+        }
+
+        try (Connection conn = dbConnection.getConnection()) {
+            PreparedStatement stmt = null;
+            int preparedSize = 0;
+            try {
+                for (int from = 0; from < ids.length; from += InListQuery.MAX_CHUNK_SIZE) {
+                    int to = Math.min(from + InListQuery.MAX_CHUNK_SIZE, ids.length);
+                    int paddedSize = InListQuery.paddedSize(to - from);
+                    // Full chunks share one statement; only a trailing partial chunk needs another
+                    if (paddedSize != preparedSize) {
+                        if (stmt != null) {
+                            stmt.close();
+                        }
+                        stmt = conn.prepareStatement(SELECT_STUDENTS_BY_IDS.sql(paddedSize));
+                        preparedSize = paddedSize;
+                    }
+                    InListQuery.bind(stmt, ids, from, to, paddedSize);
+
+                    long start = System.nanoTime();
+                    long executed;
+                    int rows = 0;
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        executed = System.nanoTime();
+                        while (rs.next()) {
+                            Student student = mapResultSetToStudent(rs);
+                            students.put(student.getStudentId(), student);
+                            rows++;
+                        }
+                    }
+                    if (SELECT_STUDENTS_BY_IDS_STATS.record(start, executed, rows)) {
+                        SlowQueryLog.log(SELECT_STUDENTS_BY_IDS_STATS, start, rows, to - from, ids[from], ids[to - 1]);
+                    }
+                }
+            } finally {
+                if (stmt != null) {
+                    stmt.close();
+                }
+            }
+
+        } catch (SQLException e) {
+            SELECT_STUDENTS_BY_IDS_STATS.recordError();
+            System.err.println("Error getting students by IDs: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return students;
+    }
+
     @Override
     public Student getStudentByEmail(String email) {
         try (Connection conn = dbConnection.getConnection();
@@ -108,13 +216,23 @@ public class StudentDAOImpl implements StudentDAO {
 
             stmt.setString(1, email);
 
+            long start = System.nanoTime();
+            long executed;
+            Student student = null;
             try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
                 if (rs.next()) {
-                    return mapResultSetToStudent(rs);
+                    student = mapResultSetToStudent(rs);
                 }
             }
+            int rows = student != null ? 1 : 0;
+            if (SELECT_STUDENT_BY_EMAIL_STATS.record(start, executed, rows)) {
+                SlowQueryLog.log(SELECT_STUDENT_BY_EMAIL_STATS, start, rows, email);
+            }
+            return student;
 
         } catch (SQLException e) {
+            SELECT_STUDENT_BY_EMAIL_STATS.recordError();
             System.err.println("Error getting student by email: " + e.getMessage());
             e.printStackTrace();
         }
@@ -126,14 +244,22 @@ public class StudentDAOImpl implements StudentDAO {
         List<Student> students = new ArrayList<>();
 
         try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_STUDENTS);
-             ResultSet rs = stmt.executeQuery()) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_STUDENTS)) {
 
-            while (rs.next()) {
-                students.add(mapResultSetToStudent(rs));
+            long start = System.nanoTime();
+            long executed;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                while (rs.next()) {
+                    students.add(mapResultSetToStudent(rs));
+                }
+            }
+            if (SELECT_ALL_STUDENTS_STATS.record(start, executed, students.size())) {
+                SlowQueryLog.log(SELECT_ALL_STUDENTS_STATS, start, students.size());
             }
 
         } catch (SQLException e) {
+            SELECT_ALL_STUDENTS_STATS.recordError();
             System.err.println("Error getting all students: " + e.getMessage());
             e.printStackTrace();
         }
@@ -159,10 +285,18 @@ public class StudentDAOImpl implements StudentDAO {
 
             stmt.setInt(6, student.getStudentId());
 
+            long start = System.nanoTime();
             int rowsAffected = stmt.executeUpdate();
+            if (UPDATE_STUDENT_STATS.record(start, rowsAffected)) {
+                SlowQueryLog.log(UPDATE_STUDENT_STATS, start, rowsAffected, student.getStudentId());
+            }
+            if (rowsAffected > 0) {
+                ReportCache.getInstance().studentSaved(student);
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
+            UPDATE_STUDENT_STATS.recordError();
             System.err.println("Error updating student: " + e.getMessage());
             e.printStackTrace();
         }
@@ -171,15 +305,79 @@ public class StudentDAOImpl implements StudentDAO {
 
     @Override
     public boolean deleteStudent(int studentId) {
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(DELETE_STUDENT)) {
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Integer> activeCourses = new ArrayList<>();
+                try (PreparedStatement stmt = conn.prepareStatement(SELECT_ACTIVE_COURSES_FOR_UPDATE)) {
+                    stmt.setInt(1, studentId);
+
+                    long start = System.nanoTime();
+                    long executed;
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        executed = System.nanoTime();
+                        while (rs.next()) {
+                            activeCourses.add(rs.getInt("course_id"));
+                        }
+                    }
+                    if (SELECT_ACTIVE_COURSES_FOR_UPDATE_STATS.record(start, executed, activeCourses.size())) {
+                        SlowQueryLog.log(SELECT_ACTIVE_COURSES_FOR_UPDATE_STATS, start, activeCourses.size(), studentId);
+                    }
+                }
 
-            stmt.setInt(1, studentId);
+                int seatsReleased;
+                try (PreparedStatement stmt = conn.prepareStatement(RELEASE_ACTIVE_ENROLLMENTS)) {
+                    stmt.setInt(1, studentId);
 
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
+                    long start = System.nanoTime();
+                    seatsReleased = stmt.executeUpdate();
+                    if (RELEASE_ACTIVE_ENROLLMENTS_STATS.record(start, seatsReleased)) {
+                        SlowQueryLog.log(RELEASE_ACTIVE_ENROLLMENTS_STATS, start, seatsReleased, studentId);
+                    }
+                }
+
+                int rowsAffected;
+                try (PreparedStatement stmt = conn.prepareStatement(DELETE_STUDENT)) {
+                    stmt.setInt(1, studentId);
+
+                    long start = System.nanoTime();
+                    rowsAffected = stmt.executeUpdate();
+                    if (DELETE_STUDENT_STATS.record(start, rowsAffected)) {
+                        SlowQueryLog.log(DELETE_STUDENT_STATS, start, rowsAffected, studentId);
+                    }
+                }
+                // Hand each freed seat to the head of its waitlist before the delete commits
+                Map<Integer, Map<Long, Integer>> promoted = new HashMap<>();
+                if (rowsAffected > 0) {
+                    for (int courseId : activeCourses) {
+                        promoted.put(courseId, registrations.promoteWaitlisted(conn, courseId));
+                    }
+                }
+                conn.commit();
+                if (seatsReleased > 0) {
+                    // Student deletes are rare; reloading every seat counter is simpler than tracking the courses
+                    SeatAllocator.getInstance().invalidateAll();
+                }
+                promoted.forEach(registrations::afterPromotion);
+                // The cascade also removed any of the student's own waitlist entries
+                WaitlistQueues.getInstance().invalidateAll();
+                CreditLoads.getInstance().studentDeleted(studentId);
+                PrerequisiteGraph.getInstance().studentDeleted(studentId);
+                TimetableIndex.getInstance().studentDeleted(studentId);
+                TranscriptCache.getInstance().invalidate(studentId);
+                ReportCache.getInstance().invalidateAll();
+                EnrollmentBitmaps.getInstance().studentDeleted(studentId);
+                GradeHistograms.getInstance().studentDeleted();
+                return rowsAffected > 0;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
 
         } catch (SQLException e) {
+            DELETE_STUDENT_STATS.recordError();
             System.err.println("Error deleting student: " + e.getMessage());
             e.printStackTrace();
         }
@@ -197,13 +395,20 @@ public class StudentDAOImpl implements StudentDAO {
             stmt.setString(1, searchPattern);
             stmt.setString(2, searchPattern);
 
+            long start = System.nanoTime();
+            long executed;
             try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
                 while (rs.next()) {
                     students.add(mapResultSetToStudent(rs));
                 }
             }
+            if (SEARCH_STUDENTS_BY_NAME_STATS.record(start, executed, students.size())) {
+                SlowQueryLog.log(SEARCH_STUDENTS_BY_NAME_STATS, start, students.size(), searchPattern, searchPattern);
+            }
 
         } catch (SQLException e) {
+            SEARCH_STUDENTS_BY_NAME_STATS.recordError();
             System.err.println("Error searching students by name: " + e.getMessage());
             e.printStackTrace();
         }
@@ -218,13 +423,22 @@ public class StudentDAOImpl implements StudentDAO {
 
             stmt.setString(1, email);
 
+            long start = System.nanoTime();
+            long executed;
+            boolean exists = false;
             try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
                 if (rs.next()) {
-                    return rs.getInt(1) > 0;
+                    exists = rs.getInt(1) > 0;
                 }
             }
+            if (CHECK_STUDENT_EXISTS_STATS.record(start, executed, 1)) {
+                SlowQueryLog.log(CHECK_STUDENT_EXISTS_STATS, start, 1, email);
+            }
+            return exists;
 
         } catch (SQLException e) {
+            CHECK_STUDENT_EXISTS_STATS.recordError();
             System.err.println("Error checking if student exists: " + e.getMessage());
             e.printStackTrace();
         }
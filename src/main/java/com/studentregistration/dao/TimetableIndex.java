@@ -0,0 +1,391 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.metrics.QueryMetrics;
+import com.studentregistration.metrics.QueryStats;
+import com.studentregistration.metrics.SlowQueryLog;
+import com.studentregistration.model.CourseMeeting;
+import com.studentregistration.util.AppConfig;
+import com.studentregistration.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process weekly timetables for schedule conflict checks
+ * The week is cut into 5-minute slots (7 days x 288 slots = 2016 bits = 32 longs). Every course
+ * in course_meetings gets a bitmask of the slots it meets in, rounded outwards to whole slots,
+ * and every student gets the union of the masks of their ACTIVE and WAITLISTED courses. When the
+ * two masks are disjoint there is no clash: 32 ANDs however many courses either side has. Because
+ * of the rounding, two meetings that only share a boundary slot (9:00-9:52 and 9:53-10:30) also
+ * intersect, so an intersection is confirmed against the exact meeting times of the courses
+ * whose masks it hits before it counts as a clash.
+ *
+ * Masks are loaded in bulk by {@link #rebuild()} (at startup, after meeting edits and after every
+ * enrollment reconciliation). RegistrationDAOImpl adds a course to a student's timetable before
+ * the registration's transaction starts, atomically with the check, and takes it out after a
+ * drop or status change commits. registration.timeConflicts decides whether a clash refuses the
+ * registration (reject, the default) or only reports it (flag). Like CreditLoads this is a
+ * per-process view, and writes by other processes are only seen at the next rebuild
+ */
+public final class TimetableIndex {
+
+    private static final int SLOT_MINUTES = 5;
+    private static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    private static final int WORDS = (7 * SLOTS_PER_DAY + 63) / 64;
+
+    private static final String SELECT_MEETING_TIMES =
+        "SELECT course_id, day_of_week, start_time, end_time FROM course_meetings";
+
+    private static final String SELECT_SCHEDULED_REGISTRATIONS =
+        "SELECT student_id, course_id FROM registrations WHERE status IN ('ACTIVE', 'WAITLISTED') " +
+        "AND course_id IN (SELECT course_id FROM course_meetings)";
+
+    private static final QueryStats SELECT_MEETING_TIMES_STATS = QueryMetrics.forStatement("SELECT_MEETING_TIMES");
+    private static final QueryStats SELECT_SCHEDULED_REGISTRATIONS_STATS =
+        QueryMetrics.forStatement("SELECT_SCHEDULED_REGISTRATIONS");
+
+    private static TimetableIndex instance;
+
+    private final DatabaseConnection dbConnection;
+    private final boolean rejectConflicts;
+
+    // Replaced wholesale, student timetables included, by each rebuild; null until the first one succeeds
+    private volatile Week week;
+
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    private TimetableIndex() {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.rejectConflicts = !"flag".equalsIgnoreCase(AppConfig.getString("registration.timeConflicts", "reject"));
+    }
+
+    /**
+     * Get the index instance (Singleton pattern)
+     * @return TimetableIndex instance
+     */
+    public static synchronized TimetableIndex getInstance() {
+        if (instance == null) {
+            instance = new TimetableIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Check whether clashing registrations are refused
+     * @return true for registration.timeConflicts=reject, false for flag
+     */
+    public boolean rejectsConflicts() {
+        return rejectConflicts;
+    }
+
+    /**
+     * Find the courses in a student's timetable that meet at the same time as a course
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @return IDs of the clashing courses, empty if none (or the timetables could not be loaded)
+     */
+    public List<Integer> findConflicts(int studentId, int courseId) {
+        if (!ensureLoaded()) {
+            return Collections.emptyList();
+        }
+        Week current = week;
+        long[] mask = current.courses.get(courseId);
+        Timetable timetable = current.students.get(studentId);
+        if (mask == null || timetable == null) {
+            return Collections.emptyList();
+        }
+        return timetable.conflicts(current, courseId, mask);
+    }
+
+    /**
+     * Reload every course's meeting slots and every student's timetable from the database
+     * @return number of students with a timetable, or -1 if the load failed and the previous
+     *         timetables were kept
+     */
+    public synchronized int rebuild() {
+        List<CourseMeeting> meetings = new ArrayList<>();
+        Map<Integer, List<Integer>> scheduled = new HashMap<>();
+        try (Connection conn = dbConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_MEETING_TIMES)) {
+                long start = System.nanoTime();
+                long executed;
+                int rows = 0;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    executed = System.nanoTime();
+                    while (rs.next()) {
+                        rows++;
+                        meetings.add(new CourseMeeting(rs.getInt("course_id"), DayOfWeek.of(rs.getInt("day_of_week")),
+                                                       rs.getTime("start_time").toLocalTime(),
+                                                       rs.getTime("end_time").toLocalTime()));
+                    }
+                }
+                if (SELECT_MEETING_TIMES_STATS.record(start, executed, rows)) {
+                    SlowQueryLog.log(SELECT_MEETING_TIMES_STATS, start, rows);
+                }
+            } catch (SQLException e) {
+                SELECT_MEETING_TIMES_STATS.recordError();
+                throw e;
+            }
+
+            // Nothing can clash while no course has meeting times
+            if (!meetings.isEmpty()) {
+                try (PreparedStatement stmt = conn.prepareStatement(SELECT_SCHEDULED_REGISTRATIONS)) {
+                    long start = System.nanoTime();
+                    long executed;
+                    int rows = 0;
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        executed = System.nanoTime();
+                        while (rs.next()) {
+                            rows++;
+                            scheduled.computeIfAbsent(rs.getInt("student_id"), id -> new ArrayList<>())
+                                     .add(rs.getInt("course_id"));
+                        }
+                    }
+                    if (SELECT_SCHEDULED_REGISTRATIONS_STATS.record(start, executed, rows)) {
+                        SlowQueryLog.log(SELECT_SCHEDULED_REGISTRATIONS_STATS, start, rows);
+                    }
+                } catch (SQLException e) {
+                    SELECT_SCHEDULED_REGISTRATIONS_STATS.recordError();
+                    throw e;
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error loading course timetables: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+
+        install(meetings, scheduled);
+        rebuilds.incrementAndGet();
+        return week.students.size();
+    }
+
+    /**
+     * Replace the timetables with ones built from course meetings and scheduled registrations
+     * @param meetings every course meeting
+     * @param scheduled course IDs of each student's ACTIVE and WAITLISTED registrations
+     */
+    synchronized void install(List<CourseMeeting> meetings, Map<Integer, List<Integer>> scheduled) {
+        Week built = new Week(meetings);
+        scheduled.forEach((studentId, courseIds) ->
+            built.students.put(studentId, Timetable.of(built, courseIds.stream().mapToInt(Integer::intValue).toArray())));
+        week = built;
+    }
+
+    /**
+     * Get number of registrations that clashed with the student's timetable
+     * @return total clashes, refused or flagged
+     */
+    public long getConflictCount() {
+        return conflicts.get();
+    }
+
+    /**
+     * Get number of successful bulk rebuilds
+     * @return total rebuilds
+     */
+    public long getRebuildCount() {
+        return rebuilds.get();
+    }
+
+    /**
+     * Add a course to a student's timetable, checking for clashes in the same step
+     * With registration.timeConflicts=reject a clashing course is not added; with flag it is
+     * @return IDs of the clashing courses, empty if none
+     */
+    List<Integer> add(int studentId, int courseId) {
+        if (!ensureLoaded()) {
+            return Collections.emptyList();
+        }
+        Week current = week;
+        long[] mask = current.courses.get(courseId);
+        if (mask == null) {
+            return Collections.emptyList();
+        }
+        List<List<Integer>> clashes = new ArrayList<>(1);
+        current.students.compute(studentId, (id, timetable) -> {
+            if (timetable == null) {
+                clashes.add(Collections.emptyList());
+                return Timetable.of(current, new int[] {courseId});
+            }
+            List<Integer> found = timetable.conflicts(current, courseId, mask);
+            clashes.add(found);
+            return found.isEmpty() || !rejectConflicts ? timetable.with(current, courseId) : timetable;
+        });
+        List<Integer> found = clashes.get(0);
+        if (!found.isEmpty()) {
+            conflicts.incrementAndGet();
+        }
+        return found;
+    }
+
+    /**
+     * Take a course out of a student's timetable: the registration was dropped, left
+     * ACTIVE/WAITLISTED, or failed after {@link #add(int, int)}
+     */
+    void remove(int studentId, int courseId) {
+        Week current = week;
+        if (current == null || !current.courses.containsKey(courseId)) {
+            return;
+        }
+        current.students.computeIfPresent(studentId, (id, timetable) -> timetable.without(current, courseId));
+    }
+
+    /**
+     * Reload after a course's meeting times changed or the course was deleted
+     */
+    void courseChanged(int courseId) {
+        rebuild();
+    }
+
+    /**
+     * Load the timetables if they are not loaded yet, so that a following {@link #add(int, int)}
+     * runs no query; called before a transaction that locks rows
+     */
+    void prepare() {
+        ensureLoaded();
+    }
+
+    /**
+     * Forget a deleted student
+     */
+    void studentDeleted(int studentId) {
+        Week current = week;
+        if (current != null) {
+            current.students.remove(studentId);
+        }
+    }
+
+    private boolean ensureLoaded() {
+        return week != null || rebuild() >= 0;
+    }
+
+    private static void addMeeting(long[] mask, CourseMeeting meeting) {
+        int dayStart = (meeting.getDayOfWeek().getValue() - 1) * SLOTS_PER_DAY;
+        int startMinute = minuteOfDay(meeting.getStartTime());
+        int endMinute = minuteOfDay(meeting.getEndTime());
+        // Round outwards, so a meeting occupies every slot it touches
+        int firstSlot = startMinute / SLOT_MINUTES;
+        int lastSlot = Math.min(SLOTS_PER_DAY, (endMinute + SLOT_MINUTES - 1) / SLOT_MINUTES);
+        for (int slot = firstSlot; slot < lastSlot; slot++) {
+            int bit = dayStart + slot;
+            mask[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static boolean intersects(long[] a, long[] b) {
+        for (int i = 0; i < WORDS; i++) {
+            if ((a[i] & b[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean overlaps(List<CourseMeeting> a, List<CourseMeeting> b) {
+        for (CourseMeeting meeting : a) {
+            for (CourseMeeting other : b) {
+                if (meeting.overlaps(other)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Course meeting masks and exact meeting times, with the student timetables built over them
+     */
+    private static final class Week {
+        final Map<Integer, long[]> courses = new HashMap<>();
+        final Map<Integer, List<CourseMeeting>> meetings = new HashMap<>();
+        final ConcurrentHashMap<Integer, Timetable> students = new ConcurrentHashMap<>();
+
+        Week(List<CourseMeeting> courseMeetings) {
+            for (CourseMeeting meeting : courseMeetings) {
+                addMeeting(courses.computeIfAbsent(meeting.getCourseId(), id -> new long[WORDS]), meeting);
+                meetings.computeIfAbsent(meeting.getCourseId(), id -> new ArrayList<>()).add(meeting);
+            }
+        }
+    }
+
+    /**
+     * Immutable timetable of one student: the courses with meeting times and their combined mask
+     */
+    private static final class Timetable {
+        final int[] courseIds;
+        final long[] mask;
+
+        private Timetable(int[] courseIds, long[] mask) {
+            this.courseIds = courseIds;
+            this.mask = mask;
+        }
+
+        static Timetable of(Week week, int[] courseIds) {
+            long[] mask = new long[WORDS];
+            for (int courseId : courseIds) {
+                long[] course = week.courses.get(courseId);
+                if (course != null) {
+                    for (int i = 0; i < WORDS; i++) {
+                        mask[i] |= course[i];
+                    }
+                }
+            }
+            return new Timetable(courseIds, mask);
+        }
+
+        List<Integer> conflicts(Week week, int courseId, long[] courseMask) {
+            if (!intersects(mask, courseMask)) {
+                return Collections.emptyList();
+            }
+            // The masks are rounded to whole slots, so confirm each hit with the exact times
+            List<Integer> found = new ArrayList<>();
+            List<CourseMeeting> meetings = week.meetings.get(courseId);
+            for (int scheduled : courseIds) {
+                long[] other = week.courses.get(scheduled);
+                if (scheduled != courseId && other != null && intersects(other, courseMask)
+                        && overlaps(week.meetings.get(scheduled), meetings)) {
+                    found.add(scheduled);
+                }
+            }
+            return found.isEmpty() ? Collections.emptyList() : found;
+        }
+
+        Timetable with(Week week, int courseId) {
+            int[] grown = Arrays.copyOf(courseIds, courseIds.length + 1);
+            grown[courseIds.length] = courseId;
+            return of(week, grown);
+        }
+
+        Timetable without(Week week, int courseId) {
+            // Remove one occurrence; clashing courses may share slots, so recompute the mask
+            for (int i = 0; i < courseIds.length; i++) {
+                if (courseIds[i] == courseId) {
+                    int[] remaining = new int[courseIds.length - 1];
+                    System.arraycopy(courseIds, 0, remaining, 0, i);
+                    System.arraycopy(courseIds, i + 1, remaining, i, courseIds.length - i - 1);
+                    return remaining.length == 0 ? null : of(week, remaining);
+                }
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.metrics.CacheMetrics;
+import com.studentregistration.metrics.CacheStats;
+import com.studentregistration.metrics.QueryMetrics;
+import com.studentregistration.metrics.QueryStats;
+import com.studentregistration.metrics.SlowQueryLog;
+import com.studentregistration.model.GpaSummary;
+import com.studentregistration.model.Grade;
+import com.studentregistration.model.Registration;
+import com.studentregistration.model.Transcript;
+import com.studentregistration.util.AppConfig;
+import com.studentregistration.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Transcripts and GPAs
+ * A student's GPA is the credit-weighted mean of the grade points of their COMPLETED courses;
+ * grades are encoded once to {@link Grade} byte codes and summed in tenths of a point, so the
+ * result is exact. Transcripts are cached per student (up to transcripts.cache.maxEntries) and
+ * dropped by RegistrationDAOImpl whenever one of the student's grades or COMPLETED registrations
+ * changes, and all at once when course credits change.
+ *
+ * {@link #summarizeAll()} computes every student's GPA without the cache, for the dean's list
+ * and probation reports: the COMPLETED registrations are split into transcripts.bulk.partitions
+ * student-ID ranges, each range is streamed in student order on its own connection, and the
+ * ranges run in parallel on the DAO executor. Rows are folded into a summary as they arrive,
+ * so memory stays at one summary per student whatever the number of registrations
+ */
+public final class TranscriptCache {
+
+    private static final String SELECT_COMPLETED_STUDENT_RANGE =
+        "SELECT MIN(student_id) AS min_id, MAX(student_id) AS max_id FROM registrations WHERE status = 'COMPLETED'";
+
+    private static final String SELECT_COMPLETED_GRADES =
+        "SELECT r.student_id, r.grade, c.credits FROM registrations r " +
+        "INNER JOIN courses c ON r.course_id = c.course_id " +
+        "WHERE r.status = 'COMPLETED' AND r.student_id BETWEEN ? AND ? ORDER BY r.student_id";
+
+    private static final QueryStats SELECT_COMPLETED_STUDENT_RANGE_STATS =
+        QueryMetrics.forStatement("SELECT_COMPLETED_STUDENT_RANGE");
+    private static final QueryStats SELECT_COMPLETED_GRADES_STATS = QueryMetrics.forStatement("SELECT_COMPLETED_GRADES");
+
+    private static TranscriptCache instance;
+
+    private final DatabaseConnection dbConnection;
+    private final int maxEntries;
+    private final int partitions;
+    private final double deansListMinGpa;
+    private final int deansListMinCredits;
+    private final double probationBelowGpa;
+
+    private final ConcurrentHashMap<Integer, Transcript> transcripts = new ConcurrentHashMap<>();
+    private final CacheStats cacheStats;
+    // Bumped by every invalidation; a load that raced with one is returned but not cached
+    private final AtomicLong version = new AtomicLong();
+
+    private TranscriptCache() {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.maxEntries = Math.max(0, AppConfig.getInt("transcripts.cache.maxEntries", 10000));
+        this.partitions = Math.max(1, AppConfig.getInt("transcripts.bulk.partitions", 4));
+        this.deansListMinGpa = AppConfig.getDouble("gpa.deansList.minGpa", 3.5);
+        this.deansListMinCredits = AppConfig.getInt("gpa.deansList.minCredits", 12);
+        this.probationBelowGpa = AppConfig.getDouble("gpa.probation.belowGpa", 2.0);
+        this.cacheStats = CacheMetrics.register("student_transcript", transcripts::size);
+    }
+
+    /**
+     * Get the transcript cache instance (Singleton pattern)
+     * @return TranscriptCache instance
+     */
+    public static synchronized TranscriptCache getInstance() {
+        if (instance == null) {
+            instance = new TranscriptCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Get a student's transcript, loading and caching it on a miss
+     * @param studentId ID of the student
+     * @param loader the student's registrations with their courses, e.g. getCoursesForStudent
+     * @return transcript, with no courses if the student has completed none
+     */
+    public Transcript get(int studentId, IntFunction<List<Registration>> loader) {
+        Transcript cached = transcripts.get(studentId);
+        if (cached != null) {
+            cacheStats.recordHit();
+            return cached;
+        }
+        cacheStats.recordMiss();
+
+        long seen = version.get();
+        Transcript loaded = build(studentId, loader.apply(studentId));
+        if (maxEntries > 0 && version.get() == seen) {
+            evictIfFull();
+            transcripts.put(studentId, loaded);
+            // An invalidation between the check and the put must not leave this copy behind
+            if (version.get() != seen) {
+                transcripts.remove(studentId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Compute every student's GPA in one parallel streaming pass, bypassing the cache
+     * @return summaries of the students with at least one COMPLETED registration, in student ID
+     *         order, or null if the scan failed
+     */
+    public List<GpaSummary> summarizeAll() {
+        long[] range;
+        try {
+            range = completedStudentRange();
+        } catch (SQLException e) {
+            SELECT_COMPLETED_STUDENT_RANGE_STATS.recordError();
+            System.err.println("Error computing GPAs: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+        if (range == null) {
+            return new ArrayList<>();
+        }
+
+        long span = range[1] - range[0] + 1;
+        int parts = (int) Math.min(partitions, span);
+        long size = (span + parts - 1) / parts;
+        List<CompletableFuture<List<GpaSummary>>> scans = new ArrayList<>(parts);
+        for (int i = 0; i < parts; i++) {
+            int from = (int) (range[0] + i * size);
+            int to = (int) Math.min(range[1], from + size - 1);
+            scans.add(CompletableFuture.supplyAsync(() -> scanPartition(from, to), DaoExecutor.getDefault()));
+        }
+
+        // Partitions are disjoint, ordered ID ranges, so concatenating keeps the order
+        List<GpaSummary> summaries = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<GpaSummary>> scan : scans) {
+                summaries.addAll(scan.join());
+            }
+        } catch (CompletionException e) {
+            SELECT_COMPLETED_GRADES_STATS.recordError();
+            System.err.println("Error computing GPAs: " + e.getCause().getMessage());
+            e.getCause().printStackTrace();
+            return null;
+        }
+        return summaries;
+    }
+
+    /**
+     * Drop a student's cached transcript after one of their grades or COMPLETED registrations changed
+     */
+    void invalidate(int studentId) {
+        version.incrementAndGet();
+        if (transcripts.remove(studentId) != null) {
+            cacheStats.recordEviction();
+        }
+    }
+
+    /**
+     * Drop every cached transcript, e.g. after a course's credits changed
+     */
+    void invalidateAll() {
+        version.incrementAndGet();
+        transcripts.clear();
+    }
+
+    private Transcript build(int studentId, List<Registration> registrations) {
+        Tally tally = new Tally();
+        List<Registration> completed = new ArrayList<>();
+        for (Registration registration : registrations) {
+            if (registration.getStatus() == Registration.RegistrationStatus.COMPLETED) {
+                completed.add(registration);
+                int credits = registration.getCourse() != null ? registration.getCourse().getCredits() : 0;
+                tally.add(Grade.encode(registration.getGrade()), credits);
+            }
+        }
+        return new Transcript(studentId, completed, tally.toSummary(studentId));
+    }
+
+    private long[] completedStudentRange() throws SQLException {
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_COMPLETED_STUDENT_RANGE)) {
+
+            long start = System.nanoTime();
+            long executed;
+            long[] range = null;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                if (rs.next()) {
+                    long min = rs.getLong("min_id");
+                    if (!rs.wasNull()) {
+                        range = new long[] {min, rs.getLong("max_id")};
+                    }
+                }
+            }
+            if (SELECT_COMPLETED_STUDENT_RANGE_STATS.record(start, executed, 1)) {
+                SlowQueryLog.log(SELECT_COMPLETED_STUDENT_RANGE_STATS, start, 1);
+            }
+            return range;
+        }
+    }
+
+    /**
+     * Stream one student-ID range, folding each student's rows into a summary as they arrive
+     */
+    private List<GpaSummary> scanPartition(int fromStudentId, int toStudentId) {
+        List<GpaSummary> summaries = new ArrayList<>();
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_COMPLETED_GRADES,
+                                                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            // Connector/J streams rows one at a time instead of buffering the whole result
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            stmt.setInt(1, fromStudentId);
+            stmt.setInt(2, toStudentId);
+
+            long start = System.nanoTime();
+            long executed;
+            int rows = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                int studentId = 0;
+                Tally tally = null;
+                while (rs.next()) {
+                    rows++;
+                    int rowStudentId = rs.getInt("student_id");
+                    if (tally == null || rowStudentId != studentId) {
+                        if (tally != null) {
+                            summaries.add(tally.toSummary(studentId));
+                        }
+                        studentId = rowStudentId;
+                        tally = new Tally();
+                    }
+                    tally.add(Grade.encode(rs.getString("grade")), rs.getInt("credits"));
+                }
+                if (tally != null) {
+                    summaries.add(tally.toSummary(studentId));
+                }
+            }
+            if (SELECT_COMPLETED_GRADES_STATS.record(start, executed, rows)) {
+                SlowQueryLog.log(SELECT_COMPLETED_GRADES_STATS, start, rows, fromStudentId, toStudentId);
+            }
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        }
+        return summaries;
+    }
+
+    private void evictIfFull() {
+        Iterator<Integer> keys = transcripts.keySet().iterator();
+        while (transcripts.size() >= maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            cacheStats.recordEviction();
+        }
+    }
+
+    private GpaSummary.Standing standing(long gradePointTenths, int gpaCredits, int earnedCredits) {
+        if (gpaCredits == 0) {
+            return GpaSummary.Standing.NONE;
+        }
+        double gpa = gradePointTenths / (10.0 * gpaCredits);
+        if (gpa < probationBelowGpa) {
+            return GpaSummary.Standing.PROBATION;
+        }
+        if (gpa >= deansListMinGpa && earnedCredits >= deansListMinCredits) {
+            return GpaSummary.Standing.DEANS_LIST;
+        }
+        return GpaSummary.Standing.GOOD;
+    }
+
+    /**
+     * Running totals of one student's graded courses
+     */
+    private final class Tally {
+        long gradePointTenths;
+        int gpaCredits;
+        int earnedCredits;
+
+        void add(byte gradeCode, int credits) {
+            int points = Grade.pointsTenths(gradeCode);
+            if (points >= 0) {
+                gradePointTenths += (long) points * credits;
+                gpaCredits += credits;
+            }
+            if (Grade.earnsCredit(gradeCode)) {
+                earnedCredits += credits;
+            }
+        }
+
+        GpaSummary toSummary(int studentId) {
+            return new GpaSummary(studentId, gradePointTenths, gpaCredits, earnedCredits,
+                                  standing(gradePointTenths, gpaCredits, earnedCredits));
+        }
+    }
+}
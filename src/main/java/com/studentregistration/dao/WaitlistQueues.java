@@ -0,0 +1,172 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.metrics.QueryMetrics;
+import com.studentregistration.metrics.QueryStats;
+import com.studentregistration.metrics.SlowQueryLog;
+import com.studentregistration.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-process waitlist queues, one per course
+ * Each queue maps waitlist_position to student ID in position order, so its first entry is the
+ * next student to promote. Queues are loaded lazily from the WAITLISTED registrations and kept
+ * current by RegistrationDAOImpl after each commit. A drop checks the queue before its
+ * transaction starts: a course nobody is waiting for costs no promotion query, and places in
+ * line are answered without touching the database.
+ *
+ * The registrations table remains the source of truth. Promotion always selects and locks the
+ * head of the queue in the database, and the queues only decide whether to look. Writes this
+ * process does not see (other processes, cascaded deletes, manual SQL) are picked up when a
+ * course is invalidated; {@link RegistrationDAO#promoteWaitlists()} reloads every queue and
+ * fills any seat a stale queue missed
+ */
+public final class WaitlistQueues {
+
+    private static final String SELECT_WAITLIST_QUEUE =
+        "SELECT waitlist_position, student_id FROM registrations " +
+        "WHERE course_id = ? AND status = 'WAITLISTED' ORDER BY waitlist_position";
+
+    private static final QueryStats SELECT_WAITLIST_QUEUE_STATS = QueryMetrics.forStatement("SELECT_WAITLIST_QUEUE");
+
+    private static WaitlistQueues instance;
+
+    private final DatabaseConnection dbConnection;
+    private final ConcurrentHashMap<Integer, ConcurrentSkipListMap<Long, Integer>> courses = new ConcurrentHashMap<>();
+
+    private WaitlistQueues() {
+        this.dbConnection = DatabaseConnection.getInstance();
+    }
+
+    /**
+     * Get the queues instance (Singleton pattern)
+     * @return WaitlistQueues instance
+     */
+    public static synchronized WaitlistQueues getInstance() {
+        if (instance == null) {
+            instance = new WaitlistQueues();
+        }
+        return instance;
+    }
+
+    /**
+     * Check whether anyone is waiting for a course
+     * @param courseId ID of the course
+     * @return true if the queue is not empty, or could not be loaded
+     */
+    public boolean hasWaiting(int courseId) {
+        ConcurrentSkipListMap<Long, Integer> queue = queue(courseId);
+        return queue == null || !queue.isEmpty();
+    }
+
+    /**
+     * Get the number of students waiting for a course
+     * @param courseId ID of the course
+     * @return queue length, 0 if the queue could not be loaded
+     */
+    public int size(int courseId) {
+        ConcurrentSkipListMap<Long, Integer> queue = queue(courseId);
+        return queue != null ? queue.size() : 0;
+    }
+
+    /**
+     * Get a student's place in a course's waitlist
+     * @param courseId ID of the course
+     * @param studentId ID of the student
+     * @return 1 for the next student to be promoted, 0 if the student is not waiting
+     */
+    public int placeInLine(int courseId, int studentId) {
+        ConcurrentSkipListMap<Long, Integer> queue = queue(courseId);
+        if (queue == null) {
+            return 0;
+        }
+        int place = 0;
+        for (int waiting : queue.values()) {
+            place++;
+            if (waiting == studentId) {
+                return place;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Forget a course's queue; it is reloaded from the database on next use
+     * @param courseId ID of the course
+     */
+    public void invalidate(int courseId) {
+        courses.remove(courseId);
+    }
+
+    /**
+     * Forget every queue
+     */
+    public void invalidateAll() {
+        courses.clear();
+    }
+
+    /**
+     * Record a committed WAITLISTED registration
+     * Nothing to do for a course that is not loaded; its load will read the committed row
+     */
+    void added(int courseId, long position, int studentId) {
+        courses.computeIfPresent(courseId, (id, queue) -> {
+            queue.put(position, studentId);
+            return queue;
+        });
+    }
+
+    /**
+     * Record committed registrations that left the waitlist (promoted, dropped or changed status)
+     */
+    void removed(int courseId, Collection<Long> positions) {
+        if (positions.isEmpty()) {
+            return;
+        }
+        courses.computeIfPresent(courseId, (id, queue) -> {
+            for (Long position : positions) {
+                queue.remove(position);
+            }
+            return queue;
+        });
+    }
+
+    private ConcurrentSkipListMap<Long, Integer> queue(int courseId) {
+        // A failed load leaves nothing cached, so the next call tries again
+        return courses.computeIfAbsent(courseId, this::load);
+    }
+
+    private ConcurrentSkipListMap<Long, Integer> load(int courseId) {
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_WAITLIST_QUEUE)) {
+
+            stmt.setInt(1, courseId);
+
+            long start = System.nanoTime();
+            long executed;
+            ConcurrentSkipListMap<Long, Integer> queue = new ConcurrentSkipListMap<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                while (rs.next()) {
+                    queue.put(rs.getLong("waitlist_position"), rs.getInt("student_id"));
+                }
+            }
+            if (SELECT_WAITLIST_QUEUE_STATS.record(start, executed, queue.size())) {
+                SlowQueryLog.log(SELECT_WAITLIST_QUEUE_STATS, start, queue.size(), courseId);
+            }
+            return queue;
+
+        } catch (SQLException e) {
+            SELECT_WAITLIST_QUEUE_STATS.recordError();
+            System.err.println("Error loading course waitlist: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+}
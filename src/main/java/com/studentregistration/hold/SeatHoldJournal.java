@@ -0,0 +1,183 @@
+package com.studentregistration.hold;
+
+import com.studentregistration.model.SeatHold;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Append-only binary journal of seat holds, replayed on startup
+ * Two fixed-size records: PLACE (hold id, student, course, expiry; 25 bytes) and END (hold
+ * id; 9 bytes), written when a hold is checked out, released or expires. Replay keeps the
+ * holds that were placed, not ended and not yet expired. Once the journal holds more than
+ * twice as many records as there are live holds (plus some slack) it is rewritten with only
+ * the live holds, through a temporary file and an atomic rename, so its size follows the
+ * number of outstanding holds rather than the number ever placed.
+ *
+ * Each record is flushed to the operating system as it is written, which survives a crash of
+ * the JVM but not of the machine. A torn record at the end of the file is ignored on replay.
+ * Callers add a hold to their live set before journaling its PLACE and remove it before
+ * journaling its END, so a compaction racing with either can only leave a duplicate PLACE or
+ * a stray END, both harmless
+ */
+final class SeatHoldJournal {
+
+    private static final byte PLACE = 'P';
+    private static final byte END = 'E';
+    private static final int COMPACT_SLACK = 10_000;
+
+    private final Path path;
+    private final Supplier<Collection<SeatHold>> liveHolds;
+
+    private DataOutputStream out;
+    private long records;
+
+    /**
+     * @param path journal file; created on first write
+     * @param liveHolds current outstanding holds, read when the journal is compacted
+     */
+    SeatHoldJournal(Path path, Supplier<Collection<SeatHold>> liveHolds) {
+        this.path = path;
+        this.liveHolds = liveHolds;
+    }
+
+    /**
+     * Read the journal, then rewrite it with the surviving holds and open it for appending
+     * @param nowMillis holds expiring at or before this time are dropped
+     * @return surviving holds by ID, in the order they were placed
+     */
+    synchronized Map<Long, SeatHold> replay(long nowMillis) {
+        Map<Long, SeatHold> holds = new LinkedHashMap<>();
+        if (Files.exists(path)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                while (true) {
+                    byte type = in.readByte();
+                    long holdId = in.readLong();
+                    if (type == PLACE) {
+                        int studentId = in.readInt();
+                        int courseId = in.readInt();
+                        long expiresAt = in.readLong();
+                        holds.put(holdId, new SeatHold(holdId, studentId, courseId, expiresAt));
+                    } else if (type == END) {
+                        holds.remove(holdId);
+                    } else {
+                        System.err.println("Seat hold journal " + path + " is corrupt; ignoring the rest of it");
+                        break;
+                    }
+                }
+            } catch (EOFException e) {
+                // End of the journal, possibly inside a record cut short by a crash
+            } catch (IOException e) {
+                System.err.println("Error reading seat hold journal: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        holds.values().removeIf(hold -> hold.getExpiresAtMillis() <= nowMillis);
+        rewrite(holds.values());
+        return holds;
+    }
+
+    /**
+     * Record a new hold
+     */
+    synchronized void placed(SeatHold hold) {
+        try {
+            DataOutputStream stream = stream();
+            writePlace(stream, hold);
+            stream.flush();
+            records++;
+        } catch (IOException e) {
+            System.err.println("Error writing seat hold journal: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Record that a hold was checked out, released or expired
+     */
+    synchronized void ended(long holdId) {
+        try {
+            DataOutputStream stream = stream();
+            stream.writeByte(END);
+            stream.writeLong(holdId);
+            stream.flush();
+            records++;
+        } catch (IOException e) {
+            System.err.println("Error writing seat hold journal: " + e.getMessage());
+            e.printStackTrace();
+        }
+        Collection<SeatHold> live = liveHolds.get();
+        if (records > 2L * live.size() + COMPACT_SLACK) {
+            rewrite(live);
+        }
+    }
+
+    /**
+     * Get the journal file
+     * @return path of the journal
+     */
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Close the journal; a later write reopens it
+     */
+    synchronized void close() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                System.err.println("Error closing seat hold journal: " + e.getMessage());
+            }
+            out = null;
+        }
+    }
+
+    private DataOutputStream stream() throws IOException {
+        if (out == null) {
+            OutputStream file = Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            out = new DataOutputStream(new BufferedOutputStream(file));
+        }
+        return out;
+    }
+
+    private static void writePlace(DataOutputStream stream, SeatHold hold) throws IOException {
+        stream.writeByte(PLACE);
+        stream.writeLong(hold.getHoldId());
+        stream.writeInt(hold.getStudentId());
+        stream.writeInt(hold.getCourseId());
+        stream.writeLong(hold.getExpiresAtMillis());
+    }
+
+    private void rewrite(Collection<SeatHold> holds) {
+        close();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                for (SeatHold hold : holds) {
+                    writePlace(stream, hold);
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            records = holds.size();
+        } catch (IOException e) {
+            // Keep appending to the old journal; it still replays correctly, just more slowly
+            System.err.println("Error compacting seat hold journal: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.studentregistration.hold;
+
+import com.studentregistration.dao.RegistrationDAO;
+import com.studentregistration.dao.SeatAllocator;
+import com.studentregistration.dao.WaitlistQueues;
+import com.studentregistration.model.Registration;
+import com.studentregistration.model.SeatHold;
+import com.studentregistration.util.AppConfig;
+import com.studentregistration.util.HashedTimerWheel;
+import com.studentregistration.util.VirtualThreads;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-limited seat holds (a registration cart) in front of RegistrationDAO
+ * A hold reserves a seat in the SeatAllocator for a few minutes without writing to the
+ * database; checkout turns it into an ACTIVE registration using the reserved seat, so a
+ * student who reached checkout cannot lose the seat to the rush behind them. Abandoned holds
+ * expire on a hashed timer wheel with one-second ticks, which keeps hundreds of thousands of
+ * outstanding holds cheap, and their seats go back to the allocator and, if anyone is
+ * waiting, to the course's waitlist.
+ *
+ * Holds live in this process. Every hold placed and ended is written to a compact journal
+ * (holds.journal.file), which is replayed by {@link #start()}, so a restart keeps the holds
+ * that have not expired. The database does not know about holds: it still refuses to
+ * oversubscribe a course, and another process can fill a held seat, in which case that
+ * hold's checkout fails
+ */
+public class SeatHoldService {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 1024;
+
+    private final RegistrationDAO registrationDAO;
+    private final SeatAllocator seatAllocator;
+    private final SeatHoldJournal journal;
+    private final int defaultMinutes;
+    private final int maxMinutes;
+
+    private final ConcurrentHashMap<Long, SeatHold> holds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, HashedTimerWheel.Timeout> timeouts = new ConcurrentHashMap<>();
+    // One hold per student and course, keyed by studentId << 32 | courseId
+    private final ConcurrentHashMap<Long, Long> holdByStudentCourse = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Set<Long>> holdsByStudent = new ConcurrentHashMap<>();
+    private final AtomicLong nextHoldId = new AtomicLong();
+
+    private final AtomicLong placed = new AtomicLong();
+    private final AtomicLong checkedOut = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+
+    private HashedTimerWheel wheel;
+    private ExecutorService promoter;
+
+    /**
+     * Create a service configured from holds.minutes, holds.maxMinutes and holds.journal.file
+     * in config.properties; call {@link #start()} before use
+     */
+    public SeatHoldService(RegistrationDAO registrationDAO) {
+        this.registrationDAO = registrationDAO;
+        this.seatAllocator = SeatAllocator.getInstance();
+        this.defaultMinutes = Math.max(1, AppConfig.getInt("holds.minutes", 15));
+        this.maxMinutes = Math.max(defaultMinutes, AppConfig.getInt("holds.maxMinutes", 60));
+        this.journal = new SeatHoldJournal(Paths.get(AppConfig.getString("holds.journal.file", "seat-holds.journal")),
+                                           holds::values);
+    }
+
+    /**
+     * Restore the holds in the journal that have not expired and start expiring holds
+     */
+    public synchronized void start() {
+        if (wheel != null) {
+            return;
+        }
+        wheel = new HashedTimerWheel("seat-hold-expiry", TICK_MILLIS, TimeUnit.MILLISECONDS, WHEEL_SIZE);
+        promoter = VirtualThreads.newThreadPerTaskExecutor("seat-hold-promoter");
+
+        long now = System.currentTimeMillis();
+        Map<Long, SeatHold> restored = journal.replay(now);
+        long maxHoldId = 0;
+        for (SeatHold hold : restored.values()) {
+            track(hold);
+            seatAllocator.restoreReservation(hold.getCourseId());
+            schedule(hold, now);
+            maxHoldId = Math.max(maxHoldId, hold.getHoldId());
+        }
+        // Start above anything handed out before, so a stale hold ID never names a new hold
+        nextHoldId.set(Math.max(maxHoldId + 1, now * 1000));
+        if (!restored.isEmpty()) {
+            System.out.println("Restored " + restored.size() + " seat hold(s) from " + journal.getPath());
+        }
+    }
+
+    /**
+     * Stop expiring holds and close the journal
+     * Outstanding holds stay in the journal and are restored by the next start
+     */
+    public synchronized void stop() {
+        if (wheel == null) {
+            return;
+        }
+        wheel.stop();
+        promoter.shutdown();
+        journal.close();
+        wheel = null;
+        promoter = null;
+    }
+
+    /**
+     * Hold a seat for the default hold time
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @return the hold, or null if the course is full or the student already holds a seat in it
+     */
+    public SeatHold placeHold(int studentId, int courseId) {
+        return placeHold(studentId, courseId, defaultMinutes);
+    }
+
+    /**
+     * Hold a seat
+     * Callers check that the student and course exist and that the student is not registered
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @param minutes hold time, capped at holds.maxMinutes
+     * @return the hold, or null if the course is full or the student already holds a seat in it
+     */
+    public SeatHold placeHold(int studentId, int courseId, int minutes) {
+        long holdId = nextHoldId.getAndIncrement();
+        if (holdByStudentCourse.putIfAbsent(studentCourseKey(studentId, courseId), holdId) != null) {
+            return null;
+        }
+        if (!seatAllocator.tryReserve(courseId)) {
+            holdByStudentCourse.remove(studentCourseKey(studentId, courseId), holdId);
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        long expiresAt = now + TimeUnit.MINUTES.toMillis(Math.max(1, Math.min(minutes, maxMinutes)));
+        SeatHold hold = new SeatHold(holdId, studentId, courseId, expiresAt);
+        track(hold);
+        journal.placed(hold);
+        schedule(hold, now);
+        placed.incrementAndGet();
+        return hold;
+    }
+
+    /**
+     * Turn a hold into an ACTIVE registration using its reserved seat
+     * The hold ends either way; if the registration fails the seat is given back
+     * @param holdId ID of the hold
+     * @return the registration, or null if the hold does not exist (expired, released or
+     *         already checked out) or the registration failed
+     */
+    public Registration checkout(long holdId) {
+        SeatHold hold = end(holdId);
+        if (hold == null) {
+            return null;
+        }
+        Registration registration = new Registration(hold.getStudentId(), hold.getCourseId());
+        boolean added = registrationDAO.addHeldRegistration(registration);
+        // On success the seat now belongs to the registration; on failure the DAO gave it back
+        seatAllocator.endReservation(hold.getCourseId());
+        if (!added) {
+            return null;
+        }
+        checkedOut.incrementAndGet();
+        return registration;
+    }
+
+    /**
+     * Give up a hold and its seat
+     * @param holdId ID of the hold
+     * @return true if the hold existed
+     */
+    public boolean releaseHold(long holdId) {
+        SeatHold hold = end(holdId);
+        if (hold == null) {
+            return false;
+        }
+        freeSeat(hold);
+        released.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Get a hold
+     * @param holdId ID of the hold
+     * @return the hold, or null if it does not exist
+     */
+    public SeatHold getHold(long holdId) {
+        return holds.get(holdId);
+    }
+
+    /**
+     * Get a student's hold in a course
+     * @param studentId ID of the student
+     * @param courseId ID of the course
+     * @return the hold, or null if the student holds no seat in the course
+     */
+    public SeatHold findHold(int studentId, int courseId) {
+        Long holdId = holdByStudentCourse.get(studentCourseKey(studentId, courseId));
+        return holdId != null ? holds.get(holdId) : null;
+    }
+
+    /**
+     * Get a student's holds (their cart)
+     * @param studentId ID of the student
+     * @return outstanding holds, soonest to expire first
+     */
+    public List<SeatHold> getHoldsForStudent(int studentId) {
+        Set<Long> holdIds = holdsByStudent.get(studentId);
+        if (holdIds == null) {
+            return Collections.emptyList();
+        }
+        List<SeatHold> cart = new ArrayList<>();
+        for (Long holdId : holdIds) {
+            SeatHold hold = holds.get(holdId);
+            if (hold != null) {
+                cart.add(hold);
+            }
+        }
+        cart.sort((a, b) -> Long.compare(a.getExpiresAtMillis(), b.getExpiresAtMillis()));
+        return cart;
+    }
+
+    /**
+     * Get number of outstanding holds
+     * @return holds placed and not yet checked out, released or expired
+     */
+    public int getOutstandingCount() {
+        return holds.size();
+    }
+
+    public long getPlacedCount() {
+        return placed.get();
+    }
+
+    public long getCheckedOutCount() {
+        return checkedOut.get();
+    }
+
+    public long getReleasedCount() {
+        return released.get();
+    }
+
+    public long getExpiredCount() {
+        return expired.get();
+    }
+
+    private void track(SeatHold hold) {
+        holds.put(hold.getHoldId(), hold);
+        holdByStudentCourse.put(studentCourseKey(hold.getStudentId(), hold.getCourseId()), hold.getHoldId());
+        holdsByStudent.computeIfAbsent(hold.getStudentId(), id -> ConcurrentHashMap.newKeySet()).add(hold.getHoldId());
+    }
+
+    private void schedule(SeatHold hold, long nowMillis) {
+        HashedTimerWheel.Timeout timeout = wheel.schedule(() -> expire(hold.getHoldId()),
+                                                          hold.getExpiresAtMillis() - nowMillis, TimeUnit.MILLISECONDS);
+        timeouts.put(hold.getHoldId(), timeout);
+    }
+
+    /**
+     * Remove a hold; exactly one of checkout, release and expiry gets it
+     * @return the removed hold, or null if it was already gone
+     */
+    private SeatHold end(long holdId) {
+        SeatHold hold = holds.remove(holdId);
+        if (hold == null) {
+            return null;
+        }
+        HashedTimerWheel.Timeout timeout = timeouts.remove(holdId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        holdByStudentCourse.remove(studentCourseKey(hold.getStudentId(), hold.getCourseId()), holdId);
+        holdsByStudent.computeIfPresent(hold.getStudentId(), (id, holdIds) -> {
+            holdIds.remove(holdId);
+            return holdIds.isEmpty() ? null : holdIds;
+        });
+        journal.ended(holdId);
+        return hold;
+    }
+
+    // Runs on the wheel thread
+    private void expire(long holdId) {
+        SeatHold hold = end(holdId);
+        if (hold != null) {
+            freeSeat(hold);
+            expired.incrementAndGet();
+        }
+    }
+
+    private void freeSeat(SeatHold hold) {
+        int courseId = hold.getCourseId();
+        seatAllocator.cancelReservation(courseId);
+        // The seat was never in the database, so nothing promoted into it; offer it to the waitlist
+        ExecutorService executor = promoter;
+        if (executor != null) {
+            executor.execute(() -> {
+                if (WaitlistQueues.getInstance().hasWaiting(courseId)) {
+                    registrationDAO.promoteFromWaitlist(courseId);
+                }
+            });
+        }
+    }
+
+    private static long studentCourseKey(int studentId, int courseId) {
+        return ((long) studentId << 32) | (courseId & 0xFFFFFFFFL);
+    }
+}
@@ -1,14 +1,34 @@
 package com.studentregistration.main;
 
 import com.studentregistration.dao.*;
+import com.studentregistration.hold.SeatHoldService;
+import com.studentregistration.metrics.DaoInstrumentation;
+import com.studentregistration.metrics.MetricsServer;
+import com.studentregistration.metrics.QueryMetrics;
+import com.studentregistration.metrics.RegistrationDemand;
+import com.studentregistration.metrics.TopKSketch;
+import com.studentregistration.metrics.jfr.ReportEvent;
 import com.studentregistration.model.*;
+import com.studentregistration.report.RegistrationReport;
+import com.studentregistration.report.ReportEngine;
+import com.studentregistration.report.ReportSnapshot;
+import com.studentregistration.server.ApiServer;
+import com.studentregistration.util.AppConfig;
 import com.studentregistration.util.DatabaseConnection;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Main application class with console-based menu system
@@ -22,17 +42,119 @@ public class StudentRegistrationApp {
     private final Scanner scanner;
     private final DateTimeFormatter dateFormatter;
 
+    private static final String[] REPORT_NAMES = {
+        "viewCoursesForStudent", "viewStudentsInCourse", "courseEnrollmentStatistics",
+        "studentRegistrationStatistics", "queryPerformanceStatistics", "studentTranscript",
+        "academicStandingReport", "registrationAnalytics", "courseDemand", "cohortAudit",
+        "withoutRegistrations", "courseRecommendations", "registrationTrends",
+        "gradeDistributions"
+    };
+
     public StudentRegistrationApp() {
-        this.studentDAO = new StudentDAOImpl();
-        this.courseDAO = new CourseDAOImpl();
-        this.registrationDAO = new RegistrationDAOImpl();
+        this(new StudentDAOImpl(), new CourseDAOImpl(), new RegistrationDAOImpl());
+    }
+
+    private StudentRegistrationApp(StudentDAO studentDAO, CourseDAO courseDAO, RegistrationDAO registrationDAO) {
+        this.studentDAO = DaoInstrumentation.instrument(StudentDAO.class, studentDAO);
+        this.courseDAO = DaoInstrumentation.instrument(CourseDAO.class, courseDAO);
+        this.registrationDAO = DaoInstrumentation.instrument(RegistrationDAO.class, registrationDAO);
         this.scanner = new Scanner(System.in);
         this.dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     }
 
     public static void main(String[] args) {
-        StudentRegistrationApp app = new StudentRegistrationApp();
-        app.run();
+        if (args.length > 0 && "--server".equals(args[0])) {
+            createServerApp().runServer();
+        } else {
+            new StudentRegistrationApp().run();
+        }
+    }
+
+    /**
+     * Build the app for server mode
+     * Concurrent requests repeat the same by-id lookups, so unless dao.batch.enabled=false
+     * getStudentById/getCourseById are coalesced into IN-list queries
+     */
+    private static StudentRegistrationApp createServerApp() {
+        if (!AppConfig.getBoolean("dao.batch.enabled", true)) {
+            return new StudentRegistrationApp();
+        }
+        return new StudentRegistrationApp(new BatchingStudentDAO(new StudentDAOImpl()),
+                                          new BatchingCourseDAO(new CourseDAOImpl()),
+                                          new RegistrationDAOImpl());
+    }
+
+    /**
+     * Serve the DAOs over HTTP/JSON instead of the console menu
+     * Runs until the JVM is stopped; the shutdown hook drains in-flight requests
+     * and closes the connection pool
+     */
+    public void runServer() {
+        System.out.println("=== Student Course Registration System - API Server ===");
+
+        DatabaseConnection dbConn = DatabaseConnection.getInstance();
+        if (!dbConn.testConnection()) {
+            System.out.println("✗ Database connection failed! Please check your database configuration.");
+            return;
+        }
+        System.out.println("✓ Database connection successful!");
+        System.out.println("Connection Info: " + dbConn.getConnectionInfo());
+
+        MetricsServer.startIfEnabled();
+        loadRegistrationRules();
+        EnrollmentReconciler reconciler = new EnrollmentReconciler(registrationDAO);
+        reconciler.startIfEnabled();
+        CoEnrollmentJob coEnrollmentJob = new CoEnrollmentJob(registrationDAO);
+        coEnrollmentJob.startIfEnabled();
+
+        SeatHoldService seatHoldService = new SeatHoldService(registrationDAO);
+        seatHoldService.start();
+
+        ApiServer apiServer = new ApiServer(studentDAO, courseDAO, registrationDAO, seatHoldService);
+        int port = AppConfig.getInt("server.port", 8080);
+        try {
+            apiServer.start(port);
+        } catch (IOException e) {
+            System.err.println("Failed to start API server on port " + port + ": " + e.getMessage());
+            seatHoldService.stop();
+            coEnrollmentJob.stop();
+            reconciler.stop();
+            MetricsServer.stop();
+            dbConn.closeConnection();
+            return;
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("Shutting down API server...");
+            apiServer.stop(2);
+            seatHoldService.stop();
+            coEnrollmentJob.stop();
+            reconciler.stop();
+            MetricsServer.stop();
+            DatabaseConnection.getInstance().closeConnection();
+        }, "api-shutdown"));
+    }
+
+    /**
+     * Load every student's credit load, the prerequisite graph and the timetables in bulk so
+     * registrations check the credit limit, prerequisites and clashes without a query
+     */
+    private void loadRegistrationRules() {
+        int students = registrationDAO.rebuildCreditLoads();
+        if (students >= 0) {
+            int limit = registrationDAO.getCreditLimit();
+            System.out.println("Credit loads loaded for " + students + " student(s)"
+                + (limit > 0 ? " (limit " + limit + " credits)" : " (no credit limit)"));
+        }
+        int prerequisites = registrationDAO.rebuildPrerequisites();
+        if (prerequisites >= 0) {
+            System.out.println("Prerequisite graph loaded with " + prerequisites + " prerequisite(s)");
+        }
+        int timetables = registrationDAO.rebuildTimetables();
+        if (timetables >= 0) {
+            System.out.println("Timetables loaded for " + timetables + " student(s)"
+                + (registrationDAO.rejectsScheduleConflicts() ? " (clashes refused)" : " (clashes flagged)"));
+        }
     }
 
     public void run() {
@@ -49,6 +171,13 @@ public class StudentRegistrationApp {
             return;
         }
 
+        MetricsServer.startIfEnabled();
+        loadRegistrationRules();
+        EnrollmentReconciler reconciler = new EnrollmentReconciler(registrationDAO);
+        reconciler.startIfEnabled();
+        CoEnrollmentJob coEnrollmentJob = new CoEnrollmentJob(registrationDAO);
+        coEnrollmentJob.startIfEnabled();
+
         boolean running = true;
         while (running) {
             displayMainMenu();
@@ -77,6 +206,9 @@ public class StudentRegistrationApp {
         }
 
         scanner.close();
+        coEnrollmentJob.stop();
+        reconciler.stop();
+        MetricsServer.stop();
         DatabaseConnection.getInstance().closeConnection();
     }
 
@@ -155,6 +287,8 @@ public class StudentRegistrationApp {
             System.out.println("6. Search Courses by Instructor");
             System.out.println("7. Update Course");
             System.out.println("8. Delete Course");
+            System.out.println("9. Manage Prerequisites");
+            System.out.println("10. Set Meeting Times");
             System.out.println("0. Back to Main Menu");
             System.out.println("=".repeat(40));
 
@@ -185,6 +319,12 @@ public class StudentRegistrationApp {
                 case 8:
                     deleteCourse();
                     break;
+                case 9:
+                    managePrerequisites();
+                    break;
+                case 10:
+                    setMeetingTimes();
+                    break;
                 case 0:
                     back = true;
                     break;
@@ -205,6 +345,7 @@ public class StudentRegistrationApp {
             System.out.println("3. Update Grade");
             System.out.println("4. Update Registration Status");
             System.out.println("5. View All Registrations");
+            System.out.println("6. View Course Waitlist");
             System.out.println("0. Back to Main Menu");
             System.out.println("=".repeat(45));
 
@@ -226,6 +367,9 @@ public class StudentRegistrationApp {
                 case 5:
                     viewAllRegistrations();
                     break;
+                case 6:
+                    viewCourseWaitlist();
+                    break;
                 case 0:
                     back = true;
                     break;
@@ -245,11 +389,25 @@ public class StudentRegistrationApp {
             System.out.println("2. View Students in Course");
             System.out.println("3. Course Enrollment Statistics");
             System.out.println("4. Student Registration Statistics");
+            System.out.println("5. Query Performance Statistics");
+            System.out.println("6. Student Transcript and GPA");
+            System.out.println("7. Dean's List and Probation");
+            System.out.println("8. Registration Analytics");
+            System.out.println("9. Most-Requested Courses");
+            System.out.println("10. Cohort Audit");
+            System.out.println("11. Students and Courses Without Registrations");
+            System.out.println("12. Course Recommendations");
+            System.out.println("13. Registration and Enrollment Trends");
+            System.out.println("14. Grade Distributions");
             System.out.println("0. Back to Main Menu");
             System.out.println("=".repeat(40));
 
             int choice = getIntInput("Enter your choice: ");
 
+            // Spans the whole report in JFR so its DAO calls and statements can be attributed to it
+            ReportEvent reportEvent = new ReportEvent();
+            reportEvent.begin();
+
             switch (choice) {
                 case 1:
                     viewCoursesForStudent();
@@ -263,12 +421,50 @@ public class StudentRegistrationApp {
                 case 4:
                     studentRegistrationStatistics();
                     break;
+                case 5:
+                    queryPerformanceStatistics();
+                    break;
+                case 6:
+                    studentTranscript();
+                    break;
+                case 7:
+                    academicStandingReport();
+                    break;
+                case 8:
+                    registrationAnalytics();
+                    break;
+                case 9:
+                    courseDemand();
+                    break;
+                case 10:
+                    cohortAudit();
+                    break;
+                case 11:
+                    withoutRegistrations();
+                    break;
+                case 12:
+                    courseRecommendations();
+                    break;
+                case 13:
+                    registrationTrends();
+                    break;
+                case 14:
+                    gradeDistributions();
+                    break;
                 case 0:
                     back = true;
                     break;
                 default:
                     System.out.println("Invalid choice! Please try again.");
             }
+
+            if (choice >= 1 && choice <= 14) {
+                reportEvent.end();
+                if (reportEvent.shouldCommit()) {
+                    reportEvent.report = REPORT_NAMES[choice - 1];
+                    reportEvent.commit();
+                }
+            }
         }
     }
 
@@ -480,7 +676,18 @@ public class StudentRegistrationApp {
         System.out.print("Instructor: ");
         String instructor = scanner.nextLine().trim();
 
+        System.out.print("Capacity (blank or 0 for unlimited): ");
+        String capacityStr = scanner.nextLine().trim();
+
         Course course = new Course(courseCode, courseName, description, credits, instructor);
+        if (!capacityStr.isEmpty()) {
+            try {
+                int capacity = Integer.parseInt(capacityStr);
+                course.setCapacity(capacity > 0 ? capacity : null);
+            } catch (NumberFormatException e) {
+                System.out.println("⚠ Invalid capacity value. Course will be unlimited.");
+            }
+        }
 
         if (courseDAO.addCourse(course)) {
             System.out.println("✓ Course added successfully! ID: " + course.getCourseId());
@@ -622,8 +829,25 @@ public class StudentRegistrationApp {
             course.setInstructor(instructor);
         }
 
+        System.out.print("Capacity [" + (course.getCapacity() != null ? course.getCapacity() : "unlimited")
+                         + "] (0 for unlimited): ");
+        String capacityStr = scanner.nextLine().trim();
+        if (!capacityStr.isEmpty()) {
+            try {
+                int capacity = Integer.parseInt(capacityStr);
+                course.setCapacity(capacity > 0 ? capacity : null);
+            } catch (NumberFormatException e) {
+                System.out.println("⚠ Invalid capacity value. Keeping current value.");
+            }
+        }
+
         if (courseDAO.updateCourse(course)) {
             System.out.println("✓ Course updated successfully!");
+            // Seats opened by a higher capacity go to the waitlist
+            int promoted = registrationDAO.promoteFromWaitlist(courseId);
+            if (promoted > 0) {
+                System.out.println("✓ " + promoted + " student(s) promoted from the waitlist.");
+            }
         } else {
             System.out.println("✗ Failed to update course!");
         }
@@ -643,7 +867,7 @@ public class StudentRegistrationApp {
         displayCourseDetails(course);
 
         // Check enrollment count
-        int enrollmentCount = registrationDAO.getEnrollmentCount(courseId);
+        int enrollmentCount = course.getActiveEnrollment();
         if (enrollmentCount > 0) {
             System.out.println("⚠ Warning: This course has " + enrollmentCount + " enrolled students!");
         }
@@ -662,33 +886,141 @@ public class StudentRegistrationApp {
         }
     }
 
-    // ================== REGISTRATION MANAGEMENT METHODS ==================
-
-    private void registerStudentForCourse() {
-        System.out.println("\n--- Register Student for Course ---");
+    private void managePrerequisites() {
+        System.out.println("\n--- Manage Prerequisites ---");
+        int courseId = getIntInput("Enter Course ID: ");
 
-        int studentId = getIntInput("Enter Student ID: ");
-        Student student = studentDAO.getStudentById(studentId);
-        if (student == null) {
-            System.out.println("✗ Student not found!");
+        Course course = courseDAO.getCourseById(courseId);
+        if (course == null) {
+            System.out.println("✗ Course not found!");
             return;
         }
 
+        List<Course> prerequisites = courseDAO.getPrerequisites(courseId);
+        System.out.println("Prerequisites of " + course.getCourseCode() + ":");
+        if (prerequisites.isEmpty()) {
+            System.out.println("  (none)");
+        }
+        for (Course prerequisite : prerequisites) {
+            System.out.println("  " + prerequisite.getCourseId() + ". " + prerequisite.getCourseCode()
+                               + " - " + prerequisite.getCourseName());
+        }
+
+        System.out.print("Add (a), remove (r) or go back (Enter): ");
+        String action = scanner.nextLine().trim().toLowerCase();
+        if (action.equals("a")) {
+            int prerequisiteId = getIntInput("Enter prerequisite Course ID: ");
+            if (courseDAO.getCourseById(prerequisiteId) == null) {
+                System.out.println("✗ Course not found!");
+            } else if (courseDAO.addPrerequisite(courseId, prerequisiteId)) {
+                System.out.println("✓ Prerequisite added!");
+            } else {
+                System.out.println("✗ Failed to add prerequisite!");
+            }
+        } else if (action.equals("r")) {
+            int prerequisiteId = getIntInput("Enter prerequisite Course ID: ");
+            if (courseDAO.removePrerequisite(courseId, prerequisiteId)) {
+                System.out.println("✓ Prerequisite removed!");
+            } else {
+                System.out.println("✗ That course is not a prerequisite!");
+            }
+        }
+    }
+
+    private void setMeetingTimes() {
+        System.out.println("\n--- Set Meeting Times ---");
         int courseId = getIntInput("Enter Course ID: ");
+
         Course course = courseDAO.getCourseById(courseId);
         if (course == null) {
             System.out.println("✗ Course not found!");
             return;
         }
 
+        List<CourseMeeting> current = courseDAO.getMeetings(courseId);
+        System.out.println("Meeting times of " + course.getCourseCode() + ": "
+                           + (current.isEmpty() ? "(none)" : current.toString()));
+        System.out.print("New meeting times, e.g. MON 09:00-10:15, WED 09:00-10:15 (Enter to keep, - to clear): ");
+        String input = scanner.nextLine().trim();
+        if (input.isEmpty()) {
+            return;
+        }
+
+        List<CourseMeeting> meetings;
+        try {
+            meetings = CourseMeeting.parseList(courseId, input.equals("-") ? "" : input);
+        } catch (IllegalArgumentException e) {
+            System.out.println("✗ " + e.getMessage());
+            return;
+        }
+        if (courseDAO.setMeetings(courseId, meetings)) {
+            System.out.println("✓ Meeting times updated!");
+        } else {
+            System.out.println("✗ Failed to update meeting times!");
+        }
+    }
+
+    // ================== REGISTRATION MANAGEMENT METHODS ==================
+
+    private void registerStudentForCourse() {
+        System.out.println("\n--- Register Student for Course ---");
+
+        int studentId = getIntInput("Enter Student ID: ");
+        int courseId = getIntInput("Enter Course ID: ");
+        RegistrationContext context = findRegistrationContext(studentId, courseId);
+        if (context == null) {
+            return;
+        }
+        if (context.isRegistered()) {
+            System.out.println("✗ Student is already registered for this course!");
+            return;
+        }
+
+        Student student = context.getStudent();
+        Course course = context.getCourse();
+        int creditLimit = registrationDAO.getCreditLimit();
+        int creditLoad = registrationDAO.getCreditLoad(studentId);
+        if (creditLimit > 0 && creditLoad + course.getCredits() > creditLimit) {
+            System.out.println("✗ Credit limit reached! (" + creditLoad + " + " + course.getCredits()
+                               + " > " + creditLimit + " credits)");
+            return;
+        }
+        List<Integer> missing = registrationDAO.getMissingPrerequisites(studentId, courseId);
+        if (!missing.isEmpty()) {
+            System.out.println("✗ Missing prerequisites! Complete course ID(s) " + missing + " first.");
+            return;
+        }
+        List<Integer> clashes = registrationDAO.getScheduleConflicts(studentId, courseId);
+        if (!clashes.isEmpty()) {
+            if (registrationDAO.rejectsScheduleConflicts()) {
+                System.out.println("✗ Timetable conflict with course ID(s) " + clashes + "!");
+                return;
+            }
+            System.out.println("! Timetable conflict with course ID(s) " + clashes + ".");
+        }
+        Registration registration = new Registration(studentId, courseId);
+        if (course.isFull()) {
+            System.out.println("✗ Course is full! (" + course.getActiveEnrollment() + "/" + course.getCapacity() + ")");
+            System.out.print("Join the waitlist? (y/N): ");
+            String confirm = scanner.nextLine().trim().toLowerCase();
+            if (!confirm.equals("y") && !confirm.equals("yes")) {
+                registrationDAO.recordTurnedAway(courseId);
+                return;
+            }
+            registration.setStatus(Registration.RegistrationStatus.WAITLISTED);
+        }
         System.out.println("\nRegistering:");
         System.out.println("Student: " + student.getFullName() + " (" + student.getEmail() + ")");
         System.out.println("Course: " + course.getCourseCode() + " - " + course.getCourseName());
 
-        if (registrationDAO.registerStudentToCourse(studentId, courseId)) {
-            System.out.println("✓ Student registered successfully!");
-        } else {
+        // The context already ruled out an existing registration
+        if (!registrationDAO.addRegistration(registration)) {
             System.out.println("✗ Registration failed!");
+        } else if (registration.getStatus() == Registration.RegistrationStatus.WAITLISTED) {
+            System.out.println("✓ Student added to the waitlist at place "
+                               + registrationDAO.getPlaceInWaitlist(studentId, courseId) + "!");
+        } else {
+            System.out.println("✓ Student registered successfully!");
         }
     }
 
@@ -696,24 +1028,19 @@ public class StudentRegistrationApp {
         System.out.println("\n--- Drop Student from Course ---");
 
         int studentId = getIntInput("Enter Student ID: ");
-        Student student = studentDAO.getStudentById(studentId);
-        if (student == null) {
-            System.out.println("✗ Student not found!");
-            return;
-        }
-
         int courseId = getIntInput("Enter Course ID: ");
-        Course course = courseDAO.getCourseById(courseId);
-        if (course == null) {
-            System.out.println("✗ Course not found!");
+        RegistrationContext context = findRegistrationContext(studentId, courseId);
+        if (context == null) {
             return;
         }
-
-        if (!registrationDAO.isStudentRegisteredForCourse(studentId, courseId)) {
+        if (!context.isRegistered()) {
             System.out.println("✗ Student is not registered for this course!");
             return;
         }
 
+        Student student = context.getStudent();
+        Course course = context.getCourse();
+
         System.out.println("\nDropping:");
         System.out.println("Student: " + student.getFullName() + " (" + student.getEmail() + ")");
         System.out.println("Course: " + course.getCourseCode() + " - " + course.getCourseName());
@@ -736,24 +1063,19 @@ public class StudentRegistrationApp {
         System.out.println("\n--- Update Grade ---");
 
         int studentId = getIntInput("Enter Student ID: ");
-        Student student = studentDAO.getStudentById(studentId);
-        if (student == null) {
-            System.out.println("✗ Student not found!");
-            return;
-        }
-
         int courseId = getIntInput("Enter Course ID: ");
-        Course course = courseDAO.getCourseById(courseId);
-        if (course == null) {
-            System.out.println("✗ Course not found!");
+        RegistrationContext context = findRegistrationContext(studentId, courseId);
+        if (context == null) {
             return;
         }
-
-        if (!registrationDAO.isStudentRegisteredForCourse(studentId, courseId)) {
+        if (!context.isRegistered()) {
             System.out.println("✗ Student is not registered for this course!");
             return;
         }
 
+        Student student = context.getStudent();
+        Course course = context.getCourse();
+
         System.out.println("\nUpdating grade for:");
         System.out.println("Student: " + student.getFullName());
         System.out.println("Course: " + course.getCourseCode() + " - " + course.getCourseName());
@@ -773,16 +1095,21 @@ public class StudentRegistrationApp {
 
         int studentId = getIntInput("Enter Student ID: ");
         int courseId = getIntInput("Enter Course ID: ");
-
-        if (!registrationDAO.isStudentRegisteredForCourse(studentId, courseId)) {
+        RegistrationContext context = findRegistrationContext(studentId, courseId);
+        if (context == null) {
+            return;
+        }
+        if (!context.isRegistered()) {
             System.out.println("✗ Registration not found!");
             return;
         }
+        System.out.println("Current status: " + context.getRegistration().getStatus());
 
         System.out.println("\nSelect new status:");
         System.out.println("1. ACTIVE");
         System.out.println("2. DROPPED");
         System.out.println("3. COMPLETED");
+        System.out.println("4. WAITLISTED");
 
         int statusChoice = getIntInput("Enter choice: ");
         Registration.RegistrationStatus status;
@@ -797,6 +1124,9 @@ public class StudentRegistrationApp {
             case 3:
                 status = Registration.RegistrationStatus.COMPLETED;
                 break;
+            case 4:
+                status = Registration.RegistrationStatus.WAITLISTED;
+                break;
             default:
                 System.out.println("Invalid choice!");
                 return;
@@ -809,6 +1139,27 @@ public class StudentRegistrationApp {
         }
     }
 
+    /**
+     * Look up a student, a course and their registration with one query, reporting what is missing
+     * @return the context, or null if the student or course was not found
+     */
+    private RegistrationContext findRegistrationContext(int studentId, int courseId) {
+        RegistrationContext context = registrationDAO.getRegistrationContext(studentId, courseId);
+        if (context == null) {
+            System.out.println("✗ Lookup failed!");
+            return null;
+        }
+        if (!context.isStudentFound()) {
+            System.out.println("✗ Student not found!");
+            return null;
+        }
+        if (!context.isCourseFound()) {
+            System.out.println("✗ Course not found!");
+            return null;
+        }
+        return context;
+    }
+
     private void viewAllRegistrations() {
         System.out.println("\n--- All Registrations ---");
         List<Registration> registrations = registrationDAO.getAllRegistrations();
@@ -841,21 +1192,67 @@ public class StudentRegistrationApp {
         }
     }
 
+    private void viewCourseWaitlist() {
+        System.out.println("\n--- View Course Waitlist ---");
+        int courseId = getIntInput("Enter Course ID: ");
+
+        Course course = courseDAO.getCourseById(courseId);
+        if (course == null) {
+            System.out.println("✗ Course not found!");
+            return;
+        }
+
+        System.out.println("\nWaitlist for: " + course.getCourseCode() + " - " + course.getCourseName());
+
+        List<Registration> registrations = registrationDAO.getWaitlist(courseId);
+        if (registrations.isEmpty()) {
+            System.out.println("No students are waiting for this course.");
+            return;
+        }
+
+        System.out.printf("%-6s %-5s %-20s %-25s %-12s%n", 
+                         "Place", "ID", "Student Name", "Email", "Reg. Date");
+        System.out.println("-".repeat(72));
+
+        int place = 0;
+        for (Registration registration : registrations) {
+            Student student = registration.getStudent();
+            place++;
+            if (student != null) {
+                String date = registration.getRegistrationDate() != null ? 
+                    registration.getRegistrationDate().toLocalDate().toString() : "N/A";
+
+                System.out.printf("%-6d %-5d %-20s %-25s %-12s%n",
+                                place,
+                                student.getStudentId(),
+                                student.getFullName().length() > 20 ? 
+                                    student.getFullName().substring(0, 17) + "..." : student.getFullName(),
+                                student.getEmail().length() > 25 ? 
+                                    student.getEmail().substring(0, 22) + "..." : student.getEmail(),
+                                date);
+            }
+        }
+
+        System.out.println("\nTotal waiting: " + registrations.size());
+    }
+
     // ================== REPORTS METHODS ==================
 
     private void viewCoursesForStudent() {
         System.out.println("\n--- View Courses for Student ---");
         int studentId = getIntInput("Enter Student ID: ");
 
-        Student student = studentDAO.getStudentById(studentId);
-        if (student == null) {
+        // Student and registrations come back together
+        StudentProfile profile = registrationDAO.getStudentProfile(studentId);
+        if (profile == null) {
             System.out.println("✗ Student not found!");
             return;
         }
+        Student student = profile.getStudent();
 
         System.out.println("\nCourses for: " + student.getFullName() + " (" + student.getEmail() + ")");
 
-        List<Registration> registrations = registrationDAO.getCoursesForStudent(studentId);
+        List<Registration> registrations = profile.getRegistrations();
         if (registrations.isEmpty()) {
             System.out.println("No courses found for this student.");
             return;
@@ -884,6 +1281,7 @@ public class StudentRegistrationApp {
         }
 
         System.out.println("\nTotal registered courses: " + registrations.size());
+        System.out.println("Active credits: " + profile.getActiveCredits());
     }
 
     private void viewStudentsInCourse() {
@@ -932,7 +1330,13 @@ public class StudentRegistrationApp {
 
     private void courseEnrollmentStatistics() {
         System.out.println("\n--- Course Enrollment Statistics ---");
-        List<Course> courses = courseDAO.getAllCourses();
+        // Served from the report cache, which registration writes keep current
+        EnrollmentStatistics statistics = registrationDAO.getEnrollmentStatistics();
+        if (statistics == null) {
+            System.out.println("✗ Failed to load enrollment statistics!");
+            return;
+        }
+        List<EnrollmentStatistics.CourseCounts> courses = statistics.getCourses();
 
         if (courses.isEmpty()) {
             System.out.println("No courses found.");
@@ -943,8 +1347,8 @@ public class StudentRegistrationApp {
                          "Code", "Course Name", "Credits", "Enrolled");
         System.out.println("-".repeat(65));
 
-        for (Course course : courses) {
-            int enrollmentCount = registrationDAO.getEnrollmentCount(course.getCourseId());
+        for (EnrollmentStatistics.CourseCounts course : courses) {
+            int enrollmentCount = course.getActiveEnrollment();
 
             System.out.printf("%-10s %-25s %-10d %-15d%n",
                             course.getCourseCode(),
@@ -957,7 +1361,13 @@ public class StudentRegistrationApp {
 
     private void studentRegistrationStatistics() {
         System.out.println("\n--- Student Registration Statistics ---");
-        List<Student> students = studentDAO.getAllStudents();
+        // Served from the report cache, which registration writes keep current
+        EnrollmentStatistics statistics = registrationDAO.getEnrollmentStatistics();
+        if (statistics == null) {
+            System.out.println("✗ Failed to load enrollment statistics!");
+            return;
+        }
+        List<EnrollmentStatistics.StudentCounts> students = statistics.getStudents();
 
         if (students.isEmpty()) {
             System.out.println("No students found.");
@@ -968,8 +1378,8 @@ public class StudentRegistrationApp {
                          "ID", "Student Name", "Email", "Courses");
         System.out.println("-".repeat(70));
 
-        for (Student student : students) {
-            int registrationCount = registrationDAO.getRegistrationCount(student.getStudentId());
+        for (EnrollmentStatistics.StudentCounts student : students) {
+            int registrationCount = student.getActiveCourses();
 
             System.out.printf("%-5d %-20s %-25s %-15d%n",
                             student.getStudentId(),
@@ -981,6 +1391,432 @@ public class StudentRegistrationApp {
         }
     }
 
+    private void studentTranscript() {
+        System.out.println("\n--- Student Transcript and GPA ---");
+        int studentId = getIntInput("Enter Student ID: ");
+
+        Student student = studentDAO.getStudentById(studentId);
+        if (student == null) {
+            System.out.println("✗ Student not found!");
+            return;
+        }
+        Transcript transcript = registrationDAO.getTranscript(studentId);
+
+        System.out.println("\nTranscript for: " + student.getFullName() + " (" + student.getEmail() + ")");
+        if (transcript.getCourses().isEmpty()) {
+            System.out.println("No completed courses.");
+            return;
+        }
+
+        System.out.printf("%-10s %-25s %-8s %-6s%n", "Code", "Course Name", "Credits", "Grade");
+        System.out.println("-".repeat(52));
+        for (Registration registration : transcript.getCourses()) {
+            Course course = registration.getCourse();
+            System.out.printf("%-10s %-25s %-8d %-6s%n",
+                            course.getCourseCode(),
+                            course.getCourseName().length() > 25 ?
+                                course.getCourseName().substring(0, 22) + "..." : course.getCourseName(),
+                            course.getCredits(),
+                            registration.getGrade() != null ? registration.getGrade() : "N/A");
+        }
+
+        GpaSummary summary = transcript.getSummary();
+        System.out.println("\nGPA: " + (summary.hasGpa() ? String.format("%.2f", summary.getGpa()) : "N/A")
+                           + " over " + summary.getGpaCredits() + " graded credit(s)");
+        System.out.println("Credits earned: " + summary.getEarnedCredits());
+        System.out.println("Standing: " + summary.getStanding());
+    }
+
+    private void academicStandingReport() {
+        System.out.println("\n--- Dean's List and Probation ---");
+
+        // Every student's GPA in one pass; only names of the listed students are looked up
+        List<GpaSummary> summaries = registrationDAO.getGpaSummaries();
+        if (summaries == null) {
+            System.out.println("✗ Failed to compute GPAs!");
+            return;
+        }
+        List<GpaSummary> deansList = new ArrayList<>();
+        List<GpaSummary> probation = new ArrayList<>();
+        for (GpaSummary summary : summaries) {
+            if (summary.getStanding() == GpaSummary.Standing.DEANS_LIST) {
+                deansList.add(summary);
+            } else if (summary.getStanding() == GpaSummary.Standing.PROBATION) {
+                probation.add(summary);
+            }
+        }
+        int[] ids = new int[deansList.size() + probation.size()];
+        int i = 0;
+        for (GpaSummary summary : deansList) {
+            ids[i++] = summary.getStudentId();
+        }
+        for (GpaSummary summary : probation) {
+            ids[i++] = summary.getStudentId();
+        }
+        Map<Integer, Student> students = studentDAO.getStudentsByIds(ids);
+
+        printStandingList("Dean's List", deansList, students);
+        printStandingList("Academic Probation", probation, students);
+        System.out.println("\nStudents with a GPA: " + summaries.size());
+    }
+
+    private void printStandingList(String title, List<GpaSummary> summaries, Map<Integer, Student> students) {
+        System.out.println("\n" + title + " (" + summaries.size() + ")");
+        System.out.printf("%-5s %-25s %-6s %-8s%n", "ID", "Student Name", "GPA", "Credits");
+        System.out.println("-".repeat(47));
+        for (GpaSummary summary : summaries) {
+            Student student = students.get(summary.getStudentId());
+            System.out.printf("%-5d %-25s %-6.2f %-8d%n",
+                            summary.getStudentId(),
+                            student != null ? student.getFullName() : "N/A",
+                            summary.getGpa(),
+                            summary.getEarnedCredits());
+        }
+    }
+
+    private void registrationAnalytics() {
+        System.out.println("\n--- Registration Analytics ---");
+
+        // One consistent read of the three tables, then every aggregate in parallel in memory
+        ReportSnapshot snapshot = ReportSnapshot.load(DatabaseConnection.getInstance());
+        if (snapshot == null) {
+            System.out.println("✗ Failed to load registrations!");
+            return;
+        }
+        RegistrationReport report = new ReportEngine().compute(snapshot);
+        System.out.printf("%d students, %d courses, %d registrations (loaded in %.1f ms, aggregated in %.1f ms on %d threads)%n",
+                          snapshot.getStudentCount(), snapshot.getCourseCount(), snapshot.getRegistrationCount(),
+                          snapshot.getLoadNanos() / 1e6, report.getComputeNanos() / 1e6, report.getParallelism());
+
+        System.out.println("\nEnrollment per course");
+        System.out.printf("%-10s %-20s %-8s %-10s %-10s %-8s%n",
+                          "Code", "Instructor", "Active", "Waitlist", "Completed", "Dropped");
+        System.out.println("-".repeat(71));
+        for (int course = 0; course < report.getCourseCount(); course++) {
+            String instructor = report.getCourseInstructor(course);
+            System.out.printf("%-10s %-20s %-8d %-10d %-10d %-8d%n",
+                              report.getCourseCode(course),
+                              instructor.length() > 20 ? instructor.substring(0, 17) + "..." : instructor,
+                              report.getCourseCount(course, Registration.RegistrationStatus.ACTIVE),
+                              report.getCourseCount(course, Registration.RegistrationStatus.WAITLISTED),
+                              report.getCourseCount(course, Registration.RegistrationStatus.COMPLETED),
+                              report.getCourseCount(course, Registration.RegistrationStatus.DROPPED));
+        }
+
+        System.out.println("\nEnrollment per instructor");
+        System.out.printf("%-30s %-8s %-8s%n", "Instructor", "Courses", "Active");
+        System.out.println("-".repeat(48));
+        for (int instructor = 0; instructor < report.getInstructorCount(); instructor++) {
+            System.out.printf("%-30s %-8d %-8d%n", report.getInstructor(instructor),
+                              report.getInstructorCourseCount(instructor),
+                              report.getInstructorActiveEnrollment(instructor));
+        }
+
+        System.out.println("\nRegistrations by status");
+        for (Registration.RegistrationStatus status : Registration.RegistrationStatus.values()) {
+            System.out.printf("  %-12s %d%n", status, report.getStatusTotal(status));
+        }
+
+        System.out.println("\nGrade distribution (COMPLETED)");
+        for (Grade grade : Grade.values()) {
+            int count = report.getGradeCount(grade);
+            if (count > 0) {
+                System.out.printf("  %-4s %d%n", grade.getLabel(), count);
+            }
+        }
+        if (report.getGradeCount(null) > 0) {
+            System.out.printf("  %-4s %d%n", "N/A", report.getGradeCount(null));
+        }
+
+        long totalActiveCredits = 0;
+        int busiest = -1;
+        for (int student = 0; student < report.getStudentCount(); student++) {
+            totalActiveCredits += report.getActiveCredits(student);
+            if (busiest < 0 || report.getActiveCredits(student) > report.getActiveCredits(busiest)) {
+                busiest = student;
+            }
+        }
+        System.out.println("\nCredits per student");
+        if (busiest >= 0) {
+            System.out.printf("  Average active credits: %.1f%n", (double) totalActiveCredits / report.getStudentCount());
+            System.out.printf("  Highest active credits: %d (%s, ID %d)%n", report.getActiveCredits(busiest),
+                              report.getStudentName(busiest), report.getStudentId(busiest));
+        }
+    }
+
+    private void courseDemand() {
+        System.out.println("\n--- Most-Requested Courses ---");
+
+        // Counted in-process as requests arrive; only the course codes are looked up
+        List<RegistrationDemand.Window> windows = RegistrationDemand.getWindows();
+        List<Integer> ids = new ArrayList<>();
+        for (RegistrationDemand.Window window : windows) {
+            for (TopKSketch.Entry<Integer> entry : window.topCourses()) {
+                ids.add(entry.getKey());
+            }
+            for (TopKSketch.Entry<Integer> entry : window.topTurnedAway()) {
+                ids.add(entry.getKey());
+            }
+        }
+        int[] courseIds = new int[ids.size()];
+        for (int i = 0; i < courseIds.length; i++) {
+            courseIds[i] = ids.get(i);
+        }
+        Map<Integer, Course> courses = courseDAO.getCoursesByIds(courseIds);
+
+        System.out.println(windows.get(0).getRequestCount() + " request(s) since startup; counts decay with the"
+                           + " window's half-life");
+        for (RegistrationDemand.Window window : windows) {
+            System.out.println("\nLast " + window.getLabel() + " (half-life)");
+            printDemand("Requested", window.topCourses(), courses);
+            printDemand("Turned away (full)", window.topTurnedAway(), courses);
+
+            System.out.printf("  %-30s %-10s%n", "Instructor", "Requests");
+            for (TopKSketch.Entry<String> entry : window.topInstructors()) {
+                System.out.printf("  %-30s %-10.1f%n", entry.getKey(), entry.getCount());
+            }
+        }
+    }
+
+    private void printDemand(String title, List<TopKSketch.Entry<Integer>> entries, Map<Integer, Course> courses) {
+        System.out.printf("  %-10s %-25s %-10s%n", "Code", title, "Requests");
+        if (entries.isEmpty()) {
+            System.out.println("  (none)");
+        }
+        for (TopKSketch.Entry<Integer> entry : entries) {
+            Course course = courses.get(entry.getKey());
+            String name = course != null ? course.getCourseName() : "(course " + entry.getKey() + ")";
+            System.out.printf("  %-10s %-25s %-10.1f%n",
+                              course != null ? course.getCourseCode() : "-",
+                              name.length() > 25 ? name.substring(0, 22) + "..." : name,
+                              entry.getCount());
+        }
+    }
+
+    private void cohortAudit() {
+        System.out.println("\n--- Cohort Audit ---");
+        System.out.println("Course IDs are comma-separated; leave a line blank to skip it.");
+        int[] allOf = getIdListInput("Registered for all of: ");
+        int[] anyOf = getIdListInput("Registered for at least one of: ");
+        int[] noneOf = getIdListInput("Not registered for any of: ");
+        if (allOf.length == 0 && anyOf.length == 0 && noneOf.length == 0) {
+            System.out.println("No courses given.");
+            return;
+        }
+        System.out.print("Count only ACTIVE and COMPLETED registrations? (y/N): ");
+        String answer = scanner.nextLine().trim().toLowerCase();
+        Set<Registration.RegistrationStatus> statuses = answer.equals("y") || answer.equals("yes")
+            ? EnumSet.of(Registration.RegistrationStatus.ACTIVE, Registration.RegistrationStatus.COMPLETED)
+            : EnumSet.noneOf(Registration.RegistrationStatus.class);
+
+        // Set algebra over the in-process enrollment bitmaps; only the matching names are looked up
+        long start = System.nanoTime();
+        int[] studentIds = registrationDAO.findCohort(allOf, anyOf, noneOf, statuses);
+        long elapsed = System.nanoTime() - start;
+        if (studentIds == null) {
+            System.out.println("✗ Failed to load enrollment bitmaps!");
+            return;
+        }
+        System.out.printf("%d student(s) match (%.1f µs)%n", studentIds.length, elapsed / 1e3);
+        printStudentIds(studentIds);
+    }
+
+    private void withoutRegistrations() {
+        System.out.println("\n--- Students and Courses Without Registrations ---");
+
+        int[] studentIds = registrationDAO.getStudentsWithoutRegistrations();
+        int[] courseIds = registrationDAO.getCoursesWithoutRegistrations();
+        if (studentIds == null || courseIds == null) {
+            System.out.println("✗ Failed to load enrollment bitmaps!");
+            return;
+        }
+        System.out.println("\nStudents with no registrations (" + studentIds.length + ")");
+        printStudentIds(studentIds);
+
+        System.out.println("\nCourses with no registrations (" + courseIds.length + ")");
+        Map<Integer, Course> courses = courseDAO.getCoursesByIds(courseIds);
+        System.out.printf("%-5s %-10s %-30s%n", "ID", "Code", "Course Name");
+        System.out.println("-".repeat(47));
+        for (int courseId : courseIds) {
+            Course course = courses.get(courseId);
+            System.out.printf("%-5d %-10s %-30s%n", courseId,
+                              course != null ? course.getCourseCode() : "-",
+                              course != null ? course.getCourseName() : "N/A");
+        }
+    }
+
+    private void courseRecommendations() {
+        System.out.println("\n--- Course Recommendations ---");
+        int studentId = getIntInput("Enter Student ID: ");
+
+        // Answered from the co-enrollment matrix in memory; only the course names are looked up
+        List<CourseRecommendation> recommendations = registrationDAO.recommendCourses(studentId, 10);
+        if (recommendations == null) {
+            System.out.println("✗ The co-enrollment matrix has not been built yet!");
+            return;
+        }
+        if (recommendations.isEmpty()) {
+            System.out.println("No recommendations: the student has no active or completed courses"
+                               + " that others took together with other courses.");
+            return;
+        }
+        int[] courseIds = recommendations.stream().mapToInt(CourseRecommendation::getCourseId).toArray();
+        Map<Integer, Course> courses = courseDAO.getCoursesByIds(courseIds);
+        System.out.printf("%-10s %-30s %-8s %-14s%n", "Code", "Course Name", "Score", "Shared Courses");
+        System.out.println("-".repeat(65));
+        for (CourseRecommendation recommendation : recommendations) {
+            Course course = courses.get(recommendation.getCourseId());
+            System.out.printf("%-10s %-30s %-8d %-14d%n",
+                              course != null ? course.getCourseCode() : "-",
+                              course != null ? course.getCourseName() : "(course " + recommendation.getCourseId() + ")",
+                              recommendation.getScore(),
+                              recommendation.getSharedCourses());
+        }
+    }
+
+    private void registrationTrends() {
+        System.out.println("\n--- Registration and Enrollment Trends ---");
+        System.out.println("1. Per minute, last hour");
+        System.out.println("2. Per hour, last 2 days");
+        System.out.println("3. Per day, last 30 days");
+        System.out.println("4. Per term, last 3 years");
+        int choice = getIntInput("Enter your choice: ");
+
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from;
+        TimeBucket.Granularity granularity;
+        switch (choice) {
+            case 1:
+                granularity = TimeBucket.Granularity.MINUTE;
+                from = to.minusHours(1);
+                break;
+            case 2:
+                granularity = TimeBucket.Granularity.HOUR;
+                from = to.minusDays(2);
+                break;
+            case 3:
+                granularity = TimeBucket.Granularity.DAY;
+                from = to.minusDays(30);
+                break;
+            case 4:
+                granularity = TimeBucket.Granularity.TERM;
+                from = to.minusYears(3);
+                break;
+            default:
+                System.out.println("Invalid choice!");
+                return;
+        }
+
+        // Read from the in-process rollups; no query once they are loaded
+        List<TimeBucket> registrations =
+            registrationDAO.getTimeSeries(TimeBucket.Series.REGISTRATIONS, granularity, from, to);
+        List<TimeBucket> enrollments =
+            registrationDAO.getTimeSeries(TimeBucket.Series.ENROLLMENTS, granularity, from, to);
+        long totalRegistrations = registrationDAO.countInRange(TimeBucket.Series.REGISTRATIONS, from, to);
+        long totalEnrollments = registrationDAO.countInRange(TimeBucket.Series.ENROLLMENTS, from, to);
+        if (registrations == null || enrollments == null || totalRegistrations < 0 || totalEnrollments < 0) {
+            System.out.println("✗ Failed to load time series!");
+            return;
+        }
+
+        // One row per bucket that has either kind of event, in time order
+        Map<LocalDateTime, long[]> rows = new TreeMap<>();
+        Map<LocalDateTime, String> labels = new TreeMap<>();
+        for (TimeBucket bucket : registrations) {
+            rows.computeIfAbsent(bucket.getStart(), start -> new long[2])[0] = bucket.getCount();
+            labels.put(bucket.getStart(), bucket.getLabel());
+        }
+        for (TimeBucket bucket : enrollments) {
+            rows.computeIfAbsent(bucket.getStart(), start -> new long[2])[1] = bucket.getCount();
+            labels.put(bucket.getStart(), bucket.getLabel());
+        }
+        if (rows.isEmpty()) {
+            System.out.println("No registrations or new students in this period.");
+            return;
+        }
+        System.out.printf("%-18s %-15s %-12s%n", "Period", "Registrations", "New Students");
+        System.out.println("-".repeat(47));
+        for (Map.Entry<LocalDateTime, long[]> row : rows.entrySet()) {
+            System.out.printf("%-18s %-15d %-12d%n", labels.get(row.getKey()), row.getValue()[0], row.getValue()[1]);
+        }
+        System.out.println("-".repeat(47));
+        System.out.printf("%-18s %-15d %-12d%n", "Since " + from.toLocalDate(), totalRegistrations, totalEnrollments);
+    }
+
+    private void gradeDistributions() {
+        System.out.println("\n--- Grade Distributions ---");
+        System.out.println("1. Per course");
+        System.out.println("2. Per instructor");
+        int choice = getIntInput("Enter your choice: ");
+        if (choice != 1 && choice != 2) {
+            System.out.println("Invalid choice!");
+            return;
+        }
+
+        // Read from the in-process grade histograms; only the course names are looked up
+        List<GradeDistribution> distributions = choice == 1
+            ? registrationDAO.getGradeDistributions()
+            : registrationDAO.getInstructorGradeDistributions();
+        if (distributions == null) {
+            System.out.println("✗ Failed to load grade histograms!");
+            return;
+        }
+        if (distributions.isEmpty()) {
+            System.out.println("No registrations found.");
+            return;
+        }
+        Map<Integer, Course> courses = choice == 1
+            ? courseDAO.getCoursesByIds(distributions.stream().mapToInt(GradeDistribution::getCourseId).toArray())
+            : null;
+
+        System.out.printf("%-10s %-25s %-5s %-5s %-5s %-5s %-5s %-6s %-9s %-6s%n",
+                          choice == 1 ? "Code" : "Courses", choice == 1 ? "Course Name" : "Instructor",
+                          "A", "B", "C", "D", "F", "P/W/I", "Ungraded", "Avg");
+        System.out.println("-".repeat(92));
+        for (GradeDistribution distribution : distributions) {
+            // Letter grades are summed with their + and - variants
+            int[] letters = new int[6];
+            for (Grade grade : Grade.values()) {
+                int letter = "ABCDF".indexOf(grade.getLabel().charAt(0));
+                letters[letter >= 0 ? letter : 5] += distribution.getCount(grade);
+            }
+            String first;
+            String second;
+            if (choice == 1) {
+                Course course = courses.get(distribution.getCourseId());
+                first = course != null ? course.getCourseCode() : "-";
+                second = course != null ? course.getCourseName() : "(course " + distribution.getCourseId() + ")";
+            } else {
+                first = String.valueOf(distribution.getCourseCount());
+                second = distribution.getInstructor();
+            }
+            double average = distribution.getAverageGradePoints();
+            System.out.printf("%-10s %-25s %-5d %-5d %-5d %-5d %-5d %-6d %-9d %-6s%n",
+                              first, second.length() > 25 ? second.substring(0, 22) + "..." : second,
+                              letters[0], letters[1], letters[2], letters[3], letters[4], letters[5],
+                              distribution.getUngradedCount(),
+                              Double.isNaN(average) ? "-" : String.format("%.2f", average));
+        }
+    }
+
+    private void printStudentIds(int[] studentIds) {
+        Map<Integer, Student> students = studentDAO.getStudentsByIds(studentIds);
+        System.out.printf("%-5s %-25s %-30s%n", "ID", "Student Name", "Email");
+        System.out.println("-".repeat(62));
+        for (int studentId : studentIds) {
+            Student student = students.get(studentId);
+            System.out.printf("%-5d %-25s %-30s%n", studentId,
+                              student != null ? student.getFullName() : "N/A",
+                              student != null ? student.getEmail() : "N/A");
+        }
+    }
+
+    private void queryPerformanceStatistics() {
+        System.out.println("\n--- Query Performance Statistics ---");
+        System.out.printf("Slow query threshold: %d ms%n", QueryMetrics.getSlowQueryThresholdNanos() / 1_000_000);
+        QueryMetrics.printSummary(System.out);
+    }
+
     // ================== UTILITY METHODS ==================
 
     private void displayStudentDetails(Student student) {
@@ -1002,6 +1838,26 @@ public class StudentRegistrationApp {
         System.out.println("Credits: " + course.getCredits());
         System.out.println("Instructor: " + (course.getInstructor() != null ? course.getInstructor() : "TBA"));
         System.out.println("Created Date: " + (course.getCreatedDate() != null ? course.getCreatedDate() : "N/A"));
+        System.out.println("Enrolled: " + course.getActiveEnrollment()
+                           + (course.getCapacity() != null ? " / " + course.getCapacity() : ""));
+    }
+
+    private int[] getIdListInput(String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String input = scanner.nextLine().trim();
+            if (input.isEmpty()) {
+                return new int[0];
+            }
+            try {
+                return Arrays.stream(input.split(","))
+                             .map(String::trim)
+                             .mapToInt(Integer::parseInt)
+                             .toArray();
+            } catch (NumberFormatException e) {
+                System.out.println("Please enter numbers separated by commas.");
+            }
+        }
     }
 
     private int getIntInput(String prompt) {
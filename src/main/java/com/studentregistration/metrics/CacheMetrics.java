@@ -0,0 +1,34 @@
+package com.studentregistration.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of in-process cache statistics
+ */
+public final class CacheMetrics {
+
+    private static final Map<String, CacheStats> CACHES = new ConcurrentHashMap<>();
+
+    private CacheMetrics() {}
+
+    /**
+     * Register a cache (or return the already registered one with this name)
+     * @param cacheName metric-friendly cache name, e.g. student_gpa
+     * @param sizeSupplier supplier of the current entry count, may be null
+     * @return shared CacheStats instance
+     */
+    public static CacheStats register(String cacheName, LongSupplier sizeSupplier) {
+        return CACHES.computeIfAbsent(cacheName, name -> new CacheStats(name, sizeSupplier));
+    }
+
+    public static List<CacheStats> getAll() {
+        List<CacheStats> all = new ArrayList<>(CACHES.values());
+        all.sort(Comparator.comparing(CacheStats::getName));
+        return all;
+    }
+}
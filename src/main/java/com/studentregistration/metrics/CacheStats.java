@@ -0,0 +1,64 @@
+package com.studentregistration.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Hit/miss counters for an in-process cache, exported by the metrics endpoint
+ * Obtain instances through {@link CacheMetrics#register(String, LongSupplier)}
+ */
+public class CacheStats {
+
+    private final String name;
+    private final LongSupplier sizeSupplier;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    CacheStats(String name, LongSupplier sizeSupplier) {
+        this.name = name;
+        this.sizeSupplier = sizeSupplier;
+    }
+
+    public void recordHit() {
+        hits.getAndIncrement();
+    }
+
+    public void recordMiss() {
+        misses.getAndIncrement();
+    }
+
+    public void recordEviction() {
+        evictions.getAndIncrement();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getSize() {
+        return sizeSupplier != null ? sizeSupplier.getAsLong() : 0;
+    }
+
+    /**
+     * Get fraction of lookups that were hits
+     * @return hit ratio between 0 and 1, 0 if there were no lookups
+     */
+    public double getHitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+}
@@ -0,0 +1,95 @@
+package com.studentregistration.metrics;
+
+import com.studentregistration.metrics.jfr.DaoCallEvent;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps DAO implementations in a dynamic proxy that records per-method latency
+ * ({@link DaoMethodStats}) and emits a {@link DaoCallEvent} for every interface method call
+ */
+public final class DaoInstrumentation {
+
+    private static final Map<String, DaoMethodStats> METHOD_STATS = new ConcurrentHashMap<>();
+
+    private DaoInstrumentation() {}
+
+    /**
+     * Wrap a DAO so its calls are measured and visible in Java Flight Recorder
+     * @param daoInterface DAO interface, e.g. StudentDAO.class
+     * @param target implementation to delegate to
+     * @return instrumented DAO implementing the same interface
+     */
+    public static <T> T instrument(Class<T> daoInterface, T target) {
+        String daoName = daoInterface.getSimpleName();
+        Map<Method, DaoMethodStats> statsByMethod = new ConcurrentHashMap<>();
+        for (Method method : daoInterface.getMethods()) {
+            statsByMethod.put(method, METHOD_STATS.computeIfAbsent(daoName + "." + method.getName(),
+                key -> new DaoMethodStats(daoName, method.getName())));
+        }
+
+        InvocationHandler handler = (proxy, method, args) ->
+            invoke(daoName, target, method, args, statsByMethod.get(method));
+        return daoInterface.cast(Proxy.newProxyInstance(
+            daoInterface.getClassLoader(), new Class<?>[] {daoInterface}, handler));
+    }
+
+    /**
+     * Get statistics for every instrumented DAO method
+     * @return stats sorted by DAO and method name
+     */
+    public static List<DaoMethodStats> getMethodStats() {
+        List<DaoMethodStats> all = new ArrayList<>(METHOD_STATS.values());
+        all.sort(Comparator.comparing(DaoMethodStats::getDao).thenComparing(DaoMethodStats::getMethod));
+        return all;
+    }
+
+    private static Object invoke(String daoName, Object target, Method method, Object[] args,
+                                 DaoMethodStats stats) throws Throwable {
+        if (stats == null) {
+            return method.invoke(target, args);
+        }
+
+        DaoCallEvent event = new DaoCallEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            Object result = method.invoke(target, args);
+            event.rowCount = rowCount(result, method.getReturnType());
+            return result;
+        } catch (InvocationTargetException e) {
+            event.failed = true;
+            throw e.getCause();
+        } finally {
+            stats.record(System.nanoTime() - start, event.failed);
+            event.end();
+            if (event.shouldCommit()) {
+                event.dao = daoName;
+                event.method = method.getName();
+                event.commit();
+            }
+        }
+    }
+
+    private static int rowCount(Object result, Class<?> returnType) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Boolean) {
+            return (Boolean) result ? 1 : 0;
+        }
+        if (returnType == void.class || returnType == int.class || returnType == long.class) {
+            return -1;
+        }
+        return result != null ? 1 : 0;
+    }
+}
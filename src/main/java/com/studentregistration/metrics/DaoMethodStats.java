@@ -0,0 +1,43 @@
+package com.studentregistration.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency and error statistics for one DAO interface method
+ * Recorded by the proxy created in {@link DaoInstrumentation}
+ */
+public class DaoMethodStats {
+
+    private final String dao;
+    private final String method;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong errors = new AtomicLong();
+
+    DaoMethodStats(String dao, String method) {
+        this.dao = dao;
+        this.method = method;
+    }
+
+    void record(long elapsedNanos, boolean failed) {
+        latency.record(elapsedNanos);
+        if (failed) {
+            errors.getAndIncrement();
+        }
+    }
+
+    public String getDao() {
+        return dao;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+}
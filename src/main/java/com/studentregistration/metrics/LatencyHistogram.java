@@ -0,0 +1,165 @@
+package com.studentregistration.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe log-linear latency histogram for nanosecond values
+ * Each power of two is split into 16 linear sub-buckets (about 6% relative error),
+ * so recording is a couple of bit operations and one atomic increment with no allocation
+ */
+public class LatencyHistogram {
+
+    private static final int LINEAR_LIMIT = 32;
+    private static final int SUB_BUCKETS = 16;
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - 5) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Record a single latency value
+     * @param nanos elapsed time in nanoseconds (negative values are treated as zero)
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.getAndIncrement(bucketIndex(nanos));
+        totalNanos.getAndAdd(nanos);
+
+        long currentMax = maxNanos.get();
+        while (nanos > currentMax && !maxNanos.compareAndSet(currentMax, nanos)) {
+            currentMax = maxNanos.get();
+        }
+    }
+
+    /**
+     * Get number of recorded values
+     * Computed from the buckets so that recording needs one atomic increment fewer
+     * @return recorded value count
+     */
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += buckets.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Get sum of all recorded values
+     * @return total nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    /**
+     * Get largest recorded value
+     * @return maximum in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Get arithmetic mean of recorded values
+     * @return mean in nanoseconds, 0 if nothing was recorded
+     */
+    public double getMeanNanos() {
+        long n = getCount();
+        return n == 0 ? 0.0 : (double) totalNanos.get() / n;
+    }
+
+    /**
+     * Get value at the given percentile
+     * @param percentile percentile between 0 and 100
+     * @return upper bound of the bucket holding the percentile, capped at the largest recorded
+     *         value, in nanoseconds; at most about 6% above the exact value
+     */
+    public long getPercentile(double percentile) {
+        long n = getCount();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(n * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+        if (rank < 1) {
+            rank = 1;
+        }
+
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    /**
+     * Compute several percentiles in a single pass over the buckets
+     * Used by the metrics endpoint so a scrape costs one scan per histogram
+     * @param percentiles ascending percentiles between 0 and 100
+     * @param results receives the value for each percentile as {@link #getPercentile} computes
+     *        it, in nanoseconds
+     * @return number of values the percentiles were computed from
+     */
+    public long getPercentiles(double[] percentiles, long[] results) {
+        long[] counts = new long[BUCKET_COUNT];
+        long n = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            n += counts[i];
+        }
+
+        long max = maxNanos.get();
+        long seen = 0;
+        int bucket = -1;
+        for (int p = 0; p < percentiles.length; p++) {
+            if (n == 0) {
+                results[p] = 0;
+                continue;
+            }
+            long rank = Math.max(1, (long) Math.ceil(n * percentiles[p] / 100.0));
+            while (seen < rank && bucket < BUCKET_COUNT - 1) {
+                seen += counts[++bucket];
+            }
+            results[p] = Math.min(bucketUpperBound(Math.max(bucket, 0)), max);
+        }
+        return n;
+    }
+
+    /**
+     * Clear all recorded values
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) ((value >>> (exponent - 4)) & (SUB_BUCKETS - 1));
+        return LINEAR_LIMIT + (exponent - 5) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long bucketUpperBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int offset = index - LINEAR_LIMIT;
+        int exponent = offset / SUB_BUCKETS + 5;
+        long subBucket = offset % SUB_BUCKETS;
+        long width = 1L << (exponent - 4);
+        return ((SUB_BUCKETS + subBucket) * width) + width - 1;
+    }
+}
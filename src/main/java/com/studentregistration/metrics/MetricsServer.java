@@ -0,0 +1,92 @@
+package com.studentregistration.metrics;
+
+import com.studentregistration.util.AppConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * Optional embedded HTTP endpoint serving {@link PrometheusExporter} output
+ * Built on the JDK's com.sun.net.httpserver, so it adds no dependencies.
+ * Enabled with metrics.enabled=true in config.properties (metrics.port, metrics.path)
+ */
+public final class MetricsServer {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static HttpServer server;
+
+    private MetricsServer() {}
+
+    /**
+     * Start the endpoint if metrics.enabled is set
+     * @return true if the server is running after this call
+     */
+    public static synchronized boolean startIfEnabled() {
+        if (!AppConfig.getBoolean("metrics.enabled", false)) {
+            return false;
+        }
+        return start(AppConfig.getInt("metrics.port", 9404), AppConfig.getString("metrics.path", "/metrics"));
+    }
+
+    /**
+     * Start the endpoint
+     * @param port TCP port to listen on
+     * @param path URL path serving the metrics
+     * @return true if the server is running after this call
+     */
+    public static synchronized boolean start(int port, String path) {
+        if (server != null) {
+            return true;
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), 0);
+            server.createContext(path, MetricsServer::handle);
+            // Scrapes are cheap and infrequent; one thread keeps them off the application threads
+            server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics-http");
+                thread.setDaemon(true);
+                return thread;
+            }));
+            server.start();
+            System.out.println("Metrics endpoint listening on http://localhost:" + port + path);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to start metrics endpoint on port " + port + ": " + e.getMessage());
+            server = null;
+            return false;
+        }
+    }
+
+    /**
+     * Stop the endpoint if it is running
+     */
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = PrometheusExporter.render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
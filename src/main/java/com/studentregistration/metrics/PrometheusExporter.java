@@ -0,0 +1,233 @@
+package com.studentregistration.metrics;
+
+import com.studentregistration.util.DatabaseConnection;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+
+/**
+ * Renders all application metrics in the Prometheus text exposition format (version 0.0.4)
+ * Latency histograms are exported as summaries with fixed quantiles; each histogram is
+ * scanned once per scrape, so rendering stays well below a millisecond. A quantile is the upper
+ * bound of the histogram bucket holding it, so it may overstate the exact value by one bucket
+ * width (about 6%) but never understates it
+ */
+public final class PrometheusExporter {
+
+    private static final double[] QUANTILES = {50, 90, 99, 99.9};
+    private static final String[] QUANTILE_LABELS = {"0.5", "0.9", "0.99", "0.999"};
+
+    private PrometheusExporter() {}
+
+    /**
+     * Render the current value of every metric
+     * @return exposition text
+     */
+    public static String render() {
+        StringBuilder out = new StringBuilder(16 * 1024);
+        long[] quantileValues = new long[QUANTILES.length];
+
+        renderConnectionMetrics(out, quantileValues);
+        renderQueryMetrics(out, quantileValues);
+        renderDaoMetrics(out, quantileValues);
+        renderCacheMetrics(out);
+        renderDemandMetrics(out);
+        renderJvmMetrics(out);
+        return out.toString();
+    }
+
+    private static void renderConnectionMetrics(StringBuilder out, long[] quantileValues) {
+        DatabaseConnection db = DatabaseConnection.getInstance();
+
+        header(out, "registration_db_connection_acquisitions_total", "counter",
+               "Calls to DatabaseConnection.getConnection()");
+        sample(out, "registration_db_connection_acquisitions_total", null, db.getAcquisitionCount());
+
+        header(out, "registration_db_connections_opened_total", "counter",
+               "Physical JDBC connections opened");
+        sample(out, "registration_db_connections_opened_total", null, db.getConnectionsOpened());
+
+        header(out, "registration_db_connection_acquire_timeouts_total", "counter",
+               "getConnection() calls that timed out waiting for a pooled connection");
+        sample(out, "registration_db_connection_acquire_timeouts_total", null, db.getAcquireTimeouts());
+
+        header(out, "registration_db_connection_acquire_seconds", "summary",
+               "Time spent obtaining a JDBC connection");
+        summary(out, "registration_db_connection_acquire_seconds", null, db.getAcquireLatency(), quantileValues);
+
+        header(out, "registration_db_pool_connections", "gauge", "Pooled connections by state");
+        sample(out, "registration_db_pool_connections", label("state", "active"), db.getActiveConnections());
+        sample(out, "registration_db_pool_connections", label("state", "idle"), db.getIdleConnections());
+        sample(out, "registration_db_pool_connections", label("state", "open"), db.getOpenConnections());
+
+        header(out, "registration_db_pool_max_connections", "gauge", "Configured pool size (db.pool.maxActive)");
+        sample(out, "registration_db_pool_max_connections", null, db.getMaxConnections());
+
+        header(out, "registration_db_pool_waiting_threads", "gauge", "Threads waiting for a pooled connection");
+        sample(out, "registration_db_pool_waiting_threads", null, db.getWaitingThreads());
+    }
+
+    private static void renderQueryMetrics(StringBuilder out, long[] quantileValues) {
+        header(out, "registration_query_duration_seconds", "summary",
+               "Execution plus mapping time per DAO SQL statement");
+        for (QueryStats stats : QueryMetrics.getAll()) {
+            summary(out, "registration_query_duration_seconds", label("statement", stats.getName()),
+                    stats.getLatency(), quantileValues);
+        }
+
+        header(out, "registration_query_rows_total", "counter", "Rows returned or affected per statement");
+        for (QueryStats stats : QueryMetrics.getAll()) {
+            sample(out, "registration_query_rows_total", label("statement", stats.getName()), stats.getRows());
+        }
+
+        header(out, "registration_query_errors_total", "counter", "Failed executions per statement");
+        for (QueryStats stats : QueryMetrics.getAll()) {
+            sample(out, "registration_query_errors_total", label("statement", stats.getName()), stats.getErrors());
+        }
+
+        header(out, "registration_query_slow_total", "counter", "Executions above the slow-query threshold");
+        for (QueryStats stats : QueryMetrics.getAll()) {
+            sample(out, "registration_query_slow_total", label("statement", stats.getName()), stats.getSlowCount());
+        }
+    }
+
+    private static void renderDaoMetrics(StringBuilder out, long[] quantileValues) {
+        header(out, "registration_dao_call_duration_seconds", "summary",
+               "Latency per DAO method; rate of _count gives throughput");
+        for (DaoMethodStats stats : DaoInstrumentation.getMethodStats()) {
+            String labels = label("dao", stats.getDao()) + "," + label("method", stats.getMethod());
+            summary(out, "registration_dao_call_duration_seconds", labels, stats.getLatency(), quantileValues);
+        }
+
+        header(out, "registration_dao_call_errors_total", "counter", "DAO method calls that threw");
+        for (DaoMethodStats stats : DaoInstrumentation.getMethodStats()) {
+            String labels = label("dao", stats.getDao()) + "," + label("method", stats.getMethod());
+            sample(out, "registration_dao_call_errors_total", labels, stats.getErrors());
+        }
+    }
+
+    private static void renderCacheMetrics(StringBuilder out) {
+        header(out, "registration_cache_hits_total", "counter", "Cache hits");
+        for (CacheStats cache : CacheMetrics.getAll()) {
+            sample(out, "registration_cache_hits_total", label("cache", cache.getName()), cache.getHits());
+        }
+        header(out, "registration_cache_misses_total", "counter", "Cache misses");
+        for (CacheStats cache : CacheMetrics.getAll()) {
+            sample(out, "registration_cache_misses_total", label("cache", cache.getName()), cache.getMisses());
+        }
+        header(out, "registration_cache_evictions_total", "counter", "Cache evictions or invalidations");
+        for (CacheStats cache : CacheMetrics.getAll()) {
+            sample(out, "registration_cache_evictions_total", label("cache", cache.getName()), cache.getEvictions());
+        }
+        header(out, "registration_cache_hit_ratio", "gauge", "Hits divided by lookups since startup");
+        for (CacheStats cache : CacheMetrics.getAll()) {
+            sample(out, "registration_cache_hit_ratio", label("cache", cache.getName()), cache.getHitRatio());
+        }
+        header(out, "registration_cache_entries", "gauge", "Current number of cached entries");
+        for (CacheStats cache : CacheMetrics.getAll()) {
+            sample(out, "registration_cache_entries", label("cache", cache.getName()), cache.getSize());
+        }
+    }
+
+    private static void renderDemandMetrics(StringBuilder out) {
+        List<RegistrationDemand.Window> windows = RegistrationDemand.getWindows();
+
+        header(out, "registration_demand_requests_total", "counter", "Registration requests counted for demand");
+        sample(out, "registration_demand_requests_total", null, windows.get(0).getRequestCount());
+
+        header(out, "registration_course_demand", "gauge",
+               "Time-decayed registration requests of the most requested courses, by half-life window");
+        for (RegistrationDemand.Window window : windows) {
+            for (TopKSketch.Entry<Integer> entry : window.topCourses()) {
+                String labels = label("window", window.getLabel()) + "," + label("course_id", entry.getKey().toString());
+                sample(out, "registration_course_demand", labels, entry.getCount());
+            }
+        }
+        header(out, "registration_course_turned_away", "gauge",
+               "Time-decayed requests that found the course full, for the most affected courses");
+        for (RegistrationDemand.Window window : windows) {
+            for (TopKSketch.Entry<Integer> entry : window.topTurnedAway()) {
+                String labels = label("window", window.getLabel()) + "," + label("course_id", entry.getKey().toString());
+                sample(out, "registration_course_turned_away", labels, entry.getCount());
+            }
+        }
+        header(out, "registration_instructor_demand", "gauge",
+               "Time-decayed registration requests for the courses of the most requested instructors");
+        for (RegistrationDemand.Window window : windows) {
+            for (TopKSketch.Entry<String> entry : window.topInstructors()) {
+                String labels = label("window", window.getLabel()) + "," + label("instructor", entry.getKey());
+                sample(out, "registration_instructor_demand", labels, entry.getCount());
+            }
+        }
+    }
+
+    private static void renderJvmMetrics(StringBuilder out) {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        MemoryUsage nonHeap = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+
+        header(out, "jvm_memory_used_bytes", "gauge", "Used JVM memory");
+        sample(out, "jvm_memory_used_bytes", label("area", "heap"), heap.getUsed());
+        sample(out, "jvm_memory_used_bytes", label("area", "nonheap"), nonHeap.getUsed());
+
+        header(out, "jvm_memory_committed_bytes", "gauge", "Committed JVM memory");
+        sample(out, "jvm_memory_committed_bytes", label("area", "heap"), heap.getCommitted());
+        sample(out, "jvm_memory_committed_bytes", label("area", "nonheap"), nonHeap.getCommitted());
+
+        header(out, "jvm_memory_max_bytes", "gauge", "Maximum JVM memory (-1 if undefined)");
+        sample(out, "jvm_memory_max_bytes", label("area", "heap"), heap.getMax());
+        sample(out, "jvm_memory_max_bytes", label("area", "nonheap"), nonHeap.getMax());
+
+        header(out, "jvm_gc_collection_seconds", "summary", "Time spent in garbage collection");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            String labels = label("gc", gc.getName());
+            sample(out, "jvm_gc_collection_seconds_count", labels, gc.getCollectionCount());
+            sample(out, "jvm_gc_collection_seconds_sum", labels, gc.getCollectionTime() / 1000.0);
+        }
+
+        header(out, "jvm_threads_live", "gauge", "Live JVM threads");
+        sample(out, "jvm_threads_live", null, ManagementFactory.getThreadMXBean().getThreadCount());
+
+        header(out, "process_uptime_seconds", "gauge", "JVM uptime");
+        sample(out, "process_uptime_seconds", null, ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0);
+    }
+
+    private static void summary(StringBuilder out, String name, String labels,
+                                LatencyHistogram histogram, long[] quantileValues) {
+        long count = histogram.getPercentiles(QUANTILES, quantileValues);
+        String prefix = labels != null ? labels + "," : "";
+        for (int i = 0; i < QUANTILES.length; i++) {
+            sample(out, name, prefix + "quantile=\"" + QUANTILE_LABELS[i] + "\"", quantileValues[i] / 1e9);
+        }
+        sample(out, name + "_sum", labels, histogram.getTotalNanos() / 1e9);
+        sample(out, name + "_count", labels, count);
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, long value) {
+        appendName(out, name, labels);
+        out.append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        appendName(out, name, labels);
+        out.append(value).append('\n');
+    }
+
+    private static void appendName(StringBuilder out, String name, String labels) {
+        out.append(name);
+        if (labels != null) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+    }
+
+    private static String label(String name, String value) {
+        return name + "=\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+}
@@ -0,0 +1,79 @@
+package com.studentregistration.metrics;
+
+import com.studentregistration.util.AppConfig;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of per-statement execution statistics for the DAO layer
+ * The slow-query threshold defaults to 250 ms and can be changed with slowquery.threshold.ms
+ * in config.properties (or -D) or at runtime through {@link #setSlowQueryThresholdMillis(long)}
+ */
+public final class QueryMetrics {
+
+    private static final Map<String, QueryStats> STATEMENTS = new ConcurrentHashMap<>();
+
+    private static volatile long slowQueryThresholdNanos =
+        TimeUnit.MILLISECONDS.toNanos(AppConfig.getLong("slowquery.threshold.ms", 250L));
+
+    private QueryMetrics() {}
+
+    /**
+     * Get (or create) the statistics holder for a SQL statement
+     * @param statementName name of the SQL constant, e.g. SELECT_STUDENTS_FOR_COURSE
+     * @return shared QueryStats instance for that statement
+     */
+    public static QueryStats forStatement(String statementName) {
+        return STATEMENTS.computeIfAbsent(statementName, QueryStats::new);
+    }
+
+    /**
+     * Get statistics for all registered statements
+     * @return statements sorted by name
+     */
+    public static List<QueryStats> getAll() {
+        List<QueryStats> all = new ArrayList<>(STATEMENTS.values());
+        all.sort(Comparator.comparing(QueryStats::getName));
+        return all;
+    }
+
+    public static long getSlowQueryThresholdNanos() {
+        return slowQueryThresholdNanos;
+    }
+
+    public static void setSlowQueryThresholdMillis(long millis) {
+        slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * Print a per-statement summary table
+     * @param out stream to print to
+     */
+    public static void printSummary(PrintStream out) {
+        out.printf("%-30s %8s %9s %9s %9s %9s %6s %6s%n",
+                   "Statement", "Count", "Rows", "p50(ms)", "p99(ms)", "Max(ms)", "Slow", "Errors");
+        out.println("-".repeat(95));
+
+        for (QueryStats stats : getAll()) {
+            if (stats.getCount() == 0 && stats.getErrors() == 0) {
+                continue;
+            }
+            LatencyHistogram latency = stats.getLatency();
+            out.printf("%-30s %8d %9d %9.2f %9.2f %9.2f %6d %6d%n",
+                       stats.getName(),
+                       stats.getCount(),
+                       stats.getRows(),
+                       latency.getPercentile(50) / 1e6,
+                       latency.getPercentile(99) / 1e6,
+                       latency.getMaxNanos() / 1e6,
+                       stats.getSlowCount(),
+                       stats.getErrors());
+        }
+    }
+}
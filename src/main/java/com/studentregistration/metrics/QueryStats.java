@@ -0,0 +1,109 @@
+package com.studentregistration.metrics;
+
+import com.studentregistration.metrics.jfr.ResultSetMappingEvent;
+import com.studentregistration.metrics.jfr.StatementExecutionEvent;
+import jdk.jfr.EventType;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Execution statistics for one SQL statement, keyed by the name of its SQL constant
+ * Instances are created once through {@link QueryMetrics#forStatement(String)} and held in
+ * static fields, so recording an execution never allocates
+ */
+public class QueryStats {
+
+    // Checked before creating events so nothing is allocated while JFR is not recording
+    private static final EventType STATEMENT_EVENT = EventType.getEventType(StatementExecutionEvent.class);
+    private static final EventType MAPPING_EVENT = EventType.getEventType(ResultSetMappingEvent.class);
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong slowCount = new AtomicLong();
+
+    QueryStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Record a completed update or a query without a separate mapping phase
+     * @param startNanos System.nanoTime() taken before the statement was executed
+     * @param rowCount rows returned (queries) or affected (updates)
+     * @return true if the execution exceeded the slow-query threshold and should be logged
+     */
+    public boolean record(long startNanos, int rowCount) {
+        long now = System.nanoTime();
+        return record(startNanos, now, now, rowCount);
+    }
+
+    /**
+     * Record a completed query whose ResultSet was mapped to model objects
+     * @param startNanos System.nanoTime() taken before the statement was executed
+     * @param executedNanos System.nanoTime() taken once executeQuery() returned
+     * @param rowCount rows returned
+     * @return true if the execution exceeded the slow-query threshold and should be logged
+     */
+    public boolean record(long startNanos, long executedNanos, int rowCount) {
+        return record(startNanos, executedNanos, System.nanoTime(), rowCount);
+    }
+
+    private boolean record(long startNanos, long executedNanos, long endNanos, int rowCount) {
+        long elapsed = endNanos - startNanos;
+        latency.record(elapsed);
+        rows.getAndAdd(rowCount);
+
+        if (STATEMENT_EVENT.isEnabled()) {
+            StatementExecutionEvent event = new StatementExecutionEvent();
+            event.sqlId = name;
+            event.rowCount = rowCount;
+            event.executionTime = executedNanos - startNanos;
+            event.commit();
+        }
+        if (endNanos > executedNanos && MAPPING_EVENT.isEnabled()) {
+            ResultSetMappingEvent event = new ResultSetMappingEvent();
+            event.sqlId = name;
+            event.rowCount = rowCount;
+            event.mappingTime = endNanos - executedNanos;
+            event.commit();
+        }
+
+        if (elapsed >= QueryMetrics.getSlowQueryThresholdNanos()) {
+            slowCount.getAndIncrement();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Record a failed execution (SQLException)
+     */
+    public void recordError() {
+        errors.getAndIncrement();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    public long getRows() {
+        return rows.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    public long getSlowCount() {
+        return slowCount.get();
+    }
+}
@@ -0,0 +1,186 @@
+package com.studentregistration.metrics;
+
+import com.studentregistration.util.AppConfig;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Live top-K of the most requested courses and instructors
+ * Every registration request is counted when it reaches RegistrationDAOImpl (addRegistration,
+ * or addHeldRegistration at seat hold checkout), whether it gets a seat, joins a waitlist or is
+ * refused because the course is full. Requests the console, the API or a seat hold refuse as
+ * full before reaching the DAO are reported through RegistrationDAO.recordTurnedAway. Each request
+ * goes into {@link TopKSketch}es per time window (demand.window.short.halfLifeSeconds and
+ * demand.window.long.halfLifeSeconds), so the view costs a few counter updates per request
+ * and no query, and recent demand outweighs old demand. Each sketch counts up to
+ * demand.counters keys; demand.topK of them are reported.
+ *
+ * A request thread only appends the request to a lock-free queue, so concurrent registrations
+ * never wait on the sketches' monitors. The queue is drained into the sketches by whoever reads
+ * them, or, once more than demand.maxPending requests are queued, by the request thread that
+ * finds the drain free; no request thread ever waits for a drain, and a drain only applies the
+ * requests queued when it started. Each request keeps the time it arrived, so draining late does
+ * not change its decayed weight
+ */
+public final class RegistrationDemand {
+
+    private static final int TOP_K = Math.max(1, AppConfig.getInt("demand.topK", 10));
+    private static final int COUNTERS = Math.max(TOP_K, AppConfig.getInt("demand.counters", 100));
+
+    private static final int MAX_PENDING = Math.max(1, AppConfig.getInt("demand.maxPending", 1024));
+
+    // Request threads only ever append here
+    private static final ConcurrentLinkedQueue<Request> PENDING = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger PENDING_COUNT = new AtomicInteger();
+    private static final ReentrantLock DRAIN_LOCK = new ReentrantLock();
+
+    private static final List<Window> WINDOWS = Collections.unmodifiableList(Arrays.asList(
+        new Window(AppConfig.getLong("demand.window.short.halfLifeSeconds", 300)),
+        new Window(AppConfig.getLong("demand.window.long.halfLifeSeconds", 3600))));
+
+    private RegistrationDemand() {}
+
+    /**
+     * Count a registration request
+     * @param instructor the course's instructor, null if not known
+     * @param turnedAway true if the course was full: the request was refused or waitlisted
+     */
+    public static void recordRequest(int courseId, String instructor, boolean turnedAway) {
+        PENDING.add(new Request(courseId, instructor, turnedAway, System.nanoTime()));
+        if (PENDING_COUNT.incrementAndGet() > MAX_PENDING && DRAIN_LOCK.tryLock()) {
+            try {
+                drainPending();
+            } finally {
+                DRAIN_LOCK.unlock();
+            }
+        }
+    }
+
+    /**
+     * Apply queued requests to the sketches before they are read
+     */
+    private static void drain() {
+        if (PENDING_COUNT.get() == 0) {
+            return;
+        }
+        DRAIN_LOCK.lock();
+        try {
+            drainPending();
+        } finally {
+            DRAIN_LOCK.unlock();
+        }
+    }
+
+    // Caller holds DRAIN_LOCK, so the sketch monitors are never contended. Only the requests
+    // queued when the drain starts are applied: under a steady stream the queue may never empty,
+    // and the thread holding the lock, often a request thread, must not be kept draining forever
+    private static void drainPending() {
+        int batch = PENDING_COUNT.get();
+        Request request;
+        while (batch-- > 0 && (request = PENDING.poll()) != null) {
+            PENDING_COUNT.decrementAndGet();
+            for (Window window : WINDOWS) {
+                window.requested.add(request.courseId, request.atNanos);
+                if (request.turnedAway) {
+                    window.turnedAway.add(request.courseId, request.atNanos);
+                }
+                if (request.instructor != null) {
+                    window.instructors.add(request.instructor, request.atNanos);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the tracked time windows, shortest half-life first
+     */
+    public static List<Window> getWindows() {
+        return WINDOWS;
+    }
+
+    public static int getTopK() {
+        return TOP_K;
+    }
+
+    /**
+     * Sketches for one half-life
+     */
+    public static final class Window {
+        private final long halfLifeSeconds;
+        private final TopKSketch<Integer> requested;
+        private final TopKSketch<Integer> turnedAway;
+        private final TopKSketch<String> instructors;
+
+        Window(long halfLifeSeconds) {
+            this.halfLifeSeconds = halfLifeSeconds;
+            long halfLifeNanos = TimeUnit.SECONDS.toNanos(halfLifeSeconds);
+            this.requested = new TopKSketch<>(COUNTERS, halfLifeNanos);
+            this.turnedAway = new TopKSketch<>(COUNTERS, halfLifeNanos);
+            this.instructors = new TopKSketch<>(COUNTERS, halfLifeNanos);
+        }
+
+        public long getHalfLifeSeconds() {
+            return halfLifeSeconds;
+        }
+
+        /**
+         * Get a short label for the window, e.g. 5m or 1h
+         */
+        public String getLabel() {
+            if (halfLifeSeconds % 3600 == 0 && halfLifeSeconds > 0) {
+                return halfLifeSeconds / 3600 + "h";
+            }
+            if (halfLifeSeconds % 60 == 0 && halfLifeSeconds > 0) {
+                return halfLifeSeconds / 60 + "m";
+            }
+            return halfLifeSeconds + "s";
+        }
+
+        // Course IDs with the most requests
+        public List<TopKSketch.Entry<Integer>> topCourses() {
+            drain();
+            return requested.top(TOP_K);
+        }
+
+        // Course IDs with the most requests that found the course full
+        public List<TopKSketch.Entry<Integer>> topTurnedAway() {
+            drain();
+            return turnedAway.top(TOP_K);
+        }
+
+        // Instructors whose courses have the most requests
+        public List<TopKSketch.Entry<String>> topInstructors() {
+            drain();
+            return instructors.top(TOP_K);
+        }
+
+        // Requests counted since startup, without decay
+        public long getRequestCount() {
+            drain();
+            return requested.getEventCount();
+        }
+    }
+
+    /**
+     * One registration request waiting to be counted
+     */
+    private static final class Request {
+        final int courseId;
+        final String instructor;
+        final boolean turnedAway;
+        final long atNanos;
+
+        Request(int courseId, String instructor, boolean turnedAway, long atNanos) {
+            this.courseId = courseId;
+            this.instructor = instructor;
+            this.turnedAway = turnedAway;
+            this.atNanos = atNanos;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.studentregistration.metrics;
+
+import com.studentregistration.util.AppConfig;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Append-only log of statements that exceeded the slow-query threshold
+ * Entries go to the file named by slowquery.log.file (default slow-query.log);
+ * if the file cannot be written they are printed to System.err instead
+ */
+public final class SlowQueryLog {
+
+    private static final String LOG_FILE = AppConfig.getString("slowquery.log.file", "slow-query.log");
+
+    private static PrintWriter writer;
+    private static boolean fileUnavailable;
+
+    private SlowQueryLog() {}
+
+    /**
+     * Write a slow-query entry
+     * Only called on the slow path, so boxing the bound parameters here is acceptable
+     * @param stats statement that was slow
+     * @param startNanos System.nanoTime() taken before execution
+     * @param rowCount rows returned or affected
+     * @param parameters bound parameter values in placeholder order
+     */
+    public static void log(QueryStats stats, long startNanos, int rowCount, Object... parameters) {
+        double elapsedMs = (System.nanoTime() - startNanos) / 1e6;
+        String entry = String.format("%s %s elapsed=%.2fms rows=%d params=%s",
+                                     LocalDateTime.now(), stats.getName(), elapsedMs, rowCount,
+                                     Arrays.toString(parameters));
+        write(entry);
+    }
+
+    private static synchronized void write(String entry) {
+        if (writer == null && !fileUnavailable) {
+            try {
+                writer = new PrintWriter(new FileWriter(LOG_FILE, true), true);
+            } catch (IOException e) {
+                fileUnavailable = true;
+                System.err.println("Cannot open slow query log " + LOG_FILE + ": " + e.getMessage());
+            }
+        }
+
+        if (writer != null) {
+            writer.println(entry);
+        } else {
+            System.err.println("SLOW QUERY " + entry);
+        }
+    }
+}
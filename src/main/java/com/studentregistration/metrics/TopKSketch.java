@@ -0,0 +1,191 @@
+package com.studentregistration.metrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thread-safe Space-Saving heavy-hitter sketch with exponential time decay
+ * At most a fixed number of keys are counted. A key that is not counted replaces the one with
+ * the lowest count and inherits that count as its possible overestimate, so memory stays
+ * constant whatever the number of distinct keys, and every key whose share of the traffic is
+ * above 1 / capacity is guaranteed to be counted.
+ *
+ * Counts decay with a half-life using forward decay: an event at time t adds
+ * 2^((t - landmark) / halfLife) rather than 1, and reads divide by the same factor for now.
+ * Decay therefore never touches the counters, and since it scales all counts alike it never
+ * reorders them. The counters are kept sorted by count, highest first, so an update moves one
+ * counter a few places and reading the top K copies the first K
+ */
+public class TopKSketch<K> {
+
+    // Past this weight the counters are rescaled so they stay far from overflow
+    private static final double RESCALE_WEIGHT = 0x1p40;
+
+    private final int capacity;
+    private final double decayPerNano;
+
+    private final Object[] keys;
+    private final double[] counts;
+    private final double[] errors;
+    private final Map<K, Integer> positions;
+    private int size;
+    private long landmarkNanos;
+    private long events;
+
+    /**
+     * Create a sketch
+     * @param capacity keys counted at once, typically a few times the K that will be read
+     * @param halfLifeNanos time for a count to halve, 0 or less for no decay
+     */
+    public TopKSketch(int capacity, long halfLifeNanos) {
+        this.capacity = Math.max(1, capacity);
+        this.decayPerNano = halfLifeNanos > 0 ? 1.0 / halfLifeNanos : 0;
+        this.keys = new Object[this.capacity];
+        this.counts = new double[this.capacity];
+        this.errors = new double[this.capacity];
+        this.positions = new HashMap<>(this.capacity * 2);
+        this.landmarkNanos = System.nanoTime();
+    }
+
+    /**
+     * Count one occurrence of a key now
+     */
+    public void add(K key) {
+        add(key, System.nanoTime());
+    }
+
+    /**
+     * Count one occurrence of a key
+     * @param nowNanos System.nanoTime() of the occurrence
+     */
+    public synchronized void add(K key, long nowNanos) {
+        double weight = weight(nowNanos);
+        if (weight > RESCALE_WEIGHT) {
+            rescale(nowNanos, weight);
+            weight = 1;
+        }
+        events++;
+
+        Integer position = positions.get(key);
+        int i;
+        if (position != null) {
+            i = position;
+        } else if (size < capacity) {
+            i = size++;
+            counts[i] = 0;
+            errors[i] = 0;
+            keys[i] = key;
+            positions.put(key, i);
+        } else {
+            // Replace the lowest count; the newcomer may have occurred up to that often unseen
+            i = size - 1;
+            positions.remove(keys[i]);
+            errors[i] = counts[i];
+            keys[i] = key;
+            positions.put(key, i);
+        }
+        counts[i] += weight;
+
+        while (i > 0 && counts[i - 1] < counts[i]) {
+            swap(i - 1, i);
+            i--;
+        }
+    }
+
+    /**
+     * Get the keys with the highest decayed counts
+     * @param k number of keys wanted
+     * @return up to k entries, highest count first
+     */
+    public List<Entry<K>> top(int k) {
+        return top(k, System.nanoTime());
+    }
+
+    /**
+     * Get the keys with the highest decayed counts as of a point in time
+     * @param nowNanos System.nanoTime() to decay the counts to
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized List<Entry<K>> top(int k, long nowNanos) {
+        int n = Math.min(k, size);
+        double scale = 1 / weight(nowNanos);
+        List<Entry<K>> top = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            top.add(new Entry<>((K) keys[i], counts[i] * scale, errors[i] * scale));
+        }
+        return top;
+    }
+
+    /**
+     * Get number of occurrences counted since the sketch was created, without decay
+     */
+    public synchronized long getEventCount() {
+        return events;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private double weight(long nowNanos) {
+        return decayPerNano > 0 ? Math.pow(2, (nowNanos - landmarkNanos) * decayPerNano) : 1;
+    }
+
+    private void rescale(long nowNanos, double weight) {
+        for (int i = 0; i < size; i++) {
+            counts[i] /= weight;
+            errors[i] /= weight;
+        }
+        landmarkNanos = nowNanos;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void swap(int a, int b) {
+        Object key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        double count = counts[a];
+        counts[a] = counts[b];
+        counts[b] = count;
+        double error = errors[a];
+        errors[a] = errors[b];
+        errors[b] = error;
+        positions.put((K) keys[a], a);
+        positions.put((K) keys[b], b);
+    }
+
+    /**
+     * One counted key
+     */
+    public static final class Entry<K> {
+        private final K key;
+        private final double count;
+        private final double error;
+
+        Entry(K key, double count, double error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        // Decayed count; an overestimate by at most getError()
+        public double getCount() {
+            return count;
+        }
+
+        public double getError() {
+            return error;
+        }
+
+        // Decayed count the key is guaranteed to have reached
+        public double getGuaranteedCount() {
+            return count - error;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.studentregistration.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering DatabaseConnection.getConnection()
+ */
+@Name("studentregistration.ConnectionAcquire")
+@Label("Connection Acquire")
+@Category({"Student Registration", "JDBC"})
+@Description("Time spent obtaining a JDBC connection")
+@StackTrace(false)
+public class ConnectionAcquireEvent extends jdk.jfr.Event {
+
+    @Label("New Connection")
+    @Description("True if a physical connection had to be opened")
+    public boolean newConnection;
+}
@@ -0,0 +1,32 @@
+package com.studentregistration.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering one DAO method invocation
+ * Statement and mapping events committed during the call are nested inside its time span
+ */
+@Name("studentregistration.DaoCall")
+@Label("DAO Call")
+@Category({"Student Registration", "DAO"})
+@Description("Invocation of a DAO interface method")
+@StackTrace(false)
+public class DaoCallEvent extends jdk.jfr.Event {
+
+    @Label("DAO")
+    public String dao;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Row Count")
+    @Description("Rows returned (lists), 1/0 for single results and booleans, -1 if not applicable")
+    public int rowCount;
+
+    @Label("Failed")
+    public boolean failed;
+}
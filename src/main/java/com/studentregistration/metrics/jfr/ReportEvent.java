@@ -0,0 +1,21 @@
+package com.studentregistration.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning one report from the console reports menu
+ */
+@Name("studentregistration.Report")
+@Label("Report")
+@Category({"Student Registration", "Application"})
+@Description("Generation of a console report, including all DAO calls it makes")
+@StackTrace(false)
+public class ReportEvent extends jdk.jfr.Event {
+
+    @Label("Report")
+    public String report;
+}
@@ -0,0 +1,29 @@
+package com.studentregistration.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for turning a ResultSet into model objects
+ */
+@Name("studentregistration.ResultSetMapping")
+@Label("ResultSet Mapping")
+@Category({"Student Registration", "JDBC"})
+@Description("Iteration of a ResultSet and mapping of its rows to model objects")
+@StackTrace(false)
+public class ResultSetMappingEvent extends jdk.jfr.Event {
+
+    @Label("SQL Id")
+    public String sqlId;
+
+    @Label("Row Count")
+    public int rowCount;
+
+    @Label("Mapping Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long mappingTime;
+}
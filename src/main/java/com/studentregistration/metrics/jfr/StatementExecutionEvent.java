@@ -0,0 +1,30 @@
+package com.studentregistration.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one JDBC statement execution, committed right after the statement completes
+ */
+@Name("studentregistration.StatementExecution")
+@Label("Statement Execution")
+@Category({"Student Registration", "JDBC"})
+@Description("Execution of a DAO SQL statement until the first result is available")
+@StackTrace(false)
+public class StatementExecutionEvent extends jdk.jfr.Event {
+
+    @Label("SQL Id")
+    @Description("Name of the SQL constant in the DAO")
+    public String sqlId;
+
+    @Label("Row Count")
+    public int rowCount;
+
+    @Label("Execution Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long executionTime;
+}
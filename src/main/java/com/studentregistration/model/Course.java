@@ -13,7 +13,11 @@ public class Course {
     private String description;
     private int credits;
     private String instructor;
+    // Maximum ACTIVE registrations, null for unlimited
+    private Integer capacity;
     private LocalDateTime createdDate;
+    // Maintained in the database; read-only here
+    private int activeEnrollment;
 
     // Default constructor
     public Course() {}
@@ -88,6 +92,22 @@ public class Course {
         this.instructor = instructor;
     }
 
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Check whether the course had no free seats when it was loaded
+     * @return true if the course has a capacity and active enrollment has reached it
+     */
+    public boolean isFull() {
+        return capacity != null && activeEnrollment >= capacity;
+    }
+
     public LocalDateTime getCreatedDate() {
         return createdDate;
     }
@@ -96,6 +116,14 @@ public class Course {
         this.createdDate = createdDate;
     }
 
+    public int getActiveEnrollment() {
+        return activeEnrollment;
+    }
+
+    public void setActiveEnrollment(int activeEnrollment) {
+        this.activeEnrollment = activeEnrollment;
+    }
+
     @Override
     public String toString() {
         return String.format("Course{id=%d, code='%s', name='%s', credits=%d, instructor='%s'}", 
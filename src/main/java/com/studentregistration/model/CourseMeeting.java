@@ -0,0 +1,114 @@
+package com.studentregistration.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * CourseMeeting model class representing one weekly meeting of a course, e.g. MON 09:00-10:15
+ * The end time is exclusive, so back-to-back meetings do not overlap
+ */
+public class CourseMeeting {
+    private final int courseId;
+    private final DayOfWeek dayOfWeek;
+    private final LocalTime startTime;
+    private final LocalTime endTime;
+
+    // Constructor
+    public CourseMeeting(int courseId, DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+        if (!startTime.isBefore(endTime)) {
+            throw new IllegalArgumentException("Meeting must end after it starts: " + startTime + "-" + endTime);
+        }
+        this.courseId = courseId;
+        this.dayOfWeek = dayOfWeek;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    // Getters
+    public int getCourseId() {
+        return courseId;
+    }
+
+    public DayOfWeek getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    // Utility methods
+    public boolean overlaps(CourseMeeting other) {
+        return dayOfWeek == other.dayOfWeek
+            && startTime.isBefore(other.endTime) && other.startTime.isBefore(endTime);
+    }
+
+    /**
+     * Parse a comma-separated list of meetings such as "MON 09:00-10:15, WED 09:00-10:15"
+     * @param courseId ID of the course the meetings belong to
+     * @param text meetings; days are three-letter English abbreviations, times are HH:mm
+     * @return parsed meetings, empty for blank text
+     * @throws IllegalArgumentException if any meeting is malformed
+     */
+    public static List<CourseMeeting> parseList(int courseId, String text) {
+        List<CourseMeeting> meetings = new ArrayList<>();
+        if (text == null || text.trim().isEmpty()) {
+            return meetings;
+        }
+        for (String part : text.split(",")) {
+            meetings.add(parse(courseId, part.trim()));
+        }
+        return meetings;
+    }
+
+    private static CourseMeeting parse(int courseId, String text) {
+        String[] dayAndTimes = text.split("\\s+");
+        String[] times = dayAndTimes.length == 2 ? dayAndTimes[1].split("-") : new String[0];
+        if (times.length != 2) {
+            throw new IllegalArgumentException("Expected DAY HH:mm-HH:mm, got '" + text + "'");
+        }
+        DayOfWeek day = null;
+        for (DayOfWeek candidate : DayOfWeek.values()) {
+            if (candidate.getDisplayName(TextStyle.SHORT, Locale.ENGLISH).equalsIgnoreCase(dayAndTimes[0])) {
+                day = candidate;
+            }
+        }
+        if (day == null) {
+            throw new IllegalArgumentException("Unknown day '" + dayAndTimes[0] + "' in '" + text + "'");
+        }
+        try {
+            return new CourseMeeting(courseId, day, LocalTime.parse(times[0]), LocalTime.parse(times[1]));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid time in '" + text + "'");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return dayOfWeek.getDisplayName(TextStyle.SHORT, Locale.ENGLISH).toUpperCase(Locale.ENGLISH)
+            + " " + startTime + "-" + endTime;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        CourseMeeting that = (CourseMeeting) obj;
+        return courseId == that.courseId && dayOfWeek == that.dayOfWeek
+            && startTime.equals(that.startTime) && endTime.equals(that.endTime);
+    }
+
+    @Override
+    public int hashCode() {
+        return ((courseId * 31 + dayOfWeek.hashCode()) * 31 + startTime.hashCode()) * 31 + endTime.hashCode();
+    }
+}
@@ -0,0 +1,39 @@
+package com.studentregistration.model;
+
+/**
+ * CourseRecommendation model class holding a course suggested to a student because other
+ * students took it together with the student's courses
+ */
+public class CourseRecommendation {
+    private final int courseId;
+    private final int score;
+    private final int sharedCourses;
+
+    // Constructor
+    public CourseRecommendation(int courseId, int score, int sharedCourses) {
+        this.courseId = courseId;
+        this.score = score;
+        this.sharedCourses = sharedCourses;
+    }
+
+    // Getters
+    public int getCourseId() {
+        return courseId;
+    }
+
+    // Students who took the course together with one of the student's courses, summed over those courses
+    public int getScore() {
+        return score;
+    }
+
+    // Number of the student's courses that were taken together with this one
+    public int getSharedCourses() {
+        return sharedCourses;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CourseRecommendation{courseId=%d, score=%d, sharedCourses=%d}",
+                           courseId, score, sharedCourses);
+    }
+}
@@ -0,0 +1,191 @@
+package com.studentregistration.model;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * EnrollmentStatistics model class holding one published version of the per-course and
+ * per-student registration counts
+ * Versions and their rows are immutable: a change produces a new version that shares every
+ * row it did not touch, so a reader can keep using the version it holds for as long as it likes
+ */
+public class EnrollmentStatistics {
+    private static final int STATUS_COUNT = Registration.RegistrationStatus.values().length;
+
+    private final long version;
+    private final LocalDateTime asOf;
+    private final List<CourseCounts> courses;
+    private final List<StudentCounts> students;
+
+    // Constructor; the lists are taken over, not copied
+    public EnrollmentStatistics(long version, LocalDateTime asOf,
+                                List<CourseCounts> courses, List<StudentCounts> students) {
+        this.version = version;
+        this.asOf = asOf;
+        this.courses = Collections.unmodifiableList(courses);
+        this.students = Collections.unmodifiableList(students);
+    }
+
+    // Getters
+    // Increases with every published change
+    public long getVersion() {
+        return version;
+    }
+
+    // When this version was published
+    public LocalDateTime getAsOf() {
+        return asOf;
+    }
+
+    // In course ID order
+    public List<CourseCounts> getCourses() {
+        return courses;
+    }
+
+    // In student ID order
+    public List<StudentCounts> getStudents() {
+        return students;
+    }
+
+    public int getStatusTotal(Registration.RegistrationStatus status) {
+        int total = 0;
+        for (CourseCounts course : courses) {
+            total += course.getCount(status);
+        }
+        return total;
+    }
+
+    /**
+     * One course's registrations by status
+     */
+    public static final class CourseCounts {
+        private final int courseId;
+        private final String courseCode;
+        private final String courseName;
+        private final int credits;
+        private final int[] counts;
+
+        public CourseCounts(int courseId, String courseCode, String courseName, int credits) {
+            this(courseId, courseCode, courseName, credits, new int[STATUS_COUNT]);
+        }
+
+        private CourseCounts(int courseId, String courseCode, String courseName, int credits, int[] counts) {
+            this.courseId = courseId;
+            this.courseCode = courseCode;
+            this.courseName = courseName;
+            this.credits = credits;
+            this.counts = counts;
+        }
+
+        public int getCourseId() {
+            return courseId;
+        }
+
+        public String getCourseCode() {
+            return courseCode;
+        }
+
+        public String getCourseName() {
+            return courseName;
+        }
+
+        public int getCredits() {
+            return credits;
+        }
+
+        public int getCount(Registration.RegistrationStatus status) {
+            return counts[status.ordinal()];
+        }
+
+        public int getActiveEnrollment() {
+            return getCount(Registration.RegistrationStatus.ACTIVE);
+        }
+
+        /**
+         * Copy with new descriptive fields and the same counts
+         */
+        public CourseCounts withDetails(String courseCode, String courseName, int credits) {
+            return new CourseCounts(courseId, courseCode, courseName, credits, counts);
+        }
+
+        /**
+         * Copy with registrations added to or removed from a status
+         * @param registrations change in count, negative to remove
+         */
+        public CourseCounts plus(Registration.RegistrationStatus status, int registrations) {
+            int[] changed = counts.clone();
+            changed[status.ordinal()] = Math.max(0, changed[status.ordinal()] + registrations);
+            return new CourseCounts(courseId, courseCode, courseName, credits, changed);
+        }
+    }
+
+    /**
+     * One student's registrations and their credits by status
+     */
+    public static final class StudentCounts {
+        private final int studentId;
+        private final String fullName;
+        private final String email;
+        private final int[] counts;
+        private final int[] credits;
+
+        public StudentCounts(int studentId, String fullName, String email) {
+            this(studentId, fullName, email, new int[STATUS_COUNT], new int[STATUS_COUNT]);
+        }
+
+        private StudentCounts(int studentId, String fullName, String email, int[] counts, int[] credits) {
+            this.studentId = studentId;
+            this.fullName = fullName;
+            this.email = email;
+            this.counts = counts;
+            this.credits = credits;
+        }
+
+        public int getStudentId() {
+            return studentId;
+        }
+
+        public String getFullName() {
+            return fullName;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public int getCount(Registration.RegistrationStatus status) {
+            return counts[status.ordinal()];
+        }
+
+        // Credits of the student's registrations in a status
+        public int getCredits(Registration.RegistrationStatus status) {
+            return credits[status.ordinal()];
+        }
+
+        public int getActiveCourses() {
+            return getCount(Registration.RegistrationStatus.ACTIVE);
+        }
+
+        /**
+         * Copy with new descriptive fields and the same counts
+         */
+        public StudentCounts withDetails(String fullName, String email) {
+            return new StudentCounts(studentId, fullName, email, counts, credits);
+        }
+
+        /**
+         * Copy with registrations added to or removed from a status
+         * @param registrations change in count, negative to remove
+         * @param courseCredits change in credits, the sum over those registrations' courses
+         */
+        public StudentCounts plus(Registration.RegistrationStatus status, int registrations, int courseCredits) {
+            int[] changedCounts = counts.clone();
+            int[] changedCredits = credits.clone();
+            changedCounts[status.ordinal()] = Math.max(0, changedCounts[status.ordinal()] + registrations);
+            changedCredits[status.ordinal()] =
+                Math.max(0, changedCredits[status.ordinal()] + courseCredits);
+            return new StudentCounts(studentId, fullName, email, changedCounts, changedCredits);
+        }
+    }
+}
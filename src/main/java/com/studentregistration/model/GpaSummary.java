@@ -0,0 +1,66 @@
+package com.studentregistration.model;
+
+/**
+ * GpaSummary model class holding a student's credit-weighted GPA over their COMPLETED courses
+ * and the academic standing it puts them in
+ */
+public class GpaSummary {
+    private final int studentId;
+    private final long gradePointTenths;
+    private final int gpaCredits;
+    private final int earnedCredits;
+    private final Standing standing;
+
+    // Enum for academic standing; NONE until the student has a graded course
+    public enum Standing {
+        DEANS_LIST, GOOD, PROBATION, NONE
+    }
+
+    // Constructor
+    public GpaSummary(int studentId, long gradePointTenths, int gpaCredits, int earnedCredits, Standing standing) {
+        this.studentId = studentId;
+        this.gradePointTenths = gradePointTenths;
+        this.gpaCredits = gpaCredits;
+        this.earnedCredits = earnedCredits;
+        this.standing = standing;
+    }
+
+    // Getters
+    public int getStudentId() {
+        return studentId;
+    }
+
+    // Sum of credits times grade points, in tenths of a point
+    public long getGradePointTenths() {
+        return gradePointTenths;
+    }
+
+    // Credits of the courses whose grade counts toward the GPA
+    public int getGpaCredits() {
+        return gpaCredits;
+    }
+
+    // Credits of the courses passed
+    public int getEarnedCredits() {
+        return earnedCredits;
+    }
+
+    public Standing getStanding() {
+        return standing;
+    }
+
+    // Utility methods
+    public boolean hasGpa() {
+        return gpaCredits > 0;
+    }
+
+    public double getGpa() {
+        return gpaCredits > 0 ? gradePointTenths / (10.0 * gpaCredits) : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GpaSummary{studentId=%d, gpa=%.2f, gpaCredits=%d, earnedCredits=%d, standing=%s}",
+                           studentId, getGpa(), gpaCredits, earnedCredits, standing);
+    }
+}
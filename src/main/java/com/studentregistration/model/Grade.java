@@ -0,0 +1,140 @@
+package com.studentregistration.model;
+
+/**
+ * Letter grades with their grade points on the 4.0 scale
+ * registrations.grade stays a free-form string; this enum gives each recognised grade a one-byte
+ * code (0 for no or an unrecognised grade) so GPA calculations can work on bytes and lookup
+ * tables rather than strings. Points are kept in tenths to keep the arithmetic exact
+ */
+public enum Grade {
+    A_PLUS("A+", 40),
+    A("A", 40),
+    A_MINUS("A-", 37),
+    B_PLUS("B+", 33),
+    B("B", 30),
+    B_MINUS("B-", 27),
+    C_PLUS("C+", 23),
+    C("C", 20),
+    C_MINUS("C-", 17),
+    D_PLUS("D+", 13),
+    D("D", 10),
+    D_MINUS("D-", 7),
+    F("F", 0),
+    // Recorded on the transcript but outside the GPA
+    PASS("P", -1),
+    WITHDRAWN("W", -1),
+    INCOMPLETE("I", -1);
+
+    /** Code of a missing or unrecognised grade */
+    public static final byte NONE = 0;
+
+    private static final Grade[] BY_CODE = new Grade[values().length + 1];
+    private static final int[] POINTS_TENTHS_BY_CODE = new int[values().length + 1];
+    private static final boolean[] EARNS_CREDIT_BY_CODE = new boolean[values().length + 1];
+    // Code by letter and modifier (none, '+', '-'), so encode() neither loops nor allocates
+    private static final byte[] CODE_BY_LETTER_AND_MODIFIER = new byte[26 * 3];
+
+    static {
+        POINTS_TENTHS_BY_CODE[NONE] = -1;
+        for (Grade grade : values()) {
+            BY_CODE[grade.getCode()] = grade;
+            POINTS_TENTHS_BY_CODE[grade.getCode()] = grade.pointsTenths;
+            EARNS_CREDIT_BY_CODE[grade.getCode()] = grade.earnsCredit();
+            int modifier = grade.label.length() == 1 ? 0 : modifier(grade.label.charAt(1));
+            CODE_BY_LETTER_AND_MODIFIER[(grade.label.charAt(0) - 'A') * 3 + modifier] = grade.getCode();
+        }
+    }
+
+    private final String label;
+    private final int pointsTenths;
+
+    Grade(String label, int pointsTenths) {
+        this.label = label;
+        this.pointsTenths = pointsTenths;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public byte getCode() {
+        return (byte) (ordinal() + 1);
+    }
+
+    /**
+     * Get the grade points in tenths, e.g. 37 for A-
+     * @return points times ten, -1 for grades outside the GPA
+     */
+    public int getPointsTenths() {
+        return pointsTenths;
+    }
+
+    public boolean countsTowardGpa() {
+        return pointsTenths >= 0;
+    }
+
+    public boolean earnsCredit() {
+        return pointsTenths > 0 || this == PASS;
+    }
+
+    /**
+     * Parse a grade as stored in registrations.grade
+     * @param label grade such as "B+", case and surrounding blanks ignored
+     * @return the grade, or null if the text is empty or not a recognised grade
+     */
+    public static Grade parse(String label) {
+        byte code = encode(label);
+        return code != NONE ? BY_CODE[code] : null;
+    }
+
+    /**
+     * Encode a grade as stored in registrations.grade
+     * @param label grade such as "B+", case and surrounding blanks ignored
+     * @return one-byte code, {@link #NONE} if the text is empty or not a recognised grade
+     */
+    public static byte encode(String label) {
+        if (label == null) {
+            return NONE;
+        }
+        // Same bounds as String.trim(), without the copy
+        int start = 0;
+        int end = label.length();
+        while (start < end && label.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && label.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end - start < 1 || end - start > 2) {
+            return NONE;
+        }
+        char letter = label.charAt(start);
+        if (letter >= 'a' && letter <= 'z') {
+            letter -= 'a' - 'A';
+        }
+        int modifier = end - start == 1 ? 0 : modifier(label.charAt(start + 1));
+        if (letter < 'A' || letter > 'Z' || modifier < 0) {
+            return NONE;
+        }
+        return CODE_BY_LETTER_AND_MODIFIER[(letter - 'A') * 3 + modifier];
+    }
+
+    private static int modifier(char sign) {
+        return sign == '+' ? 1 : sign == '-' ? 2 : -1;
+    }
+
+    /**
+     * Grade points of an encoded grade, in tenths
+     * @return points times ten, -1 for {@link #NONE} and grades outside the GPA
+     */
+    public static int pointsTenths(byte code) {
+        return POINTS_TENTHS_BY_CODE[code];
+    }
+
+    /**
+     * Check whether an encoded grade earns the course's credits
+     */
+    public static boolean earnsCredit(byte code) {
+        return EARNS_CREDIT_BY_CODE[code];
+    }
+}
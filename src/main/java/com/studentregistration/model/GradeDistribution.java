@@ -0,0 +1,75 @@
+package com.studentregistration.model;
+
+/**
+ * GradeDistribution model class holding how many ACTIVE and COMPLETED registrations of a course,
+ * or of all of an instructor's courses, have each grade
+ */
+public class GradeDistribution {
+    private final int courseId;
+    private final String instructor;
+    private final int courseCount;
+    private final int[] counts;
+
+    // Constructor; counts are indexed by Grade code, ungraded registrations at Grade.NONE
+    public GradeDistribution(int courseId, String instructor, int courseCount, int[] counts) {
+        this.courseId = courseId;
+        this.instructor = instructor;
+        this.courseCount = courseCount;
+        this.counts = counts;
+    }
+
+    // Getters
+    // 0 for an instructor's distribution
+    public int getCourseId() {
+        return courseId;
+    }
+
+    public String getInstructor() {
+        return instructor;
+    }
+
+    // Courses counted; 1 for a course's distribution
+    public int getCourseCount() {
+        return courseCount;
+    }
+
+    public int getCount(Grade grade) {
+        return counts[grade.getCode()];
+    }
+
+    // Registrations with no or an unrecognised grade
+    public int getUngradedCount() {
+        return counts[Grade.NONE];
+    }
+
+    public int getRegistrationCount() {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    public int getGradedCount() {
+        return getRegistrationCount() - getUngradedCount();
+    }
+
+    // Mean grade points over the grades that count toward the GPA, NaN if there are none
+    public double getAverageGradePoints() {
+        long pointsTenths = 0;
+        int graded = 0;
+        for (Grade grade : Grade.values()) {
+            if (grade.countsTowardGpa()) {
+                pointsTenths += (long) grade.getPointsTenths() * counts[grade.getCode()];
+                graded += counts[grade.getCode()];
+            }
+        }
+        return graded > 0 ? pointsTenths / (10.0 * graded) : Double.NaN;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GradeDistribution{courseId=%d, instructor='%s', courses=%d, graded=%d, ungraded=%d}",
+                           courseId, instructor, courseCount, getGradedCount(), getUngradedCount());
+    }
+}
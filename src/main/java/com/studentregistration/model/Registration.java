@@ -13,6 +13,8 @@ public class Registration {
     private LocalDateTime registrationDate;
     private String grade;
     private RegistrationStatus status;
+    // Queue position while WAITLISTED; lower positions are promoted first
+    private Long waitlistPosition;
 
     // Additional fields for joined data
     private Student student;
@@ -20,7 +22,7 @@ public class Registration {
 
     // Enum for registration status
     public enum RegistrationStatus {
-        ACTIVE, DROPPED, COMPLETED
+        ACTIVE, DROPPED, COMPLETED, WAITLISTED
     }
 
     // Default constructor
@@ -102,6 +104,14 @@ public class Registration {
         this.status = status;
     }
 
+    public Long getWaitlistPosition() {
+        return waitlistPosition;
+    }
+
+    public void setWaitlistPosition(Long waitlistPosition) {
+        this.waitlistPosition = waitlistPosition;
+    }
+
     public Student getStudent() {
         return student;
     }
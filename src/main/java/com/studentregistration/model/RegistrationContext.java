@@ -0,0 +1,63 @@
+package com.studentregistration.model;
+
+/**
+ * Everything needed to act on one student/course pair: the student, the course and their
+ * registration, any of which may be missing. Loaded in a single query so registration,
+ * drop and grade screens can validate both ids and the registration in one round trip
+ */
+public class RegistrationContext {
+    private final int studentId;
+    private final int courseId;
+    private final Student student;
+    private final Course course;
+    private final Registration registration;
+
+    // Constructor; student, course and registration are null when not found
+    public RegistrationContext(int studentId, int courseId, Student student, Course course,
+                               Registration registration) {
+        this.studentId = studentId;
+        this.courseId = courseId;
+        this.student = student;
+        this.course = course;
+        this.registration = registration;
+    }
+
+    public int getStudentId() {
+        return studentId;
+    }
+
+    public int getCourseId() {
+        return courseId;
+    }
+
+    public Student getStudent() {
+        return student;
+    }
+
+    public Course getCourse() {
+        return course;
+    }
+
+    public Registration getRegistration() {
+        return registration;
+    }
+
+    public boolean isStudentFound() {
+        return student != null;
+    }
+
+    public boolean isCourseFound() {
+        return course != null;
+    }
+
+    // True if any registration row exists for the pair, whatever its status
+    public boolean isRegistered() {
+        return registration != null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RegistrationContext{studentId=%d, courseId=%d, student=%s, course=%s, registered=%s}",
+                           studentId, courseId, isStudentFound(), isCourseFound(), isRegistered());
+    }
+}
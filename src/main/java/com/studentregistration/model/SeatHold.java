@@ -0,0 +1,69 @@
+package com.studentregistration.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * SeatHold model class representing a seat reserved for a student in a course until it
+ * expires or is checked out into a registration
+ */
+public class SeatHold {
+    private final long holdId;
+    private final int studentId;
+    private final int courseId;
+    private final long expiresAtMillis;
+
+    // Constructor
+    public SeatHold(long holdId, int studentId, int courseId, long expiresAtMillis) {
+        this.holdId = holdId;
+        this.studentId = studentId;
+        this.courseId = courseId;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    // Getters
+    public long getHoldId() {
+        return holdId;
+    }
+
+    public int getStudentId() {
+        return studentId;
+    }
+
+    public int getCourseId() {
+        return courseId;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAtMillis), ZoneId.systemDefault());
+    }
+
+    // Utility methods
+    public long getRemainingMillis() {
+        return Math.max(0, expiresAtMillis - System.currentTimeMillis());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SeatHold{id=%d, studentId=%d, courseId=%d, expiresAt=%s}",
+                           holdId, studentId, courseId, getExpiresAt());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        SeatHold that = (SeatHold) obj;
+        return holdId == that.holdId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(holdId);
+    }
+}
@@ -0,0 +1,56 @@
+package com.studentregistration.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Aggregate of a student with all of their registrations and the registered courses
+ * Loaded in a single joined query for screens that show a student's schedule or transcript
+ */
+public class StudentProfile {
+    private final Student student;
+    private final List<Registration> registrations;
+
+    // Constructor; each registration is expected to carry its Course
+    public StudentProfile(Student student, List<Registration> registrations) {
+        this.student = student;
+        this.registrations = Collections.unmodifiableList(new ArrayList<>(registrations));
+    }
+
+    public Student getStudent() {
+        return student;
+    }
+
+    // Registrations with course details, newest first
+    public List<Registration> getRegistrations() {
+        return registrations;
+    }
+
+    public int getActiveRegistrationCount() {
+        int count = 0;
+        for (Registration registration : registrations) {
+            if (registration.getStatus() == Registration.RegistrationStatus.ACTIVE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getActiveCredits() {
+        int credits = 0;
+        for (Registration registration : registrations) {
+            if (registration.getStatus() == Registration.RegistrationStatus.ACTIVE
+                    && registration.getCourse() != null) {
+                credits += registration.getCourse().getCredits();
+            }
+        }
+        return credits;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StudentProfile{studentId=%d, registrations=%d, active=%d}",
+                           student.getStudentId(), registrations.size(), getActiveRegistrationCount());
+    }
+}
@@ -0,0 +1,71 @@
+package com.studentregistration.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * TimeBucket model class holding the number of registrations or student enrollments in one
+ * minute, hour, day or academic term
+ */
+public class TimeBucket {
+    private final Series series;
+    private final Granularity granularity;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final String label;
+    private final long count;
+
+    // Enum for what is counted: registrations by registration_date, students by enrollment_date
+    public enum Series {
+        REGISTRATIONS, ENROLLMENTS
+    }
+
+    // Enum for bucket width; terms are configured by their start months
+    public enum Granularity {
+        MINUTE, HOUR, DAY, TERM
+    }
+
+    // Constructor
+    public TimeBucket(Series series, Granularity granularity, LocalDateTime start, LocalDateTime end,
+                      String label, long count) {
+        this.series = series;
+        this.granularity = granularity;
+        this.start = start;
+        this.end = end;
+        this.label = label;
+        this.count = count;
+    }
+
+    // Getters
+    public Series getSeries() {
+        return series;
+    }
+
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    // First instant in the bucket
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    // First instant after the bucket
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    // e.g. 2024-08-26 09:00 for an hour, Fall 2024 for a term
+    public String getLabel() {
+        return label;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TimeBucket{series=%s, granularity=%s, label='%s', count=%d}",
+                           series, granularity, label, count);
+    }
+}
@@ -0,0 +1,42 @@
+package com.studentregistration.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Transcript model class: a student's COMPLETED registrations with their courses, and the GPA
+ * they add up to
+ */
+public class Transcript {
+    private final int studentId;
+    private final List<Registration> courses;
+    private final GpaSummary summary;
+
+    // Constructor; each registration is expected to carry its Course
+    public Transcript(int studentId, List<Registration> courses, GpaSummary summary) {
+        this.studentId = studentId;
+        this.courses = Collections.unmodifiableList(new ArrayList<>(courses));
+        this.summary = summary;
+    }
+
+    // Getters
+    public int getStudentId() {
+        return studentId;
+    }
+
+    // Completed registrations with course details, newest first
+    public List<Registration> getCourses() {
+        return courses;
+    }
+
+    public GpaSummary getSummary() {
+        return summary;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Transcript{studentId=%d, courses=%d, gpa=%.2f}",
+                           studentId, courses.size(), summary.getGpa());
+    }
+}
@@ -0,0 +1,210 @@
+package com.studentregistration.report;
+
+import com.studentregistration.model.Registration;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes a {@link CoEnrollmentMatrix} over a {@link ReportSnapshot} with fork/join
+ * A student's ACTIVE and COMPLETED registrations count as courses taken together. Registrations
+ * are first grouped by student; the students are then split in ranges until a range holds few
+ * enough registrations, each range counts its course pairs into its own hash table, and the
+ * tables are merged on the way back up. A student's pairs are only ever counted by one range,
+ * so nothing is shared between workers
+ */
+public class CoEnrollmentEngine {
+
+    // Below this many registrations a range of students is counted on the current thread
+    private static final int MIN_SPLIT = 8192;
+
+    private static final int ACTIVE = Registration.RegistrationStatus.ACTIVE.ordinal();
+    private static final int COMPLETED = Registration.RegistrationStatus.COMPLETED.ordinal();
+
+    private final ForkJoinPool pool;
+
+    public CoEnrollmentEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public CoEnrollmentEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Count the course pairs in a snapshot
+     * @param snapshot registrations to count
+     * @param builtAtMillis time the snapshot was read, recorded in the matrix
+     * @return co-enrollment matrix over the snapshot's courses
+     */
+    public CoEnrollmentMatrix compute(ReportSnapshot snapshot, long builtAtMillis) {
+        ReportSnapshot s = snapshot;
+        int courseCount = s.courseIds.length;
+
+        // Group the counted registrations by student: studentStart is an offset into studentCourses
+        int[] studentStart = new int[s.studentIds.length + 1];
+        int[] courseStudents = new int[courseCount];
+        for (int i = 0; i < s.registrationCount; i++) {
+            if (counted(s.registrationStatus[i])) {
+                studentStart[s.registrationStudent[i] + 1]++;
+                courseStudents[s.registrationCourse[i]]++;
+            }
+        }
+        int studentCount = 0;
+        for (int student = 0; student < s.studentIds.length; student++) {
+            if (studentStart[student + 1] > 0) {
+                studentCount++;
+            }
+            studentStart[student + 1] += studentStart[student];
+        }
+        int[] studentCourses = new int[studentStart[s.studentIds.length]];
+        int[] next = Arrays.copyOf(studentStart, s.studentIds.length);
+        for (int i = 0; i < s.registrationCount; i++) {
+            if (counted(s.registrationStatus[i])) {
+                studentCourses[next[s.registrationStudent[i]]++] = s.registrationCourse[i];
+            }
+        }
+
+        // Enough ranges to keep every worker busy even if some finish early
+        int pieceSize = Math.max(MIN_SPLIT, studentCourses.length / (pool.getParallelism() * 8));
+        PairCounts pairs = pool.invoke(new PairTask(courseCount, studentStart, studentCourses,
+                                                    0, s.studentIds.length, pieceSize));
+
+        int[] first = new int[pairs.size];
+        int[] second = new int[pairs.size];
+        int[] students = new int[pairs.size];
+        int pairCount = 0;
+        for (int slot = 0; slot < pairs.keys.length; slot++) {
+            long key = pairs.keys[slot];
+            if (key != PairCounts.EMPTY) {
+                first[pairCount] = (int) (key / courseCount);
+                second[pairCount] = (int) (key % courseCount);
+                students[pairCount] = pairs.values[slot];
+                pairCount++;
+            }
+        }
+        return new CoEnrollmentMatrix(builtAtMillis, studentCount, s.courseIds.clone(), courseStudents,
+                                      pairCount, first, second, students);
+    }
+
+    private static boolean counted(int status) {
+        return status == ACTIVE || status == COMPLETED;
+    }
+
+    /**
+     * Open-addressing hash table from a course pair (lower * courseCount + higher) to its count
+     */
+    private static final class PairCounts {
+        static final long EMPTY = -1;
+
+        long[] keys;
+        int[] values;
+        int size;
+
+        PairCounts(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+        }
+
+        void add(long key, int count) {
+            if (size * 2 >= keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY) {
+                keys[slot] = key;
+                size++;
+            }
+            values[slot] += count;
+        }
+
+        PairCounts addAll(PairCounts other) {
+            for (int slot = 0; slot < other.keys.length; slot++) {
+                if (other.keys[slot] != EMPTY) {
+                    add(other.keys[slot], other.values[slot]);
+                }
+            }
+            return this;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != EMPTY) {
+                    add(oldKeys[slot], oldValues[slot]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    private static final class PairTask extends RecursiveTask<PairCounts> {
+        private static final long serialVersionUID = 1L;
+
+        private final int courseCount;
+        private final int[] studentStart;
+        private final int[] studentCourses;
+        private final int from;
+        private final int to;
+        private final int pieceSize;
+
+        PairTask(int courseCount, int[] studentStart, int[] studentCourses, int from, int to, int pieceSize) {
+            this.courseCount = courseCount;
+            this.studentStart = studentStart;
+            this.studentCourses = studentCourses;
+            this.from = from;
+            this.to = to;
+            this.pieceSize = pieceSize;
+        }
+
+        @Override
+        protected PairCounts compute() {
+            if (to - from > 1 && studentStart[to] - studentStart[from] > pieceSize) {
+                int middle = (from + to) >>> 1;
+                PairTask left = new PairTask(courseCount, studentStart, studentCourses, from, middle, pieceSize);
+                left.fork();
+                PairCounts right = new PairTask(courseCount, studentStart, studentCourses, middle, to, pieceSize).compute();
+                PairCounts leftCounts = left.join();
+                // Merge the smaller table into the larger one
+                return leftCounts.size >= right.size ? leftCounts.addAll(right) : right.addAll(leftCounts);
+            }
+
+            PairCounts counts = new PairCounts(studentStart[to] - studentStart[from]);
+            int[] courses = new int[16];
+            for (int student = from; student < to; student++) {
+                int start = studentStart[student];
+                int length = studentStart[student + 1] - start;
+                if (length < 2) {
+                    continue;
+                }
+                if (courses.length < length) {
+                    courses = new int[length];
+                }
+                System.arraycopy(studentCourses, start, courses, 0, length);
+                Arrays.sort(courses, 0, length);
+                for (int i = 0; i < length; i++) {
+                    for (int j = i + 1; j < length; j++) {
+                        counts.add((long) courses[i] * courseCount + courses[j], 1);
+                    }
+                }
+            }
+            return counts;
+        }
+    }
+}
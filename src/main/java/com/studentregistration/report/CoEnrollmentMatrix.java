@@ -0,0 +1,315 @@
+package com.studentregistration.report;
+
+import com.studentregistration.model.CourseRecommendation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Immutable, symmetric course-by-course count of students who took both courses
+ * Stored sparsely in compressed rows: for course position a, columns[rowStart[a]..rowStart[a+1])
+ * hold the positions of the courses taken together with it, in ascending order, and counts the
+ * number of students who took both. Only pairs that occur are stored, so the size follows the
+ * number of course pairs students actually take rather than the square of the course count.
+ *
+ * {@link #write(Path)} saves the upper triangle with variable-length, delta-coded integers and a
+ * CRC32, through a temporary file and an atomic rename; {@link #read(Path)} restores it, so the
+ * matrix survives a restart without recomputing it
+ */
+public final class CoEnrollmentMatrix {
+
+    private static final int MAGIC = 0x434F454E;
+    private static final byte FORMAT_VERSION = 1;
+
+    private final long builtAtMillis;
+    private final int studentCount;
+
+    // Courses, ordered by ID
+    private final int[] courseIds;
+    private final int[] courseStudents;
+
+    private final int[] rowStart;
+    private final int[] columns;
+    private final int[] counts;
+
+    /**
+     * Build the matrix from the pairs above the diagonal
+     * @param builtAtMillis time the underlying registrations were read
+     * @param studentCount students whose registrations were counted
+     * @param courseIds course IDs in ascending order
+     * @param courseStudents students who took each course
+     * @param pairCount number of pairs in the arrays below
+     * @param pairFirst position of each pair's lower course
+     * @param pairSecond position of each pair's higher course
+     * @param pairStudents students who took both courses of each pair
+     */
+    CoEnrollmentMatrix(long builtAtMillis, int studentCount, int[] courseIds, int[] courseStudents,
+                       int pairCount, int[] pairFirst, int[] pairSecond, int[] pairStudents) {
+        this.builtAtMillis = builtAtMillis;
+        this.studentCount = studentCount;
+        this.courseIds = courseIds;
+        this.courseStudents = courseStudents;
+
+        int n = courseIds.length;
+        this.rowStart = new int[n + 1];
+        for (int i = 0; i < pairCount; i++) {
+            rowStart[pairFirst[i] + 1]++;
+            rowStart[pairSecond[i] + 1]++;
+        }
+        for (int a = 0; a < n; a++) {
+            rowStart[a + 1] += rowStart[a];
+        }
+
+        // Each row packed as (column << 32 | count) so one sort orders columns and counts together
+        long[] cells = new long[rowStart[n]];
+        int[] next = Arrays.copyOf(rowStart, n);
+        for (int i = 0; i < pairCount; i++) {
+            cells[next[pairFirst[i]]++] = (long) pairSecond[i] << 32 | pairStudents[i];
+            cells[next[pairSecond[i]]++] = (long) pairFirst[i] << 32 | pairStudents[i];
+        }
+        this.columns = new int[cells.length];
+        this.counts = new int[cells.length];
+        for (int a = 0; a < n; a++) {
+            Arrays.sort(cells, rowStart[a], rowStart[a + 1]);
+        }
+        for (int i = 0; i < cells.length; i++) {
+            columns[i] = (int) (cells[i] >>> 32);
+            counts[i] = (int) cells[i];
+        }
+    }
+
+    /**
+     * Get time the underlying registrations were read
+     * @return epoch milliseconds
+     */
+    public long getBuiltAtMillis() {
+        return builtAtMillis;
+    }
+
+    public int getStudentCount() {
+        return studentCount;
+    }
+
+    public int getCourseCount() {
+        return courseIds.length;
+    }
+
+    /**
+     * Get number of distinct course pairs taken together by at least one student
+     * @return pairs, each counted once
+     */
+    public int getPairCount() {
+        return columns.length / 2;
+    }
+
+    /**
+     * Get number of students who took both courses
+     * @return students, 0 if either course is unknown or they were never taken together
+     */
+    public int getCount(int courseId, int otherCourseId) {
+        int a = Arrays.binarySearch(courseIds, courseId);
+        int b = Arrays.binarySearch(courseIds, otherCourseId);
+        if (a < 0 || b < 0 || a == b) {
+            return 0;
+        }
+        int i = Arrays.binarySearch(columns, rowStart[a], rowStart[a + 1], b);
+        return i >= 0 ? counts[i] : 0;
+    }
+
+    /**
+     * Get number of students who took a course
+     * @return students, 0 if the course is unknown
+     */
+    public int getCourseStudents(int courseId) {
+        int a = Arrays.binarySearch(courseIds, courseId);
+        return a >= 0 ? courseStudents[a] : 0;
+    }
+
+    /**
+     * Rank the courses most often taken together with a set of courses
+     * A candidate's score is the sum, over the basis courses, of students who took both; ties go
+     * to the course with more students overall, then the lower ID
+     * @param basisCourseIds courses the suggestions are based on
+     * @param excludedCourseIds courses never to suggest, e.g. every course the student is registered for
+     * @param k most suggestions wanted
+     * @return up to k suggestions, best first
+     */
+    public List<CourseRecommendation> recommend(int[] basisCourseIds, int[] excludedCourseIds, int k) {
+        int n = courseIds.length;
+        int[] scores = new int[n];
+        int[] shared = new int[n];
+        int[] touched = new int[n];
+        int touchedCount = 0;
+        for (int courseId : basisCourseIds) {
+            int a = Arrays.binarySearch(courseIds, courseId);
+            if (a < 0) {
+                continue;
+            }
+            for (int i = rowStart[a]; i < rowStart[a + 1]; i++) {
+                int b = columns[i];
+                if (shared[b] == 0) {
+                    touched[touchedCount++] = b;
+                }
+                scores[b] += counts[i];
+                shared[b]++;
+            }
+        }
+        for (int courseId : excludedCourseIds) {
+            int a = Arrays.binarySearch(courseIds, courseId);
+            if (a >= 0) {
+                scores[a] = 0;
+            }
+        }
+
+        Integer[] candidates = new Integer[touchedCount];
+        int candidateCount = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            if (scores[touched[i]] > 0) {
+                candidates[candidateCount++] = touched[i];
+            }
+        }
+        Arrays.sort(candidates, 0, candidateCount, (x, y) -> {
+            if (scores[x] != scores[y]) {
+                return Integer.compare(scores[y], scores[x]);
+            }
+            if (courseStudents[x] != courseStudents[y]) {
+                return Integer.compare(courseStudents[y], courseStudents[x]);
+            }
+            return Integer.compare(x, y);
+        });
+        int size = Math.min(Math.max(0, k), candidateCount);
+        List<CourseRecommendation> recommendations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int b = candidates[i];
+            recommendations.add(new CourseRecommendation(courseIds[b], scores[b], shared[b]));
+        }
+        return recommendations;
+    }
+
+    /**
+     * Save the matrix, replacing the file atomically
+     * @throws IOException if the file cannot be written; an existing file is then left as it was
+     */
+    public void write(Path path) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            DataOutputStream body = new DataOutputStream(new CheckedOutputStream(out, crc));
+            body.writeInt(MAGIC);
+            body.writeByte(FORMAT_VERSION);
+            body.writeLong(builtAtMillis);
+            writeVarInt(body, studentCount);
+            writeVarInt(body, courseIds.length);
+            int previous = 0;
+            for (int a = 0; a < courseIds.length; a++) {
+                writeVarInt(body, courseIds[a] - previous);
+                writeVarInt(body, courseStudents[a]);
+                previous = courseIds[a];
+            }
+            // Upper triangle only: the columns after the diagonal, delta-coded from the row's course
+            for (int a = 0; a < courseIds.length; a++) {
+                int first = Arrays.binarySearch(columns, rowStart[a], rowStart[a + 1], a);
+                first = first >= 0 ? first + 1 : -first - 1;
+                writeVarInt(body, rowStart[a + 1] - first);
+                int column = a;
+                for (int i = first; i < rowStart[a + 1]; i++) {
+                    writeVarInt(body, columns[i] - column);
+                    writeVarInt(body, counts[i]);
+                    column = columns[i];
+                }
+            }
+            body.flush();
+            out.writeLong(crc.getValue());
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Load a matrix saved by {@link #write(Path)}
+     * @return the matrix
+     * @throws IOException if the file cannot be read, is not a matrix or fails its checksum
+     */
+    public static CoEnrollmentMatrix read(Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            DataInputStream body = new DataInputStream(new CheckedInputStream(in, crc));
+            if (body.readInt() != MAGIC || body.readByte() != FORMAT_VERSION) {
+                throw new IOException("Not a co-enrollment matrix (or an unsupported version): " + path);
+            }
+            long builtAtMillis = body.readLong();
+            int studentCount = readVarInt(body);
+            int n = readVarInt(body);
+            int[] courseIds = new int[n];
+            int[] courseStudents = new int[n];
+            int previous = 0;
+            for (int a = 0; a < n; a++) {
+                courseIds[a] = previous + readVarInt(body);
+                courseStudents[a] = readVarInt(body);
+                previous = courseIds[a];
+            }
+
+            int pairCount = 0;
+            int[] first = new int[64];
+            int[] second = new int[64];
+            int[] students = new int[64];
+            for (int a = 0; a < n; a++) {
+                int rowLength = readVarInt(body);
+                int column = a;
+                for (int i = 0; i < rowLength; i++) {
+                    column += readVarInt(body);
+                    if (column >= n) {
+                        throw new IOException("Co-enrollment matrix is corrupt: " + path);
+                    }
+                    if (pairCount == first.length) {
+                        first = Arrays.copyOf(first, pairCount * 2);
+                        second = Arrays.copyOf(second, pairCount * 2);
+                        students = Arrays.copyOf(students, pairCount * 2);
+                    }
+                    first[pairCount] = a;
+                    second[pairCount] = column;
+                    students[pairCount] = readVarInt(body);
+                    pairCount++;
+                }
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Co-enrollment matrix fails its checksum: " + path);
+            }
+            return new CoEnrollmentMatrix(builtAtMillis, studentCount, courseIds, courseStudents,
+                                          pairCount, first, second, students);
+        }
+    }
+
+    // Seven bits per byte, low bits first; the high bit marks a following byte
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+}
@@ -0,0 +1,144 @@
+package com.studentregistration.report;
+
+import com.studentregistration.model.Grade;
+import com.studentregistration.model.Registration;
+
+/**
+ * Aggregates computed by {@link ReportEngine} from one {@link ReportSnapshot}
+ * Courses, students and instructors are addressed by position (0 to count - 1), in ID order for
+ * courses and students
+ */
+public class RegistrationReport {
+
+    static final int GRADE_CODES = Grade.values().length + 1;
+
+    private final ReportSnapshot snapshot;
+    private final int[] statusByCourse;
+    private final int[] grades;
+    private final int[] activeCredits;
+    private final int[] completedCredits;
+    private final int[] instructorCourses;
+    private final int[] instructorActive;
+    private final long computeNanos;
+    private final int parallelism;
+
+    RegistrationReport(ReportSnapshot snapshot, int[] statusByCourse, int[] grades, int[] activeCredits,
+                       int[] completedCredits, int[] instructorCourses, int[] instructorActive,
+                       long computeNanos, int parallelism) {
+        this.snapshot = snapshot;
+        this.statusByCourse = statusByCourse;
+        this.grades = grades;
+        this.activeCredits = activeCredits;
+        this.completedCredits = completedCredits;
+        this.instructorCourses = instructorCourses;
+        this.instructorActive = instructorActive;
+        this.computeNanos = computeNanos;
+        this.parallelism = parallelism;
+    }
+
+    public ReportSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // Courses
+    public int getCourseCount() {
+        return snapshot.courseIds.length;
+    }
+
+    public int getCourseId(int course) {
+        return snapshot.courseIds[course];
+    }
+
+    public String getCourseCode(int course) {
+        return snapshot.courseCodes[course];
+    }
+
+    public String getCourseName(int course) {
+        return snapshot.courseNames[course];
+    }
+
+    public int getCourseCredits(int course) {
+        return snapshot.courseCredits[course];
+    }
+
+    public String getCourseInstructor(int course) {
+        return snapshot.instructors[snapshot.instructorIndex[course]];
+    }
+
+    /**
+     * Get the number of a course's registrations in a status
+     * @param course course position
+     * @param status registration status
+     * @return registration count
+     */
+    public int getCourseCount(int course, Registration.RegistrationStatus status) {
+        return statusByCourse[course * ReportEngine.STATUS_COUNT + status.ordinal()];
+    }
+
+    // Instructors
+    public int getInstructorCount() {
+        return snapshot.instructors.length;
+    }
+
+    public String getInstructor(int instructor) {
+        return snapshot.instructors[instructor];
+    }
+
+    public int getInstructorCourseCount(int instructor) {
+        return instructorCourses[instructor];
+    }
+
+    public int getInstructorActiveEnrollment(int instructor) {
+        return instructorActive[instructor];
+    }
+
+    // Statuses and grades
+    public int getStatusTotal(Registration.RegistrationStatus status) {
+        int total = 0;
+        for (int course = 0; course < snapshot.courseIds.length; course++) {
+            total += getCourseCount(course, status);
+        }
+        return total;
+    }
+
+    /**
+     * Get how many COMPLETED registrations have a grade
+     * @param grade grade, or null for registrations with no or an unrecognised grade
+     * @return registration count
+     */
+    public int getGradeCount(Grade grade) {
+        return grades[grade != null ? grade.getCode() : Grade.NONE];
+    }
+
+    // Students
+    public int getStudentCount() {
+        return snapshot.studentIds.length;
+    }
+
+    public int getStudentId(int student) {
+        return snapshot.studentIds[student];
+    }
+
+    public String getStudentName(int student) {
+        return snapshot.studentNames[student];
+    }
+
+    // Credits of the student's ACTIVE registrations
+    public int getActiveCredits(int student) {
+        return activeCredits[student];
+    }
+
+    // Credits of the student's COMPLETED registrations, whatever the grade
+    public int getCompletedCredits(int student) {
+        return completedCredits[student];
+    }
+
+    // Run statistics
+    public long getComputeNanos() {
+        return computeNanos;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+}
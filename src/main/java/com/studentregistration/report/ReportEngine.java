@@ -0,0 +1,131 @@
+package com.studentregistration.report;
+
+import com.studentregistration.model.Registration;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes registration aggregates over a {@link ReportSnapshot} with fork/join
+ * The registration columns are split in halves until a piece is small enough, each piece is
+ * counted into its own primitive arrays, and the arrays are summed on the way back up. Nothing
+ * is shared between pieces, so there are no locks or atomics, and the run time depends on the
+ * number of cores rather than on database round trips
+ */
+public class ReportEngine {
+
+    static final int STATUS_COUNT = Registration.RegistrationStatus.values().length;
+
+    // Below this many registrations a piece is counted on the current thread
+    private static final int MIN_SPLIT = 8192;
+
+    private static final int ACTIVE = Registration.RegistrationStatus.ACTIVE.ordinal();
+    private static final int COMPLETED = Registration.RegistrationStatus.COMPLETED.ordinal();
+
+    private final ForkJoinPool pool;
+
+    public ReportEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ReportEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Aggregate a snapshot
+     * @param snapshot data to aggregate
+     * @return enrollment, status, grade and credit aggregates
+     */
+    public RegistrationReport compute(ReportSnapshot snapshot) {
+        long started = System.nanoTime();
+        // Enough pieces to keep every worker busy even if some finish early
+        int pieceSize = Math.max(MIN_SPLIT, snapshot.registrationCount / (pool.getParallelism() * 8));
+        Counts counts = pool.invoke(new CountTask(snapshot, 0, snapshot.registrationCount, pieceSize));
+
+        // Per-instructor totals come from the per-course ones; there are few courses
+        int[] instructorCourses = new int[snapshot.instructors.length];
+        int[] instructorActive = new int[snapshot.instructors.length];
+        for (int course = 0; course < snapshot.courseIds.length; course++) {
+            int instructor = snapshot.instructorIndex[course];
+            instructorCourses[instructor]++;
+            instructorActive[instructor] += counts.statusByCourse[course * STATUS_COUNT + ACTIVE];
+        }
+        return new RegistrationReport(snapshot, counts.statusByCourse, counts.grades, counts.activeCredits,
+                                      counts.completedCredits, instructorCourses, instructorActive,
+                                      System.nanoTime() - started, pool.getParallelism());
+    }
+
+    /**
+     * Counts of one piece of the registration columns
+     */
+    private static final class Counts {
+        final int[] statusByCourse;
+        final int[] grades;
+        final int[] activeCredits;
+        final int[] completedCredits;
+
+        Counts(int courses, int students, int gradeCodes) {
+            this.statusByCourse = new int[courses * STATUS_COUNT];
+            this.grades = new int[gradeCodes];
+            this.activeCredits = new int[students];
+            this.completedCredits = new int[students];
+        }
+
+        Counts add(Counts other) {
+            sum(statusByCourse, other.statusByCourse);
+            sum(grades, other.grades);
+            sum(activeCredits, other.activeCredits);
+            sum(completedCredits, other.completedCredits);
+            return this;
+        }
+
+        private static void sum(int[] into, int[] from) {
+            for (int i = 0; i < into.length; i++) {
+                into[i] += from[i];
+            }
+        }
+    }
+
+    private static final class CountTask extends RecursiveTask<Counts> {
+        private static final long serialVersionUID = 1L;
+
+        private final ReportSnapshot snapshot;
+        private final int from;
+        private final int to;
+        private final int pieceSize;
+
+        CountTask(ReportSnapshot snapshot, int from, int to, int pieceSize) {
+            this.snapshot = snapshot;
+            this.from = from;
+            this.to = to;
+            this.pieceSize = pieceSize;
+        }
+
+        @Override
+        protected Counts compute() {
+            if (to - from > pieceSize) {
+                int middle = (from + to) >>> 1;
+                CountTask left = new CountTask(snapshot, from, middle, pieceSize);
+                left.fork();
+                Counts right = new CountTask(snapshot, middle, to, pieceSize).compute();
+                return left.join().add(right);
+            }
+
+            ReportSnapshot s = snapshot;
+            Counts counts = new Counts(s.courseIds.length, s.studentIds.length, RegistrationReport.GRADE_CODES);
+            for (int i = from; i < to; i++) {
+                int course = s.registrationCourse[i];
+                int status = s.registrationStatus[i];
+                counts.statusByCourse[course * STATUS_COUNT + status]++;
+                if (status == ACTIVE) {
+                    counts.activeCredits[s.registrationStudent[i]] += s.courseCredits[course];
+                } else if (status == COMPLETED) {
+                    counts.completedCredits[s.registrationStudent[i]] += s.courseCredits[course];
+                    counts.grades[s.registrationGrade[i]]++;
+                }
+            }
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.studentregistration.report;
+
+import com.studentregistration.metrics.QueryMetrics;
+import com.studentregistration.metrics.QueryStats;
+import com.studentregistration.metrics.SlowQueryLog;
+import com.studentregistration.model.Grade;
+import com.studentregistration.model.Registration;
+import com.studentregistration.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-consistent, column-oriented copy of students, courses and registrations for reporting
+ * The three tables are read in one REPEATABLE READ transaction, so they reflect a single
+ * point in time. Registrations are streamed into primitive arrays that refer to students and
+ * courses by their position in the (ID-ordered) student and course columns, with statuses as
+ * enum ordinals and grades as {@link Grade} codes, so aggregating them allocates nothing per row
+ */
+public final class ReportSnapshot {
+
+    private static final String SELECT_SNAPSHOT_STUDENTS =
+        "SELECT student_id, first_name, last_name FROM students ORDER BY student_id";
+
+    private static final String SELECT_SNAPSHOT_COURSES =
+        "SELECT course_id, course_code, course_name, credits, instructor FROM courses ORDER BY course_id";
+
+    private static final String SELECT_SNAPSHOT_REGISTRATIONS =
+        "SELECT student_id, course_id, status, grade FROM registrations";
+
+    private static final QueryStats SELECT_SNAPSHOT_STUDENTS_STATS = QueryMetrics.forStatement("SELECT_SNAPSHOT_STUDENTS");
+    private static final QueryStats SELECT_SNAPSHOT_COURSES_STATS = QueryMetrics.forStatement("SELECT_SNAPSHOT_COURSES");
+    private static final QueryStats SELECT_SNAPSHOT_REGISTRATIONS_STATS =
+        QueryMetrics.forStatement("SELECT_SNAPSHOT_REGISTRATIONS");
+
+    private static final Registration.RegistrationStatus[] STATUSES = Registration.RegistrationStatus.values();
+
+    // Students, ordered by ID
+    final int[] studentIds;
+    final String[] studentNames;
+
+    // Courses, ordered by ID; instructorIndex points into instructors
+    final int[] courseIds;
+    final String[] courseCodes;
+    final String[] courseNames;
+    final int[] courseCredits;
+    final int[] instructorIndex;
+    final String[] instructors;
+
+    // Registrations
+    final int registrationCount;
+    final int[] registrationStudent;
+    final int[] registrationCourse;
+    final byte[] registrationStatus;
+    final byte[] registrationGrade;
+
+    private final long loadNanos;
+
+    private ReportSnapshot(Builder builder, long loadNanos) {
+        this.studentIds = builder.studentIds.toArray();
+        this.studentNames = builder.studentNames.toArray(new String[0]);
+        this.courseIds = builder.courseIds.toArray();
+        this.courseCodes = builder.courseCodes.toArray(new String[0]);
+        this.courseNames = builder.courseNames.toArray(new String[0]);
+        this.courseCredits = builder.courseCredits.toArray();
+        this.instructorIndex = builder.instructorIndex.toArray();
+        this.instructors = builder.instructors.toArray(new String[0]);
+        this.registrationCount = builder.registrationStudent.size;
+        this.registrationStudent = builder.registrationStudent.toArray();
+        this.registrationCourse = builder.registrationCourse.toArray();
+        this.registrationStatus = Arrays.copyOf(builder.registrationStatus, registrationCount);
+        this.registrationGrade = Arrays.copyOf(builder.registrationGrade, registrationCount);
+        this.loadNanos = loadNanos;
+    }
+
+    /**
+     * Read students, courses and registrations as of one point in time
+     * @param dbConnection connection pool to borrow from
+     * @return snapshot, or null if loading failed
+     */
+    public static ReportSnapshot load(DatabaseConnection dbConnection) {
+        long started = System.nanoTime();
+        Builder builder = new Builder();
+        try (Connection conn = dbConnection.getConnection()) {
+            // The connection goes back to the pool afterwards, so restore what is changed here
+            int isolation = conn.getTransactionIsolation();
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            conn.setReadOnly(true);
+            conn.setAutoCommit(false);
+            try {
+                loadStudents(conn, builder);
+                loadCourses(conn, builder);
+                loadRegistrations(conn, builder);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+                conn.setReadOnly(false);
+                conn.setTransactionIsolation(isolation);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error loading report snapshot: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+        return new ReportSnapshot(builder, System.nanoTime() - started);
+    }
+
+    public int getStudentCount() {
+        return studentIds.length;
+    }
+
+    public int getCourseCount() {
+        return courseIds.length;
+    }
+
+    public int getRegistrationCount() {
+        return registrationCount;
+    }
+
+    /**
+     * Get how long loading the snapshot took
+     * @return wall-clock time in nanoseconds
+     */
+    public long getLoadNanos() {
+        return loadNanos;
+    }
+
+    private static void loadStudents(Connection conn, Builder builder) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_SNAPSHOT_STUDENTS,
+                                                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+
+            long start = System.nanoTime();
+            long executed;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                while (rs.next()) {
+                    builder.studentIds.add(rs.getInt("student_id"));
+                    builder.studentNames.add(rs.getString("first_name") + " " + rs.getString("last_name"));
+                }
+            }
+            int rows = builder.studentIds.size;
+            if (SELECT_SNAPSHOT_STUDENTS_STATS.record(start, executed, rows)) {
+                SlowQueryLog.log(SELECT_SNAPSHOT_STUDENTS_STATS, start, rows);
+            }
+        } catch (SQLException e) {
+            SELECT_SNAPSHOT_STUDENTS_STATS.recordError();
+            throw e;
+        }
+    }
+
+    private static void loadCourses(Connection conn, Builder builder) throws SQLException {
+        Map<String, Integer> instructorPositions = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_SNAPSHOT_COURSES)) {
+            long start = System.nanoTime();
+            long executed;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                while (rs.next()) {
+                    builder.courseIds.add(rs.getInt("course_id"));
+                    builder.courseCodes.add(rs.getString("course_code"));
+                    builder.courseNames.add(rs.getString("course_name"));
+                    builder.courseCredits.add(rs.getInt("credits"));
+                    String instructor = rs.getString("instructor");
+                    if (instructor == null || instructor.trim().isEmpty()) {
+                        instructor = "(unassigned)";
+                    }
+                    Integer position = instructorPositions.get(instructor);
+                    if (position == null) {
+                        position = builder.instructors.size();
+                        instructorPositions.put(instructor, position);
+                        builder.instructors.add(instructor);
+                    }
+                    builder.instructorIndex.add(position);
+                }
+            }
+            int rows = builder.courseIds.size;
+            if (SELECT_SNAPSHOT_COURSES_STATS.record(start, executed, rows)) {
+                SlowQueryLog.log(SELECT_SNAPSHOT_COURSES_STATS, start, rows);
+            }
+        } catch (SQLException e) {
+            SELECT_SNAPSHOT_COURSES_STATS.recordError();
+            throw e;
+        }
+    }
+
+    private static void loadRegistrations(Connection conn, Builder builder) throws SQLException {
+        int[] studentIds = builder.studentIds.toArray();
+        int[] courseIds = builder.courseIds.toArray();
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_SNAPSHOT_REGISTRATIONS,
+                                                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Connector/J streams rows one at a time instead of buffering the whole result
+            stmt.setFetchSize(Integer.MIN_VALUE);
+
+            long start = System.nanoTime();
+            long executed;
+            int rows = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                executed = System.nanoTime();
+                while (rs.next()) {
+                    rows++;
+                    // Both sides were read in the same snapshot, so the foreign keys always resolve
+                    int student = Arrays.binarySearch(studentIds, rs.getInt("student_id"));
+                    int course = Arrays.binarySearch(courseIds, rs.getInt("course_id"));
+                    if (student < 0 || course < 0) {
+                        continue;
+                    }
+                    builder.addRegistration(student, course,
+                                            statusOrdinal(rs.getString("status")), Grade.encode(rs.getString("grade")));
+                }
+            }
+            if (SELECT_SNAPSHOT_REGISTRATIONS_STATS.record(start, executed, rows)) {
+                SlowQueryLog.log(SELECT_SNAPSHOT_REGISTRATIONS_STATS, start, rows);
+            }
+        } catch (SQLException e) {
+            SELECT_SNAPSHOT_REGISTRATIONS_STATS.recordError();
+            throw e;
+        }
+    }
+
+    private static byte statusOrdinal(String status) {
+        for (Registration.RegistrationStatus candidate : STATUSES) {
+            if (candidate.name().equals(status)) {
+                return (byte) candidate.ordinal();
+            }
+        }
+        return (byte) Registration.RegistrationStatus.ACTIVE.ordinal();
+    }
+
+    /**
+     * Growable int column
+     */
+    private static final class IntColumn {
+        int[] values = new int[64];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class Builder {
+        final IntColumn studentIds = new IntColumn();
+        final List<String> studentNames = new ArrayList<>();
+        final IntColumn courseIds = new IntColumn();
+        final List<String> courseCodes = new ArrayList<>();
+        final List<String> courseNames = new ArrayList<>();
+        final IntColumn courseCredits = new IntColumn();
+        final IntColumn instructorIndex = new IntColumn();
+        final List<String> instructors = new ArrayList<>();
+        final IntColumn registrationStudent = new IntColumn();
+        final IntColumn registrationCourse = new IntColumn();
+        byte[] registrationStatus = new byte[64];
+        byte[] registrationGrade = new byte[64];
+
+        void addRegistration(int student, int course, byte status, byte grade) {
+            int index = registrationStudent.size;
+            if (index == registrationStatus.length) {
+                registrationStatus = Arrays.copyOf(registrationStatus, index * 2);
+                registrationGrade = Arrays.copyOf(registrationGrade, index * 2);
+            }
+            registrationStudent.add(student);
+            registrationCourse.add(course);
+            registrationStatus[index] = status;
+            registrationGrade[index] = grade;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.studentregistration.server;
+
+/**
+ * Request failure that maps directly onto an HTTP status code
+ * Thrown by the resource handlers and turned into a JSON error body by {@link ApiServer}
+ */
+class ApiException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    int getStatus() {
+        return status;
+    }
+
+    static ApiException badRequest(String message) {
+        return new ApiException(400, message);
+    }
+
+    static ApiException notFound(String message) {
+        return new ApiException(404, message);
+    }
+
+    static ApiException methodNotAllowed() {
+        return new ApiException(405, "Method not allowed");
+    }
+
+    static ApiException conflict(String message) {
+        return new ApiException(409, message);
+    }
+}
@@ -0,0 +1,215 @@
+package com.studentregistration.server;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One API request: parsed path segments, query parameters and body, plus response helpers
+ * Responses are written with chunked transfer encoding through a {@link JsonWriter}, so large
+ * lists are encoded straight onto the socket
+ */
+class ApiExchange {
+
+    /**
+     * Callback that writes a response body
+     */
+    @FunctionalInterface
+    interface JsonBody {
+        void write(JsonWriter json) throws IOException;
+    }
+
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int WRITE_BUFFER_CHARS = 8 * 1024;
+    private static final int MAX_IDS = 1000;
+
+    private final HttpExchange exchange;
+    private final String[] segments;
+    private final Map<String, String> query;
+
+    ApiExchange(HttpExchange exchange, String contextPath) {
+        this.exchange = exchange;
+        String path = exchange.getRequestURI().getPath().substring(contextPath.length());
+        String trimmed = path.replaceAll("^/+|/+$", "");
+        this.segments = trimmed.isEmpty() ? new String[0] : trimmed.split("/+");
+        this.query = parseQuery(exchange.getRequestURI().getRawQuery());
+    }
+
+    String getMethod() {
+        return exchange.getRequestMethod();
+    }
+
+    int getSegmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * Get a path segment below the API context, e.g. "students" for /api/students/7
+     * @param index zero-based segment index
+     * @return segment, or null if the path is shorter
+     */
+    String getSegment(int index) {
+        return index < segments.length ? segments[index] : null;
+    }
+
+    /**
+     * Get a path segment that must be a positive integer id
+     * @param index zero-based segment index
+     * @return parsed id
+     * @throws ApiException 400 if the segment is not a valid id
+     */
+    int getIdSegment(int index) {
+        return parseId(getSegment(index), "id");
+    }
+
+    /**
+     * Get a path segment that must be a positive long id, such as a seat hold id
+     * @param index zero-based segment index
+     * @return parsed id
+     * @throws ApiException 400 if the segment is not a valid id
+     */
+    long getLongIdSegment(int index) {
+        String value = getSegment(index);
+        try {
+            long id = Long.parseLong(value);
+            if (id > 0) {
+                return id;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the error below
+        }
+        throw ApiException.badRequest("Invalid id: " + value);
+    }
+
+    String getQueryParam(String name) {
+        return query.get(name);
+    }
+
+    /**
+     * Get a required positive integer query parameter
+     * @param name parameter name
+     * @return parsed value
+     * @throws ApiException 400 if missing or invalid
+     */
+    int getIdQueryParam(String name) {
+        return parseId(query.get(name), name);
+    }
+
+    /**
+     * Parse a comma-separated id list such as "3,5,8"
+     * @param value raw parameter value
+     * @return parsed ids
+     * @throws ApiException 400 if any id is invalid or more than MAX_IDS are given
+     */
+    int[] parseIdList(String value) {
+        String[] parts = value.split(",");
+        if (parts.length > MAX_IDS) {
+            throw ApiException.badRequest("At most " + MAX_IDS + " ids per request");
+        }
+        int[] ids = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            ids[i] = parseId(parts[i].trim(), "id");
+        }
+        return ids;
+    }
+
+    /**
+     * Read the request body as a flat JSON object
+     * @return member name to textual value
+     * @throws ApiException 400 if the body is missing, too large or malformed
+     */
+    Map<String, String> readJsonBody() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] chunk = new byte[4096];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                if (buffer.size() + read > MAX_BODY_BYTES) {
+                    throw new ApiException(413, "Request body larger than " + MAX_BODY_BYTES + " bytes");
+                }
+                buffer.write(chunk, 0, read);
+            }
+        }
+        if (buffer.size() == 0) {
+            throw ApiException.badRequest("Request body required");
+        }
+        try {
+            return JsonReader.parseObject(buffer.toString(StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw ApiException.badRequest("Malformed JSON: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Send a JSON response, streaming the body as it is written
+     * @param status HTTP status code
+     * @param body writes the response document
+     */
+    void sendJson(int status, JsonBody body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        // Length 0 selects chunked encoding, so nothing is buffered beyond the writer's buffer
+        exchange.sendResponseHeaders(status, 0);
+        JsonWriter json = new JsonWriter(new BufferedWriter(
+            new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), WRITE_BUFFER_CHARS));
+        body.write(json);
+        json.flush();
+    }
+
+    void sendNoContent() throws IOException {
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    void sendError(int status, String message) throws IOException {
+        sendJson(status, json -> json.beginObject()
+            .field("status", status)
+            .field("error", message)
+            .endObject());
+    }
+
+    boolean isResponseStarted() {
+        return exchange.getResponseCode() != -1;
+    }
+
+    void setHeader(String name, String value) {
+        exchange.getResponseHeaders().set(name, value);
+    }
+
+    static int parseId(String value, String name) {
+        if (value == null) {
+            throw ApiException.badRequest("Missing " + name);
+        }
+        try {
+            int id = Integer.parseInt(value);
+            if (id > 0) {
+                return id;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the error below
+        }
+        throw ApiException.badRequest("Invalid " + name + ": " + value);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> params = new HashMap<>();
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+            params.putIfAbsent(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                               URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+}
@@ -0,0 +1,168 @@
+package com.studentregistration.server;
+
+import com.studentregistration.dao.AsyncCourseDAO;
+import com.studentregistration.dao.AsyncCourseDAOImpl;
+import com.studentregistration.dao.AsyncRegistrationDAO;
+import com.studentregistration.dao.AsyncRegistrationDAOImpl;
+import com.studentregistration.dao.CourseDAO;
+import com.studentregistration.dao.RegistrationDAO;
+import com.studentregistration.dao.StudentDAO;
+import com.studentregistration.hold.SeatHoldService;
+import com.studentregistration.util.AppConfig;
+import com.studentregistration.util.VirtualThreads;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP/JSON API over the student, course and registration DAOs and the seat hold service
+ * Every request runs on its own virtual thread (platform threads before Java 21) and borrows
+ * a connection from the DatabaseConnection pool only for the duration of each DAO call.
+ * At most server.maxConcurrency requests are processed at once; the rest are rejected
+ * immediately with 503 and Retry-After so a registration rush cannot pile up unbounded
+ * work behind the connection pool. See the resource classes for the endpoint list
+ */
+public class ApiServer {
+
+    public static final String CONTEXT_PATH = "/api";
+
+    private final StudentResource students;
+    private final CourseResource courses;
+    private final RegistrationResource registrations;
+    private final HoldResource holds;
+
+    private final Semaphore concurrencyLimit;
+    private final int maxConcurrency;
+    private final AtomicLong rejectedRequests = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Create a server using server.maxConcurrency from config.properties
+     */
+    public ApiServer(StudentDAO studentDAO, CourseDAO courseDAO, RegistrationDAO registrationDAO,
+                     SeatHoldService seatHoldService) {
+        this(studentDAO, courseDAO, registrationDAO, seatHoldService, AppConfig.getInt("server.maxConcurrency", 1000));
+    }
+
+    /**
+     * Create a server
+     * @param seatHoldService started service behind /api/holds
+     * @param maxConcurrency requests processed concurrently before new ones get 503
+     */
+    public ApiServer(StudentDAO studentDAO, CourseDAO courseDAO, RegistrationDAO registrationDAO,
+                     SeatHoldService seatHoldService, int maxConcurrency) {
+        // Independent lookups within a request run in parallel through the async DAOs
+        AsyncCourseDAO asyncCourseDAO = new AsyncCourseDAOImpl(courseDAO);
+        AsyncRegistrationDAO asyncRegistrationDAO = new AsyncRegistrationDAOImpl(registrationDAO);
+        this.students = new StudentResource(studentDAO, registrationDAO);
+        this.courses = new CourseResource(courseDAO, asyncCourseDAO, asyncRegistrationDAO);
+        this.registrations = new RegistrationResource(registrationDAO);
+        this.holds = new HoldResource(registrationDAO, seatHoldService);
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.concurrencyLimit = new Semaphore(this.maxConcurrency);
+    }
+
+    /**
+     * Start listening
+     * @param port TCP port
+     * @throws IOException if the port cannot be bound
+     */
+    public synchronized void start(int port) throws IOException {
+        if (server != null) {
+            return;
+        }
+        server = HttpServer.create(new InetSocketAddress(port), AppConfig.getInt("server.backlog", 1024));
+        server.createContext(CONTEXT_PATH, this::handle);
+        executor = VirtualThreads.newThreadPerTaskExecutor("api-http");
+        server.setExecutor(executor);
+        server.start();
+        System.out.println("API server listening on http://localhost:" + port + CONTEXT_PATH
+            + " (max concurrency " + maxConcurrency
+            + (VirtualThreads.isSupported() ? ", virtual threads)" : ", platform threads)"));
+    }
+
+    /**
+     * Stop accepting requests, giving in-flight requests up to the given delay to finish
+     * @param delaySeconds seconds to wait for in-flight exchanges
+     */
+    public synchronized void stop(int delaySeconds) {
+        if (server == null) {
+            return;
+        }
+        server.stop(delaySeconds);
+        executor.shutdown();
+        server = null;
+        executor = null;
+    }
+
+    /**
+     * Get number of requests currently being processed
+     * @return in-flight request count
+     */
+    public int getInFlightRequests() {
+        return maxConcurrency - concurrencyLimit.availablePermits();
+    }
+
+    /**
+     * Get number of requests rejected because the concurrency limit was reached
+     * @return rejected request count
+     */
+    public long getRejectedRequests() {
+        return rejectedRequests.get();
+    }
+
+    private void handle(HttpExchange httpExchange) throws IOException {
+        try {
+            ApiExchange exchange = new ApiExchange(httpExchange, CONTEXT_PATH);
+            if (!concurrencyLimit.tryAcquire()) {
+                rejectedRequests.incrementAndGet();
+                exchange.setHeader("Retry-After", "1");
+                exchange.sendError(503, "Server busy, please retry");
+                return;
+            }
+            try {
+                dispatch(exchange);
+            } catch (ApiException e) {
+                if (!exchange.isResponseStarted()) {
+                    exchange.sendError(e.getStatus(), e.getMessage());
+                }
+            } catch (IOException e) {
+                // Client went away mid-response; nothing useful left to send
+                System.err.println("API I/O error on " + httpExchange.getRequestURI() + ": " + e.getMessage());
+            } catch (RuntimeException e) {
+                System.err.println("Error handling " + httpExchange.getRequestMethod() + " "
+                    + httpExchange.getRequestURI() + ": " + e.getMessage());
+                e.printStackTrace();
+                if (!exchange.isResponseStarted()) {
+                    exchange.sendError(500, "Internal server error");
+                }
+            } finally {
+                concurrencyLimit.release();
+            }
+        } finally {
+            httpExchange.close();
+        }
+    }
+
+    private void dispatch(ApiExchange exchange) throws IOException {
+        String resource = exchange.getSegment(0);
+        if ("students".equals(resource)) {
+            students.handle(exchange);
+        } else if ("courses".equals(resource)) {
+            courses.handle(exchange);
+        } else if ("registrations".equals(resource)) {
+            registrations.handle(exchange);
+        } else if ("holds".equals(resource)) {
+            holds.handle(exchange);
+        } else {
+            throw ApiException.notFound("No such resource");
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.studentregistration.server;
+
+import com.studentregistration.dao.AsyncCourseDAO;
+import com.studentregistration.dao.AsyncRegistrationDAO;
+import com.studentregistration.dao.CourseDAO;
+import com.studentregistration.model.Course;
+import com.studentregistration.model.CourseMeeting;
+import com.studentregistration.model.Registration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * /api/courses endpoints
+ * <pre>
+ * GET    /courses                   all courses (?name=, ?instructor= filter, ?code= looks up one, ?ids= fetches many)
+ * POST   /courses                   create
+ * GET    /courses/{id}              one course
+ * PUT    /courses/{id}              update the supplied fields
+ * DELETE /courses/{id}              delete
+ * GET    /courses/{id}/students     registrations with student details
+ * GET    /courses/{id}/enrollment   active enrollment count (also in every course as activeEnrollment)
+ * GET    /courses/{id}/waitlist     waitlisted registrations with student details, next in line first
+ * GET    /courses/{id}/prerequisites               direct prerequisites
+ * PUT    /courses/{id}/prerequisites/{prereqId}    adds a prerequisite (409 if it would create a cycle)
+ * DELETE /courses/{id}/prerequisites/{prereqId}    removes a prerequisite
+ * GET    /courses/{id}/meetings     weekly meeting times
+ * PUT    /courses/{id}/meetings     {"meetings":"MON 09:00-10:15, WED 09:00-10:15"} replaces them ("" clears)
+ * </pre>
+ */
+class CourseResource {
+
+    private final CourseDAO courseDAO;
+    private final AsyncCourseDAO asyncCourseDAO;
+    private final AsyncRegistrationDAO asyncRegistrationDAO;
+
+    CourseResource(CourseDAO courseDAO, AsyncCourseDAO asyncCourseDAO, AsyncRegistrationDAO asyncRegistrationDAO) {
+        this.courseDAO = courseDAO;
+        this.asyncCourseDAO = asyncCourseDAO;
+        this.asyncRegistrationDAO = asyncRegistrationDAO;
+    }
+
+    void handle(ApiExchange exchange) throws IOException {
+        String method = exchange.getMethod();
+        switch (exchange.getSegmentCount()) {
+            case 1:
+                if ("GET".equals(method)) {
+                    list(exchange);
+                } else if ("POST".equals(method)) {
+                    create(exchange);
+                } else {
+                    throw ApiException.methodNotAllowed();
+                }
+                return;
+            case 2:
+                int courseId = exchange.getIdSegment(1);
+                if ("GET".equals(method)) {
+                    Course course = find(courseId);
+                    exchange.sendJson(200, json -> ModelJson.writeCourse(json, course));
+                } else if ("PUT".equals(method)) {
+                    update(exchange, courseId);
+                } else if ("DELETE".equals(method)) {
+                    if (!courseDAO.deleteCourse(courseId)) {
+                        throw ApiException.notFound("Course " + courseId + " not found");
+                    }
+                    exchange.sendNoContent();
+                } else {
+                    throw ApiException.methodNotAllowed();
+                }
+                return;
+            case 3:
+                String sub = exchange.getSegment(2);
+                if ("students".equals(sub) || "waitlist".equals(sub)) {
+                    if (!"GET".equals(method)) {
+                        throw ApiException.methodNotAllowed();
+                    }
+                    int id = exchange.getIdSegment(1);
+                    // Run the lookup while checking the course exists
+                    CompletableFuture<Course> course = asyncCourseDAO.getCourseById(id);
+                    CompletableFuture<List<Registration>> roster = "students".equals(sub)
+                        ? asyncRegistrationDAO.getStudentsForCourse(id)
+                        : asyncRegistrationDAO.getWaitlist(id);
+                    requireFound(course, id);
+                    List<Registration> registrations = roster.join();
+                    exchange.sendJson(200, json ->
+                        ModelJson.writeArray(json, registrations, ModelJson::writeRegistration));
+                    return;
+                }
+                if ("prerequisites".equals(sub)) {
+                    if (!"GET".equals(method)) {
+                        throw ApiException.methodNotAllowed();
+                    }
+                    int id = exchange.getIdSegment(1);
+                    CompletableFuture<Course> course = asyncCourseDAO.getCourseById(id);
+                    CompletableFuture<List<Course>> prerequisites = asyncCourseDAO.getPrerequisites(id);
+                    requireFound(course, id);
+                    List<Course> courses = prerequisites.join();
+                    exchange.sendJson(200, json -> ModelJson.writeArray(json, courses, ModelJson::writeCourse));
+                    return;
+                }
+                if ("meetings".equals(sub)) {
+                    meetings(exchange, exchange.getIdSegment(1));
+                    return;
+                }
+                if ("enrollment".equals(sub)) {
+                    if (!"GET".equals(method)) {
+                        throw ApiException.methodNotAllowed();
+                    }
+                    // The course row carries the maintained counter
+                    Course course = find(exchange.getIdSegment(1));
+                    exchange.sendJson(200, json -> json.beginObject()
+                        .field("courseId", course.getCourseId())
+                        .field("enrolled", course.getActiveEnrollment())
+                        .endObject());
+                    return;
+                }
+                break;
+            case 4:
+                if ("prerequisites".equals(exchange.getSegment(2))) {
+                    editPrerequisite(exchange, exchange.getIdSegment(1), exchange.getIdSegment(3));
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        throw ApiException.notFound("No such resource");
+    }
+
+    private void meetings(ApiExchange exchange, int courseId) throws IOException {
+        String method = exchange.getMethod();
+        if ("GET".equals(method)) {
+            CompletableFuture<Course> course = asyncCourseDAO.getCourseById(courseId);
+            CompletableFuture<List<CourseMeeting>> meetings = asyncCourseDAO.getMeetings(courseId);
+            requireFound(course, courseId);
+            List<CourseMeeting> found = meetings.join();
+            exchange.sendJson(200, json -> ModelJson.writeArray(json, found, ModelJson::writeCourseMeeting));
+        } else if ("PUT".equals(method)) {
+            Map<String, String> body = exchange.readJsonBody();
+            String text = body.get("meetings");
+            if (text == null) {
+                throw ApiException.badRequest("meetings is required");
+            }
+            List<CourseMeeting> meetings;
+            try {
+                meetings = CourseMeeting.parseList(courseId, text);
+            } catch (IllegalArgumentException e) {
+                throw ApiException.badRequest(e.getMessage());
+            }
+            find(courseId);
+            if (!courseDAO.setMeetings(courseId, meetings)) {
+                throw new ApiException(500, "Failed to set meeting times");
+            }
+            exchange.sendJson(200, json -> ModelJson.writeArray(json, meetings, ModelJson::writeCourseMeeting));
+        } else {
+            throw ApiException.methodNotAllowed();
+        }
+    }
+
+    private void editPrerequisite(ApiExchange exchange, int courseId, int prerequisiteId) throws IOException {
+        String method = exchange.getMethod();
+        if ("PUT".equals(method)) {
+            CompletableFuture<Course> course = asyncCourseDAO.getCourseById(courseId);
+            CompletableFuture<Course> prerequisite = asyncCourseDAO.getCourseById(prerequisiteId);
+            requireFound(course, courseId);
+            requireFound(prerequisite, prerequisiteId);
+            if (!courseDAO.addPrerequisite(courseId, prerequisiteId)) {
+                throw ApiException.conflict("Course " + prerequisiteId + " cannot be a prerequisite of course "
+                    + courseId + ": it would create a cycle");
+            }
+            exchange.sendNoContent();
+        } else if ("DELETE".equals(method)) {
+            if (!courseDAO.removePrerequisite(courseId, prerequisiteId)) {
+                throw ApiException.notFound("Course " + prerequisiteId + " is not a prerequisite of course " + courseId);
+            }
+            exchange.sendNoContent();
+        } else {
+            throw ApiException.methodNotAllowed();
+        }
+    }
+
+    private void list(ApiExchange exchange) throws IOException {
+        String code = exchange.getQueryParam("code");
+        if (code != null) {
+            Course course = courseDAO.getCourseByCode(code);
+            if (course == null) {
+                throw ApiException.notFound("No course with code " + code);
+            }
+            exchange.sendJson(200, json -> ModelJson.writeCourse(json, course));
+            return;
+        }
+
+        String ids = exchange.getQueryParam("ids");
+        if (ids != null) {
+            Map<Integer, Course> found = courseDAO.getCoursesByIds(exchange.parseIdList(ids));
+            exchange.sendJson(200, json ->
+                ModelJson.writeArray(json, new ArrayList<>(found.values()), ModelJson::writeCourse));
+            return;
+        }
+
+        String name = exchange.getQueryParam("name");
+        String instructor = exchange.getQueryParam("instructor");
+        List<Course> courses;
+        if (name != null) {
+            courses = courseDAO.searchCoursesByName(name);
+        } else if (instructor != null) {
+            courses = courseDAO.getCoursesByInstructor(instructor);
+        } else {
+            courses = courseDAO.getAllCourses();
+        }
+        exchange.sendJson(200, json -> ModelJson.writeArray(json, courses, ModelJson::writeCourse));
+    }
+
+    private void create(ApiExchange exchange) throws IOException {
+        Map<String, String> body = exchange.readJsonBody();
+        Course course = new Course();
+        ModelJson.readCourse(body, course);
+        ModelJson.requireString(body, "courseCode");
+        ModelJson.requireString(body, "courseName");
+        ModelJson.parseInt(body.get("credits"), "credits");
+
+        if (courseDAO.courseExists(course.getCourseCode())) {
+            throw ApiException.conflict("A course with code " + course.getCourseCode() + " already exists");
+        }
+        if (!courseDAO.addCourse(course)) {
+            throw new ApiException(500, "Failed to add course");
+        }
+        exchange.setHeader("Location", "/api/courses/" + course.getCourseId());
+        exchange.sendJson(201, json -> ModelJson.writeCourse(json, course));
+    }
+
+    private void update(ApiExchange exchange, int courseId) throws IOException {
+        Map<String, String> body = exchange.readJsonBody();
+        Course course = find(courseId);
+        ModelJson.readCourse(body, course);
+        if (!courseDAO.updateCourse(course)) {
+            throw new ApiException(500, "Failed to update course " + courseId);
+        }
+        // A raised or removed capacity opens seats for the waitlist
+        Course updated = body.containsKey("capacity")
+            && asyncRegistrationDAO.promoteFromWaitlist(courseId).join() > 0 ? find(courseId) : course;
+        exchange.sendJson(200, json -> ModelJson.writeCourse(json, updated));
+    }
+
+    private static void requireFound(CompletableFuture<Course> course, int courseId) {
+        if (course.join() == null) {
+            throw ApiException.notFound("Course " + courseId + " not found");
+        }
+    }
+
+    private Course find(int courseId) {
+        Course course = courseDAO.getCourseById(courseId);
+        if (course == null) {
+            throw ApiException.notFound("Course " + courseId + " not found");
+        }
+        return course;
+    }
+}
@@ -0,0 +1,136 @@
+package com.studentregistration.server;
+
+import com.studentregistration.dao.RegistrationDAO;
+import com.studentregistration.hold.SeatHoldService;
+import com.studentregistration.model.Registration;
+import com.studentregistration.model.RegistrationContext;
+import com.studentregistration.model.SeatHold;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /api/holds endpoints (the registration cart)
+ * <pre>
+ * GET    /holds?studentId=1      a student's holds, soonest to expire first
+ * POST   /holds                  {"studentId":1,"courseId":2,"minutes":15} holds a seat (minutes optional)
+ * GET    /holds/{id}             one hold
+ * DELETE /holds/{id}             releases the seat
+ * POST   /holds/{id}/checkout    registers the student in the held seat (409 if over the credit limit by now)
+ * </pre>
+ */
+class HoldResource {
+
+    private final RegistrationDAO registrationDAO;
+    private final SeatHoldService seatHoldService;
+
+    HoldResource(RegistrationDAO registrationDAO, SeatHoldService seatHoldService) {
+        this.registrationDAO = registrationDAO;
+        this.seatHoldService = seatHoldService;
+    }
+
+    void handle(ApiExchange exchange) throws IOException {
+        String method = exchange.getMethod();
+        if (exchange.getSegmentCount() == 1) {
+            switch (method) {
+                case "GET":
+                    int studentId = exchange.getIdQueryParam("studentId");
+                    List<SeatHold> holds = seatHoldService.getHoldsForStudent(studentId);
+                    exchange.sendJson(200, json -> ModelJson.writeArray(json, holds, ModelJson::writeSeatHold));
+                    return;
+                case "POST":
+                    place(exchange);
+                    return;
+                default:
+                    throw ApiException.methodNotAllowed();
+            }
+        }
+
+        long holdId = exchange.getLongIdSegment(1);
+        if (exchange.getSegmentCount() == 2) {
+            switch (method) {
+                case "GET":
+                    SeatHold hold = requireHold(holdId);
+                    exchange.sendJson(200, json -> ModelJson.writeSeatHold(json, hold));
+                    return;
+                case "DELETE":
+                    if (!seatHoldService.releaseHold(holdId)) {
+                        throw ApiException.notFound("Hold " + holdId + " not found");
+                    }
+                    exchange.sendNoContent();
+                    return;
+                default:
+                    throw ApiException.methodNotAllowed();
+            }
+        }
+
+        if (exchange.getSegmentCount() == 3 && "checkout".equals(exchange.getSegment(2))) {
+            if (!"POST".equals(method)) {
+                throw ApiException.methodNotAllowed();
+            }
+            checkout(exchange, holdId);
+            return;
+        }
+        throw ApiException.notFound("No such resource");
+    }
+
+    private void place(ApiExchange exchange) throws IOException {
+        Map<String, String> body = exchange.readJsonBody();
+        int studentId = ApiExchange.parseId(body.get("studentId"), "studentId");
+        int courseId = ApiExchange.parseId(body.get("courseId"), "courseId");
+        Integer minutes = body.get("minutes") != null ? ApiExchange.parseId(body.get("minutes"), "minutes") : null;
+
+        RegistrationContext context = registrationDAO.getRegistrationContext(studentId, courseId);
+        if (context == null) {
+            throw new ApiException(500, "Failed to look up registration");
+        }
+        if (!context.isStudentFound()) {
+            throw ApiException.notFound("Student " + studentId + " not found");
+        }
+        if (!context.isCourseFound()) {
+            throw ApiException.notFound("Course " + courseId + " not found");
+        }
+        if (context.isRegistered()) {
+            throw ApiException.conflict("Student " + studentId + " is already registered for course " + courseId);
+        }
+        RegistrationResource.requireCreditRoom(registrationDAO, studentId, context.getCourse());
+        RegistrationResource.requirePrerequisites(registrationDAO, studentId, courseId);
+        RegistrationResource.checkSchedule(registrationDAO, exchange, studentId, courseId);
+
+        SeatHold hold = minutes != null
+            ? seatHoldService.placeHold(studentId, courseId, minutes)
+            : seatHoldService.placeHold(studentId, courseId);
+        if (hold == null) {
+            SeatHold existing = seatHoldService.findHold(studentId, courseId);
+            if (existing != null) {
+                throw ApiException.conflict("Student " + studentId + " already holds a seat in course "
+                    + courseId + " (hold " + existing.getHoldId() + ")");
+            }
+            registrationDAO.recordTurnedAway(courseId);
+            throw ApiException.conflict("Course " + courseId + " is full");
+        }
+        exchange.setHeader("Location", "/api/holds/" + hold.getHoldId());
+        exchange.sendJson(201, json -> ModelJson.writeSeatHold(json, hold));
+    }
+
+    private void checkout(ApiExchange exchange, long holdId) throws IOException {
+        requireHold(holdId);
+        Registration registration = seatHoldService.checkout(holdId);
+        if (registration == null) {
+            // The hold expired in between, the seat went to another process, or the student
+            // reached the credit limit since placing the hold
+            throw ApiException.conflict("Checkout of hold " + holdId + " failed");
+        }
+        exchange.setHeader("Location", "/api/registrations/" + registration.getRegistrationId());
+        exchange.sendJson(201, json -> ModelJson.writeRegistration(json, registration));
+    }
+
+    private SeatHold requireHold(long holdId) {
+        SeatHold hold = seatHoldService.getHold(holdId);
+        if (hold == null) {
+            throw ApiException.notFound("Hold " + holdId + " not found");
+        }
+        return hold;
+    }
+}
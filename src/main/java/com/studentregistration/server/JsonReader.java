@@ -0,0 +1,161 @@
+package com.studentregistration.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parser for the flat JSON objects accepted by the API
+ * Request bodies are single objects whose members are strings, numbers, booleans or null;
+ * every value is returned in its textual form (null stays null). Nested objects and arrays
+ * are rejected
+ */
+public final class JsonReader {
+
+    private final String json;
+    private int pos;
+
+    private JsonReader(String json) {
+        this.json = json;
+    }
+
+    /**
+     * Parse a flat JSON object
+     * @param json request body
+     * @return member name to textual value, in document order
+     * @throws IllegalArgumentException if the body is not a flat JSON object
+     */
+    public static Map<String, String> parseObject(String json) {
+        JsonReader reader = new JsonReader(json);
+        Map<String, String> members = reader.object();
+        reader.skipWhitespace();
+        if (reader.pos != json.length()) {
+            throw reader.error("Unexpected trailing content");
+        }
+        return members;
+    }
+
+    private Map<String, String> object() {
+        Map<String, String> members = new LinkedHashMap<>();
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return members;
+        }
+        while (true) {
+            skipWhitespace();
+            String name = string();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            members.put(name, value());
+            skipWhitespace();
+            char c = next();
+            if (c == '}') {
+                return members;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private String value() {
+        char c = peek();
+        if (c == '"') {
+            return string();
+        }
+        if (c == '{' || c == '[') {
+            throw error("Nested values are not supported");
+        }
+        int start = pos;
+        while (pos < json.length() && "-+.eE0123456789truefalsn".indexOf(json.charAt(pos)) >= 0) {
+            pos++;
+        }
+        String literal = json.substring(start, pos);
+        if (literal.isEmpty()) {
+            throw error("Expected a value");
+        }
+        if ("null".equals(literal)) {
+            return null;
+        }
+        if (!"true".equals(literal) && !"false".equals(literal)) {
+            try {
+                Double.parseDouble(literal);
+            } catch (NumberFormatException e) {
+                throw error("Invalid literal " + literal);
+            }
+        }
+        return literal;
+    }
+
+    private String string() {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char escaped = next();
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    sb.append(escaped);
+                    break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'u':
+                    if (pos + 4 > json.length()) {
+                        throw error("Truncated unicode escape");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape");
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    throw error("Invalid escape \\" + escaped);
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private char peek() {
+        if (pos >= json.length()) {
+            throw error("Unexpected end of input");
+        }
+        return json.charAt(pos);
+    }
+
+    private char next() {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + pos);
+    }
+}
@@ -0,0 +1,341 @@
+package com.studentregistration.server;
+
+import com.studentregistration.model.Course;
+import com.studentregistration.model.CourseRecommendation;
+import com.studentregistration.model.CourseMeeting;
+import com.studentregistration.model.EnrollmentStatistics;
+import com.studentregistration.model.GpaSummary;
+import com.studentregistration.model.Grade;
+import com.studentregistration.model.GradeDistribution;
+import com.studentregistration.model.Registration;
+import com.studentregistration.model.SeatHold;
+import com.studentregistration.model.Student;
+import com.studentregistration.model.TimeBucket;
+import com.studentregistration.model.Transcript;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * JSON encoding of the model classes and decoding of request bodies into them
+ * Dates use ISO-8601 (yyyy-MM-dd, yyyy-MM-ddTHH:mm:ss)
+ */
+final class ModelJson {
+
+    @FunctionalInterface
+    interface ElementWriter<T> {
+        void write(JsonWriter json, T element) throws IOException;
+    }
+
+    private ModelJson() {}
+
+    static void writeStudent(JsonWriter json, Student student) throws IOException {
+        json.beginObject()
+            .field("studentId", student.getStudentId())
+            .field("firstName", student.getFirstName())
+            .field("lastName", student.getLastName())
+            .field("email", student.getEmail())
+            .field("phone", student.getPhone())
+            .field("dateOfBirth", student.getDateOfBirth())
+            .field("enrollmentDate", student.getEnrollmentDate())
+            .endObject();
+    }
+
+    static void writeCourse(JsonWriter json, Course course) throws IOException {
+        json.beginObject()
+            .field("courseId", course.getCourseId())
+            .field("courseCode", course.getCourseCode())
+            .field("courseName", course.getCourseName())
+            .field("description", course.getDescription())
+            .field("credits", course.getCredits())
+            .field("instructor", course.getInstructor());
+        if (course.getCapacity() != null) {
+            json.field("capacity", course.getCapacity().longValue());
+        } else {
+            json.name("capacity").nullValue();
+        }
+        json.field("createdDate", course.getCreatedDate())
+            .field("activeEnrollment", course.getActiveEnrollment())
+            .endObject();
+    }
+
+    static void writeRegistration(JsonWriter json, Registration registration) throws IOException {
+        json.beginObject()
+            .field("registrationId", registration.getRegistrationId())
+            .field("studentId", registration.getStudentId())
+            .field("courseId", registration.getCourseId())
+            .field("registrationDate", registration.getRegistrationDate())
+            .field("grade", registration.getGrade())
+            .field("status", registration.getStatus());
+        if (registration.getWaitlistPosition() != null) {
+            json.field("waitlistPosition", registration.getWaitlistPosition().longValue());
+        }
+        // Joined queries attach the other side of the registration
+        if (registration.getStudent() != null) {
+            json.name("student");
+            writeStudent(json, registration.getStudent());
+        }
+        if (registration.getCourse() != null) {
+            json.name("course");
+            writeCourse(json, registration.getCourse());
+        }
+        json.endObject();
+    }
+
+    static void writeSeatHold(JsonWriter json, SeatHold hold) throws IOException {
+        json.beginObject()
+            .field("holdId", hold.getHoldId())
+            .field("studentId", hold.getStudentId())
+            .field("courseId", hold.getCourseId())
+            .field("expiresAt", hold.getExpiresAt())
+            .field("secondsRemaining", hold.getRemainingMillis() / 1000)
+            .endObject();
+    }
+
+    static void writeCourseMeeting(JsonWriter json, CourseMeeting meeting) throws IOException {
+        json.beginObject()
+            .field("day", meeting.getDayOfWeek().name())
+            .field("startTime", meeting.getStartTime().toString())
+            .field("endTime", meeting.getEndTime().toString())
+            .endObject();
+    }
+
+    static void writeGpaSummary(JsonWriter json, GpaSummary summary) throws IOException {
+        json.beginObject()
+            .field("studentId", summary.getStudentId())
+            .field("gpa", Math.round(summary.getGpa() * 100) / 100.0)
+            .field("gpaCredits", summary.getGpaCredits())
+            .field("earnedCredits", summary.getEarnedCredits())
+            .field("standing", summary.getStanding())
+            .endObject();
+    }
+
+    static void writeTranscript(JsonWriter json, Transcript transcript) throws IOException {
+        GpaSummary summary = transcript.getSummary();
+        json.beginObject()
+            .field("studentId", transcript.getStudentId())
+            .field("gpa", Math.round(summary.getGpa() * 100) / 100.0)
+            .field("gpaCredits", summary.getGpaCredits())
+            .field("earnedCredits", summary.getEarnedCredits())
+            .field("standing", summary.getStanding())
+            .name("courses");
+        writeArray(json, transcript.getCourses(), ModelJson::writeRegistration);
+        json.endObject();
+    }
+
+    static void writeEnrollmentStatistics(JsonWriter json, EnrollmentStatistics statistics) throws IOException {
+        json.beginObject()
+            .field("version", statistics.getVersion())
+            .field("asOf", statistics.getAsOf())
+            .name("courses");
+        writeArray(json, statistics.getCourses(), ModelJson::writeCourseCounts);
+        json.name("students");
+        writeArray(json, statistics.getStudents(), ModelJson::writeStudentCounts);
+        json.endObject();
+    }
+
+    private static void writeCourseCounts(JsonWriter json, EnrollmentStatistics.CourseCounts course) throws IOException {
+        json.beginObject()
+            .field("courseId", course.getCourseId())
+            .field("courseCode", course.getCourseCode())
+            .field("courseName", course.getCourseName())
+            .field("credits", course.getCredits());
+        for (Registration.RegistrationStatus status : Registration.RegistrationStatus.values()) {
+            json.field(status.name().toLowerCase(Locale.ROOT), course.getCount(status));
+        }
+        json.endObject();
+    }
+
+    private static void writeStudentCounts(JsonWriter json, EnrollmentStatistics.StudentCounts student) throws IOException {
+        json.beginObject()
+            .field("studentId", student.getStudentId())
+            .field("fullName", student.getFullName())
+            .field("email", student.getEmail());
+        for (Registration.RegistrationStatus status : Registration.RegistrationStatus.values()) {
+            json.field(status.name().toLowerCase(Locale.ROOT), student.getCount(status));
+        }
+        json.field("activeCredits", student.getCredits(Registration.RegistrationStatus.ACTIVE))
+            .field("completedCredits", student.getCredits(Registration.RegistrationStatus.COMPLETED))
+            .endObject();
+    }
+
+    static void writeCourseRecommendation(JsonWriter json, CourseRecommendation recommendation) throws IOException {
+        json.beginObject()
+            .field("courseId", recommendation.getCourseId())
+            .field("score", recommendation.getScore())
+            .field("sharedCourses", recommendation.getSharedCourses())
+            .endObject();
+    }
+
+    static void writeGradeDistribution(JsonWriter json, GradeDistribution distribution) throws IOException {
+        json.beginObject();
+        if (distribution.getCourseId() != 0) {
+            json.field("courseId", distribution.getCourseId());
+        } else {
+            json.field("courseCount", distribution.getCourseCount());
+        }
+        double average = distribution.getAverageGradePoints();
+        json.field("instructor", distribution.getInstructor())
+            .field("registrations", distribution.getRegistrationCount())
+            .field("ungraded", distribution.getUngradedCount())
+            .field("averageGradePoints", Double.isNaN(average) ? average : Math.round(average * 100) / 100.0);
+        json.name("grades").beginObject();
+        for (Grade grade : Grade.values()) {
+            if (distribution.getCount(grade) > 0) {
+                json.field(grade.getLabel(), distribution.getCount(grade));
+            }
+        }
+        json.endObject()
+            .endObject();
+    }
+
+    static void writeTimeBucket(JsonWriter json, TimeBucket bucket) throws IOException {
+        json.beginObject()
+            .field("label", bucket.getLabel())
+            .field("start", bucket.getStart())
+            .field("end", bucket.getEnd())
+            .field("count", bucket.getCount())
+            .endObject();
+    }
+
+    static void writeIds(JsonWriter json, String name, int[] ids) throws IOException {
+        json.name(name).beginArray();
+        for (int id : ids) {
+            json.value(id);
+        }
+        json.endArray();
+    }
+
+    static <T> void writeArray(JsonWriter json, List<T> elements, ElementWriter<T> writer) throws IOException {
+        json.beginArray();
+        for (T element : elements) {
+            writer.write(json, element);
+        }
+        json.endArray();
+    }
+
+    /**
+     * Apply request body members to a student; absent members leave the field unchanged
+     */
+    static void readStudent(Map<String, String> body, Student student) {
+        if (body.containsKey("firstName")) {
+            student.setFirstName(body.get("firstName"));
+        }
+        if (body.containsKey("lastName")) {
+            student.setLastName(body.get("lastName"));
+        }
+        if (body.containsKey("email")) {
+            student.setEmail(body.get("email"));
+        }
+        if (body.containsKey("phone")) {
+            student.setPhone(body.get("phone"));
+        }
+        if (body.containsKey("dateOfBirth")) {
+            student.setDateOfBirth(parseDate(body.get("dateOfBirth"), "dateOfBirth"));
+        }
+    }
+
+    /**
+     * Apply request body members to a course; absent members leave the field unchanged
+     */
+    static void readCourse(Map<String, String> body, Course course) {
+        if (body.containsKey("courseCode")) {
+            course.setCourseCode(body.get("courseCode"));
+        }
+        if (body.containsKey("courseName")) {
+            course.setCourseName(body.get("courseName"));
+        }
+        if (body.containsKey("description")) {
+            course.setDescription(body.get("description"));
+        }
+        if (body.containsKey("credits")) {
+            course.setCredits(parseInt(body.get("credits"), "credits"));
+        }
+        if (body.containsKey("instructor")) {
+            course.setInstructor(body.get("instructor"));
+        }
+        if (body.containsKey("capacity")) {
+            // null removes the limit
+            String capacity = body.get("capacity");
+            if (capacity == null) {
+                course.setCapacity(null);
+            } else {
+                int value = parseInt(capacity, "capacity");
+                if (value < 1) {
+                    throw ApiException.badRequest("Invalid capacity: " + capacity);
+                }
+                course.setCapacity(value);
+            }
+        }
+    }
+
+    static String requireString(Map<String, String> body, String name) {
+        String value = body.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            throw ApiException.badRequest("Missing " + name);
+        }
+        return value;
+    }
+
+    static int parseInt(String value, String name) {
+        if (value == null) {
+            throw ApiException.badRequest("Missing " + name);
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw ApiException.badRequest("Invalid " + name + ": " + value);
+        }
+    }
+
+    static Registration.RegistrationStatus parseStatus(String value) {
+        try {
+            return Registration.RegistrationStatus.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw ApiException.badRequest("Invalid status: " + value);
+        }
+    }
+
+    static TimeBucket.Series parseSeries(String value) {
+        try {
+            return TimeBucket.Series.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw ApiException.badRequest("Invalid series: " + value);
+        }
+    }
+
+    static TimeBucket.Granularity parseGranularity(String value) {
+        try {
+            return TimeBucket.Granularity.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw ApiException.badRequest("Invalid granularity: " + value);
+        }
+    }
+
+    /**
+     * Parse yyyy-MM-ddTHH:mm[:ss], or yyyy-MM-dd for the start of that day
+     */
+    static LocalDateTime parseDateTime(String value, String name) {
+        try {
+            return value.indexOf('T') >= 0 ? LocalDateTime.parse(value) : LocalDate.parse(value).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            throw ApiException.badRequest("Invalid " + name + " (expected yyyy-MM-dd or yyyy-MM-ddTHH:mm): " + value);
+        }
+    }
+
+    private static LocalDate parseDate(String value, String name) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw ApiException.badRequest("Invalid " + name + " (expected yyyy-MM-dd): " + value);
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.studentregistration.server;
+
+import com.studentregistration.dao.RegistrationDAO;
+import com.studentregistration.model.Course;
+import com.studentregistration.model.EnrollmentStatistics;
+import com.studentregistration.model.GradeDistribution;
+import com.studentregistration.model.Registration;
+import com.studentregistration.model.RegistrationContext;
+import com.studentregistration.model.TimeBucket;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * /api/registrations endpoints
+ * <pre>
+ * GET    /registrations                             all registrations
+ * POST   /registrations                             {"studentId":1,"courseId":2} registers
+ *                                                   ("waitlist":true joins the waitlist if the course is full;
+ *                                                   409 if it would exceed the credit limit, prerequisites
+ *                                                   are missing or, with registration.timeConflicts=reject,
+ *                                                   it clashes with the student's timetable; with flag the
+ *                                                   clashing course IDs come back in X-Schedule-Conflicts)
+ * PATCH  /registrations                             {"studentId":1,"courseId":2,"grade":"A","status":"COMPLETED"}
+ * DELETE /registrations?studentId=1&amp;courseId=2  drops
+ * GET    /registrations/{id}                        one registration
+ * GET    /registrations/statistics                  registrations by status per course and per student,
+ *                                                   from the in-process report cache (no query between writes)
+ * GET    /registrations/cohort?allOf=1,2&amp;noneOf=3  students registered for courses 1 and 2 but not 3
+ *                                                   (anyOf=4,5 requires at least one of them; status=ACTIVE,COMPLETED
+ *                                                   counts only those statuses), from the in-process enrollment bitmaps
+ * GET    /registrations/unregistered                students and courses with no registrations, from the bitmaps
+ * GET    /registrations/grades                      grade counts per course (by=instructor sums each
+ *                                                   instructor's courses), from the in-process grade histograms
+ * GET    /registrations/timeseries?from=2024-08-01  registrations per day since then, from the in-process
+ *                                                   rollups (series=enrollments counts new students;
+ *                                                   granularity=minute|hour|day|term; to=... defaults to now)
+ * </pre>
+ */
+class RegistrationResource {
+
+    private final RegistrationDAO registrationDAO;
+
+    RegistrationResource(RegistrationDAO registrationDAO) {
+        this.registrationDAO = registrationDAO;
+    }
+
+    void handle(ApiExchange exchange) throws IOException {
+        String method = exchange.getMethod();
+        if (exchange.getSegmentCount() == 1) {
+            switch (method) {
+                case "GET":
+                    List<Registration> registrations = registrationDAO.getAllRegistrations();
+                    exchange.sendJson(200, json ->
+                        ModelJson.writeArray(json, registrations, ModelJson::writeRegistration));
+                    return;
+                case "POST":
+                    register(exchange);
+                    return;
+                case "PATCH":
+                    update(exchange);
+                    return;
+                case "DELETE":
+                    drop(exchange);
+                    return;
+                default:
+                    throw ApiException.methodNotAllowed();
+            }
+        }
+
+        if (exchange.getSegmentCount() == 2) {
+            if (!"GET".equals(method)) {
+                throw ApiException.methodNotAllowed();
+            }
+            if ("statistics".equals(exchange.getSegment(1))) {
+                EnrollmentStatistics statistics = registrationDAO.getEnrollmentStatistics();
+                if (statistics == null) {
+                    throw new ApiException(500, "Failed to load enrollment statistics");
+                }
+                exchange.sendJson(200, json -> ModelJson.writeEnrollmentStatistics(json, statistics));
+                return;
+            }
+            if ("cohort".equals(exchange.getSegment(1))) {
+                cohort(exchange);
+                return;
+            }
+            if ("grades".equals(exchange.getSegment(1))) {
+                String by = exchange.getQueryParam("by");
+                if (by != null && !"course".equals(by) && !"instructor".equals(by)) {
+                    throw ApiException.badRequest("Invalid by (expected course or instructor): " + by);
+                }
+                List<GradeDistribution> distributions = "instructor".equals(by)
+                    ? registrationDAO.getInstructorGradeDistributions()
+                    : registrationDAO.getGradeDistributions();
+                if (distributions == null) {
+                    throw new ApiException(500, "Failed to load grade histograms");
+                }
+                exchange.sendJson(200, json ->
+                    ModelJson.writeArray(json, distributions, ModelJson::writeGradeDistribution));
+                return;
+            }
+            if ("timeseries".equals(exchange.getSegment(1))) {
+                timeSeries(exchange);
+                return;
+            }
+            if ("unregistered".equals(exchange.getSegment(1))) {
+                int[] studentIds = registrationDAO.getStudentsWithoutRegistrations();
+                int[] courseIds = registrationDAO.getCoursesWithoutRegistrations();
+                if (studentIds == null || courseIds == null) {
+                    throw new ApiException(500, "Failed to load enrollment bitmaps");
+                }
+                exchange.sendJson(200, json -> {
+                    json.beginObject();
+                    ModelJson.writeIds(json, "studentIds", studentIds);
+                    ModelJson.writeIds(json, "courseIds", courseIds);
+                    json.endObject();
+                });
+                return;
+            }
+            int registrationId = exchange.getIdSegment(1);
+            Registration registration = registrationDAO.getRegistrationById(registrationId);
+            if (registration == null) {
+                throw ApiException.notFound("Registration " + registrationId + " not found");
+            }
+            exchange.sendJson(200, json -> ModelJson.writeRegistration(json, registration));
+            return;
+        }
+        throw ApiException.notFound("No such resource");
+    }
+
+    private void register(ApiExchange exchange) throws IOException {
+        Map<String, String> body = exchange.readJsonBody();
+        int studentId = ApiExchange.parseId(body.get("studentId"), "studentId");
+        int courseId = ApiExchange.parseId(body.get("courseId"), "courseId");
+        boolean waitlist = "true".equals(body.get("waitlist"));
+
+        // Student, course and existing registration come back from a single query
+        RegistrationContext context = requireContext(studentId, courseId);
+        if (context.isRegistered()) {
+            throw ApiException.conflict("Student " + studentId + " is already registered for course " + courseId);
+        }
+        Course course = context.getCourse();
+        requireCreditRoom(registrationDAO, studentId, course);
+        requirePrerequisites(registrationDAO, studentId, courseId);
+        checkSchedule(registrationDAO, exchange, studentId, courseId);
+        Registration registration = new Registration(studentId, courseId);
+        if (course.isFull()) {
+            if (!waitlist) {
+                // Refused here without reaching addRegistration, which counts the other outcomes
+                registrationDAO.recordTurnedAway(courseId);
+            }
+            requireWaitlist(waitlist, courseId);
+            registration.setStatus(Registration.RegistrationStatus.WAITLISTED);
+        }
+
+        if (!registrationDAO.addRegistration(registration)) {
+            // Most likely the last seat went to a concurrent request
+            Integer capacity = course.getCapacity();
+            if (registration.getStatus() != Registration.RegistrationStatus.ACTIVE || capacity == null
+                    || registrationDAO.getEnrollmentCount(courseId) < capacity) {
+                throw new ApiException(500, "Registration failed");
+            }
+            requireWaitlist(waitlist, courseId);
+            registration.setStatus(Registration.RegistrationStatus.WAITLISTED);
+            if (!registrationDAO.addRegistration(registration)) {
+                throw new ApiException(500, "Registration failed");
+            }
+        }
+        // A waitlisted registration comes back ACTIVE if a seat opened while it was written
+        exchange.setHeader("Location", "/api/registrations/" + registration.getRegistrationId());
+        exchange.sendJson(201, json -> ModelJson.writeRegistration(json, registration));
+    }
+
+    private void cohort(ApiExchange exchange) throws IOException {
+        int[] allOf = idListParam(exchange, "allOf");
+        int[] anyOf = idListParam(exchange, "anyOf");
+        int[] noneOf = idListParam(exchange, "noneOf");
+        if (allOf.length == 0 && anyOf.length == 0 && noneOf.length == 0) {
+            throw ApiException.badRequest("At least one of allOf, anyOf and noneOf is required");
+        }
+        Set<Registration.RegistrationStatus> statuses = EnumSet.noneOf(Registration.RegistrationStatus.class);
+        String status = exchange.getQueryParam("status");
+        if (status != null && !status.trim().isEmpty()) {
+            for (String part : status.split(",")) {
+                statuses.add(ModelJson.parseStatus(part));
+            }
+        }
+
+        int[] studentIds = registrationDAO.findCohort(allOf, anyOf, noneOf, statuses);
+        if (studentIds == null) {
+            throw new ApiException(500, "Failed to load enrollment bitmaps");
+        }
+        exchange.sendJson(200, json -> {
+            json.beginObject()
+                .field("count", studentIds.length);
+            ModelJson.writeIds(json, "studentIds", studentIds);
+            json.endObject();
+        });
+    }
+
+    private void timeSeries(ApiExchange exchange) throws IOException {
+        String series = exchange.getQueryParam("series");
+        String granularity = exchange.getQueryParam("granularity");
+        String from = exchange.getQueryParam("from");
+        String to = exchange.getQueryParam("to");
+        TimeBucket.Series parsedSeries = series != null ? ModelJson.parseSeries(series) : TimeBucket.Series.REGISTRATIONS;
+        TimeBucket.Granularity parsedGranularity =
+            granularity != null ? ModelJson.parseGranularity(granularity) : TimeBucket.Granularity.DAY;
+        if (from == null) {
+            throw ApiException.badRequest("Missing from");
+        }
+        LocalDateTime parsedFrom = ModelJson.parseDateTime(from, "from");
+        LocalDateTime parsedTo = to != null ? ModelJson.parseDateTime(to, "to") : LocalDateTime.now();
+        if (!parsedFrom.isBefore(parsedTo)) {
+            throw ApiException.badRequest("from must be before to");
+        }
+
+        List<TimeBucket> buckets = registrationDAO.getTimeSeries(parsedSeries, parsedGranularity, parsedFrom, parsedTo);
+        long total = registrationDAO.countInRange(parsedSeries, parsedFrom, parsedTo);
+        if (buckets == null || total < 0) {
+            throw new ApiException(500, "Failed to load time series");
+        }
+        exchange.sendJson(200, json -> {
+            json.beginObject()
+                .field("series", parsedSeries)
+                .field("granularity", parsedGranularity)
+                .field("from", parsedFrom)
+                .field("to", parsedTo)
+                .field("total", total);
+            json.name("buckets");
+            ModelJson.writeArray(json, buckets, ModelJson::writeTimeBucket);
+            json.endObject();
+        });
+    }
+
+    private static int[] idListParam(ApiExchange exchange, String name) {
+        String value = exchange.getQueryParam(name);
+        return value == null || value.trim().isEmpty() ? new int[0] : exchange.parseIdList(value);
+    }
+
+    private void update(ApiExchange exchange) throws IOException {
+        Map<String, String> body = exchange.readJsonBody();
+        int studentId = ApiExchange.parseId(body.get("studentId"), "studentId");
+        int courseId = ApiExchange.parseId(body.get("courseId"), "courseId");
+        if (!body.containsKey("grade") && !body.containsKey("status")) {
+            throw ApiException.badRequest("Nothing to update; supply grade and/or status");
+        }
+        Registration.RegistrationStatus status =
+            body.get("status") != null ? ModelJson.parseStatus(body.get("status")) : null;
+
+        RegistrationContext context = requireContext(studentId, courseId);
+        if (!context.isRegistered()) {
+            throw ApiException.notFound("Student " + studentId + " is not registered for course " + courseId);
+        }
+        if (status != null && countsTowardCredits(status)
+                && !countsTowardCredits(context.getRegistration().getStatus())) {
+            requireCreditRoom(registrationDAO, studentId, context.getCourse());
+            checkSchedule(registrationDAO, exchange, studentId, courseId);
+        }
+        if (body.containsKey("grade") && !registrationDAO.updateGrade(studentId, courseId, body.get("grade"))) {
+            throw new ApiException(500, "Failed to update grade");
+        }
+        if (status != null && !registrationDAO.updateRegistrationStatus(studentId, courseId, status)) {
+            throw new ApiException(500, "Failed to update status");
+        }
+        exchange.sendNoContent();
+    }
+
+    private void drop(ApiExchange exchange) throws IOException {
+        int studentId = exchange.getIdQueryParam("studentId");
+        int courseId = exchange.getIdQueryParam("courseId");
+        if (!registrationDAO.dropStudentFromCourse(studentId, courseId)) {
+            throw ApiException.notFound("Student " + studentId + " is not registered for course " + courseId);
+        }
+        exchange.sendNoContent();
+    }
+
+    /**
+     * Refuse with 409 if the course's credits would take the student over the credit limit
+     * The load comes from the DAO's in-process totals, so this costs no query
+     */
+    static void requireCreditRoom(RegistrationDAO registrationDAO, int studentId, Course course) {
+        int limit = registrationDAO.getCreditLimit();
+        if (limit <= 0) {
+            return;
+        }
+        int load = registrationDAO.getCreditLoad(studentId);
+        if (load + course.getCredits() > limit) {
+            throw ApiException.conflict("Student " + studentId + " has " + load + " credits; "
+                + course.getCourseCode() + " (" + course.getCredits() + ") would exceed the limit of " + limit);
+        }
+    }
+
+    /**
+     * Refuse with 409 if the student has not completed the course's prerequisites
+     * Answered from the DAO's in-process prerequisite graph, so this costs no query
+     */
+    static void requirePrerequisites(RegistrationDAO registrationDAO, int studentId, int courseId) {
+        List<Integer> missing = registrationDAO.getMissingPrerequisites(studentId, courseId);
+        if (!missing.isEmpty()) {
+            throw ApiException.conflict("Student " + studentId + " is missing prerequisite course(s) "
+                + missing + " for course " + courseId);
+        }
+    }
+
+    /**
+     * Refuse with 409, or with registration.timeConflicts=flag report in an X-Schedule-Conflicts
+     * header, if the course meets at the same time as one of the student's other courses
+     * Answered from the DAO's in-process timetables, so this costs no query
+     */
+    static void checkSchedule(RegistrationDAO registrationDAO, ApiExchange exchange, int studentId, int courseId) {
+        List<Integer> clashes = registrationDAO.getScheduleConflicts(studentId, courseId);
+        if (clashes.isEmpty()) {
+            return;
+        }
+        if (registrationDAO.rejectsScheduleConflicts()) {
+            throw ApiException.conflict("Course " + courseId + " clashes with student " + studentId
+                + "'s course(s) " + clashes);
+        }
+        StringBuilder header = new StringBuilder();
+        for (Integer clash : clashes) {
+            header.append(header.length() > 0 ? "," : "").append(clash);
+        }
+        exchange.setHeader("X-Schedule-Conflicts", header.toString());
+    }
+
+    private static boolean countsTowardCredits(Registration.RegistrationStatus status) {
+        return status == Registration.RegistrationStatus.ACTIVE || status == Registration.RegistrationStatus.WAITLISTED;
+    }
+
+    private static void requireWaitlist(boolean waitlist, int courseId) {
+        if (!waitlist) {
+            throw ApiException.conflict("Course " + courseId + " is full");
+        }
+    }
+
+    private RegistrationContext requireContext(int studentId, int courseId) {
+        RegistrationContext context = registrationDAO.getRegistrationContext(studentId, courseId);
+        if (context == null) {
+            throw new ApiException(500, "Failed to look up registration");
+        }
+        if (!context.isStudentFound()) {
+            throw ApiException.notFound("Student " + studentId + " not found");
+        }
+        if (!context.isCourseFound()) {
+            throw ApiException.notFound("Course " + courseId + " not found");
+        }
+        return context;
+    }
+}
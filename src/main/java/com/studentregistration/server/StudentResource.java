@@ -0,0 +1,215 @@
+package com.studentregistration.server;
+
+import com.studentregistration.dao.RegistrationDAO;
+import com.studentregistration.dao.StudentDAO;
+import com.studentregistration.model.CourseRecommendation;
+import com.studentregistration.model.GpaSummary;
+import com.studentregistration.model.Registration;
+import com.studentregistration.model.Student;
+import com.studentregistration.model.StudentProfile;
+import com.studentregistration.model.Transcript;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /api/students endpoints
+ * <pre>
+ * GET    /students                 all students (?name= searches, ?email= looks up one, ?ids=1,2,3 fetches many,
+ *                                  ?standing=DEANS_LIST|GOOD|PROBATION lists GPA summaries in that standing)
+ * POST   /students                 create
+ * GET    /students/{id}            one student
+ * PUT    /students/{id}            update the supplied fields
+ * DELETE /students/{id}            delete
+ * GET    /students/{id}/courses    registrations with course details
+ * GET    /students/{id}/transcript COMPLETED courses with credit-weighted GPA and standing
+ * GET    /students/{id}/recommendations?k=5
+ *                                  courses commonly taken with the student's courses, from the in-process
+ *                                  co-enrollment matrix (no query; an unknown student gets an empty list)
+ * </pre>
+ */
+class StudentResource {
+
+    private static final int DEFAULT_RECOMMENDATIONS = 5;
+    private static final int MAX_RECOMMENDATIONS = 50;
+
+    private final StudentDAO studentDAO;
+    private final RegistrationDAO registrationDAO;
+
+    StudentResource(StudentDAO studentDAO, RegistrationDAO registrationDAO) {
+        this.studentDAO = studentDAO;
+        this.registrationDAO = registrationDAO;
+    }
+
+    void handle(ApiExchange exchange) throws IOException {
+        String method = exchange.getMethod();
+        switch (exchange.getSegmentCount()) {
+            case 1:
+                if ("GET".equals(method)) {
+                    list(exchange);
+                } else if ("POST".equals(method)) {
+                    create(exchange);
+                } else {
+                    throw ApiException.methodNotAllowed();
+                }
+                return;
+            case 2:
+                int studentId = exchange.getIdSegment(1);
+                if ("GET".equals(method)) {
+                    Student student = find(studentId);
+                    exchange.sendJson(200, json -> ModelJson.writeStudent(json, student));
+                } else if ("PUT".equals(method)) {
+                    update(exchange, studentId);
+                } else if ("DELETE".equals(method)) {
+                    if (!studentDAO.deleteStudent(studentId)) {
+                        throw ApiException.notFound("Student " + studentId + " not found");
+                    }
+                    exchange.sendNoContent();
+                } else {
+                    throw ApiException.methodNotAllowed();
+                }
+                return;
+            case 3:
+                if ("courses".equals(exchange.getSegment(2))) {
+                    if (!"GET".equals(method)) {
+                        throw ApiException.methodNotAllowed();
+                    }
+                    int id = exchange.getIdSegment(1);
+                    // One query returns the student and the list, so a missing student needs no extra lookup
+                    StudentProfile profile = registrationDAO.getStudentProfile(id);
+                    if (profile == null) {
+                        throw ApiException.notFound("Student " + id + " not found");
+                    }
+                    List<Registration> registrations = profile.getRegistrations();
+                    exchange.sendJson(200, json ->
+                        ModelJson.writeArray(json, registrations, ModelJson::writeRegistration));
+                    return;
+                }
+                if ("transcript".equals(exchange.getSegment(2))) {
+                    if (!"GET".equals(method)) {
+                        throw ApiException.methodNotAllowed();
+                    }
+                    int id = exchange.getIdSegment(1);
+                    find(id);
+                    Transcript transcript = registrationDAO.getTranscript(id);
+                    exchange.sendJson(200, json -> ModelJson.writeTranscript(json, transcript));
+                    return;
+                }
+                if ("recommendations".equals(exchange.getSegment(2))) {
+                    if (!"GET".equals(method)) {
+                        throw ApiException.methodNotAllowed();
+                    }
+                    recommendations(exchange, exchange.getIdSegment(1));
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        throw ApiException.notFound("No such resource");
+    }
+
+    private void recommendations(ApiExchange exchange, int studentId) throws IOException {
+        String k = exchange.getQueryParam("k");
+        int limit = k != null ? ApiExchange.parseId(k, "k") : DEFAULT_RECOMMENDATIONS;
+        if (limit > MAX_RECOMMENDATIONS) {
+            throw ApiException.badRequest("At most " + MAX_RECOMMENDATIONS + " recommendations per request");
+        }
+        List<CourseRecommendation> recommendations = registrationDAO.recommendCourses(studentId, limit);
+        if (recommendations == null) {
+            throw new ApiException(503, "Course recommendations are not available yet");
+        }
+        exchange.sendJson(200, json ->
+            ModelJson.writeArray(json, recommendations, ModelJson::writeCourseRecommendation));
+    }
+
+    private void list(ApiExchange exchange) throws IOException {
+        String email = exchange.getQueryParam("email");
+        if (email != null) {
+            Student student = studentDAO.getStudentByEmail(email);
+            if (student == null) {
+                throw ApiException.notFound("No student with email " + email);
+            }
+            exchange.sendJson(200, json -> ModelJson.writeStudent(json, student));
+            return;
+        }
+
+        String ids = exchange.getQueryParam("ids");
+        if (ids != null) {
+            Map<Integer, Student> found = studentDAO.getStudentsByIds(exchange.parseIdList(ids));
+            exchange.sendJson(200, json ->
+                ModelJson.writeArray(json, new ArrayList<>(found.values()), ModelJson::writeStudent));
+            return;
+        }
+
+        String standing = exchange.getQueryParam("standing");
+        if (standing != null) {
+            listByStanding(exchange, standing);
+            return;
+        }
+
+        String name = exchange.getQueryParam("name");
+        List<Student> students = name != null
+            ? studentDAO.searchStudentsByName(name)
+            : studentDAO.getAllStudents();
+        exchange.sendJson(200, json -> ModelJson.writeArray(json, students, ModelJson::writeStudent));
+    }
+
+    private void listByStanding(ApiExchange exchange, String value) throws IOException {
+        GpaSummary.Standing standing;
+        try {
+            standing = GpaSummary.Standing.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw ApiException.badRequest("standing must be DEANS_LIST, GOOD or PROBATION");
+        }
+        List<GpaSummary> summaries = registrationDAO.getGpaSummaries();
+        if (summaries == null) {
+            throw new ApiException(500, "Failed to compute GPAs");
+        }
+        List<GpaSummary> matching = new ArrayList<>();
+        for (GpaSummary summary : summaries) {
+            if (summary.getStanding() == standing) {
+                matching.add(summary);
+            }
+        }
+        exchange.sendJson(200, json -> ModelJson.writeArray(json, matching, ModelJson::writeGpaSummary));
+    }
+
+    private void create(ApiExchange exchange) throws IOException {
+        Map<String, String> body = exchange.readJsonBody();
+        Student student = new Student();
+        ModelJson.readStudent(body, student);
+        ModelJson.requireString(body, "firstName");
+        ModelJson.requireString(body, "lastName");
+        ModelJson.requireString(body, "email");
+
+        if (studentDAO.studentExists(student.getEmail())) {
+            throw ApiException.conflict("A student with email " + student.getEmail() + " already exists");
+        }
+        if (!studentDAO.addStudent(student)) {
+            throw new ApiException(500, "Failed to add student");
+        }
+        exchange.setHeader("Location", "/api/students/" + student.getStudentId());
+        exchange.sendJson(201, json -> ModelJson.writeStudent(json, student));
+    }
+
+    private void update(ApiExchange exchange, int studentId) throws IOException {
+        Map<String, String> body = exchange.readJsonBody();
+        Student student = find(studentId);
+        ModelJson.readStudent(body, student);
+        if (!studentDAO.updateStudent(student)) {
+            throw new ApiException(500, "Failed to update student " + studentId);
+        }
+        exchange.sendJson(200, json -> ModelJson.writeStudent(json, student));
+    }
+
+    private Student find(int studentId) {
+        Student student = studentDAO.getStudentById(studentId);
+        if (student == null) {
+            throw ApiException.notFound("Student " + studentId + " not found");
+        }
+        return student;
+    }
+}
@@ -0,0 +1,87 @@
+package com.studentregistration.util;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Application configuration loaded from config.properties
+ * The file is read from the working directory (or the path in -Dconfig.file);
+ * JVM system properties with the same key take precedence over file values
+ */
+public final class AppConfig {
+
+    private static final String CONFIG_FILE = System.getProperty("config.file", "config.properties");
+    private static final Properties PROPERTIES = load();
+
+    private AppConfig() {}
+
+    /**
+     * Get a string setting
+     * @param key property name
+     * @param defaultValue value used when the key is not configured
+     * @return configured value or default
+     */
+    public static String getString(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = PROPERTIES.getProperty(key);
+        }
+        return value != null ? value.trim() : defaultValue;
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid integer for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid number for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static double getDouble(String key, double defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid number for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+    }
+
+    private static Properties load() {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(CONFIG_FILE)) {
+            properties.load(in);
+        } catch (IOException e) {
+            // Missing file is fine: every setting has a default
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,179 @@
+package com.studentregistration.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent by-id lookups into batched loads (DataLoader style)
+ * The first key requested after a dispatch opens a batch; keys requested within the batch
+ * window join it, and the batch is loaded with a single call to the batch function once
+ * the window expires or maxBatchSize keys have been collected, whichever comes first.
+ * Concurrent requests for a key that is already queued or being loaded share its future,
+ * so each key is fetched at most once per batch. Nothing is cached after a batch completes
+ * @param <V> loaded value type
+ */
+public class BatchLoader<V> {
+
+    // One timer thread for every loader; it only schedules dispatches, loads run elsewhere
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "batch-loader-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ExecutorService LOADERS = VirtualThreads.newThreadPerTaskExecutor("batch-loader");
+
+    private final String name;
+    private final Function<List<Integer>, Map<Integer, V>> batchFunction;
+    private final long windowNanos;
+    private final int maxBatchSize;
+
+    private final ConcurrentHashMap<Integer, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private List<Integer> pending = new ArrayList<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong keysLoaded = new AtomicLong();
+
+    /**
+     * Create a loader
+     * @param name loader name used in error messages
+     * @param batchFunction loads every key in the list; keys missing from the result load as null
+     * @param windowMicros how long a batch stays open for more keys
+     * @param maxBatchSize batch size that triggers an immediate load
+     */
+    public BatchLoader(String name, Function<List<Integer>, Map<Integer, V>> batchFunction,
+                       long windowMicros, int maxBatchSize) {
+        this.name = name;
+        this.batchFunction = batchFunction;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, windowMicros));
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    /**
+     * Load a value, blocking until the batch containing its key has been loaded
+     * @param key id to load
+     * @return loaded value, or null if the batch function returned none for this key
+     */
+    public V load(int key) {
+        try {
+            return loadAsync(key).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            System.err.println("Batch load failed in " + name + ": " + e.getCause());
+            return null;
+        }
+    }
+
+    /**
+     * Queue a key for loading
+     * @param key id to load
+     * @return future completed when the key's batch has been loaded
+     */
+    public CompletableFuture<V> loadAsync(int key) {
+        requests.incrementAndGet();
+        CompletableFuture<V> existing = inFlight.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture<V> future = new CompletableFuture<>();
+        existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        List<Integer> fullBatch = null;
+        boolean openedBatch;
+        synchronized (lock) {
+            pending.add(key);
+            openedBatch = pending.size() == 1;
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = pending;
+                pending = new ArrayList<>();
+            }
+        }
+
+        if (fullBatch != null) {
+            // The caller is about to block on this batch anyway, so load it on this thread
+            dispatch(fullBatch);
+        } else if (openedBatch) {
+            TIMER.schedule(this::dispatchPending, windowNanos, TimeUnit.NANOSECONDS);
+        }
+        return future;
+    }
+
+    /**
+     * Get number of load requests, including those that joined an in-flight key
+     * @return total requests
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Get number of batch loads issued
+     * @return total batches
+     */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    /**
+     * Get number of distinct keys loaded across all batches
+     * @return total keys loaded
+     */
+    public long getKeysLoaded() {
+        return keysLoaded.get();
+    }
+
+    private void dispatchPending() {
+        List<Integer> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                // Already dispatched because it filled up
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+        LOADERS.execute(() -> dispatch(batch));
+    }
+
+    private void dispatch(List<Integer> batch) {
+        batches.incrementAndGet();
+        keysLoaded.addAndGet(batch.size());
+        Map<Integer, V> results;
+        try {
+            results = batchFunction.apply(Collections.unmodifiableList(batch));
+        } catch (RuntimeException e) {
+            for (Integer key : batch) {
+                CompletableFuture<V> future = inFlight.remove(key);
+                if (future != null) {
+                    future.completeExceptionally(e);
+                }
+            }
+            return;
+        }
+
+        for (Integer key : batch) {
+            // Remove before completing so a caller that sees the result and asks again starts a fresh load
+            CompletableFuture<V> future = inFlight.remove(key);
+            if (future != null) {
+                future.complete(results != null ? results.get(key) : null);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.studentregistration.util;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Executor that caps how many submitted tasks run at the same time
+ * Tasks are handed to the underlying executor immediately and wait for a permit on their own
+ * thread, so execute() never blocks the caller. Intended for a thread-per-task executor on
+ * virtual threads, where a waiting task costs little more than its stack
+ */
+public class BoundedExecutor implements Executor {
+
+    private final Executor delegate;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+
+    /**
+     * @param delegate executor that runs the tasks
+     * @param maxConcurrency maximum number of tasks running at once
+     */
+    public BoundedExecutor(Executor delegate, int maxConcurrency) {
+        this.delegate = delegate;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.permits = new Semaphore(this.maxConcurrency);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        delegate.execute(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Get number of tasks currently running
+     * @return running task count
+     */
+    public int getRunningTasks() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * Get number of tasks waiting for a permit
+     * @return waiting task estimate
+     */
+    public int getWaitingTasks() {
+        return permits.getQueueLength();
+    }
+}
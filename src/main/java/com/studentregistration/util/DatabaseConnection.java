@@ -1,29 +1,77 @@
 package com.studentregistration.util;
 
+import com.studentregistration.metrics.LatencyHistogram;
+import com.studentregistration.metrics.jfr.ConnectionAcquireEvent;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Database connection utility class implementing Singleton pattern
- * Manages database connections and provides connection pooling concept
+ * Maintains a bounded pool of JDBC connections configured through config.properties
+ * (db.url, db.username, db.password, db.pool.*). getConnection() hands out a pooled
+ * connection whose close() returns it to the pool, so the DAOs' try-with-resources blocks
+ * stay unchanged and every caller thread gets a connection of its own
  */
 public class DatabaseConnection {
 
-    private static final String URL = "jdbc:mysql://localhost:3306/student_registration_db";
-    private static final String USERNAME = "root"; // Change as per your MySQL setup
-    private static final String PASSWORD = "password"; // Change as per your MySQL setup
+    private static final String URL =
+        AppConfig.getString("db.url", "jdbc:mysql://localhost:3306/student_registration_db");
+    private static final String USERNAME = AppConfig.getString("db.username", "root");
+    private static final String PASSWORD = AppConfig.getString("db.password", "password");
+
+    private static final int MAX_ACTIVE = Math.max(1, AppConfig.getInt("db.pool.maxActive", 20));
+    private static final int INITIAL_SIZE = Math.min(MAX_ACTIVE, AppConfig.getInt("db.pool.initialSize", 5));
+    private static final long MAX_WAIT_MS = AppConfig.getLong("db.pool.maxWait.ms", 5000);
+    // Idle connections older than this are validated before being handed out
+    private static final long VALIDATION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
 
     private static DatabaseConnection instance;
-    private Connection connection;
+
+    private final BlockingQueue<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits = new Semaphore(MAX_ACTIVE, true);
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+
+    // Connection usage statistics exported by the metrics endpoint
+    private final AtomicLong acquisitions = new AtomicLong();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong acquireTimeouts = new AtomicLong();
+    private final LatencyHistogram acquireLatency = new LatencyHistogram();
+
+    /**
+     * Physical connection sitting in the idle queue
+     */
+    private static class PooledConnection {
+        final Connection physical;
+        long lastUsedNanos;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.lastUsedNanos = System.nanoTime();
+        }
+    }
 
     // Private constructor for Singleton pattern
     private DatabaseConnection() {
         try {
             // Load MySQL JDBC driver
             Class.forName("com.mysql.cj.jdbc.Driver");
-            this.connection = DriverManager.getConnection(URL, USERNAME, PASSWORD);
-            System.out.println("Database connection established successfully!");
+            for (int i = 0; i < INITIAL_SIZE; i++) {
+                idle.offer(new PooledConnection(openPhysicalConnection()));
+            }
+            System.out.println("Database connection pool established successfully! ("
+                + INITIAL_SIZE + " of max " + MAX_ACTIVE + " connections)");
         } catch (ClassNotFoundException e) {
             System.err.println("MySQL JDBC Driver not found!");
             e.printStackTrace();
@@ -45,30 +93,57 @@ public class DatabaseConnection {
     }
 
     /**
-     * Get database connection
-     * @return Connection object
-     * @throws SQLException if connection is closed or invalid
+     * Borrow a connection from the pool
+     * Closing the returned connection gives it back to the pool
+     * @return Connection object owned by the caller until closed
+     * @throws SQLException if no connection becomes available within db.pool.maxWait.ms
+     *         or a new connection cannot be opened
      */
     public Connection getConnection() throws SQLException {
-        // Check if connection is closed or invalid, create new one
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(URL, USERNAME, PASSWORD);
+        ConnectionAcquireEvent event = new ConnectionAcquireEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(MAX_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                acquireTimeouts.incrementAndGet();
+                throw new SQLException("Timed out after " + MAX_WAIT_MS + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled = takeValidIdleConnection();
+            if (pooled == null) {
+                pooled = new PooledConnection(openPhysicalConnection());
+                event.newConnection = true;
+            }
+            activeConnections.incrementAndGet();
+            return wrap(pooled);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        } finally {
+            acquisitions.incrementAndGet();
+            acquireLatency.record(System.nanoTime() - start);
+            event.commit();
         }
-        return connection;
     }
 
     /**
-     * Close database connection
+     * Close all idle pooled connections
+     * Connections currently borrowed are closed when they are returned
      */
     public void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Database connection closed.");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error closing database connection!");
-            e.printStackTrace();
+        PooledConnection pooled;
+        int closed = 0;
+        while ((pooled = idle.poll()) != null) {
+            discard(pooled.physical);
+            closed++;
+        }
+        if (closed > 0) {
+            System.out.println("Database connection closed.");
         }
     }
 
@@ -77,18 +152,177 @@ public class DatabaseConnection {
      * @return true if connection is valid, false otherwise
      */
     public boolean testConnection() {
-        try {
-            return connection != null && !connection.isClosed() && connection.isValid(5);
+        try (Connection conn = getConnection()) {
+            return conn.isValid(5);
         } catch (SQLException e) {
             return false;
         }
     }
 
+    /**
+     * Get number of getConnection() calls
+     * @return total acquisitions
+     */
+    public long getAcquisitionCount() {
+        return acquisitions.get();
+    }
+
+    /**
+     * Get number of physical connections opened
+     * @return total connections opened since startup
+     */
+    public long getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    /**
+     * Get number of getConnection() calls that timed out waiting for a free connection
+     * @return total acquire timeouts
+     */
+    public long getAcquireTimeouts() {
+        return acquireTimeouts.get();
+    }
+
+    /**
+     * Get latency distribution of getConnection() calls
+     * @return acquire latency histogram
+     */
+    public LatencyHistogram getAcquireLatency() {
+        return acquireLatency;
+    }
+
+    /**
+     * Get number of physical connections currently open (borrowed plus idle)
+     * @return open connection count
+     */
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    /**
+     * Get number of connections currently borrowed by callers
+     * @return active connection count
+     */
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    /**
+     * Get number of connections waiting in the pool
+     * @return idle connection count
+     */
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    /**
+     * Get the pool size limit (db.pool.maxActive)
+     * @return maximum number of concurrently borrowed connections
+     */
+    public int getMaxConnections() {
+        return MAX_ACTIVE;
+    }
+
+    /**
+     * Get number of threads currently blocked waiting for a connection
+     * @return waiting thread estimate
+     */
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
     /**
      * Get database connection parameters for configuration
      * @return connection info string
      */
     public String getConnectionInfo() {
-        return "URL: " + URL + ", Username: " + USERNAME;
+        return "URL: " + URL + ", Username: " + USERNAME + ", Pool size: " + MAX_ACTIVE;
+    }
+
+    private PooledConnection takeValidIdleConnection() {
+        PooledConnection pooled;
+        while ((pooled = idle.poll()) != null) {
+            try {
+                boolean stale = System.nanoTime() - pooled.lastUsedNanos > VALIDATION_INTERVAL_NANOS;
+                if (!pooled.physical.isClosed() && (!stale || pooled.physical.isValid(2))) {
+                    return pooled;
+                }
+            } catch (SQLException e) {
+                // Broken connection, fall through and discard it
+            }
+            discard(pooled.physical);
+        }
+        return null;
+    }
+
+    private Connection openPhysicalConnection() throws SQLException {
+        Connection physical = DriverManager.getConnection(URL, USERNAME, PASSWORD);
+        connectionsOpened.incrementAndGet();
+        openConnections.incrementAndGet();
+        return physical;
+    }
+
+    private void discard(Connection physical) {
+        openConnections.decrementAndGet();
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            // Already broken, nothing else to do
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        activeConnections.decrementAndGet();
+        try {
+            Connection physical = pooled.physical;
+            if (physical.isClosed()) {
+                openConnections.decrementAndGet();
+                return;
+            }
+            // Never hand out a connection with a half-finished transaction
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            pooled.lastUsedNanos = System.nanoTime();
+            idle.offer(pooled);
+        } catch (SQLException e) {
+            discard(pooled.physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Connection wrap(PooledConnection pooled) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close":
+                        if (closed.compareAndSet(false, true)) {
+                            release(pooled);
+                        }
+                        return null;
+                    case "isClosed":
+                        return closed.get() || pooled.physical.isClosed();
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "PooledConnection[" + pooled.physical + "]";
+                    default:
+                        if (closed.get()) {
+                            throw new SQLException("Connection has been returned to the pool");
+                        }
+                        try {
+                            return method.invoke(pooled.physical, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                }
+            });
     }
 }
@@ -0,0 +1,221 @@
+package com.studentregistration.util;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timer wheel for large numbers of coarse-grained timeouts
+ * A timeout is hashed by its deadline tick into one of wheelSize buckets, and one daemon
+ * thread advances a bucket per tick, firing the timeouts whose deadline has passed and
+ * counting down the rounds of the rest. Scheduling and cancelling are O(1) and lock-free, and
+ * each tick only visits one bucket, so hundreds of thousands of pending timeouts cost little
+ * more than their memory. Timeouts fire up to one tick late.
+ *
+ * Tasks run on the wheel thread and must be short; hand anything that blocks to an executor
+ */
+public class HashedTimerWheel {
+
+    // Timeouts moved from the pending queue into buckets per tick, so a burst cannot stall the wheel
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final String name;
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startTime;
+    private final Thread worker;
+
+    private final ConcurrentLinkedQueue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private volatile boolean running = true;
+
+    /**
+     * Create a wheel and start its thread
+     * @param name thread name
+     * @param tickDuration time covered by one bucket
+     * @param unit unit of tickDuration
+     * @param wheelSize number of buckets, rounded up to a power of two; one revolution spans
+     *                  wheelSize ticks, and longer timeouts wait extra rounds in their bucket
+     */
+    public HashedTimerWheel(String name, long tickDuration, TimeUnit unit, int wheelSize) {
+        this.name = name;
+        this.tickNanos = Math.max(1, unit.toNanos(tickDuration));
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Schedule a task
+     * @param task runs once on the wheel thread when the delay has passed, unless cancelled first
+     * @param delay time until the task runs; zero or negative runs it on the next tick
+     * @param unit unit of delay
+     * @return handle for cancelling the timeout
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException(name + " is stopped");
+        }
+        Timeout timeout = new Timeout(this, task, System.nanoTime() - startTime + unit.toNanos(Math.max(0, delay)));
+        pendingCount.incrementAndGet();
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stop the wheel thread; timeouts that have not fired never will
+     */
+    public void stop() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    /**
+     * Get number of timeouts scheduled and neither fired nor cancelled
+     * @return pending timeout count
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            long tickDeadline = tickNanos * (tick + 1);
+            long sleepNanos = tickDeadline - (System.nanoTime() - startTime);
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                continue;
+            }
+            transferPending(tick);
+            wheel[(int) (tick & mask)].expire(tickDeadline);
+            tick++;
+        }
+    }
+
+    private void transferPending(long tick) {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = pendingTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state != Timeout.PENDING) {
+                continue;
+            }
+            long deadlineTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (deadlineTick - tick) / wheel.length;
+            // A deadline that has already passed goes into the current bucket and fires this tick
+            wheel[(int) (Math.max(deadlineTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * Handle for a scheduled task
+     */
+    public static final class Timeout {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final HashedTimerWheel wheel;
+        private final Runnable task;
+        private final long deadline;
+        private volatile int state = PENDING;
+
+        // Owned by the wheel thread
+        private long remainingRounds;
+        private Timeout next;
+
+        private Timeout(HashedTimerWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel the timeout; the wheel drops it when it next visits its bucket
+         * @return true if the task had not run and now never will
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            wheel.pendingCount.decrementAndGet();
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        private void expire() {
+            if (!STATE.compareAndSet(this, PENDING, EXPIRED)) {
+                return;
+            }
+            wheel.pendingCount.decrementAndGet();
+            try {
+                task.run();
+            } catch (Throwable t) {
+                System.err.println("Timer task failed in " + wheel.name + ": " + t);
+                t.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Singly linked list of the timeouts hashed to one slot; only the wheel thread touches it
+     */
+    private static final class Bucket {
+        private Timeout head;
+
+        void add(Timeout timeout) {
+            timeout.next = head;
+            head = timeout;
+        }
+
+        void expire(long tickDeadline) {
+            Timeout previous = null;
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                boolean remove;
+                if (timeout.state != Timeout.PENDING) {
+                    remove = true;
+                } else if (timeout.remainingRounds <= 0 && timeout.deadline <= tickDeadline) {
+                    remove = true;
+                    timeout.expire();
+                } else {
+                    remove = false;
+                    timeout.remainingRounds--;
+                }
+                if (remove) {
+                    if (previous == null) {
+                        head = next;
+                    } else {
+                        previous.next = next;
+                    }
+                    timeout.next = null;
+                } else {
+                    previous = timeout;
+                }
+                timeout = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,614 @@
+package com.studentregistration.util;
+
+import java.util.Arrays;
+
+/**
+ * Immutable compressed bitmap of non-negative ints, in the style of Roaring bitmaps
+ * Values are split by their high 16 bits into chunks of up to 65536 values. A chunk with at most
+ * 4096 values is stored as a sorted char array (2 bytes per value); a denser one as a 65536-bit
+ * bitmap (8 KB), so the size stays near the smaller of a sorted array and a plain bitset.
+ * Set operations work chunk by chunk on matching high bits, with word-wise logic on bitmaps
+ * and merges on arrays.
+ *
+ * Every modification returns a new bitmap that shares all chunks except the one that changed,
+ * so a bitmap can be published to readers without locking and updated for the cost of copying
+ * one chunk
+ */
+public final class RoaringBitmap {
+
+    public static final RoaringBitmap EMPTY = new RoaringBitmap(new char[0], new Container[0], 0);
+
+    // Largest chunk kept as an array; beyond it a bitmap is smaller
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    private final char[] keys;
+    private final Container[] containers;
+    private final int cardinality;
+
+    private RoaringBitmap(char[] keys, Container[] containers, int cardinality) {
+        this.keys = keys;
+        this.containers = containers;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * Create a bitmap of the given values
+     * @param values non-negative values, in any order, duplicates allowed
+     */
+    public static RoaringBitmap of(int... values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        Builder builder = new Builder();
+        for (int value : sorted) {
+            builder.add(value);
+        }
+        return builder.build();
+    }
+
+    public int getCardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public boolean contains(int value) {
+        int i = Arrays.binarySearch(keys, high(value));
+        return i >= 0 && containers[i].contains(low(value));
+    }
+
+    /**
+     * Get this bitmap with a value added
+     * @return new bitmap, or this one if the value was already present
+     */
+    public RoaringBitmap add(int value) {
+        char high = high(value);
+        int i = Arrays.binarySearch(keys, high);
+        if (i >= 0) {
+            Container changed = containers[i].add(low(value));
+            if (changed == containers[i]) {
+                return this;
+            }
+            Container[] newContainers = containers.clone();
+            newContainers[i] = changed;
+            return new RoaringBitmap(keys, newContainers, cardinality + 1);
+        }
+
+        int at = -i - 1;
+        char[] newKeys = new char[keys.length + 1];
+        Container[] newContainers = new Container[containers.length + 1];
+        System.arraycopy(keys, 0, newKeys, 0, at);
+        System.arraycopy(containers, 0, newContainers, 0, at);
+        newKeys[at] = high;
+        newContainers[at] = new ArrayContainer(new char[] {low(value)});
+        System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+        System.arraycopy(containers, at, newContainers, at + 1, containers.length - at);
+        return new RoaringBitmap(newKeys, newContainers, cardinality + 1);
+    }
+
+    /**
+     * Get this bitmap with a value removed
+     * @return new bitmap, or this one if the value was not present
+     */
+    public RoaringBitmap remove(int value) {
+        int i = Arrays.binarySearch(keys, high(value));
+        if (i < 0 || !containers[i].contains(low(value))) {
+            return this;
+        }
+        Container changed = containers[i].remove(low(value));
+        if (changed != null) {
+            Container[] newContainers = containers.clone();
+            newContainers[i] = changed;
+            return new RoaringBitmap(keys, newContainers, cardinality - 1);
+        }
+
+        char[] newKeys = new char[keys.length - 1];
+        Container[] newContainers = new Container[containers.length - 1];
+        System.arraycopy(keys, 0, newKeys, 0, i);
+        System.arraycopy(containers, 0, newContainers, 0, i);
+        System.arraycopy(keys, i + 1, newKeys, i, keys.length - i - 1);
+        System.arraycopy(containers, i + 1, newContainers, i, containers.length - i - 1);
+        return new RoaringBitmap(newKeys, newContainers, cardinality - 1);
+    }
+
+    /**
+     * Values in both bitmaps
+     */
+    public RoaringBitmap and(RoaringBitmap other) {
+        Builder builder = new Builder();
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                builder.append(keys[i], containers[i].and(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Values in either bitmap
+     */
+    public RoaringBitmap or(RoaringBitmap other) {
+        Builder builder = new Builder();
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+                builder.append(keys[i], containers[i]);
+                i++;
+            } else if (i == keys.length || keys[i] > other.keys[j]) {
+                builder.append(other.keys[j], other.containers[j]);
+                j++;
+            } else {
+                builder.append(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Values in this bitmap but not in the other
+     */
+    public RoaringBitmap andNot(RoaringBitmap other) {
+        Builder builder = new Builder();
+        int j = 0;
+        for (int i = 0; i < keys.length; i++) {
+            while (j < other.keys.length && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.keys.length && other.keys[j] == keys[i]) {
+                builder.append(keys[i], containers[i].andNot(other.containers[j]));
+            } else {
+                builder.append(keys[i], containers[i]);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Count the values in both bitmaps without building the intersection
+     */
+    public int andCardinality(RoaringBitmap other) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                count += containers[i].andCardinality(other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the values in ascending order
+     */
+    public int[] toArray() {
+        int[] values = new int[cardinality];
+        int offset = 0;
+        for (int i = 0; i < keys.length; i++) {
+            offset = containers[i].fill(values, offset, keys[i] << 16);
+        }
+        return values;
+    }
+
+    /**
+     * Get approximate memory used by the values, in bytes
+     */
+    public long getSizeInBytes() {
+        long bytes = keys.length * 2L;
+        for (Container container : containers) {
+            bytes += container.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    private static char high(int value) {
+        return (char) (value >>> 16);
+    }
+
+    private static char low(int value) {
+        return (char) value;
+    }
+
+    /**
+     * Container for a chunk from a 1024-word bitmap, or null if it is empty
+     * Takes ownership of the words
+     */
+    private static Container fromWords(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        if (count == 0) {
+            return null;
+        }
+        if (count > ARRAY_MAX) {
+            return new BitmapContainer(words, count);
+        }
+        char[] values = new char[count];
+        int n = 0;
+        for (int w = 0; w < WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+                values[n++] = (char) (w * 64 + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return new ArrayContainer(values);
+    }
+
+    /**
+     * Builds a bitmap from ascending values or ascending chunks
+     */
+    public static final class Builder {
+        private char[] keys = new char[4];
+        private Container[] containers = new Container[4];
+        private int size;
+        private int cardinality;
+
+        // Chunk being filled by add()
+        private int pendingHigh = -1;
+        private char[] pending = new char[16];
+        private int pendingCount;
+
+        /**
+         * Add a value; values must be added in ascending order (duplicates are ignored)
+         */
+        public Builder add(int value) {
+            char high = high(value);
+            if (high != pendingHigh) {
+                flush();
+                pendingHigh = high;
+            }
+            char low = low(value);
+            if (pendingCount > 0 && pending[pendingCount - 1] >= low) {
+                return this;
+            }
+            if (pendingCount == pending.length) {
+                pending = Arrays.copyOf(pending, pendingCount * 2);
+            }
+            pending[pendingCount++] = low;
+            return this;
+        }
+
+        public RoaringBitmap build() {
+            flush();
+            return size == 0 ? EMPTY
+                : new RoaringBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(containers, size), cardinality);
+        }
+
+        private void flush() {
+            if (pendingCount == 0) {
+                return;
+            }
+            if (pendingCount > ARRAY_MAX) {
+                long[] words = new long[WORDS];
+                for (int i = 0; i < pendingCount; i++) {
+                    words[pending[i] >>> 6] |= 1L << pending[i];
+                }
+                append((char) pendingHigh, new BitmapContainer(words, pendingCount));
+            } else {
+                append((char) pendingHigh, new ArrayContainer(Arrays.copyOf(pending, pendingCount)));
+            }
+            pendingCount = 0;
+        }
+
+        void append(char key, Container container) {
+            if (container == null) {
+                return;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                containers = Arrays.copyOf(containers, size * 2);
+            }
+            keys[size] = key;
+            containers[size] = container;
+            size++;
+            cardinality += container.cardinality();
+        }
+    }
+
+    /**
+     * One chunk of up to 65536 values sharing their high 16 bits; immutable
+     */
+    private abstract static class Container {
+        abstract int cardinality();
+
+        abstract boolean contains(char low);
+
+        // this if already present
+        abstract Container add(char low);
+
+        // null if the result is empty; only called for present values
+        abstract Container remove(char low);
+
+        // The results below are null when empty
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container andNot(Container other);
+
+        abstract int andCardinality(Container other);
+
+        abstract int fill(int[] into, int offset, int high);
+
+        abstract long[] toWords();
+
+        abstract long sizeInBytes();
+    }
+
+    private static final class ArrayContainer extends Container {
+        private final char[] values;
+
+        ArrayContainer(char[] values) {
+            this.values = values;
+        }
+
+        @Override
+        int cardinality() {
+            return values.length;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(values, low) >= 0;
+        }
+
+        @Override
+        Container add(char low) {
+            int i = Arrays.binarySearch(values, low);
+            if (i >= 0) {
+                return this;
+            }
+            if (values.length == ARRAY_MAX) {
+                long[] words = toWords();
+                words[low >>> 6] |= 1L << low;
+                return new BitmapContainer(words, ARRAY_MAX + 1);
+            }
+            int at = -i - 1;
+            char[] added = new char[values.length + 1];
+            System.arraycopy(values, 0, added, 0, at);
+            added[at] = low;
+            System.arraycopy(values, at, added, at + 1, values.length - at);
+            return new ArrayContainer(added);
+        }
+
+        @Override
+        Container remove(char low) {
+            if (values.length == 1) {
+                return null;
+            }
+            int at = Arrays.binarySearch(values, low);
+            char[] removed = new char[values.length - 1];
+            System.arraycopy(values, 0, removed, 0, at);
+            System.arraycopy(values, at + 1, removed, at, values.length - at - 1);
+            return new ArrayContainer(removed);
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] kept = new char[values.length];
+            int n = 0;
+            for (char value : values) {
+                if (other.contains(value)) {
+                    kept[n++] = value;
+                }
+            }
+            return n == 0 ? null : new ArrayContainer(n == kept.length ? kept : Arrays.copyOf(kept, n));
+        }
+
+        @Override
+        Container or(Container other) {
+            if (!(other instanceof ArrayContainer)) {
+                return other.or(this);
+            }
+            char[] a = values;
+            char[] b = ((ArrayContainer) other).values;
+            char[] merged = new char[a.length + b.length];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) {
+                    merged[n++] = a[i++];
+                } else if (a[i] > b[j]) {
+                    merged[n++] = b[j++];
+                } else {
+                    merged[n++] = a[i++];
+                    j++;
+                }
+            }
+            while (i < a.length) {
+                merged[n++] = a[i++];
+            }
+            while (j < b.length) {
+                merged[n++] = b[j++];
+            }
+            if (n > ARRAY_MAX) {
+                long[] words = new long[WORDS];
+                for (int k = 0; k < n; k++) {
+                    words[merged[k] >>> 6] |= 1L << merged[k];
+                }
+                return new BitmapContainer(words, n);
+            }
+            return new ArrayContainer(n == merged.length ? merged : Arrays.copyOf(merged, n));
+        }
+
+        @Override
+        Container andNot(Container other) {
+            char[] kept = new char[values.length];
+            int n = 0;
+            for (char value : values) {
+                if (!other.contains(value)) {
+                    kept[n++] = value;
+                }
+            }
+            if (n == values.length) {
+                return this;
+            }
+            return n == 0 ? null : new ArrayContainer(Arrays.copyOf(kept, n));
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            int count = 0;
+            for (char value : values) {
+                if (other.contains(value)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        int fill(int[] into, int offset, int high) {
+            for (char value : values) {
+                into[offset++] = high | value;
+            }
+            return offset;
+        }
+
+        @Override
+        long[] toWords() {
+            long[] words = new long[WORDS];
+            for (char value : values) {
+                words[value >>> 6] |= 1L << value;
+            }
+            return words;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return values.length * 2L;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private final int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        Container add(char low) {
+            if (contains(low)) {
+                return this;
+            }
+            long[] added = words.clone();
+            added[low >>> 6] |= 1L << low;
+            return new BitmapContainer(added, cardinality + 1);
+        }
+
+        @Override
+        Container remove(char low) {
+            long[] removed = words.clone();
+            removed[low >>> 6] &= ~(1L << low);
+            return cardinality - 1 > ARRAY_MAX ? new BitmapContainer(removed, cardinality - 1) : fromWords(removed);
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            long[] result = new long[WORDS];
+            for (int w = 0; w < WORDS; w++) {
+                result[w] = words[w] & otherWords[w];
+            }
+            return fromWords(result);
+        }
+
+        @Override
+        Container or(Container other) {
+            long[] result = other.toWords();
+            for (int w = 0; w < WORDS; w++) {
+                result[w] |= words[w];
+            }
+            return fromWords(result);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            long[] result = words.clone();
+            if (other instanceof ArrayContainer) {
+                for (char value : ((ArrayContainer) other).values) {
+                    result[value >>> 6] &= ~(1L << value);
+                }
+            } else {
+                long[] otherWords = ((BitmapContainer) other).words;
+                for (int w = 0; w < WORDS; w++) {
+                    result[w] &= ~otherWords[w];
+                }
+            }
+            return fromWords(result);
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.andCardinality(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int w = 0; w < WORDS; w++) {
+                count += Long.bitCount(words[w] & otherWords[w]);
+            }
+            return count;
+        }
+
+        @Override
+        int fill(int[] into, int offset, int high) {
+            for (int w = 0; w < WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    into[offset++] = high | (w * 64 + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return offset;
+        }
+
+        @Override
+        long[] toWords() {
+            return words.clone();
+        }
+
+        @Override
+        long sizeInBytes() {
+            return WORDS * 8L;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.studentregistration.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory for thread-per-task executors
+ * Uses virtual threads when the running JDK provides them (Java 21+) and falls back to
+ * a cached pool of daemon platform threads otherwise; the factory is looked up reflectively, so
+ * the code compiles and runs on Java 11 through 20 as well
+ */
+public final class VirtualThreads {
+
+    private static final Method NEW_VIRTUAL_EXECUTOR = findVirtualExecutorFactory();
+
+    private VirtualThreads() {}
+
+    /**
+     * Check whether virtual threads are available in this JVM
+     * @return true if executors created here run tasks on virtual threads
+     */
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * Create an executor that starts a new thread for every submitted task
+     * @param namePrefix thread name prefix used for the platform-thread fallback
+     * @return new executor; callers are responsible for shutting it down
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        if (NEW_VIRTUAL_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.err.println("Virtual thread executor unavailable, using platform threads: " + e.getMessage());
+            }
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static Method findVirtualExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.testing.TestSupport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.studentregistration.testing.TestSupport.assertEquals;
+import static com.studentregistration.testing.TestSupport.assertFalse;
+import static com.studentregistration.testing.TestSupport.assertTrue;
+
+/**
+ * Tests for PrerequisiteGraph: transitive closure, waivers, completion changes and cycles
+ * Graphs are installed directly, so no database is needed
+ */
+public class PrerequisiteGraphTest {
+
+    private static final int STUDENT = 1;
+
+    public static void main(String[] args) {
+        TestSupport.run(PrerequisiteGraphTest.class);
+    }
+
+    static void testCourseWithoutPrerequisitesIsOpenToEveryone() {
+        PrerequisiteGraph graph = install(edges(2, 1), completions());
+        assertTrue(graph.isEligible(STUDENT, 1), "course with no prerequisites");
+        assertTrue(graph.isEligible(STUDENT, 99), "course outside the graph");
+        assertEquals(Collections.emptyList(), graph.getMissingPrerequisites(STUDENT, 99), "missing outside the graph");
+    }
+
+    static void testMissingPrerequisitesAreTransitive() {
+        // 3 requires 2, which requires 1
+        PrerequisiteGraph graph = install(edges(2, 1, 3, 2), completions());
+        assertFalse(graph.isEligible(STUDENT, 3), "eligible with nothing completed");
+        assertEquals(List.of(1, 2), sorted(graph.getMissingPrerequisites(STUDENT, 3)), "missing for 3");
+
+        graph.completionChanged(STUDENT, 1, true);
+        assertTrue(graph.isEligible(STUDENT, 2), "eligible for 2 after completing 1");
+        assertFalse(graph.isEligible(STUDENT, 3), "eligible for 3 after completing only 1");
+        assertEquals(List.of(2), graph.getMissingPrerequisites(STUDENT, 3), "missing for 3 after completing 1");
+
+        graph.completionChanged(STUDENT, 2, true);
+        assertTrue(graph.isEligible(STUDENT, 3), "eligible for 3 after completing 1 and 2");
+        assertTrue(graph.getMissingPrerequisites(STUDENT, 3).isEmpty(), "missing after completing both");
+    }
+
+    static void testCompletedCourseSatisfiesItsOwnPrerequisites() {
+        // A waiver: 2 was completed without 1, so 1 is not asked for again
+        PrerequisiteGraph graph = install(edges(2, 1, 3, 2), completions(STUDENT, 2));
+        assertTrue(graph.isEligible(STUDENT, 3), "eligible for 3 with 2 waived in");
+        assertTrue(graph.isEligible(STUDENT + 1, 1), "another student is unaffected");
+        assertFalse(graph.isEligible(STUDENT + 1, 3), "another student's eligibility for 3");
+    }
+
+    static void testUncompletingRecomputesWhatIsSatisfied() {
+        PrerequisiteGraph graph = install(edges(2, 1, 3, 2), completions(STUDENT, 1, STUDENT, 2));
+        // 2 still covers 1
+        graph.completionChanged(STUDENT, 1, false);
+        assertTrue(graph.isEligible(STUDENT, 3), "eligible for 3 with 2 still completed");
+
+        graph.completionChanged(STUDENT, 2, false);
+        assertFalse(graph.isEligible(STUDENT, 2), "eligible for 2 with nothing completed");
+        assertEquals(List.of(1, 2), sorted(graph.getMissingPrerequisites(STUDENT, 3)), "missing for 3");
+    }
+
+    static void testDiamondClosureCountsSharedPrerequisiteOnce() {
+        // 5 requires 3 and 4; 3 requires 2; 2 and 4 both require 1
+        PrerequisiteGraph graph = install(edges(5, 3, 5, 4, 3, 2, 2, 1, 4, 1), completions());
+        assertEquals(List.of(1, 2, 3, 4), sorted(graph.getMissingPrerequisites(STUDENT, 5)), "missing for 5");
+
+        graph.completionChanged(STUDENT, 3, true);
+        assertEquals(List.of(4), graph.getMissingPrerequisites(STUDENT, 5), "missing for 5 after 3");
+        graph.completionChanged(STUDENT, 4, true);
+        assertTrue(graph.isEligible(STUDENT, 5), "eligible for 5 after 3 and 4");
+    }
+
+    static void testClosureSpansSeveralWords() {
+        // A chain of 100 courses: 1001 requires 1000, 1002 requires 1001, ...
+        List<int[]> chain = new ArrayList<>();
+        for (int course = 1001; course < 1100; course++) {
+            chain.add(new int[] {course, course - 1});
+        }
+        PrerequisiteGraph graph = install(chain, completions());
+        assertEquals(99, graph.getMissingPrerequisites(STUDENT, 1099).size(), "missing for the end of the chain");
+
+        graph.completionChanged(STUDENT, 1070, true);
+        assertTrue(graph.isEligible(STUDENT, 1071), "eligible right after the completed course");
+        assertFalse(graph.isEligible(STUDENT, 1072), "eligible two steps after the completed course");
+        assertEquals(List.of(1071), graph.getMissingPrerequisites(STUDENT, 1072), "missing two steps after");
+
+        graph.completionChanged(STUDENT, 1098, true);
+        assertTrue(graph.isEligible(STUDENT, 1099), "eligible for the end of the chain");
+    }
+
+    static void testWouldCreateCycle() {
+        PrerequisiteGraph graph = install(edges(2, 1, 3, 2), completions());
+        assertTrue(graph.wouldCreateCycle(1, 3), "1 requiring 3, which already requires 1");
+        assertTrue(graph.wouldCreateCycle(1, 2), "1 requiring 2, which already requires 1");
+        assertTrue(graph.wouldCreateCycle(4, 4), "a course requiring itself");
+        assertFalse(graph.wouldCreateCycle(3, 1), "a redundant but acyclic edge");
+        assertFalse(graph.wouldCreateCycle(4, 3), "a new course requiring 3");
+        assertFalse(graph.wouldCreateCycle(1, 4), "1 requiring a new course");
+    }
+
+    static void testCycleInTheTableBlocksOnlyTheCoursesOnOrBehindIt() {
+        // 10 -> 11 -> 12 -> 10 is a cycle, 13 requires 12, and 20 requiring 21 is unrelated
+        PrerequisiteGraph graph = install(edges(10, 11, 11, 12, 12, 10, 13, 12, 20, 21),
+                                          completions(STUDENT, 11, STUDENT, 21));
+        assertFalse(graph.isEligible(STUDENT, 10), "course on the cycle");
+        assertFalse(graph.isEligible(STUDENT, 13), "course behind the cycle");
+        assertTrue(graph.getMissingPrerequisites(STUDENT, 13).containsAll(List.of(10, 12)), "missing for 13");
+        assertTrue(graph.isEligible(STUDENT, 20), "course unrelated to the cycle");
+        assertTrue(graph.wouldCreateCycle(21, 20), "edge reversing an existing one");
+    }
+
+    private static PrerequisiteGraph install(List<int[]> edges, List<int[]> completions) {
+        PrerequisiteGraph graph = PrerequisiteGraph.getInstance();
+        graph.install(edges, completions);
+        return graph;
+    }
+
+    // Pairs of {course, prerequisite}
+    private static List<int[]> edges(int... pairs) {
+        return pairs(pairs);
+    }
+
+    // Pairs of {student, completed course}
+    private static List<int[]> completions(int... pairs) {
+        return pairs(pairs);
+    }
+
+    private static List<int[]> pairs(int... values) {
+        List<int[]> pairs = new ArrayList<>();
+        for (int i = 0; i < values.length; i += 2) {
+            pairs.add(new int[] {values[i], values[i + 1]});
+        }
+        return pairs;
+    }
+
+    private static List<Integer> sorted(List<Integer> ids) {
+        Integer[] copy = ids.toArray(new Integer[0]);
+        Arrays.sort(copy);
+        return Arrays.asList(copy);
+    }
+}
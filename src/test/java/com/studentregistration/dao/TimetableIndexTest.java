@@ -0,0 +1,110 @@
+package com.studentregistration.dao;
+
+import com.studentregistration.model.CourseMeeting;
+import com.studentregistration.testing.TestSupport;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.studentregistration.testing.TestSupport.assertEquals;
+import static com.studentregistration.testing.TestSupport.assertTrue;
+
+/**
+ * Tests for TimetableIndex: slot rounding, exact boundaries, clashing courses and removal
+ * Timetables are installed directly, so no database is needed
+ */
+public class TimetableIndexTest {
+
+    private static final int STUDENT = 1;
+
+    public static void main(String[] args) {
+        TestSupport.run(TimetableIndexTest.class);
+    }
+
+    static void testMeetingsSharingABoundarySlotDoNotClash() {
+        // 9:52 and 9:53 fall in the same 5-minute slot
+        TimetableIndex index = install(meeting(1, DayOfWeek.MONDAY, "09:00", "09:52"),
+                                       meeting(2, DayOfWeek.MONDAY, "09:53", "10:30"));
+        assertEquals(Collections.emptyList(), index.add(STUDENT, 1), "first course");
+        assertEquals(Collections.emptyList(), index.add(STUDENT, 2), "back-to-back course");
+    }
+
+    static void testEndTimeIsExclusive() {
+        TimetableIndex index = install(meeting(1, DayOfWeek.MONDAY, "09:00", "10:00"),
+                                       meeting(2, DayOfWeek.MONDAY, "10:00", "11:00"));
+        index.add(STUDENT, 1);
+        assertEquals(Collections.emptyList(), index.add(STUDENT, 2), "course starting as the other ends");
+    }
+
+    static void testOverlapInsideASlotClashes() {
+        TimetableIndex index = install(meeting(1, DayOfWeek.MONDAY, "09:00", "09:52"),
+                                       meeting(2, DayOfWeek.MONDAY, "09:51", "10:30"));
+        index.add(STUDENT, 1);
+        long before = index.getConflictCount();
+        assertEquals(List.of(1), index.add(STUDENT, 2), "course overlapping by one minute");
+        assertEquals(before + 1, index.getConflictCount(), "conflicts counted");
+        // Refused by default, so it did not join the timetable
+        assertEquals(Collections.emptyList(), index.findConflicts(STUDENT + 1, 2), "another student");
+        assertEquals(List.of(1), index.findConflicts(STUDENT, 2), "still clashing");
+    }
+
+    static void testSameTimesOnDifferentDaysDoNotClash() {
+        TimetableIndex index = install(meeting(1, DayOfWeek.MONDAY, "09:00", "10:00"),
+                                       meeting(2, DayOfWeek.TUESDAY, "09:00", "10:00"));
+        index.add(STUDENT, 1);
+        assertEquals(Collections.emptyList(), index.add(STUDENT, 2), "same hour on another day");
+    }
+
+    static void testOnlyTheClashingCoursesAreReported() {
+        TimetableIndex index = install(meeting(1, DayOfWeek.WEDNESDAY, "08:00", "09:02"),
+                                       meeting(2, DayOfWeek.WEDNESDAY, "10:00", "11:00"),
+                                       meeting(3, DayOfWeek.FRIDAY, "13:00", "14:00"),
+                                       meeting(4, DayOfWeek.WEDNESDAY, "09:03", "10:30"),
+                                       meeting(4, DayOfWeek.FRIDAY, "13:30", "14:30"));
+        index.add(STUDENT, 1);
+        index.add(STUDENT, 2);
+        index.add(STUDENT, 3);
+        List<Integer> clashes = new ArrayList<>(index.findConflicts(STUDENT, 4));
+        Collections.sort(clashes);
+        assertEquals(List.of(2, 3), clashes, "courses clashing with 4");
+    }
+
+    static void testRemovedCourseNoLongerClashes() {
+        TimetableIndex index = install(meeting(1, DayOfWeek.THURSDAY, "15:00", "16:00"),
+                                       meeting(2, DayOfWeek.THURSDAY, "15:30", "16:30"));
+        index.add(STUDENT, 1);
+        assertEquals(List.of(1), index.findConflicts(STUDENT, 2), "before removal");
+        index.remove(STUDENT, 1);
+        assertEquals(Collections.emptyList(), index.add(STUDENT, 2), "after removal");
+    }
+
+    static void testCourseWithoutMeetingsNeverClashes() {
+        TimetableIndex index = install(meeting(1, DayOfWeek.MONDAY, "00:00", "23:59"));
+        index.add(STUDENT, 1);
+        assertTrue(index.add(STUDENT, 99).isEmpty(), "course with no meetings");
+    }
+
+    static void testInstalledTimetablesAreChecked() {
+        Map<Integer, List<Integer>> scheduled = new HashMap<>();
+        scheduled.put(STUDENT, List.of(1));
+        TimetableIndex index = TimetableIndex.getInstance();
+        index.install(List.of(meeting(1, DayOfWeek.SUNDAY, "18:00", "19:00"),
+                              meeting(2, DayOfWeek.SUNDAY, "18:59", "20:00")), scheduled);
+        assertEquals(List.of(1), index.findConflicts(STUDENT, 2), "clash with an installed registration");
+    }
+
+    private static TimetableIndex install(CourseMeeting... meetings) {
+        TimetableIndex index = TimetableIndex.getInstance();
+        index.install(List.of(meetings), Collections.emptyMap());
+        return index;
+    }
+
+    private static CourseMeeting meeting(int courseId, DayOfWeek day, String start, String end) {
+        return new CourseMeeting(courseId, day, LocalTime.parse(start), LocalTime.parse(end));
+    }
+}
@@ -0,0 +1,166 @@
+package com.studentregistration.hold;
+
+import com.studentregistration.model.SeatHold;
+import com.studentregistration.testing.TestSupport;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static com.studentregistration.testing.TestSupport.assertEquals;
+import static com.studentregistration.testing.TestSupport.assertTrue;
+
+/**
+ * Tests for SeatHoldJournal: replay, expiry on replay, torn and corrupt records, compaction
+ */
+public class SeatHoldJournalTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long LATER = NOW + 60_000;
+    private static final int PLACE_BYTES = 25;
+
+    public static void main(String[] args) {
+        TestSupport.run(SeatHoldJournalTest.class);
+    }
+
+    static void testMissingJournalReplaysNothing() throws IOException {
+        Path journalFile = tempJournal();
+        SeatHoldJournal journal = new SeatHoldJournal(journalFile, Collections::emptyList);
+        assertTrue(journal.replay(NOW).isEmpty(), "holds replayed from a missing journal");
+        journal.close();
+    }
+
+    static void testReplayKeepsPlacedHoldsThatWereNotEnded() throws IOException {
+        Path journalFile = tempJournal();
+        SeatHoldJournal journal = new SeatHoldJournal(journalFile, Collections::emptyList);
+        journal.replay(NOW);
+        journal.placed(new SeatHold(1, 10, 100, LATER));
+        journal.placed(new SeatHold(2, 11, 100, LATER));
+        journal.placed(new SeatHold(3, 12, 101, LATER));
+        journal.ended(2);
+        journal.close();
+
+        Map<Long, SeatHold> replayed = new SeatHoldJournal(journalFile, Collections::emptyList).replay(NOW);
+        assertEquals(List.of(1L, 3L), new ArrayList<>(replayed.keySet()), "surviving hold IDs in placement order");
+        SeatHold hold = replayed.get(3L);
+        assertEquals(12, hold.getStudentId(), "student");
+        assertEquals(101, hold.getCourseId(), "course");
+        assertEquals(LATER, hold.getExpiresAtMillis(), "expiry");
+    }
+
+    static void testReplayDropsExpiredHoldsAndRewritesTheJournal() throws IOException {
+        Path journalFile = tempJournal();
+        SeatHoldJournal journal = new SeatHoldJournal(journalFile, Collections::emptyList);
+        journal.replay(NOW);
+        journal.placed(new SeatHold(1, 10, 100, NOW - 1));
+        journal.placed(new SeatHold(2, 11, 100, NOW));
+        journal.placed(new SeatHold(3, 12, 100, LATER));
+        journal.close();
+
+        SeatHoldJournal reopened = new SeatHoldJournal(journalFile, Collections::emptyList);
+        Map<Long, SeatHold> replayed = reopened.replay(NOW);
+        reopened.close();
+        assertEquals(List.of(3L), new ArrayList<>(replayed.keySet()), "holds expiring at or before now are dropped");
+        assertEquals(PLACE_BYTES, Files.size(journalFile), "journal rewritten with the survivor only");
+    }
+
+    static void testTornRecordAtTheEndIsIgnored() throws IOException {
+        Path journalFile = tempJournal();
+        SeatHoldJournal journal = new SeatHoldJournal(journalFile, Collections::emptyList);
+        journal.replay(NOW);
+        journal.placed(new SeatHold(1, 10, 100, LATER));
+        journal.placed(new SeatHold(2, 11, 100, LATER));
+        journal.close();
+
+        // A crash in the middle of writing a third PLACE leaves its first bytes behind
+        byte[] whole = Files.readAllBytes(journalFile);
+        try (OutputStream out = Files.newOutputStream(journalFile, StandardOpenOption.APPEND)) {
+            out.write(whole, 0, 11);
+        }
+
+        SeatHoldJournal reopened = new SeatHoldJournal(journalFile, Collections::emptyList);
+        Map<Long, SeatHold> replayed = reopened.replay(NOW);
+        assertEquals(List.of(1L, 2L), new ArrayList<>(replayed.keySet()), "holds before the torn record");
+        assertEquals(2L * PLACE_BYTES, Files.size(journalFile), "torn tail removed by the rewrite");
+
+        // Appends after the replay start on a record boundary again
+        reopened.placed(new SeatHold(4, 13, 100, LATER));
+        reopened.close();
+        Map<Long, SeatHold> again = new SeatHoldJournal(journalFile, Collections::emptyList).replay(NOW);
+        assertEquals(List.of(1L, 2L, 4L), new ArrayList<>(again.keySet()), "holds after appending past a torn record");
+    }
+
+    static void testTornEndRecordLeavesItsHoldOutstanding() throws IOException {
+        Path journalFile = tempJournal();
+        SeatHoldJournal journal = new SeatHoldJournal(journalFile, Collections::emptyList);
+        journal.replay(NOW);
+        journal.placed(new SeatHold(1, 10, 100, LATER));
+        journal.close();
+        try (OutputStream out = Files.newOutputStream(journalFile, StandardOpenOption.APPEND)) {
+            // END type byte and half of its hold ID
+            out.write(new byte[] {'E', 0, 0, 0, 0});
+        }
+
+        Map<Long, SeatHold> replayed = new SeatHoldJournal(journalFile, Collections::emptyList).replay(NOW);
+        assertEquals(List.of(1L), new ArrayList<>(replayed.keySet()), "hold whose END was torn");
+    }
+
+    static void testCorruptRecordStopsReplayButKeepsEarlierHolds() throws IOException {
+        Path journalFile = tempJournal();
+        SeatHoldJournal journal = new SeatHoldJournal(journalFile, Collections::emptyList);
+        journal.replay(NOW);
+        journal.placed(new SeatHold(1, 10, 100, LATER));
+        journal.close();
+        try (OutputStream out = Files.newOutputStream(journalFile, StandardOpenOption.APPEND)) {
+            out.write(new byte[] {'X', 0, 0, 0, 0, 0, 0, 0, 7});
+        }
+        SeatHoldJournal after = new SeatHoldJournal(journalFile, Collections::emptyList);
+        after.replay(NOW);
+        after.placed(new SeatHold(2, 11, 100, LATER));
+        after.close();
+
+        Map<Long, SeatHold> replayed = new SeatHoldJournal(journalFile, Collections::emptyList).replay(NOW);
+        assertEquals(List.of(1L, 2L), new ArrayList<>(replayed.keySet()), "holds around the corrupt record");
+    }
+
+    static void testEndingMostHoldsCompactsTheJournal() throws IOException {
+        Path journalFile = tempJournal();
+        List<SeatHold> live = new ArrayList<>();
+        SeatHoldJournal journal = new SeatHoldJournal(journalFile, () -> (Collection<SeatHold>) live);
+        journal.replay(NOW);
+
+        // Callers remove a hold from the live set before journaling its END
+        int placed = 6_000;
+        for (int i = 0; i < placed; i++) {
+            SeatHold hold = new SeatHold(i, 10 + i, 100, LATER);
+            live.add(hold);
+            journal.placed(hold);
+        }
+        SeatHold kept = live.get(0);
+        for (int i = placed - 1; i >= 1; i--) {
+            live.remove(i);
+            journal.ended(i);
+        }
+        journal.close();
+
+        assertTrue(Files.size(journalFile) < (long) placed * PLACE_BYTES,
+                   "journal of " + Files.size(journalFile) + " bytes was compacted");
+        Map<Long, SeatHold> replayed = new SeatHoldJournal(journalFile, Collections::emptyList).replay(NOW);
+        assertEquals(List.of(kept.getHoldId()), new ArrayList<>(replayed.keySet()), "holds after compaction");
+    }
+
+    private static Path tempJournal() throws IOException {
+        Path dir = Files.createTempDirectory("seat-hold-journal-test");
+        dir.toFile().deleteOnExit();
+        Path journalFile = dir.resolve("holds.journal");
+        journalFile.toFile().deleteOnExit();
+        return journalFile;
+    }
+}
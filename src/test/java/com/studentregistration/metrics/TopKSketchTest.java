@@ -0,0 +1,180 @@
+package com.studentregistration.metrics;
+
+import com.studentregistration.testing.TestSupport;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.studentregistration.testing.TestSupport.assertEquals;
+import static com.studentregistration.testing.TestSupport.assertTrue;
+
+/**
+ * Tests for TopKSketch: exact counts under capacity, the Space-Saving error bounds, and decay
+ * Timestamps are passed explicitly, so decay is checked without sleeping
+ */
+public class TopKSketchTest {
+
+    private static final long HALF_LIFE = TimeUnit.SECONDS.toNanos(1);
+    private static final double EPSILON = 1e-9;
+
+    public static void main(String[] args) {
+        TestSupport.run(TopKSketchTest.class);
+    }
+
+    static void testCountsAreExactWhileKeysFit() {
+        TopKSketch<String> sketch = new TopKSketch<>(4, 0);
+        add(sketch, "a", 5);
+        add(sketch, "b", 9);
+        add(sketch, "c", 2);
+
+        List<TopKSketch.Entry<String>> top = sketch.top(10);
+        assertEquals(3, top.size(), "entries");
+        assertEquals("b", top.get(0).getKey(), "first");
+        assertEquals("a", top.get(1).getKey(), "second");
+        assertEquals("c", top.get(2).getKey(), "third");
+        assertEquals(9L, Math.round(top.get(0).getCount()), "count of b");
+        assertEquals(0L, Math.round(top.get(0).getError()), "error of b");
+        assertEquals(16, sketch.getEventCount(), "events");
+        assertEquals(2, sketch.top(2).size(), "entries when asking for two");
+    }
+
+    static void testNewcomerInheritsTheLowestCountAsItsError() {
+        TopKSketch<String> sketch = new TopKSketch<>(2, 0);
+        add(sketch, "a", 5);
+        add(sketch, "b", 3);
+        add(sketch, "c", 1);
+
+        List<TopKSketch.Entry<String>> top = sketch.top(2);
+        assertEquals("a", top.get(0).getKey(), "heaviest key kept");
+        assertEquals("c", top.get(1).getKey(), "newcomer replaced the lowest");
+        assertEquals(4L, Math.round(top.get(1).getCount()), "newcomer count");
+        assertEquals(3L, Math.round(top.get(1).getError()), "newcomer error");
+        assertEquals(1L, Math.round(top.get(1).getGuaranteedCount()), "newcomer guaranteed count");
+    }
+
+    static void testSpaceSavingBoundsHoldOnASkewedStream() {
+        int capacity = 20;
+        int events = 50_000;
+        TopKSketch<Integer> sketch = new TopKSketch<>(capacity, 0);
+        Map<Integer, Integer> actual = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < events; i++) {
+            int key = skewedKey(random);
+            actual.merge(key, 1, Integer::sum);
+            sketch.add(key);
+        }
+
+        double maxError = (double) events / capacity;
+        Set<Integer> reported = new HashSet<>();
+        for (TopKSketch.Entry<Integer> entry : sketch.top(capacity)) {
+            int count = actual.getOrDefault(entry.getKey(), 0);
+            reported.add(entry.getKey());
+            assertTrue(entry.getCount() >= count - EPSILON, "count of " + entry.getKey() + " underestimated");
+            assertTrue(entry.getGuaranteedCount() <= count + EPSILON, "guaranteed count of " + entry.getKey());
+            assertTrue(entry.getError() <= maxError, "error of " + entry.getKey() + " above N / capacity");
+        }
+        actual.forEach((key, count) -> {
+            if (count > maxError) {
+                assertTrue(reported.contains(key), "key " + key + " with " + count + " events reported");
+            }
+        });
+    }
+
+    static void testCountHalvesEveryHalfLife() {
+        TopKSketch<String> sketch = new TopKSketch<>(4, HALF_LIFE);
+        long now = System.nanoTime();
+        add(sketch, "a", 8, now);
+
+        assertClose(8, sketch.top(1, now).get(0).getCount(), "count when added");
+        assertClose(4, sketch.top(1, now + HALF_LIFE).get(0).getCount(), "count after one half-life");
+        assertClose(1, sketch.top(1, now + 3 * HALF_LIFE).get(0).getCount(), "count after three half-lives");
+    }
+
+    static void testRecentDemandOutranksOldDemand() {
+        TopKSketch<String> sketch = new TopKSketch<>(4, HALF_LIFE);
+        long now = System.nanoTime();
+        add(sketch, "old", 10, now);
+        add(sketch, "recent", 3, now + 3 * HALF_LIFE);
+
+        List<TopKSketch.Entry<String>> top = sketch.top(2, now + 3 * HALF_LIFE);
+        assertEquals("recent", top.get(0).getKey(), "first");
+        assertClose(3, top.get(0).getCount(), "recent count");
+        assertClose(1.25, top.get(1).getCount(), "old count");
+    }
+
+    static void testRescaleKeepsDecayedCounts() {
+        // 60 half-lives is past the rescale weight of 2^40
+        TopKSketch<String> sketch = new TopKSketch<>(4, HALF_LIFE);
+        long now = System.nanoTime();
+        add(sketch, "early", 4, now);
+        long later = now + 60 * HALF_LIFE;
+        add(sketch, "late", 2, later);
+        add(sketch, "late", 1, later + HALF_LIFE);
+
+        List<TopKSketch.Entry<String>> top = sketch.top(2, later + HALF_LIFE);
+        assertEquals("late", top.get(0).getKey(), "first");
+        assertClose(2, top.get(0).getCount(), "late count");
+        assertClose(4 * Math.pow(2, -61), top.get(1).getCount(), "early count");
+    }
+
+    static void testSpaceSavingBoundsHoldWithDecay() {
+        int capacity = 10;
+        TopKSketch<Integer> sketch = new TopKSketch<>(capacity, HALF_LIFE);
+        Map<Integer, Double> actual = new HashMap<>();
+        Random random = new Random(7);
+        long start = System.nanoTime();
+        long end = start + 20 * HALF_LIFE;
+        int events = 20_000;
+        double total = 0;
+        for (int i = 0; i < events; i++) {
+            long at = start + (end - start) * i / events;
+            int key = skewedKey(random);
+            // The weight this event still carries at the end
+            double weight = Math.pow(2, (double) (at - end) / HALF_LIFE);
+            actual.merge(key, weight, Double::sum);
+            total += weight;
+            sketch.add(key, at);
+        }
+
+        double maxError = total / capacity;
+        for (TopKSketch.Entry<Integer> entry : sketch.top(capacity, end)) {
+            double count = actual.getOrDefault(entry.getKey(), 0.0);
+            double tolerance = 1e-6 * total;
+            assertTrue(entry.getCount() >= count - tolerance, "decayed count of " + entry.getKey() + " underestimated");
+            assertTrue(entry.getGuaranteedCount() <= count + tolerance, "decayed guaranteed count of " + entry.getKey());
+            assertTrue(entry.getError() <= maxError + tolerance, "decayed error of " + entry.getKey());
+        }
+        assertEquals(events, sketch.getEventCount(), "events are counted without decay");
+    }
+
+    // Key 0 takes about half the stream, key 1 a quarter, and so on, with a long tail
+    private static int skewedKey(Random random) {
+        int key = 0;
+        while (key < 200 && random.nextBoolean()) {
+            key++;
+        }
+        return key < 5 ? key : 5 + random.nextInt(500);
+    }
+
+    private static <K> void add(TopKSketch<K> sketch, K key, int times) {
+        for (int i = 0; i < times; i++) {
+            sketch.add(key);
+        }
+    }
+
+    private static <K> void add(TopKSketch<K> sketch, K key, int times, long atNanos) {
+        for (int i = 0; i < times; i++) {
+            sketch.add(key, atNanos);
+        }
+    }
+
+    private static void assertClose(double expected, double actual, String what) {
+        assertTrue(Math.abs(expected - actual) <= EPSILON * Math.max(1, Math.abs(expected)),
+                   what + ": expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,36 @@
+package com.studentregistration.model;
+
+import com.studentregistration.testing.TestSupport;
+
+import static com.studentregistration.testing.TestSupport.assertEquals;
+
+/**
+ * Tests for Grade: encoding of the stored free-form grade text
+ */
+public class GradeTest {
+
+    public static void main(String[] args) {
+        TestSupport.run(GradeTest.class);
+    }
+
+    static void testEveryLabelEncodesToItsGrade() {
+        for (Grade grade : Grade.values()) {
+            assertEquals(grade.getCode(), Grade.encode(grade.getLabel()), "code of " + grade.getLabel());
+            assertEquals(grade, Grade.parse(grade.getLabel()), "grade of " + grade.getLabel());
+        }
+    }
+
+    static void testCaseAndSurroundingBlanksAreIgnored() {
+        assertEquals(Grade.B_PLUS.getCode(), Grade.encode("b+"), "lower case");
+        assertEquals(Grade.A_MINUS.getCode(), Grade.encode("  a-\t"), "surrounding blanks");
+        assertEquals(Grade.PASS.getCode(), Grade.encode("\np "), "pass with blanks");
+    }
+
+    static void testUnrecognisedTextEncodesToNone() {
+        String[] unrecognised = {null, "", "   ", "E", "F+", "P-", "A+-", "AB", "+", "B +", "4.0", "ä"};
+        for (String label : unrecognised) {
+            assertEquals(Grade.NONE, Grade.encode(label), "code of " + label);
+            assertEquals(null, Grade.parse(label), "grade of " + label);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.studentregistration.testing;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * Minimal unit test support, so the tests need nothing beyond the JDK
+ * A test class has a main method calling {@link #run(Class)}, which runs every static no-argument
+ * method whose name starts with "test", in name order, and exits with status 1 if any failed.
+ * None of the tests touch the database; run-tests.sh runs them all
+ */
+public final class TestSupport {
+
+    private TestSupport() {}
+
+    /**
+     * Run the tests of a class and report the results
+     * @param testClass class declaring static test methods
+     */
+    public static void run(Class<?> testClass) {
+        Method[] methods = testClass.getDeclaredMethods();
+        Arrays.sort(methods, Comparator.comparing(Method::getName));
+        int passed = 0;
+        int failed = 0;
+        for (Method method : methods) {
+            if (!method.getName().startsWith("test") || !Modifier.isStatic(method.getModifiers())
+                || method.getParameterCount() != 0) {
+                continue;
+            }
+            try {
+                method.setAccessible(true);
+                method.invoke(null);
+                passed++;
+            } catch (InvocationTargetException e) {
+                failed++;
+                System.out.println("FAIL " + testClass.getSimpleName() + "." + method.getName() + ": " + e.getCause());
+                e.getCause().printStackTrace(System.out);
+            } catch (IllegalAccessException e) {
+                failed++;
+                System.out.println("FAIL " + testClass.getSimpleName() + "." + method.getName() + ": " + e);
+            }
+        }
+        System.out.println(testClass.getSimpleName() + ": " + passed + " passed, " + failed + " failed");
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    public static void assertTrue(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    public static void assertFalse(boolean condition, String message) {
+        assertTrue(!condition, message);
+    }
+
+    public static void assertEquals(long expected, long actual, String message) {
+        if (expected != actual) {
+            throw new AssertionError(message + ": expected " + expected + " but was " + actual);
+        }
+    }
+
+    public static void assertEquals(Object expected, Object actual, String message) {
+        if (!Objects.equals(expected, actual)) {
+            throw new AssertionError(message + ": expected " + expected + " but was " + actual);
+        }
+    }
+
+    public static void assertArrayEquals(int[] expected, int[] actual, String message) {
+        if (!Arrays.equals(expected, actual)) {
+            throw new AssertionError(message + ": expected " + Arrays.toString(expected)
+                                     + " but was " + Arrays.toString(actual));
+        }
+    }
+
+    /**
+     * Fail unless the action throws an exception of the given type
+     */
+    public static void assertThrows(Class<? extends Throwable> type, Runnable action, String message) {
+        try {
+            action.run();
+        } catch (Throwable t) {
+            if (type.isInstance(t)) {
+                return;
+            }
+            throw new AssertionError(message + ": expected " + type.getSimpleName() + " but got " + t, t);
+        }
+        throw new AssertionError(message + ": expected " + type.getSimpleName() + " but nothing was thrown");
+    }
+}
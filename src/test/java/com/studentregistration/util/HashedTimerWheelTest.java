@@ -0,0 +1,173 @@
+package com.studentregistration.util;
+
+import com.studentregistration.testing.TestSupport;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.studentregistration.testing.TestSupport.assertEquals;
+import static com.studentregistration.testing.TestSupport.assertFalse;
+import static com.studentregistration.testing.TestSupport.assertThrows;
+import static com.studentregistration.testing.TestSupport.assertTrue;
+
+/**
+ * Tests for HashedTimerWheel: firing time, rounds, cancellation and shutdown
+ * Timing checks only assert that nothing fires early; upper bounds are generous
+ */
+public class HashedTimerWheelTest {
+
+    private static final long TICK_MS = 10;
+
+    public static void main(String[] args) {
+        TestSupport.run(HashedTimerWheelTest.class);
+    }
+
+    static void testFiresNoEarlierThanItsDelay() throws InterruptedException {
+        HashedTimerWheel wheel = new HashedTimerWheel("test-wheel", TICK_MS, TimeUnit.MILLISECONDS, 8);
+        try {
+            CountDownLatch fired = new CountDownLatch(1);
+            long start = System.nanoTime();
+            long[] firedAfter = new long[1];
+            HashedTimerWheel.Timeout timeout = wheel.schedule(() -> {
+                firedAfter[0] = System.nanoTime() - start;
+                fired.countDown();
+            }, 50, TimeUnit.MILLISECONDS);
+
+            assertEquals(1, wheel.getPendingCount(), "pending before firing");
+            assertTrue(fired.await(2, TimeUnit.SECONDS), "timeout fired");
+            assertTrue(firedAfter[0] >= TimeUnit.MILLISECONDS.toNanos(50), "fired after " + firedAfter[0] + "ns");
+            assertTrue(timeout.isExpired(), "expired after firing");
+            assertEquals(0, wheel.getPendingCount(), "pending after firing");
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    static void testDelayLongerThanOneRevolutionWaitsItsRounds() throws InterruptedException {
+        // 4 buckets of 10ms: a 150ms delay lands in a bucket the wheel passes three times first
+        HashedTimerWheel wheel = new HashedTimerWheel("test-wheel", TICK_MS, TimeUnit.MILLISECONDS, 4);
+        try {
+            CountDownLatch fired = new CountDownLatch(1);
+            long start = System.nanoTime();
+            long[] firedAfter = new long[1];
+            wheel.schedule(() -> {
+                firedAfter[0] = System.nanoTime() - start;
+                fired.countDown();
+            }, 150, TimeUnit.MILLISECONDS);
+
+            assertTrue(fired.await(2, TimeUnit.SECONDS), "timeout fired");
+            assertTrue(firedAfter[0] >= TimeUnit.MILLISECONDS.toNanos(150), "fired after " + firedAfter[0] + "ns");
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    static void testTimeoutsSharingABucketFireInDeadlineOrder() throws InterruptedException {
+        // 40ms apart on a 4 x 10ms wheel: same bucket, one round apart
+        HashedTimerWheel wheel = new HashedTimerWheel("test-wheel", TICK_MS, TimeUnit.MILLISECONDS, 4);
+        try {
+            List<String> order = new CopyOnWriteArrayList<>();
+            CountDownLatch fired = new CountDownLatch(3);
+            wheel.schedule(() -> { order.add("late"); fired.countDown(); }, 100, TimeUnit.MILLISECONDS);
+            wheel.schedule(() -> { order.add("early"); fired.countDown(); }, 20, TimeUnit.MILLISECONDS);
+            wheel.schedule(() -> { order.add("middle"); fired.countDown(); }, 60, TimeUnit.MILLISECONDS);
+
+            assertTrue(fired.await(2, TimeUnit.SECONDS), "all timeouts fired");
+            assertEquals(List.of("early", "middle", "late"), order, "firing order");
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    static void testCancelledTimeoutNeverFires() throws InterruptedException {
+        HashedTimerWheel wheel = new HashedTimerWheel("test-wheel", TICK_MS, TimeUnit.MILLISECONDS, 8);
+        try {
+            AtomicInteger runs = new AtomicInteger();
+            HashedTimerWheel.Timeout timeout = wheel.schedule(runs::incrementAndGet, 30, TimeUnit.MILLISECONDS);
+
+            assertTrue(timeout.cancel(), "first cancel succeeds");
+            assertFalse(timeout.cancel(), "second cancel reports nothing to cancel");
+            assertTrue(timeout.isCancelled(), "cancelled");
+            assertEquals(0, wheel.getPendingCount(), "pending after cancel");
+
+            // A later timeout in the same wheel proves the wheel has passed the cancelled one
+            CountDownLatch later = new CountDownLatch(1);
+            wheel.schedule(later::countDown, 100, TimeUnit.MILLISECONDS);
+            assertTrue(later.await(2, TimeUnit.SECONDS), "later timeout fired");
+            assertEquals(0, runs.get(), "cancelled task runs");
+            assertFalse(timeout.isExpired(), "cancelled timeout expired");
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    static void testCancelAfterFiringFails() throws InterruptedException {
+        HashedTimerWheel wheel = new HashedTimerWheel("test-wheel", TICK_MS, TimeUnit.MILLISECONDS, 8);
+        try {
+            CountDownLatch fired = new CountDownLatch(1);
+            HashedTimerWheel.Timeout timeout = wheel.schedule(fired::countDown, 0, TimeUnit.MILLISECONDS);
+            assertTrue(fired.await(2, TimeUnit.SECONDS), "zero delay fired");
+            assertFalse(timeout.cancel(), "cancel after firing");
+            assertFalse(timeout.isCancelled(), "fired timeout reported cancelled");
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    static void testNegativeDelayRunsOnNextTick() throws InterruptedException {
+        HashedTimerWheel wheel = new HashedTimerWheel("test-wheel", TICK_MS, TimeUnit.MILLISECONDS, 8);
+        try {
+            CountDownLatch fired = new CountDownLatch(1);
+            wheel.schedule(fired::countDown, -5, TimeUnit.SECONDS);
+            assertTrue(fired.await(1, TimeUnit.SECONDS), "negative delay fired");
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    static void testFailingTaskDoesNotStopTheWheel() throws InterruptedException {
+        HashedTimerWheel wheel = new HashedTimerWheel("test-wheel", TICK_MS, TimeUnit.MILLISECONDS, 8);
+        try {
+            wheel.schedule(() -> { throw new IllegalStateException("expected by the test"); }, 0, TimeUnit.MILLISECONDS);
+            CountDownLatch fired = new CountDownLatch(1);
+            wheel.schedule(fired::countDown, 30, TimeUnit.MILLISECONDS);
+            assertTrue(fired.await(2, TimeUnit.SECONDS), "task after the failing one fired");
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    static void testManyTimeoutsAllFireOnce() throws InterruptedException {
+        HashedTimerWheel wheel = new HashedTimerWheel("test-wheel", TICK_MS, TimeUnit.MILLISECONDS, 16);
+        try {
+            int count = 10_000;
+            AtomicInteger runs = new AtomicInteger();
+            CountDownLatch fired = new CountDownLatch(count / 2);
+            for (int i = 0; i < count; i++) {
+                HashedTimerWheel.Timeout timeout = wheel.schedule(() -> {
+                    runs.incrementAndGet();
+                    fired.countDown();
+                }, i % 200, TimeUnit.MILLISECONDS);
+                if (i % 2 == 1) {
+                    timeout.cancel();
+                }
+            }
+            assertTrue(fired.await(5, TimeUnit.SECONDS), "uncancelled timeouts fired");
+            Thread.sleep(3 * TICK_MS);
+            assertEquals(count / 2, runs.get(), "runs");
+            assertEquals(0, wheel.getPendingCount(), "pending");
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    static void testScheduleAfterStopIsRefused() {
+        HashedTimerWheel wheel = new HashedTimerWheel("test-wheel", TICK_MS, TimeUnit.MILLISECONDS, 8);
+        wheel.stop();
+        assertThrows(IllegalStateException.class,
+                     () -> wheel.schedule(() -> { }, 10, TimeUnit.MILLISECONDS), "schedule after stop");
+    }
+}
@@ -0,0 +1,192 @@
+package com.studentregistration.util;
+
+import com.studentregistration.testing.TestSupport;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static com.studentregistration.testing.TestSupport.assertArrayEquals;
+import static com.studentregistration.testing.TestSupport.assertEquals;
+import static com.studentregistration.testing.TestSupport.assertFalse;
+import static com.studentregistration.testing.TestSupport.assertTrue;
+
+/**
+ * Tests for RoaringBitmap: array/bitmap container switching and set operations against BitSet
+ * The container kind of each chunk is read off getSizeInBytes(): 2 bytes per value for an
+ * array, 8 KB for a bitmap, plus 2 bytes per chunk key
+ */
+public class RoaringBitmapTest {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int CHUNKS = 4;
+
+    public static void main(String[] args) {
+        TestSupport.run(RoaringBitmapTest.class);
+    }
+
+    static void testValuesAcrossChunksComeBackSorted() {
+        RoaringBitmap bitmap = RoaringBitmap.of(Integer.MAX_VALUE, 65536, 7, 0, 65535, 7, 1 << 20);
+        assertArrayEquals(new int[] {0, 7, 65535, 65536, 1 << 20, Integer.MAX_VALUE}, bitmap.toArray(), "values");
+        assertEquals(6, bitmap.getCardinality(), "cardinality");
+        assertTrue(bitmap.contains(65535), "last value of the first chunk");
+        assertFalse(bitmap.contains(65537), "value next to a present one");
+        assertTrue(RoaringBitmap.of().isEmpty(), "bitmap of nothing");
+        assertTrue(RoaringBitmap.of() == RoaringBitmap.EMPTY, "bitmap of nothing is EMPTY");
+    }
+
+    static void testAddingPastTheArrayLimitSwitchesToABitmap() {
+        RoaringBitmap bitmap = RoaringBitmap.EMPTY;
+        for (int i = 0; i < ARRAY_MAX; i++) {
+            bitmap = bitmap.add(i * 3);
+        }
+        assertEquals(arraySize(ARRAY_MAX), bitmap.getSizeInBytes(), "size at the array limit");
+
+        RoaringBitmap grown = bitmap.add(1);
+        assertEquals(bitmapSize(), grown.getSizeInBytes(), "size one past the limit");
+        assertEquals(ARRAY_MAX + 1, grown.getCardinality(), "cardinality one past the limit");
+        assertTrue(grown.contains(1) && grown.contains((ARRAY_MAX - 1) * 3), "values after switching");
+
+        RoaringBitmap shrunk = grown.remove(0);
+        assertEquals(arraySize(ARRAY_MAX), shrunk.getSizeInBytes(), "size back at the limit");
+        assertFalse(shrunk.contains(0), "removed value");
+        assertTrue(shrunk.contains(1), "value added while a bitmap");
+    }
+
+    static void testBuilderChoosesTheContainerPerChunk() {
+        RoaringBitmap.Builder builder = new RoaringBitmap.Builder();
+        for (int i = 0; i < 10; i++) {
+            builder.add(i);
+        }
+        for (int i = 0; i < ARRAY_MAX + 1; i++) {
+            builder.add(65536 + i);
+        }
+        builder.add(65536 + ARRAY_MAX);
+        RoaringBitmap bitmap = builder.build();
+        assertEquals(arraySize(10) + bitmapSize(), bitmap.getSizeInBytes(), "one array chunk and one bitmap chunk");
+        assertEquals(10 + ARRAY_MAX + 1, bitmap.getCardinality(), "duplicates ignored");
+    }
+
+    static void testModificationsLeaveTheOriginalUnchanged() {
+        RoaringBitmap original = RoaringBitmap.of(1, 2, 3);
+        RoaringBitmap added = original.add(70000);
+        RoaringBitmap removed = original.remove(2);
+
+        assertArrayEquals(new int[] {1, 2, 3}, original.toArray(), "original");
+        assertArrayEquals(new int[] {1, 2, 3, 70000}, added.toArray(), "added");
+        assertArrayEquals(new int[] {1, 3}, removed.toArray(), "removed");
+        assertTrue(original.add(2) == original, "adding a present value returns the same bitmap");
+        assertTrue(original.remove(9) == original, "removing a missing value returns the same bitmap");
+        assertEquals(arraySize(1), added.remove(1).remove(2).remove(3).getSizeInBytes(), "emptied chunk dropped");
+    }
+
+    static void testSetOperationsMatchBitSet() {
+        Random random = new Random(47);
+        for (int round = 0; round < 40; round++) {
+            BitSet a = randomSet(random);
+            BitSet b = randomSet(random);
+            RoaringBitmap left = toBitmap(a);
+            RoaringBitmap right = toBitmap(b);
+
+            BitSet and = (BitSet) a.clone();
+            and.and(b);
+            BitSet or = (BitSet) a.clone();
+            or.or(b);
+            BitSet andNot = (BitSet) a.clone();
+            andNot.andNot(b);
+
+            check(and, left.and(right), "AND in round " + round);
+            check(or, left.or(right), "OR in round " + round);
+            check(andNot, left.andNot(right), "ANDNOT in round " + round);
+            assertEquals(and.cardinality(), left.andCardinality(right), "AND cardinality in round " + round);
+            check(a, left, "left operand after round " + round);
+        }
+    }
+
+    static void testOperationsCrossingTheArrayLimit() {
+        // Two arrays of 3000 values whose union is over the limit, and whose bitmap union
+        // minus one of them drops back under it
+        BitSet a = new BitSet();
+        BitSet b = new BitSet();
+        for (int i = 0; i < 3000; i++) {
+            a.set(i * 2);
+            b.set(i * 2 + 1);
+        }
+        RoaringBitmap left = toBitmap(a);
+        RoaringBitmap right = toBitmap(b);
+        RoaringBitmap union = left.or(right);
+        assertEquals(bitmapSize(), union.getSizeInBytes(), "union of two arrays over the limit");
+        RoaringBitmap difference = union.andNot(right);
+        assertEquals(arraySize(3000), difference.getSizeInBytes(), "bitmap minus an array under the limit");
+        check(a, difference, "difference");
+
+        // Two dense bitmaps whose intersection is small
+        BitSet c = new BitSet();
+        BitSet d = new BitSet();
+        c.set(0, 30000);
+        d.set(29990, 60000);
+        RoaringBitmap intersection = toBitmap(c).and(toBitmap(d));
+        assertEquals(arraySize(10), intersection.getSizeInBytes(), "intersection of two bitmaps");
+        assertTrue(toBitmap(c).andNot(toBitmap(c)).isEmpty(), "bitmap minus itself");
+    }
+
+    // Each chunk is empty, sparse, just around the array limit, or dense
+    private static BitSet randomSet(Random random) {
+        BitSet set = new BitSet();
+        for (int chunk = 0; chunk < CHUNKS; chunk++) {
+            int base = chunk << 16;
+            switch (random.nextInt(4)) {
+                case 0:
+                    break;
+                case 1:
+                    fill(set, random, base, 1 + random.nextInt(2000));
+                    break;
+                case 2:
+                    fill(set, random, base, ARRAY_MAX - 50 + random.nextInt(100));
+                    break;
+                default:
+                    set.set(base + random.nextInt(1000), base + 20000 + random.nextInt(40000));
+                    break;
+            }
+        }
+        return set;
+    }
+
+    private static void fill(BitSet set, Random random, int base, int count) {
+        // Values from a narrow range, so two sets often overlap
+        while (set.get(base, base + 65536).cardinality() < count) {
+            set.set(base + random.nextInt(2 * count));
+        }
+    }
+
+    private static RoaringBitmap toBitmap(BitSet set) {
+        return RoaringBitmap.of(set.stream().toArray());
+    }
+
+    private static void check(BitSet expected, RoaringBitmap actual, String what) {
+        assertArrayEquals(expected.stream().toArray(), actual.toArray(), what + " values");
+        assertEquals(expected.cardinality(), actual.getCardinality(), what + " cardinality");
+        assertEquals(expectedSize(expected), actual.getSizeInBytes(), what + " containers");
+    }
+
+    // Size of the smallest container choice for every chunk
+    private static long expectedSize(BitSet set) {
+        long size = 0;
+        for (int chunk = 0; chunk < CHUNKS; chunk++) {
+            int count = set.get(chunk << 16, (chunk + 1) << 16).cardinality();
+            if (count > ARRAY_MAX) {
+                size += bitmapSize();
+            } else if (count > 0) {
+                size += arraySize(count);
+            }
+        }
+        return size;
+    }
+
+    private static long arraySize(int values) {
+        return 2 + values * 2L;
+    }
+
+    private static long bitmapSize() {
+        return 2 + 8192;
+    }
+}